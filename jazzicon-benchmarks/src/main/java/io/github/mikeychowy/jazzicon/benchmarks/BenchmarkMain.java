@@ -0,0 +1,34 @@
+package io.github.mikeychowy.jazzicon.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The entry point of the benchmarks jar, the same command line as the JMH one, always with the {@link GCProfiler} so
+ * every result comes with its allocation rate ({@code gc.alloc.rate.norm} is the bytes allocated per operation). To
+ * list the benchmarks, or for the help, use {@code org.openjdk.jmh.Main} of the same jar.
+ */
+public final class BenchmarkMain {
+    private BenchmarkMain() {
+        // entry point only
+    }
+
+    /**
+     * Run the benchmarks
+     *
+     * @param args the JMH command line, e.g. {@code GenerationBenchmark -p palette=TAILWIND}
+     * @throws CommandLineOptionException if the command line is invalid
+     * @throws RunnerException if a benchmark fails to run
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        new Runner(new OptionsBuilder()
+                        .parent(new CommandLineOptions(args))
+                        .addProfiler(GCProfiler.class)
+                        .build())
+                .run();
+    }
+}
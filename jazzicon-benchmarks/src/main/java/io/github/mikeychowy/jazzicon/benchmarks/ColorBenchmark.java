@@ -0,0 +1,102 @@
+package io.github.mikeychowy.jazzicon.benchmarks;
+
+import io.github.mikeychowy.jazzicon.ColorUtils;
+import io.github.mikeychowy.jazzicon.JazzIcon;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The cost of rotating one color of every built-in palette, by the same hue shifts a render draws:
+ * {@code 30 * position - wobble / 2} with the default wobble.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColorBenchmark {
+    private static final int SHIFTS = 1024;
+
+    @Param({
+        "JAZZ_ICON",
+        "CHART_COLORS",
+        "SECTION_1",
+        "SECTION_2",
+        "SECTION_3",
+        "SECTION_4",
+        "PANTONE_COLORS",
+        "MULBERRY_WHISPER",
+        "CORAL_DREAM",
+        "WHIMSICAL_BLOSSOM",
+        "CATPUCCIN_LATTE",
+        "CATPUCCIN_FRAPPE",
+        "CATPUCCIN_MACCHIATO",
+        "CATPUCCIN_MOCHA",
+        "TAILWIND"
+    })
+    public String palette;
+
+    private String[] colors;
+    private float[] hues;
+    private float[] saturations;
+    private float[] values;
+    private double[] shifts;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<String> paletteColors = new ArrayList<>(Palettes.byName(palette).getColors());
+        colors = paletteColors.toArray(String[]::new);
+        hues = new float[colors.length];
+        saturations = new float[colors.length];
+        values = new float[colors.length];
+        for (int i = 0; i < colors.length; i++) {
+            int argb = ColorUtils.parseHexColor(colors[i]);
+            hues[i] = ColorUtils.hue(argb);
+            saturations[i] = ColorUtils.saturation(argb);
+            values[i] = ColorUtils.value(argb);
+        }
+        SplittableRandom random = new SplittableRandom(0x5EED_0000L);
+        shifts = new double[SHIFTS];
+        for (int i = 0; i < SHIFTS; i++) {
+            shifts[i] = 30 * random.nextDouble() - JazzIcon.DEFAULT_WOBBLE / 2.0;
+        }
+    }
+
+    @Benchmark
+    public String rotateColor() {
+        int i = next++;
+        int color = (i & Integer.MAX_VALUE) % colors.length;
+        return RotateColorAccess.rotate(colors[color], shifts[i & (SHIFTS - 1)]);
+    }
+
+    /** the allocation free rotation the renders use, on the HSV components the palette precomputes */
+    @Benchmark
+    public int rotateHue() {
+        int i = next++;
+        int color = (i & Integer.MAX_VALUE) % colors.length;
+        return ColorUtils.rotateHue(hues[color], saturations[color], values[color], shifts[i & (SHIFTS - 1)]);
+    }
+
+    /** {@link JazzIcon#rotateColor} is protected, a subclass is the only way to call it from outside the package */
+    private static final class RotateColorAccess extends JazzIcon {
+        private static String rotate(String hexColor, double hueShift) {
+            return rotateColor(hexColor, hueShift);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.mikeychowy.jazzicon.benchmarks;
+
+import io.github.mikeychowy.jazzicon.JazzIcon;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The throughput of one generator shared by 1, 4, 16 and 64 threads, each thread cycling through its own copy of the
+ * inputs. The default palette and shape count, only the input kind varies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContendedBenchmark {
+    @Param({"ADDRESS", "EMAIL", "UUID", "SHORT_NAME"})
+    public InputKind input;
+
+    private JazzIcon generator;
+    private String[] texts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        generator = new JazzIcon();
+        texts = input.texts();
+    }
+
+    /** The position of one thread in the inputs, plus its reusable output */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private final ByteArrayOutputStream stream = new ByteArrayOutputStream(4096);
+        private int next;
+
+        private String nextText(ContendedBenchmark shared) {
+            return shared.texts[next++ & (InputKind.COUNT - 1)];
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String generateIcon_1(Cursor cursor) {
+        return generator.generateIcon(cursor.nextText(this));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String generateIcon_4(Cursor cursor) {
+        return generator.generateIcon(cursor.nextText(this));
+    }
+
+    @Benchmark
+    @Threads(16)
+    public String generateIcon_16(Cursor cursor) {
+        return generator.generateIcon(cursor.nextText(this));
+    }
+
+    @Benchmark
+    @Threads(64)
+    public String generateIcon_64(Cursor cursor) {
+        return generator.generateIcon(cursor.nextText(this));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int generateIconToStream_1(Cursor cursor) {
+        return toStream(cursor);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int generateIconToStream_4(Cursor cursor) {
+        return toStream(cursor);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public int generateIconToStream_16(Cursor cursor) {
+        return toStream(cursor);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public int generateIconToStream_64(Cursor cursor) {
+        return toStream(cursor);
+    }
+
+    private int toStream(Cursor cursor) {
+        cursor.stream.reset();
+        generator.generateIconToStream(cursor.nextText(this), cursor.stream);
+        return cursor.stream.size();
+    }
+}
@@ -0,0 +1,110 @@
+package io.github.mikeychowy.jazzicon.benchmarks;
+
+import io.github.mikeychowy.jazzicon.ColorPalettes;
+import io.github.mikeychowy.jazzicon.JazzIcon;
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The single threaded cost of every public generation path, across every built-in palette and every kind of input.
+ * The shape counts stop at 4, the most the 5 colors palettes allow, {@link ShapeCountBenchmark} covers the rest.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenerationBenchmark {
+    @Param({
+        "JAZZ_ICON",
+        "CHART_COLORS",
+        "SECTION_1",
+        "SECTION_2",
+        "SECTION_3",
+        "SECTION_4",
+        "PANTONE_COLORS",
+        "MULBERRY_WHISPER",
+        "CORAL_DREAM",
+        "WHIMSICAL_BLOSSOM",
+        "CATPUCCIN_LATTE",
+        "CATPUCCIN_FRAPPE",
+        "CATPUCCIN_MACCHIATO",
+        "CATPUCCIN_MOCHA",
+        "TAILWIND"
+    })
+    public String palette;
+
+    @Param({"1", "2", "3", "4"})
+    public int shapeCount;
+
+    @Param({"ADDRESS", "EMAIL", "UUID", "SHORT_NAME"})
+    public InputKind input;
+
+    private JazzIcon generator;
+    private String[] texts;
+    private int next;
+    private String icon;
+    private StringWriter writer;
+    private ByteArrayOutputStream stream;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ColorPalettes baseColors = Palettes.byName(palette);
+        generator = JazzIcon.builder()
+                .withBaseColors(baseColors)
+                .withShapeCount(shapeCount)
+                .build();
+        texts = input.texts();
+        icon = generator.generateIcon(texts[0]);
+        writer = new StringWriter(icon.length() * 2);
+        stream = new ByteArrayOutputStream(icon.length() * 2);
+    }
+
+    private String nextText() {
+        return texts[next++ & (InputKind.COUNT - 1)];
+    }
+
+    @Benchmark
+    public String generateIcon() {
+        return generator.generateIcon(nextText());
+    }
+
+    @Benchmark
+    public byte[] generateIconBytes() {
+        return generator.generateIconBytes(nextText());
+    }
+
+    @Benchmark
+    public int generateIconToWriter() {
+        writer.getBuffer().setLength(0);
+        generator.generateIconToWriter(nextText(), writer, null);
+        return writer.getBuffer().length();
+    }
+
+    @Benchmark
+    public int generateIconToStream() {
+        stream.reset();
+        generator.generateIconToStream(nextText(), stream);
+        return stream.size();
+    }
+
+    @Benchmark
+    public String generateDataUrl() {
+        // only the encoding, the icon is rendered once in the setup
+        return JazzIcon.generateDataUrl(icon);
+    }
+}
@@ -0,0 +1,79 @@
+package io.github.mikeychowy.jazzicon.benchmarks;
+
+import io.github.mikeychowy.jazzicon.InitialUtils;
+import io.github.mikeychowy.jazzicon.JazzIcon;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** The cost of the initials helpers, across every built-in palette and every kind of input */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InitialsBenchmark {
+    @Param({
+        "JAZZ_ICON",
+        "CHART_COLORS",
+        "SECTION_1",
+        "SECTION_2",
+        "SECTION_3",
+        "SECTION_4",
+        "PANTONE_COLORS",
+        "MULBERRY_WHISPER",
+        "CORAL_DREAM",
+        "WHIMSICAL_BLOSSOM",
+        "CATPUCCIN_LATTE",
+        "CATPUCCIN_FRAPPE",
+        "CATPUCCIN_MACCHIATO",
+        "CATPUCCIN_MOCHA",
+        "TAILWIND"
+    })
+    public String palette;
+
+    @Param({"1", "2", "3", "4"})
+    public int shapeCount;
+
+    @Param({"ADDRESS", "EMAIL", "UUID", "SHORT_NAME"})
+    public InputKind input;
+
+    private JazzIcon generator;
+    private String[] texts;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        generator = JazzIcon.builder()
+                .withBaseColors(Palettes.byName(palette))
+                .withShapeCount(shapeCount)
+                .build();
+        texts = input.texts();
+    }
+
+    private String nextText() {
+        return texts[next++ & (InputKind.COUNT - 1)];
+    }
+
+    @Benchmark
+    public String getInitials() {
+        // independent of the palette and the shape count
+        return InitialUtils.getInitials(nextText());
+    }
+
+    @Benchmark
+    public String generateIconWithInitials() {
+        return InitialUtils.generateIconWithInitials(generator, nextText());
+    }
+}
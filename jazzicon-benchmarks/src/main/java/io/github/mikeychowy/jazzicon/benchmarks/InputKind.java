@@ -0,0 +1,79 @@
+package io.github.mikeychowy.jazzicon.benchmarks;
+
+import java.util.SplittableRandom;
+
+/**
+ * The realistic kinds of seed texts, each benchmark cycles through {@link #COUNT} pregenerated texts of its kind so the
+ * generation of the inputs is not part of the measurement.
+ */
+public enum InputKind {
+    /** a 0x prefixed, 20 bytes hex address, e.g. a wallet address */
+    ADDRESS {
+        @Override
+        String next(SplittableRandom random) {
+            StringBuilder address = new StringBuilder("0x");
+            for (int i = 0; i < 40; i++) {
+                address.append(HEX_DIGITS.charAt(random.nextInt(HEX_DIGITS.length())));
+            }
+            return address.toString();
+        }
+    },
+    /** an email address */
+    EMAIL {
+        @Override
+        String next(SplittableRandom random) {
+            return pick(random, FIRST_NAMES).toLowerCase() + '.' + pick(random, LAST_NAMES).toLowerCase()
+                    + random.nextInt(100) + '@' + pick(random, DOMAINS);
+        }
+    },
+    /** a random UUID */
+    UUID {
+        @Override
+        String next(SplittableRandom random) {
+            return new java.util.UUID(random.nextLong(), random.nextLong()).toString();
+        }
+    },
+    /** a short display name, the ones of 3 characters or less get padded with random characters */
+    SHORT_NAME {
+        @Override
+        String next(SplittableRandom random) {
+            return pick(random, SHORT_NAMES);
+        }
+    };
+
+    /** the count of pregenerated texts per kind, a power of two to cycle with a mask */
+    public static final int COUNT = 1024;
+
+    private static final String HEX_DIGITS = "0123456789abcdef";
+    private static final String[] FIRST_NAMES = {
+        "Alice", "Bob", "Carol", "Dave", "Eve", "Frank", "Grace", "Heidi", "Ivan", "Judy", "Mallory", "Oscar"
+    };
+    private static final String[] LAST_NAMES = {
+        "Anderson", "Brown", "Chow", "Davis", "Evans", "Garcia", "Harris", "Ito", "Johnson", "Kim", "Lee", "Miller"
+    };
+    private static final String[] DOMAINS = {"example.com", "example.org", "mail.example.net", "corp.example.io"};
+    private static final String[] SHORT_NAMES = {
+        "Al", "Bo", "Cy", "Di", "Eve", "Kim", "Lee", "Max", "Ned", "Zoe", "Anna", "Ben C", "Chris", "Dana W", "Eli",
+        "Faye", "Gus", "Hal J", "Ida", "Jo"
+    };
+
+    /**
+     * Create the pregenerated texts of this kind, the same ones on every run
+     *
+     * @return {@link #COUNT} texts of this kind
+     */
+    public String[] texts() {
+        SplittableRandom random = new SplittableRandom(0x5EED_0000L + ordinal());
+        String[] texts = new String[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            texts[i] = next(random);
+        }
+        return texts;
+    }
+
+    abstract String next(SplittableRandom random);
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,50 @@
+package io.github.mikeychowy.jazzicon.benchmarks;
+
+import io.github.mikeychowy.jazzicon.HistogramJazzIconMetrics;
+import io.github.mikeychowy.jazzicon.JazzIcon;
+import io.github.mikeychowy.jazzicon.JazzIconMetrics;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** The overhead of the render metrics, the no-op default against the in-memory histograms */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+    @Param({"NOOP", "HISTOGRAM"})
+    public String metrics;
+
+    @Param({"ADDRESS", "SHORT_NAME"})
+    public InputKind input;
+
+    private JazzIcon generator;
+    private String[] texts;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        generator = JazzIcon.builder()
+                .withMetrics("HISTOGRAM".equals(metrics) ? new HistogramJazzIconMetrics() : JazzIconMetrics.noop())
+                .build();
+        texts = input.texts();
+    }
+
+    @Benchmark
+    public byte[] generateIconBytes() {
+        return generator.generateIconBytes(texts[next++ & (InputKind.COUNT - 1)]);
+    }
+}
@@ -0,0 +1,59 @@
+package io.github.mikeychowy.jazzicon.benchmarks;
+
+import io.github.mikeychowy.jazzicon.ColorPalettes;
+import io.github.mikeychowy.jazzicon.JazzIcon;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * How the render scales with the size of the palette, from 10 to 1000 generated colors at the default shape count. Only
+ * the picked colors are rotated, so the time per icon should stay flat.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaletteSizeBenchmark {
+    @Param({"10", "100", "300", "1000"})
+    public int paletteSize;
+
+    @Param({"ADDRESS", "EMAIL"})
+    public InputKind input;
+
+    private JazzIcon generator;
+    private String[] texts;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // spread over the whole RGB range, every color distinct
+        int step = 0xFFFFFF / paletteSize;
+        ColorPalettes palette = new ColorPalettes(IntStream.range(0, paletteSize)
+                .mapToObj(i -> String.format("#%06X", i * step))
+                .toList());
+        generator = JazzIcon.builder().withBaseColors(palette).build();
+        texts = input.texts();
+        // the rotation table is created on the first render, keep it out of the measurement, its buckets still fill
+        // up during the first iterations, as the texts pick their colors
+        generator.generateIcon(texts[0]);
+    }
+
+    @Benchmark
+    public String generateIcon() {
+        return generator.generateIcon(texts[next++ & (InputKind.COUNT - 1)]);
+    }
+}
@@ -0,0 +1,31 @@
+package io.github.mikeychowy.jazzicon.benchmarks;
+
+import io.github.mikeychowy.jazzicon.ColorPalettes;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/** Resolves the built-in {@link ColorPalettes} by the name of their constant, for the JMH parameters */
+final class Palettes {
+    private Palettes() {
+        // static helper
+    }
+
+    /**
+     * Get a built-in palette
+     *
+     * @param name the name of the constant in {@link ColorPalettes}, e.g. {@code "JAZZ_ICON"}
+     * @return the palette
+     * @throws IllegalArgumentException if there is no such built-in palette
+     */
+    static ColorPalettes byName(String name) {
+        try {
+            Field field = ColorPalettes.class.getField(name);
+            if (!Modifier.isStatic(field.getModifiers()) || field.getType() != ColorPalettes.class) {
+                throw new IllegalArgumentException("not a built-in palette: " + name);
+            }
+            return (ColorPalettes) field.get(null);
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new IllegalArgumentException("not a built-in palette: " + name, e);
+        }
+    }
+}
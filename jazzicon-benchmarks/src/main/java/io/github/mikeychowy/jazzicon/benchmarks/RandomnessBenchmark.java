@@ -0,0 +1,67 @@
+package io.github.mikeychowy.jazzicon.benchmarks;
+
+import io.github.mikeychowy.jazzicon.JazzIcon;
+import io.github.mikeychowy.jazzicon.SplitMix64Random;
+import java.util.concurrent.TimeUnit;
+import org.hipparchus.random.RandomGenerator;
+import org.hipparchus.random.Well512a;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The default {@link Well512a} against the counter-based {@link SplitMix64Random}: the seeding plus the draws of a
+ * render with the default shape count, and the whole render.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RandomnessBenchmark {
+    /** about the draws of a render of 4 shapes */
+    private static final int DRAWS = 25;
+
+    @Param({"WELL512A", "SPLITMIX64"})
+    public String generator;
+
+    @Param({"ADDRESS", "EMAIL"})
+    public InputKind input;
+
+    private RandomGenerator random;
+    private JazzIcon jazzIcon;
+    private String[] texts;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        random = "SPLITMIX64".equals(generator) ? new SplitMix64Random() : new Well512a();
+        jazzIcon = JazzIcon.builder().withRandomGenerator(random).build();
+        texts = input.texts();
+    }
+
+    @Benchmark
+    public double seedAndDraw() {
+        random.setSeed(next++);
+        double sum = 0;
+        for (int i = 0; i < DRAWS; i++) {
+            sum += random.nextDouble();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public byte[] generateIconBytes() {
+        return jazzIcon.generateIconBytes(texts[next++ & (InputKind.COUNT - 1)]);
+    }
+}
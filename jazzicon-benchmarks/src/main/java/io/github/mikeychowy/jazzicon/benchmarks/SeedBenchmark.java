@@ -0,0 +1,46 @@
+package io.github.mikeychowy.jazzicon.benchmarks;
+
+import io.github.mikeychowy.jazzicon.SeedStrategy;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** The cost of deriving the seed from each kind of input, with each built-in {@link SeedStrategy} */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SeedBenchmark {
+    @Param({"ADDRESS", "EMAIL", "UUID", "SHORT_NAME"})
+    public InputKind input;
+
+    private String[] texts;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        texts = input.texts();
+    }
+
+    @Benchmark
+    public long legacy() {
+        return SeedStrategy.legacy().seedOf(texts[next++ & (InputKind.COUNT - 1)]);
+    }
+
+    @Benchmark
+    public long hash64() {
+        return SeedStrategy.hash64().seedOf(texts[next++ & (InputKind.COUNT - 1)]);
+    }
+}
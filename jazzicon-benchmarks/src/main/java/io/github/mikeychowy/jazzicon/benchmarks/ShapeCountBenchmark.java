@@ -0,0 +1,63 @@
+package io.github.mikeychowy.jazzicon.benchmarks;
+
+import io.github.mikeychowy.jazzicon.JazzIcon;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * How the render scales with the shape count, from 1 to 10. A palette needs one more color than the shape count, so
+ * only the built-in palettes of more than 10 colors take part.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShapeCountBenchmark {
+    @Param({
+        "CHART_COLORS",
+        "PANTONE_COLORS",
+        "CATPUCCIN_LATTE",
+        "CATPUCCIN_FRAPPE",
+        "CATPUCCIN_MACCHIATO",
+        "CATPUCCIN_MOCHA",
+        "TAILWIND"
+    })
+    public String palette;
+
+    @Param({"1", "2", "3", "4", "5", "6", "7", "8", "9", "10"})
+    public int shapeCount;
+
+    @Param({"ADDRESS", "EMAIL", "UUID", "SHORT_NAME"})
+    public InputKind input;
+
+    private JazzIcon generator;
+    private String[] texts;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        generator = JazzIcon.builder()
+                .withBaseColors(Palettes.byName(palette))
+                .withShapeCount(shapeCount)
+                .build();
+        texts = input.texts();
+    }
+
+    @Benchmark
+    public String generateIcon() {
+        return generator.generateIcon(texts[next++ & (InputKind.COUNT - 1)]);
+    }
+}
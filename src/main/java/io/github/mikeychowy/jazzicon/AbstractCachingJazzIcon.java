@@ -0,0 +1,293 @@
+package io.github.mikeychowy.jazzicon;
+
+import com.machinezoo.noexception.Exceptions;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import org.apache.commons.lang3.StringUtils;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The outputs shared by the generator fronts keeping the rendered icons, {@link CachingJazzIcon},
+ * {@link PersistentJazzIcon} and {@link OffHeapCachingJazzIcon}. A front only looks up and keeps the icons, by their
+ * trimmed text plus the fingerprint of the configuration they were rendered with, see {@link IconKey}. The icons of
+ * the texts that aren't cacheable are rendered on every lookup.
+ */
+abstract class AbstractCachingJazzIcon {
+    /** the generator rendering the icons not kept yet */
+    final JazzIcon generator;
+    /** what the front keeps the icons in, for the error messages */
+    private final String description;
+
+    /**
+     * Create a new front
+     *
+     * @param generator the generator rendering the icons not kept yet
+     * @param description what the front keeps the icons in, for the error messages, e.g. "off-heap cache"
+     * @throws IllegalArgumentException if the generator is null
+     */
+    AbstractCachingJazzIcon(@NonNull JazzIcon generator, @NonNull String description) throws IllegalArgumentException {
+        if (Objects.isNull(generator)) {
+            throw new IllegalArgumentException("generator must not be null");
+        }
+        this.generator = generator;
+        this.description = description;
+    }
+
+    /**
+     * Get the icon as UTF-8 bytes, from the cache or freshly rendered
+     *
+     * @param text the text to be the seed of the icon
+     * @return the UTF-8 bytes of the SVG of the JazzIcon, a copy the caller owns
+     * @throws JazzIconGenerationException if anything goes wrong when generating the icon.
+     */
+    public byte[] generateIconBytes(@NonNull String text) throws JazzIconGenerationException {
+        RenderContext context = RenderContext.acquire();
+        try {
+            ByteBuffer icon = lookup(text, context.getSink());
+            byte[] bytes = new byte[icon.remaining()];
+            icon.get(bytes);
+            return bytes;
+        } finally {
+            RenderContext.release(context);
+        }
+    }
+
+    /**
+     * Get the icon as a String, from the cache or freshly rendered
+     *
+     * @param text the text to be the seed of the icon
+     * @return the SVG string of the JazzIcon
+     * @throws JazzIconGenerationException if anything goes wrong when generating the icon.
+     */
+    public String generateIcon(@NonNull String text) throws JazzIconGenerationException {
+        RenderContext context = RenderContext.acquire();
+        try {
+            ByteBuffer icon = lookup(text, context.getSink());
+            if (icon.hasArray()) {
+                return new String(
+                        icon.array(), icon.arrayOffset() + icon.position(), icon.remaining(), StandardCharsets.UTF_8);
+            }
+            return StandardCharsets.UTF_8.decode(icon).toString();
+        } finally {
+            RenderContext.release(context);
+        }
+    }
+
+    /**
+     * Write the icon to a {@link Writer}, from the cache or freshly rendered
+     *
+     * @param text the text to be the seed of the icon
+     * @param out a {@link Writer} to write the icon into
+     * @throws JazzIconGenerationException if anything goes wrong when generating or writing the icon.
+     */
+    public void generateIconToWriter(@NonNull String text, @NonNull Writer out) throws JazzIconGenerationException {
+        String icon = generateIcon(text);
+        Exceptions.wrap(e -> new JazzIconGenerationException(writeErrorMessage("writer"), e))
+                .run(() -> out.write(icon));
+    }
+
+    /**
+     * Write the icon to an {@link OutputStream}, from the cache or freshly rendered. The stream is closed afterwards,
+     * same as {@link JazzIcon#generateIconToStream(String, OutputStream)}.
+     *
+     * @param text the text to be the seed of the icon
+     * @param outputStream the {@link OutputStream} to write the icon into
+     * @throws JazzIconGenerationException if anything goes wrong when generating or writing the icon.
+     */
+    public void generateIconToStream(@NonNull String text, @NonNull OutputStream outputStream)
+            throws JazzIconGenerationException {
+        RenderContext context = RenderContext.acquire();
+        try {
+            ByteBuffer icon = lookup(text, context.getSink());
+            Exceptions.wrap(e -> new JazzIconGenerationException(writeErrorMessage("stream"), e))
+                    .run(() -> {
+                        try (OutputStream out = outputStream) {
+                            if (icon.hasArray()) {
+                                out.write(icon.array(), icon.arrayOffset() + icon.position(), icon.remaining());
+                            } else {
+                                WritableByteChannel channel = Channels.newChannel(out);
+                                while (icon.hasRemaining()) {
+                                    channel.write(icon);
+                                }
+                            }
+                            out.flush();
+                        }
+                    });
+        } finally {
+            RenderContext.release(context);
+        }
+    }
+
+    /**
+     * Put the icon into a {@link ByteBuffer}, from the cache or freshly rendered. Nothing is written if the icon doesn't
+     * fit.
+     *
+     * @param text the text to be the seed of the icon
+     * @param target the {@link ByteBuffer} to put the UTF-8 bytes of the icon into, from its position on
+     * @return the count of the bytes put into the buffer
+     * @throws JazzIconGenerationException if anything goes wrong when generating the icon, or the icon doesn't fit in
+     *     the remaining space of the buffer.
+     */
+    public int generateIconTo(@NonNull String text, @NonNull ByteBuffer target) throws JazzIconGenerationException {
+        RenderContext context = RenderContext.acquire();
+        try {
+            ByteBuffer icon = lookup(text, context.getSink());
+            int length = icon.remaining();
+            if (target.remaining() < length) {
+                throw new JazzIconGenerationException(
+                        "target must have at least " + length + " bytes remaining, has " + target.remaining(),
+                        new BufferOverflowException());
+            }
+            target.put(icon);
+            return length;
+        } finally {
+            RenderContext.release(context);
+        }
+    }
+
+    /**
+     * Write the icon to a {@link WritableByteChannel}, from the cache or freshly rendered. The channel is left open.
+     *
+     * @param text the text to be the seed of the icon
+     * @param channel the blocking {@link WritableByteChannel} to write the UTF-8 bytes of the icon into
+     * @return the count of the bytes written into the channel
+     * @throws IllegalArgumentException if the channel is a {@link SelectableChannel} in non-blocking mode
+     * @throws JazzIconGenerationException if anything goes wrong when generating or writing the icon.
+     */
+    public long generateIconTo(@NonNull String text, @NonNull WritableByteChannel channel)
+            throws IllegalArgumentException, JazzIconGenerationException {
+        if (channel instanceof SelectableChannel selectable && !selectable.isBlocking()) {
+            throw new IllegalArgumentException("channel must be in blocking mode");
+        }
+        RenderContext context = RenderContext.acquire();
+        try {
+            ByteBuffer icon = lookup(text, context.getSink());
+            return Exceptions.wrap(e -> new JazzIconGenerationException(writeErrorMessage("channel"), e))
+                    .getAsLong(() -> {
+                        long written = 0;
+                        while (icon.hasRemaining()) {
+                            written += channel.write(icon);
+                        }
+                        return written;
+                    });
+        } finally {
+            RenderContext.release(context);
+        }
+    }
+
+    /**
+     * Get the HTTP entity tag of the icon of a text without rendering it or looking it up, see
+     * {@link JazzIcon#etagFor(String)}. It matches whatever the cache returns for the text.
+     *
+     * @param text the text to be the seed of the icon
+     * @return the quoted entity tag, or null if the icon of the text is padded randomly
+     */
+    public @Nullable String etagFor(@Nullable String text) {
+        return generator.etagFor(text);
+    }
+
+    /**
+     * Get the generator rendering the icons not cached yet, configuration changes on it are picked up by the cache
+     *
+     * @return the generator
+     */
+    public JazzIcon getGenerator() {
+        return generator;
+    }
+
+    /**
+     * Called before every lookup, to refuse it once closed or catch up with the configuration changes. Does nothing by
+     * default.
+     *
+     * @throws JazzIconGenerationException if the front can't look up icons anymore
+     */
+    void beforeLookup() throws JazzIconGenerationException {}
+
+    /**
+     * Look up the icon of a cacheable text, rendering it with {@link #renderMiss(String, MissKeeper)} and keeping it
+     * if missing
+     *
+     * @param key the trimmed text and the fingerprint of the current configuration
+     * @param sink an empty scratch sink the icon can be copied into, valid until the icon has been written out
+     * @return the icon bytes from its position to its limit, its own position, its content not to be modified
+     */
+    abstract ByteBuffer lookup(@NonNull IconKey key, @NonNull AsciiByteSink sink);
+
+    /**
+     * Get the icon bytes of a text, rendered on every call if the text isn't cacheable with the current configuration
+     *
+     * @param text the text to be the seed of the icon
+     * @param sink an empty scratch sink, valid until the icon has been written out
+     * @return the icon bytes from its position to its limit, its own position, its content not to be modified
+     * @throws JazzIconGenerationException if anything goes wrong when generating the icon
+     */
+    final ByteBuffer lookup(@NonNull String text, @NonNull AsciiByteSink sink) throws JazzIconGenerationException {
+        beforeLookup();
+        String safeText = StringUtils.trimToEmpty(text);
+        JazzIconConfig config = generator.getConfig();
+        if (!IconKey.isCacheable(safeText, config)) {
+            // padded with random characters, a cached icon would freeze one of them
+            Exceptions.wrap(e -> new JazzIconGenerationException(renderErrorMessage(), e))
+                    .run(() -> generator.renderTo(text, sink));
+            return sink.asByteBuffer();
+        }
+        return lookup(new IconKey(safeText, config.getFingerprint()), sink);
+    }
+
+    /**
+     * Render a missed icon, and hand it to the keeper under the configuration actually rendered with, it may have
+     * changed since the lookup
+     *
+     * @param safeText the trimmed text to be the seed of the icon
+     * @param keeper keeps the icon, unless it isn't cacheable with the configuration it was rendered with
+     * @return the icon bytes, not to be modified
+     * @throws JazzIconGenerationException if anything goes wrong when generating or keeping the icon
+     */
+    final byte[] renderMiss(@NonNull String safeText, @NonNull MissKeeper keeper) throws JazzIconGenerationException {
+        return Exceptions.wrap(e -> new JazzIconGenerationException(renderErrorMessage(), e))
+                .get(() -> {
+                    long start = System.nanoTime();
+                    AsciiByteSink sink = new AsciiByteSink();
+                    JazzIconConfig rendered = generator.renderTo(safeText, sink);
+                    byte[] icon = sink.toByteArray();
+                    if (IconKey.isCacheable(safeText, rendered)) {
+                        keeper.keep(
+                                new IconKey(safeText, rendered.getFingerprint()),
+                                rendered,
+                                icon,
+                                System.nanoTime() - start);
+                    }
+                    return icon;
+                });
+    }
+
+    private String renderErrorMessage() {
+        return "error while generating icon for the " + description;
+    }
+
+    private String writeErrorMessage(String output) {
+        return "An error has been encountered while trying to write icon from the " + description + " to " + output;
+    }
+
+    /** Keeps a freshly rendered icon */
+    @FunctionalInterface
+    interface MissKeeper {
+        /**
+         * Keep a freshly rendered icon
+         *
+         * @param key the key of the icon, with the fingerprint of the configuration it was rendered with
+         * @param rendered the configuration it was rendered with
+         * @param icon the icon bytes, not to be modified
+         * @param renderNanos how long the render took
+         */
+        void keep(@NonNull IconKey key, @NonNull JazzIconConfig rendered, byte @NonNull [] icon, long renderNanos);
+    }
+}
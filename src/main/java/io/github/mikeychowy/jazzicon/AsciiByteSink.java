@@ -0,0 +1,247 @@
+package io.github.mikeychowy.jazzicon;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An unsynchronized {@link Writer} that writes straight into a growable byte array. <br>
+ * <br>
+ * The generated svg is ASCII, so every char is written as a single byte without going through a
+ * {@link java.nio.charset.CharsetEncoder}. Anything else, e.g. from user supplied classes, styles, or a body
+ * interceptor, is still encoded as UTF-8 so the bytes are always the same as an UTF-8 {@link java.io.OutputStreamWriter}
+ * would produce.
+ */
+final class AsciiByteSink extends Writer {
+    /** Big enough for most icons without growing */
+    static final int DEFAULT_CAPACITY = 2048;
+
+    /** the written bytes */
+    private byte[] buffer;
+    /** the count of the written bytes */
+    private int count;
+    /** whether anything outside ASCII has been written */
+    private boolean ascii = true;
+    /** a high surrogate waiting for its low surrogate from the next write, 0 if none */
+    private char pendingHighSurrogate;
+
+    /** Create a new sink with the {@link #DEFAULT_CAPACITY} */
+    AsciiByteSink() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a new sink
+     *
+     * @param initialCapacity the initial capacity of the buffer in bytes
+     */
+    AsciiByteSink(int initialCapacity) {
+        if (initialCapacity <= 0) {
+            throw new IllegalArgumentException("initialCapacity must be > 0");
+        }
+        this.buffer = new byte[initialCapacity];
+    }
+
+    @Override
+    public void write(int c) {
+        char ch = (char) c;
+        if (ch < 0x80 && pendingHighSurrogate == 0) {
+            ensureCapacity(1);
+            buffer[count++] = (byte) ch;
+        } else {
+            writeNonAscii(ch);
+        }
+    }
+
+    @Override
+    public void write(char @NonNull [] chars, int offset, int length) {
+        ensureCapacity(length);
+        for (int i = offset; i < offset + length; i++) {
+            write(chars[i]);
+        }
+    }
+
+    @Override
+    public void write(@NonNull String str, int offset, int length) {
+        ensureCapacity(length);
+        for (int i = offset; i < offset + length; i++) {
+            write(str.charAt(i));
+        }
+    }
+
+    @Override
+    public Writer append(@Nullable CharSequence csq) {
+        CharSequence safe = csq == null ? "null" : csq;
+        return append(safe, 0, safe.length());
+    }
+
+    @Override
+    public Writer append(@Nullable CharSequence csq, int start, int end) {
+        CharSequence safe = csq == null ? "null" : csq;
+        ensureCapacity(end - start);
+        for (int i = start; i < end; i++) {
+            write(safe.charAt(i));
+        }
+        return this;
+    }
+
+    @Override
+    public Writer append(char c) {
+        write(c);
+        return this;
+    }
+
+    @Override
+    public void flush() {
+        // nothing is buffered outside the byte array
+    }
+
+    @Override
+    public void close() {
+        // nothing to release, the bytes stay readable
+    }
+
+    /**
+     * Get the count of the written bytes
+     *
+     * @return the count of the written bytes
+     */
+    int size() {
+        return count;
+    }
+
+    /**
+     * Get the size of the buffer, what the sink can hold before growing
+     *
+     * @return the capacity of the buffer in bytes
+     */
+    int capacity() {
+        return buffer.length;
+    }
+
+    /**
+     * Write bytes already encoded, e.g. a cached icon. They are taken as UTF-8, so {@link #toString()} decodes them as
+     * such.
+     *
+     * @param source the buffer holding the bytes, its position is left untouched
+     * @param index the index of the first byte in the buffer
+     * @param length the count of the bytes
+     */
+    void writeBytes(@NonNull ByteBuffer source, int index, int length) {
+        flushPendingSurrogate();
+        ensureCapacity(length);
+        source.get(index, buffer, count, length);
+        count += length;
+        ascii = false;
+    }
+
+    /** Forget everything written so far, keeping the buffer */
+    void reset() {
+        count = 0;
+        ascii = true;
+        pendingHighSurrogate = 0;
+    }
+
+    /**
+     * Copy the written bytes
+     *
+     * @return a copy of the written bytes
+     */
+    byte[] toByteArray() {
+        flushPendingSurrogate();
+        return Arrays.copyOf(buffer, count);
+    }
+
+    /**
+     * Wrap the written bytes without copying, the buffer is only valid until the next write or {@link #reset()}
+     *
+     * @return a buffer over the written bytes, positioned at the first one
+     */
+    ByteBuffer asByteBuffer() {
+        flushPendingSurrogate();
+        return ByteBuffer.wrap(buffer, 0, count);
+    }
+
+    /**
+     * Write the written bytes into an {@link OutputStream}
+     *
+     * @param out the {@link OutputStream} to write into
+     * @throws IOException if anything goes wrong when writing to the {@link OutputStream}
+     */
+    void writeTo(@NonNull OutputStream out) throws IOException {
+        flushPendingSurrogate();
+        out.write(buffer, 0, count);
+    }
+
+    /**
+     * Decode the written bytes into a String, in a single copy into a compact Latin-1 String when everything written
+     * was ASCII.
+     *
+     * @return the written text
+     */
+    @Override
+    public String toString() {
+        flushPendingSurrogate();
+        return new String(buffer, 0, count, ascii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+    }
+
+    private void writeNonAscii(char ch) {
+        ascii = false;
+        if (pendingHighSurrogate != 0) {
+            char high = pendingHighSurrogate;
+            pendingHighSurrogate = 0;
+            if (Character.isLowSurrogate(ch)) {
+                writeCodePoint(Character.toCodePoint(high, ch));
+                return;
+            }
+            // an unpaired surrogate is malformed, same replacement as the UTF-8 encoder
+            writeCodePoint('?');
+            write(ch);
+            return;
+        }
+        if (Character.isHighSurrogate(ch)) {
+            pendingHighSurrogate = ch;
+        } else if (Character.isLowSurrogate(ch)) {
+            writeCodePoint('?');
+        } else {
+            writeCodePoint(ch);
+        }
+    }
+
+    private void flushPendingSurrogate() {
+        if (pendingHighSurrogate != 0) {
+            pendingHighSurrogate = 0;
+            writeCodePoint('?');
+        }
+    }
+
+    private void writeCodePoint(int codePoint) {
+        ensureCapacity(4);
+        if (codePoint < 0x80) {
+            buffer[count++] = (byte) codePoint;
+        } else if (codePoint < 0x800) {
+            buffer[count++] = (byte) (0xC0 | (codePoint >> 6));
+            buffer[count++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else if (codePoint < 0x10000) {
+            buffer[count++] = (byte) (0xE0 | (codePoint >> 12));
+            buffer[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            buffer[count++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else {
+            buffer[count++] = (byte) (0xF0 | (codePoint >> 18));
+            buffer[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            buffer[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            buffer[count++] = (byte) (0x80 | (codePoint & 0x3F));
+        }
+    }
+
+    private void ensureCapacity(int extra) {
+        if (count + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, count + extra));
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package io.github.mikeychowy.jazzicon;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A {@link JazzIcon} generator front with a bounded in-memory cache of the rendered icons. <br>
+ * <br>
+ * Icons are cached by their trimmed text plus the fingerprint of the generator's configuration at render time, so
+ * changing the generator's configuration never serves a stale icon. The cache listens to the generator's configuration
+ * changes and drops the icons of the replaced configuration on its next lookup, the others are kept. The generator only
+ * holds the cache weakly, {@link #close()} it to stop listening right away. The cache is
+ * bounded by a count of icons or by their total bytes, and uses W-TinyLFU admission and eviction, so a one-off bulk
+ * lookup can't flush the popular icons. A cache hit takes no lock. Concurrent misses on the same icon are coalesced,
+ * see {@link CoalescingJazzIcon}, only one of them renders while the others wait for its result. <br>
+ * <br>
+ * A {@link RemoteIconCache} shared by several nodes can back the local cache: a miss looks it up, waiting at most for
+ * the remote timeout before rendering locally, and the icons rendered locally are written to it in batches, in the
+ * background. <br>
+ * <br>
+ * Only the icons with an entity tag are cached, see {@link JazzIcon#etagFor(String)}, the others are rendered on every
+ * lookup. For a render with a body interceptor, use {@link #getGenerator()} directly.
+ *
+ * <p>Example:
+ *
+ * <pre>{@code
+ * try (CachingJazzIcon icons = CachingJazzIcon.builder()
+ *         .withGenerator(JazzIcon.builder().withShapeCount(5).build())
+ *         .withMaximumEntries(50_000)
+ *         .build()) {
+ *     String svg = icons.generateIcon("Harry");
+ *     IconCacheStats stats = icons.stats();
+ * }
+ * }</pre>
+ */
+public class CachingJazzIcon extends AbstractCachingJazzIcon implements AutoCloseable {
+    /** The default maximum count of cached icons */
+    public static final long DEFAULT_MAXIMUM_ENTRIES = 10_000;
+    /** The default time a miss waits for the remote cache before rendering locally */
+    public static final Duration DEFAULT_REMOTE_TIMEOUT = Duration.ofMillis(50);
+    /** The default most icons written to the remote cache in one batch */
+    public static final int DEFAULT_REMOTE_BATCH_SIZE = 64;
+    /** The default time a write to the remote cache waits for its batch to fill */
+    public static final Duration DEFAULT_REMOTE_FLUSH_INTERVAL = Duration.ofMillis(100);
+    /** the cache of the rendered icons */
+    final IconCache cache;
+    /** the misses being rendered, by text and configuration fingerprint */
+    private final SingleFlight<IconKey, byte[]> misses;
+    /** the remote cache looked up on a miss, null if none */
+    private final @Nullable RemoteTier remote;
+    /** the fingerprints of the replaced configurations, their icons dropped on the next lookup */
+    private final Queue<Long> replacedFingerprints = new ConcurrentLinkedQueue<>();
+    /** records the replaced configurations */
+    private final WeakConfigurationListener<CachingJazzIcon> listener;
+    /** whether the cache has been closed */
+    private volatile boolean closed;
+
+    /**
+     * Create a new caching generator bounded by the count of icons
+     *
+     * @param generator the generator rendering the cache misses
+     * @param maximumEntries the maximum count of cached icons
+     * @throws IllegalArgumentException if the generator is null, or the maximum is not positive
+     */
+    public CachingJazzIcon(@NonNull JazzIcon generator, long maximumEntries) throws IllegalArgumentException {
+        this(generator, maximumEntries, false, CoalescingJazzIcon.DEFAULT_TIMEOUT, null);
+    }
+
+    private CachingJazzIcon(
+            JazzIcon generator,
+            long maximum,
+            boolean weighBytes,
+            Duration coalescingTimeout,
+            @Nullable RemoteTier remote) {
+        super(generator, "cache");
+        if (maximum <= 0) {
+            throw new IllegalArgumentException("maximum must be > 0");
+        }
+        if (Objects.isNull(coalescingTimeout)) {
+            throw new IllegalArgumentException("coalescingTimeout must not be null");
+        }
+        this.cache = new IconCache(maximum, weighBytes);
+        this.misses = new SingleFlight<>(coalescingTimeout.toNanos());
+        this.remote = remote;
+        this.listener = WeakConfigurationListener.register(generator, this, CachingJazzIcon::onConfigurationChange);
+    }
+
+    /**
+     * Record the replaced configuration, if it rendered differently. Called under the generator's configuration lock,
+     * so the icons are only dropped on the next lookup, see {@link #dropReplacedConfigurations()}.
+     *
+     * @param change the configuration change of the generator
+     */
+    private void onConfigurationChange(@NonNull ConfigurationChange change) {
+        if (change.isRenderingChanged()) {
+            replacedFingerprints.add(change.getPreviousFingerprint());
+        }
+    }
+
+    /**
+     * Drop the icons of the configurations replaced since the last call, in one scan of the cache. A configuration
+     * switched back to in the meantime is kept.
+     */
+    private void dropReplacedConfigurations() {
+        if (replacedFingerprints.isEmpty()) {
+            return;
+        }
+        Set<Long> replaced = new HashSet<>();
+        while (!replacedFingerprints.isEmpty()) {
+            Long fingerprint = replacedFingerprints.poll();
+            if (Objects.nonNull(fingerprint)) {
+                replaced.add(fingerprint);
+            }
+        }
+        replaced.remove(generator.getConfig().getFingerprint());
+        if (!replaced.isEmpty()) {
+            cache.invalidate(replaced::contains);
+        }
+    }
+
+    /**
+     * The convenience Builder helper for CachingJazzIcon.
+     *
+     * @return the builder
+     */
+    public static CachingJazzIconBuilder builder() {
+        return new CachingJazzIconBuilder();
+    }
+
+    /**
+     * Get a snapshot of the cache statistics
+     *
+     * @return the hit, miss, eviction, and load statistics so far
+     */
+    public IconCacheStats stats() {
+        dropReplacedConfigurations();
+        return cache.stats();
+    }
+
+    /**
+     * Get a snapshot of the remote cache statistics
+     *
+     * @return the hit, miss, timeout, failure and write statistics so far, or null if there is no remote cache
+     */
+    public @Nullable RemoteCacheStats remoteStats() {
+        return Objects.isNull(remote) ? null : remote.stats();
+    }
+
+    /**
+     * Write the icons waiting to be written to the remote cache now, on the calling thread, e.g. before shutting down.
+     * Does nothing if there is no remote cache.
+     */
+    public void flushRemoteWrites() {
+        if (Objects.nonNull(remote)) {
+            remote.flush();
+        }
+    }
+
+    /** Drop every cached icon, the statistics are kept */
+    public void invalidateAll() {
+        replacedFingerprints.clear();
+        cache.invalidateAll();
+    }
+
+    /**
+     * Stop listening to the generator, write the icons waiting for the remote cache, and drop every cached icon. The
+     * statistics are kept, the icons can't be generated anymore. Closing again does nothing.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        listener.remove();
+        flushRemoteWrites();
+        invalidateAll();
+    }
+
+    /**
+     * Refuse the lookups once closed, and drop the icons of the replaced configurations first
+     *
+     * @throws JazzIconGenerationException if the cache is closed
+     */
+    @Override
+    void beforeLookup() throws JazzIconGenerationException {
+        if (closed) {
+            throw new JazzIconGenerationException("icon cache is closed");
+        }
+        dropReplacedConfigurations();
+    }
+
+    @Override
+    ByteBuffer lookup(@NonNull IconKey key, @NonNull AsciiByteSink sink) {
+        byte[] icon = cache.get(key.getText(), key.getFingerprint());
+        if (Objects.isNull(icon)) {
+            icon = misses.load(key, () -> load(key.getText()));
+        }
+        return ByteBuffer.wrap(icon);
+    }
+
+    /**
+     * Get a missed icon from the remote cache, or render it and queue it for the remote cache, and cache it
+     *
+     * @param safeText the trimmed text to be the seed of the icon
+     * @return the icon bytes, not to be modified
+     */
+    private byte[] load(@NonNull String safeText) {
+        if (Objects.nonNull(remote)) {
+            long start = System.nanoTime();
+            JazzIconConfig config = generator.getConfig();
+            if (IconKey.isCacheable(safeText, config)) {
+                byte[] shared = remote.get(RemoteTier.keyOf(config, safeText));
+                if (Objects.nonNull(shared)) {
+                    return cache.put(safeText, config.getFingerprint(), shared, System.nanoTime() - start);
+                }
+            }
+        }
+        return renderMiss(safeText, (key, rendered, icon, renderNanos) -> {
+            if (Objects.nonNull(remote)) {
+                remote.putLater(RemoteTier.keyOf(rendered, safeText), icon);
+            }
+            cache.put(key.getText(), key.getFingerprint(), icon, renderNanos);
+        });
+    }
+
+    /** The convenience Builder helper for CachingJazzIcon. */
+    public static class CachingJazzIconBuilder {
+        /** the generator rendering the cache misses */
+        private JazzIcon generator;
+        /** the maximum count of cached icons, or of their bytes */
+        private long maximum = DEFAULT_MAXIMUM_ENTRIES;
+        /** whether the maximum is in bytes */
+        private boolean weighBytes;
+        /** how long a miss waits for the render of the same icon by another miss */
+        private Duration coalescingTimeout = CoalescingJazzIcon.DEFAULT_TIMEOUT;
+        /** the remote cache looked up on a miss, null if none */
+        private @Nullable RemoteIconCache remoteCache;
+        /** how long a miss waits for the remote cache */
+        private Duration remoteTimeout = DEFAULT_REMOTE_TIMEOUT;
+        /** the most icons written to the remote cache in one batch */
+        private int remoteBatchSize = DEFAULT_REMOTE_BATCH_SIZE;
+        /** how long a write to the remote cache waits for its batch to fill */
+        private Duration remoteFlushInterval = DEFAULT_REMOTE_FLUSH_INTERVAL;
+        /** the executor writing the batches to the remote cache */
+        private Executor remoteExecutor = ForkJoinPool.commonPool();
+
+        /** Create a builder with a default {@link JazzIcon} and {@link #DEFAULT_MAXIMUM_ENTRIES} */
+        public CachingJazzIconBuilder() {
+            this.generator = new JazzIcon();
+        }
+
+        /**
+         * Set the generator rendering the cache misses
+         *
+         * @param generator the generator
+         * @return the builder
+         */
+        public CachingJazzIconBuilder withGenerator(JazzIcon generator) {
+            this.generator = generator;
+            return this;
+        }
+
+        /**
+         * Bound the cache by the count of icons, replaces any bound set before
+         *
+         * @param maximumEntries the maximum count of cached icons
+         * @return the builder
+         */
+        public CachingJazzIconBuilder withMaximumEntries(long maximumEntries) {
+            this.maximum = maximumEntries;
+            this.weighBytes = false;
+            return this;
+        }
+
+        /**
+         * Bound the cache by the total bytes of the icons, replaces any bound set before
+         *
+         * @param maximumBytes the maximum total bytes of cached icons
+         * @return the builder
+         */
+        public CachingJazzIconBuilder withMaximumBytes(long maximumBytes) {
+            this.maximum = maximumBytes;
+            this.weighBytes = true;
+            return this;
+        }
+
+        /**
+         * Set how long a miss waits for the render of the same icon by another miss, {@link
+         * CoalescingJazzIcon#DEFAULT_TIMEOUT} by default
+         *
+         * @param coalescingTimeout the time to wait, MUST be positive
+         * @return the builder
+         */
+        public CachingJazzIconBuilder withCoalescingTimeout(Duration coalescingTimeout) {
+            this.coalescingTimeout = coalescingTimeout;
+            return this;
+        }
+
+        /**
+         * Set a remote cache shared by several nodes, looked up on a miss and written to in the background, none by
+         * default
+         *
+         * @param remoteCache the remote cache, null for none
+         * @return the builder
+         */
+        public CachingJazzIconBuilder withRemoteCache(@Nullable RemoteIconCache remoteCache) {
+            this.remoteCache = remoteCache;
+            return this;
+        }
+
+        /**
+         * Set how long a miss waits for the remote cache before rendering locally, {@link #DEFAULT_REMOTE_TIMEOUT} by
+         * default
+         *
+         * @param remoteTimeout the time to wait, MUST be positive
+         * @return the builder
+         */
+        public CachingJazzIconBuilder withRemoteTimeout(Duration remoteTimeout) {
+            this.remoteTimeout = remoteTimeout;
+            return this;
+        }
+
+        /**
+         * Set how the writes to the remote cache are batched: a batch is sent once full, or once its first write has
+         * waited for the flush interval. {@link #DEFAULT_REMOTE_BATCH_SIZE} and {@link #DEFAULT_REMOTE_FLUSH_INTERVAL}
+         * by default.
+         *
+         * @param remoteBatchSize the most icons written in one batch, MUST be positive
+         * @param remoteFlushInterval the time a write waits for its batch to fill, MUST be positive
+         * @return the builder
+         */
+        public CachingJazzIconBuilder withRemoteWriteBehind(int remoteBatchSize, Duration remoteFlushInterval) {
+            this.remoteBatchSize = remoteBatchSize;
+            this.remoteFlushInterval = remoteFlushInterval;
+            return this;
+        }
+
+        /**
+         * Set the executor writing the batches to the remote cache, {@link ForkJoinPool#commonPool()} by default
+         *
+         * @param remoteExecutor the executor
+         * @return the builder
+         */
+        public CachingJazzIconBuilder withRemoteExecutor(Executor remoteExecutor) {
+            this.remoteExecutor = remoteExecutor;
+            return this;
+        }
+
+        /**
+         * Build the caching generator
+         *
+         * @return the caching generator
+         * @throws IllegalArgumentException if the generator or a timeout is null, or the maximum, a timeout or the
+         *     batch size is not positive
+         */
+        public CachingJazzIcon build() throws IllegalArgumentException {
+            RemoteTier remote = null;
+            if (Objects.nonNull(remoteCache)) {
+                if (Objects.isNull(remoteTimeout) || Objects.isNull(remoteFlushInterval)) {
+                    throw new IllegalArgumentException("remoteTimeout and remoteFlushInterval must not be null");
+                }
+                remote = new RemoteTier(
+                        remoteCache,
+                        remoteTimeout.toNanos(),
+                        remoteBatchSize,
+                        remoteFlushInterval.toNanos(),
+                        remoteExecutor);
+            }
+            return new CachingJazzIcon(generator, maximum, weighBytes, coalescingTimeout, remote);
+        }
+    }
+}
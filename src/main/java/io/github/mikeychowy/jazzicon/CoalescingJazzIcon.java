@@ -0,0 +1,119 @@
+package io.github.mikeychowy.jazzicon;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Objects;
+import org.apache.commons.lang3.StringUtils;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * A {@link JazzIcon} generator front coalescing the concurrent renders of the same icon. <br>
+ * <br>
+ * The callers asking for the icon of the same trimmed text, with the same configuration fingerprint, while it is being
+ * rendered wait for that render and share its bytes, instead of all rendering the same icon. A failed render fails its
+ * waiters too, and a waiter gives up with a {@link JazzIconGenerationException} after the timeout. Nothing is kept once
+ * a render completes, use {@link CachingJazzIcon}, which coalesces its misses the same way, to keep the icons. <br>
+ * <br>
+ * Texts of 3 characters or fewer are padded with random characters, unless the generator uses
+ * {@link JazzIcon.PaddingMode#DETERMINISTIC}, so their renders are never shared.
+ *
+ * <p>Example:
+ *
+ * <pre>{@code
+ * CoalescingJazzIcon icons = new CoalescingJazzIcon(new JazzIcon(), Duration.ofSeconds(1));
+ * String svg = icons.generateIcon("Harry");
+ * }</pre>
+ */
+public class CoalescingJazzIcon {
+    /** The default time a caller waits for the render of another caller */
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(5);
+
+    /** the generator rendering the icons */
+    private final JazzIcon generator;
+    /** the renders running, by text and configuration fingerprint */
+    private final SingleFlight<IconKey, byte[]> renders;
+
+    /**
+     * Create a new coalescing generator, waiting at most {@link #DEFAULT_TIMEOUT}
+     *
+     * @param generator the generator rendering the icons
+     * @throws IllegalArgumentException if the generator is null
+     */
+    public CoalescingJazzIcon(@NonNull JazzIcon generator) throws IllegalArgumentException {
+        this(generator, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Create a new coalescing generator
+     *
+     * @param generator the generator rendering the icons
+     * @param timeout how long a caller waits for the render of another caller
+     * @throws IllegalArgumentException if the generator or the timeout is null, or the timeout is not positive
+     */
+    public CoalescingJazzIcon(@NonNull JazzIcon generator, @NonNull Duration timeout) throws IllegalArgumentException {
+        if (Objects.isNull(generator)) {
+            throw new IllegalArgumentException("generator must not be null");
+        }
+        if (Objects.isNull(timeout)) {
+            throw new IllegalArgumentException("timeout must not be null");
+        }
+        this.generator = generator;
+        this.renders = new SingleFlight<>(timeout.toNanos());
+    }
+
+    /**
+     * Get the icon as UTF-8 bytes, rendered or taken from the render running for the same icon
+     *
+     * @param text the text to be the seed of the icon
+     * @return the UTF-8 bytes of the SVG of the JazzIcon, a copy the caller owns
+     * @throws JazzIconGenerationException if anything goes wrong when generating the icon, or waiting for it
+     */
+    public byte[] generateIconBytes(@NonNull String text) throws JazzIconGenerationException {
+        return render(text).clone();
+    }
+
+    /**
+     * Get the icon as a String, rendered or taken from the render running for the same icon
+     *
+     * @param text the text to be the seed of the icon
+     * @return the SVG string of the JazzIcon
+     * @throws JazzIconGenerationException if anything goes wrong when generating the icon, or waiting for it
+     */
+    public String generateIcon(@NonNull String text) throws JazzIconGenerationException {
+        return new String(render(text), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Get the generator rendering the icons
+     *
+     * @return the generator
+     */
+    public JazzIcon getGenerator() {
+        return generator;
+    }
+
+    /**
+     * Get the count of the icons being rendered
+     *
+     * @return the count of the renders running
+     */
+    int inFlightCount() {
+        return renders.inFlightCount();
+    }
+
+    /**
+     * Render the icon, or wait for the render running for the same icon
+     *
+     * @param text the text to be the seed of the icon
+     * @return the icon bytes, shared with the other callers, not to be modified
+     */
+    private byte[] render(@NonNull String text) {
+        String safeText = StringUtils.trimToEmpty(text);
+        JazzIconConfig config = generator.getConfig();
+        if (!IconKey.isCacheable(safeText, config)) {
+            // padded with random characters, every caller gets its own
+            return generator.generateIconBytes(text);
+        }
+        return renders.load(new IconKey(safeText, config.getFingerprint()), () -> generator.generateIconBytes(text));
+    }
+}
@@ -1,43 +1,50 @@
 package io.github.mikeychowy.jazzicon;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 import org.apache.commons.lang3.StringUtils;
 import org.jspecify.annotations.NonNull;
 
 /**
  * The Color Palettes of the generated icon. <br>
  * <br>
- * If you want to bring your own palette just instantiate your own {@code Set<String>} of color hex codes
+ * If you want to bring your own palette just instantiate it with a {@code List<String>} of color hex codes, the colors
+ * are picked in the order of the list. A {@code Set<String>} has no order to rely on, so its colors are sorted, see
+ * {@link ColorOrder}. The order is part of the icon, and so of the {@link JazzIcon#getFingerprint() fingerprint}.
  *
  * <p>Example:
  *
  * <pre>
- *     {@code ColorPalettes MY_OWN_COLORS = new ColorPalettes(Set.of("#4972AC", "#469A6C"));}
+ *     {@code ColorPalettes MY_OWN_COLORS = new ColorPalettes(List.of("#4972AC", "#469A6C"));}
  * </pre>
  */
-@SuppressWarnings({"ClassCanBeRecord", "unused"})
-@ExcludeGeneratedOrSpecialCaseFromCoverage
 public class ColorPalettes {
     /** Chart based colors, general-purpose color palette */
-    public static final ColorPalettes CHART_COLORS = new ColorPalettes(Set.of(
+    public static final ColorPalettes CHART_COLORS = new ColorPalettes(List.of(
             "#AF8626", "#00759E", "#879420", "#4B2D58", "#9F8865", "#2E476B", "#469A6C", "#AD3E4A", "#8489BD",
             "#0C7EC6", "#654D16", "#804C95", "#45999C", "#4972AC", "#CC707A", "#295B40", "#545A9C", "#785E4A",
             "#07476F", "#620004"));
     /** Section 1 of JAZZ_ICON */
     public static final ColorPalettes SECTION_1 =
-            new ColorPalettes(Set.of("#AF8626", "#9F8865", "#8489BD", "#45999C", "#545A9C"));
+            new ColorPalettes(List.of("#AF8626", "#9F8865", "#8489BD", "#45999C", "#545A9C"));
     /** Section 2 of JAZZ_ICON */
     public static final ColorPalettes SECTION_2 =
-            new ColorPalettes(Set.of("#00759E", "#2E476B", "#0C7EC6", "#4972AC", "#785E4A"));
+            new ColorPalettes(List.of("#00759E", "#2E476B", "#0C7EC6", "#4972AC", "#785E4A"));
     /** Section 3 of JAZZ_ICON */
     public static final ColorPalettes SECTION_3 =
-            new ColorPalettes(Set.of("#879420", "#469A6C", "#654D16", "#CC707A", "#07476F"));
+            new ColorPalettes(List.of("#879420", "#469A6C", "#654D16", "#CC707A", "#07476F"));
     /** Section 4 of JAZZ_ICON */
     public static final ColorPalettes SECTION_4 =
-            new ColorPalettes(Set.of("#4B2D58", "#AD3E4A", "#804C95", "#295B40", "#620004"));
+            new ColorPalettes(List.of("#4B2D58", "#AD3E4A", "#804C95", "#295B40", "#620004"));
     /** Default JazzIcon colors */
-    public static final ColorPalettes JAZZ_ICON = new ColorPalettes(Set.of(
+    public static final ColorPalettes JAZZ_ICON = new ColorPalettes(List.of(
             "#01888C", // teal
             "#FC7500", // bright orange
             "#034F5D", // dark teal
@@ -50,12 +57,12 @@ public class ColorPalettes {
             "#F19E02" // gold
             ));
     /** Pantone-inspired colors */
-    public static final ColorPalettes PANTONE_COLORS = new ColorPalettes(Set.of(
+    public static final ColorPalettes PANTONE_COLORS = new ColorPalettes(List.of(
             "#B7C5C4", "#DBBBB2", "#EAE4DC", "#5F7C7B", "#C5D4D2", "#ADB9B3", "#C69D78", "#E0CFC5", "#9E9E92",
             "#343833", "#02132D", "#183158", "#423B62", "#B87CB4", "#F5D6DB", "#F2916F", "#FFE3D7", "#DFB5B1",
             "#824C67", "#50295B", "#29114B"));
     /** Purple/pink themed palette */
-    public static final ColorPalettes MULBERRY_WHISPER = new ColorPalettes(Set.of(
+    public static final ColorPalettes MULBERRY_WHISPER = new ColorPalettes(List.of(
             "#734652", // Ferra
             "#BF567D", // Mulberry
             "#D98BAF", // Can can
@@ -64,52 +71,169 @@ public class ColorPalettes {
             ));
     /** Coral/orange themed palette */
     public static final ColorPalettes CORAL_DREAM =
-            new ColorPalettes(Set.of("#FF8B6B", "#FFB580", "#FFCDAD", "#FADFCC", "#F6C5AC"));
+            new ColorPalettes(List.of("#FF8B6B", "#FFB580", "#FFCDAD", "#FADFCC", "#F6C5AC"));
     /** Purple/pink themed palette */
     public static final ColorPalettes WHIMSICAL_BLOSSOM =
-            new ColorPalettes(Set.of("#6A4B6C", "#A45B8D", "#D88DB5", "#E1B7C5", "#E3C9D1"));
+            new ColorPalettes(List.of("#6A4B6C", "#A45B8D", "#D88DB5", "#E1B7C5", "#E3C9D1"));
     /** Catpuccin theme based Colors, latte variant */
-    public static final ColorPalettes CATPUCCIN_LATTE = new ColorPalettes(Set.of(
+    public static final ColorPalettes CATPUCCIN_LATTE = new ColorPalettes(List.of(
             "#DC8A78", "#DD7878", "#EA76CB", "#8839EF", "#D20F39", "#E64553", "#FE640B", "#DF8E1D", "#40A02B",
             "#179299", "#04A5E5", "#209FB5", "#1E66F5", "#7287FD"));
     /** Catpuccin theme based Colors, frappe variant */
-    public static final ColorPalettes CATPUCCIN_FRAPPE = new ColorPalettes(Set.of(
+    public static final ColorPalettes CATPUCCIN_FRAPPE = new ColorPalettes(List.of(
             "#F2D5CF", "#EEBEBE", "#F4B8E4", "#CA9EE6", "#E78284", "#EA999C", "#EF9F76", "#E5C890", "#A6D189",
             "#81C8BE", "#99D1DB", "#85C1DC", "#8CAAEE", "#BABBF1"));
     /** Catpuccin theme based Colors, macchiato variant */
-    public static final ColorPalettes CATPUCCIN_MACCHIATO = new ColorPalettes(Set.of(
+    public static final ColorPalettes CATPUCCIN_MACCHIATO = new ColorPalettes(List.of(
             "#F4DBD6", "#F0C6C6", "#F5BDE6", "#C6A0F6", "#ED8796", "#EE99A0", "#F5A97F", "#EED49F", "#A6DA95",
             "#8BD5CA", "#91D7E3", "#7DC4E4", "#8AADF4", "#B7BDF8"));
     /** Catpuccin theme based Colors, mocha variant */
-    public static final ColorPalettes CATPUCCIN_MOCHA = new ColorPalettes(Set.of(
+    public static final ColorPalettes CATPUCCIN_MOCHA = new ColorPalettes(List.of(
             "#F5E0DC", "#F2CDCD", "#F5C2E7", "#CBA6F7", "#F38BA8", "#EBA0AC", "#FAB387", "#F9E2AF", "#A6E3A1",
             "#94E2D5", "#89DCEB", "#74C7EC", "#89B4FA", "#B4BEFE"));
     /** Tailwind based Colors, latte variant */
-    public static final ColorPalettes TAILWIND = new ColorPalettes(Set.of(
+    public static final ColorPalettes TAILWIND = new ColorPalettes(List.of(
             "#FB2C36", "#FF6900", "#FD9A00", "#EFB100", "#7CCF00", "#00C951", "#00BC7D", "#00BBA7", "#00B8DB",
             "#00A6F4", "#2B7FFF", "#615FFF", "#8E51FF", "#AD46FF", "#E12AFB", "#F6339A", "#FF2056", "#71717B",
             "#79716B"));
-    /** the actual colors of the palette, must be hex based and uppercase */
+    /** the actual colors of the palette, must be hex based and uppercase, in the order they are rotated and picked in */
     private final Set<String> colors;
+    /** the same colors as {@link #colors}, as a list to compare them in order */
+    private final List<String> orderedColors;
+    /** how the colors are ordered */
+    private final ColorOrder colorOrder;
+    /** the colors of the palette compiled to packed ARGB ints, in the order they are rotated and picked in */
+    private final int[] packedColors;
+    /** the HSV hue of each packed color, NaN for greys */
+    private final float[] hues;
+    /** the HSV saturation of each packed color */
+    private final float[] saturations;
+    /** the HSV value of each packed color */
+    private final float[] values;
+    /** the hue rotation lookup tables of the palette, built lazily per wobble */
+    private final Map<Integer, HueRotationTable> rotationTables = new ConcurrentHashMap<>();
 
     /**
-     * Create new color palette
+     * Create new color palette, the colors {@link ColorOrder#SORTED sorted}, as a {@link Set} has no order to rely on
      *
      * @param colors the actual colors of the palette, must be hex based and uppercase
+     * @throws IllegalArgumentException if any of the colors is not a valid hex color
      */
     public ColorPalettes(@NonNull Set<@NonNull String> colors) {
-        this.colors = colors.stream()
-                .filter(StringUtils::isNotBlank)
-                .map(StringUtils::upperCase)
-                .collect(Collectors.toUnmodifiableSet());
+        this(colors, ColorOrder.SORTED);
+    }
+
+    /**
+     * Create new color palette, the colors in the order of the list, see {@link ColorOrder#INSERTION}
+     *
+     * @param colors the actual colors of the palette, must be hex based and uppercase
+     * @throws IllegalArgumentException if any of the colors is not a valid hex color
+     */
+    public ColorPalettes(@NonNull List<@NonNull String> colors) {
+        this(colors, ColorOrder.INSERTION);
     }
 
     /**
-     * Get the actual colors of the palette
+     * Create new color palette
+     *
+     * @param colors the actual colors of the palette, must be hex based and uppercase
+     * @param colorOrder how the colors are ordered
+     * @throws IllegalArgumentException if any of the colors is not a valid hex color, or the colorOrder is null
+     */
+    public ColorPalettes(@NonNull Collection<@NonNull String> colors, ColorOrder colorOrder) {
+        if (Objects.isNull(colorOrder)) {
+            throw new IllegalArgumentException("colorOrder must not be null");
+        }
+        Stream<String> distinctColors =
+                colors.stream().filter(StringUtils::isNotBlank).map(StringUtils::upperCase).distinct();
+        if (colorOrder == ColorOrder.SORTED) {
+            distinctColors = distinctColors.sorted();
+        }
+        List<String> orderedColors = distinctColors.toList();
+        this.colors = Collections.unmodifiableSet(new LinkedHashSet<>(orderedColors));
+        this.orderedColors = orderedColors;
+        this.colorOrder = colorOrder;
+
+        // compile once, renders only ever touch the packed colors
+        this.packedColors = new int[orderedColors.size()];
+        this.hues = new float[packedColors.length];
+        this.saturations = new float[packedColors.length];
+        this.values = new float[packedColors.length];
+        for (int i = 0; i < packedColors.length; i++) {
+            int color = ColorUtils.parseHexColor(orderedColors.get(i));
+            packedColors[i] = color;
+            hues[i] = ColorUtils.hue(color);
+            saturations[i] = ColorUtils.saturation(color);
+            values[i] = ColorUtils.value(color);
+        }
+    }
+
+    /**
+     * Get the actual colors of the palette, iterating in the order they are rotated and picked in
      *
      * @return the actual colors of the palette
      */
     public Set<String> getColors() {
         return colors;
     }
+
+    /**
+     * Get how the colors are ordered
+     *
+     * @return how the colors are ordered
+     */
+    public ColorOrder getColorOrder() {
+        return colorOrder;
+    }
+
+    /**
+     * Get the hue rotation lookup table of the palette for the supplied wobble, created empty on first use, it fills
+     * itself as the colors are rotated.
+     *
+     * @param wobble the wobble used for color rotating into hue shift
+     * @return the lookup table of the rotated colors, in the order of {@link #getColors()}
+     */
+    HueRotationTable getRotationTable(int wobble) {
+        return rotationTables.computeIfAbsent(
+                wobble, w -> new HueRotationTable(packedColors, hues, saturations, values, w));
+    }
+
+    /**
+     * Two palettes are equal when they have the same colors in the same order, and so render the same icons, whatever
+     * {@link ColorOrder} led to that order.
+     *
+     * @param o the other object
+     * @return whether the other object is a palette with the same colors in the same order
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ColorPalettes)) {
+            return false;
+        }
+        return orderedColors.equals(((ColorPalettes) o).orderedColors);
+    }
+
+    @Override
+    public int hashCode() {
+        return orderedColors.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "ColorPalettes{colors=" + orderedColors + '}';
+    }
+
+    /**
+     * The order the colors of a palette are rotated and picked in. The icons index into the colors by position, so the
+     * order is part of the icon.
+     */
+    public enum ColorOrder {
+        /** the order the colors are supplied in, the first occurrence of a duplicate is kept */
+        INSERTION,
+        /** sorted by their uppercase hex code, the same whatever order the colors are supplied in */
+        SORTED,
+    }
 }
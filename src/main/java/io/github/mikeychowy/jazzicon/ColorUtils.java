@@ -1,12 +1,24 @@
 package io.github.mikeychowy.jazzicon;
 
+import java.io.IOException;
 import java.util.regex.Pattern;
+import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 
-/** Small utility class to handle anything regarding colors */
+/**
+ * Small utility class to handle anything regarding colors <br>
+ * <br>
+ * Besides the hex string helpers, colors are handled as packed ARGB {@code int}s ({@code 0xAARRGGBB}). The HSV
+ * conversion, hue rotation, and hex formatting here are allocation-free and produce the exact same results as the
+ * colormath based {@link JazzIcon#rotateColor(String, double)}, down to the float rounding.
+ */
 public final class ColorUtils {
     private static final Pattern HEX_COLOR_PATTERN =
             Pattern.compile("^#?([A-Fa-f0-9]{3}|[A-Fa-f0-9]{4}|[A-Fa-f0-9]{6}|[A-Fa-f0-9]{8})$");
+    /** lowercase hex digits, same as the colormath hex output */
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    /** under this chroma a color is a grey and has no hue, same threshold as colormath */
+    private static final double ACHROMATIC_THRESHOLD = 1e-7;
 
     private ColorUtils() {}
 
@@ -22,4 +34,163 @@ public final class ColorUtils {
         }
         return HEX_COLOR_PATTERN.matcher(input).matches();
     }
+
+    /**
+     * Parse a hex color into a packed ARGB int. Accepts the same inputs as {@link #isValidHexColor(String)}, short
+     * forms are expanded and a missing alpha is opaque.
+     *
+     * @param input the hex color string
+     * @return the packed ARGB color
+     * @throws IllegalArgumentException if the input is not a valid hex color
+     */
+    public static int parseHexColor(@NonNull String input) {
+        if (!isValidHexColor(input)) {
+            throw new IllegalArgumentException("input must be a valid hex color, got: " + input);
+        }
+        int start = input.charAt(0) == '#' ? 1 : 0;
+        int digits = input.length() - start;
+        boolean shortForm = digits <= 4;
+        int channelWidth = shortForm ? 1 : 2;
+        int r = parseChannel(input, start, channelWidth);
+        int g = parseChannel(input, start + channelWidth, channelWidth);
+        int b = parseChannel(input, start + channelWidth * 2, channelWidth);
+        int a = digits == 4 || digits == 8 ? parseChannel(input, start + channelWidth * 3, channelWidth) : 0xFF;
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+
+    /**
+     * Get the HSV hue of a packed color, in degrees.
+     *
+     * @param argb the packed ARGB color
+     * @return the hue in {@code [0, 360)}, or NaN for greys
+     */
+    public static float hue(int argb) {
+        double r = red(argb);
+        double g = green(argb);
+        double b = blue(argb);
+        double max = Math.max(r, Math.max(g, b));
+        double chroma = max - Math.min(r, Math.min(g, b));
+        if (chroma < ACHROMATIC_THRESHOLD) {
+            return Float.NaN;
+        }
+        double h;
+        if (r == max) {
+            h = (g - b) / chroma;
+        } else if (g == max) {
+            h = 2 + (b - r) / chroma;
+        } else {
+            h = 4 + (r - g) / chroma;
+        }
+        return (float) ((((h * 60) % 360.0) + 360.0) % 360.0);
+    }
+
+    /**
+     * Get the HSV saturation of a packed color.
+     *
+     * @param argb the packed ARGB color
+     * @return the saturation in {@code [0, 1]}
+     */
+    public static float saturation(int argb) {
+        double r = red(argb);
+        double g = green(argb);
+        double b = blue(argb);
+        double max = Math.max(r, Math.max(g, b));
+        double chroma = max - Math.min(r, Math.min(g, b));
+        return (float) (max == 0 ? 0 : chroma / max);
+    }
+
+    /**
+     * Get the HSV value of a packed color.
+     *
+     * @param argb the packed ARGB color
+     * @return the value in {@code [0, 1]}
+     */
+    public static float value(int argb) {
+        return (float) Math.max(red(argb), Math.max(green(argb), blue(argb)));
+    }
+
+    /**
+     * Rotate a color on the color wheel, same as {@link JazzIcon#rotateColor(String, double)} but on precomputed HSV
+     * components and without allocating.
+     *
+     * @param hue the hue of the color, see {@link #hue(int)}
+     * @param saturation the saturation of the color, see {@link #saturation(int)}
+     * @param value the value of the color, see {@link #value(int)}
+     * @param hueShift the hueShift for the color on the color wheel
+     * @return the rotated color as an opaque packed ARGB int
+     */
+    public static int rotateHue(float hue, float saturation, float value, double hueShift) {
+        double newHue = (hue + hueShift) % 360.0;
+        if (newHue < 0) {
+            newHue += 360.0;
+        }
+        float rotatedHue = (float) newHue;
+        if (Float.isNaN(rotatedHue) || Float.isNaN(saturation) || saturation < ACHROMATIC_THRESHOLD) {
+            int grey = toChannel(value);
+            return 0xFF000000 | (grey << 16) | (grey << 8) | grey;
+        }
+        double sextant = (((rotatedHue % 360F) + 360F) % 360F) / 60.0;
+        int r = toChannel(sextantComponent(5, sextant, value, saturation));
+        int g = toChannel(sextantComponent(3, sextant, value, saturation));
+        int b = toChannel(sextantComponent(1, sextant, value, saturation));
+        return 0xFF000000 | (r << 16) | (g << 8) | b;
+    }
+
+    /**
+     * Append a packed color as a lowercase {@code #rrggbb} hex, the alpha is never rendered.
+     *
+     * @param argb the packed ARGB color
+     * @param out the {@link Appendable} to append the hex into
+     * @throws IOException if anything goes wrong when appending to the {@link Appendable}
+     */
+    public static void appendHexColor(int argb, @NonNull Appendable out) throws IOException {
+        out.append('#');
+        for (int shift = 20; shift >= 0; shift -= 4) {
+            out.append(HEX_DIGITS[(argb >>> shift) & 0xF]);
+        }
+    }
+
+    /**
+     * Format a packed color as a lowercase {@code #rrggbb} hex, the alpha is never rendered.
+     *
+     * @param argb the packed ARGB color
+     * @return the hex color string
+     */
+    public static String toHexColor(int argb) {
+        char[] hex = new char[7];
+        hex[0] = '#';
+        for (int i = 1, shift = 20; shift >= 0; i++, shift -= 4) {
+            hex[i] = HEX_DIGITS[(argb >>> shift) & 0xF];
+        }
+        return new String(hex);
+    }
+
+    private static int parseChannel(String input, int start, int width) {
+        int value = Character.digit(input.charAt(start), 16);
+        if (width == 1) {
+            return value * 0x11;
+        }
+        return (value << 4) | Character.digit(input.charAt(start + 1), 16);
+    }
+
+    private static double red(int argb) {
+        return ((argb >>> 16) & 0xFF) / 255F;
+    }
+
+    private static double green(int argb) {
+        return ((argb >>> 8) & 0xFF) / 255F;
+    }
+
+    private static double blue(int argb) {
+        return (argb & 0xFF) / 255F;
+    }
+
+    private static float sextantComponent(int n, double sextant, double value, double saturation) {
+        double k = (n + sextant) % 6;
+        return (float) (value - value * saturation * Math.max(Math.min(k, Math.min(4 - k, 1)), 0));
+    }
+
+    private static int toChannel(float component) {
+        return Math.min(Math.max(Math.round(component * 255F), 0), 255);
+    }
 }
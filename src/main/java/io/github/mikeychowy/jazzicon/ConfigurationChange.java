@@ -0,0 +1,89 @@
+package io.github.mikeychowy.jazzicon;
+
+/**
+ * An immutable description of a configuration change of a {@link JazzIcon}, given to its {@link
+ * ConfigurationListener}s. Every published configuration gets the next version, and its fingerprint identifies what it
+ * renders, see {@link JazzIcon#getFingerprint()}, so a cache keyed by fingerprint only has to drop the entries of
+ * {@link #getPreviousFingerprint()}.
+ */
+@SuppressWarnings("ClassCanBeRecord")
+public final class ConfigurationChange {
+    /** the version of the configuration replaced */
+    private final long previousVersion;
+    /** the version of the configuration published */
+    private final long version;
+    /** the fingerprint of the configuration replaced */
+    private final long previousFingerprint;
+    /** the fingerprint of the configuration published */
+    private final long fingerprint;
+
+    /**
+     * Create a new change
+     *
+     * @param previousVersion the version of the configuration replaced
+     * @param version the version of the configuration published
+     * @param previousFingerprint the fingerprint of the configuration replaced
+     * @param fingerprint the fingerprint of the configuration published
+     */
+    ConfigurationChange(long previousVersion, long version, long previousFingerprint, long fingerprint) {
+        this.previousVersion = previousVersion;
+        this.version = version;
+        this.previousFingerprint = previousFingerprint;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * The version of the configuration replaced
+     *
+     * @return the previous version
+     */
+    public long getPreviousVersion() {
+        return previousVersion;
+    }
+
+    /**
+     * The version of the configuration published, see {@link JazzIcon#getConfigurationVersion()}
+     *
+     * @return the new version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * The fingerprint of the configuration replaced
+     *
+     * @return the previous fingerprint
+     */
+    public long getPreviousFingerprint() {
+        return previousFingerprint;
+    }
+
+    /**
+     * The fingerprint of the configuration published
+     *
+     * @return the new fingerprint
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Whether the icons rendered by the new configuration differ from the ones of the previous one. Setting a value
+     * back to what it was doesn't change them.
+     *
+     * @return whether the fingerprint changed
+     */
+    public boolean isRenderingChanged() {
+        return previousFingerprint != fingerprint;
+    }
+
+    @Override
+    public String toString() {
+        return "ConfigurationChange{previousVersion=" + previousVersion
+                + ", version=" + version
+                + ", previousFingerprint=" + Long.toHexString(previousFingerprint)
+                + ", fingerprint=" + Long.toHexString(fingerprint)
+                + '}';
+    }
+}
@@ -0,0 +1,23 @@
+package io.github.mikeychowy.jazzicon;
+
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Notified every time a {@link JazzIcon} publishes a new configuration, see {@link
+ * JazzIcon#addConfigurationListener(ConfigurationListener)}. <br>
+ * <br>
+ * The listeners are called in the order they were added, on the thread making the change, while it still holds the
+ * configuration lock, so the changes are seen in version order. Renders never wait for a listener, but the next
+ * configuration change does, so keep them short. An exception thrown by a listener is logged and doesn't undo the
+ * change.
+ */
+@FunctionalInterface
+public interface ConfigurationListener {
+
+    /**
+     * Called after a new configuration has been published
+     *
+     * @param change the versions and fingerprints of the replaced and of the published configuration
+     */
+    void onChange(@NonNull ConfigurationChange change);
+}
@@ -0,0 +1,151 @@
+package io.github.mikeychowy.jazzicon;
+
+import java.io.IOException;
+import java.util.Locale;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Small utility class to write numbers into the svg without going through {@link java.util.Formatter}. <br>
+ * <br>
+ * The output is byte-identical to {@code String.format(Locale.US, "%.Nf", value)} and {@link String#valueOf(int)}.
+ */
+final class DecimalUtils {
+    /** The largest integer with a precomputed fragment, shape coordinates are picked from {@code 0..100} */
+    static final int MAX_FRAGMENT = 100;
+    /** The precomputed fragments of the integers {@code 0..MAX_FRAGMENT} */
+    private static final String[] INT_FRAGMENTS = new String[MAX_FRAGMENT + 1];
+    /** The powers of ten for the supported fraction digits */
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000};
+    /**
+     * Past this scaled value, the value times the power of ten of its fraction digits, the fast path can't tell a tie
+     * apart. The scaled value is off from the decimal the formatter rounds by at most a couple of its ulps, under
+     * {@code 1e-8} up to here, while past it the ulps alone reach {@link #TIE_MARGIN}, e.g. at {@code 1e9} with 6
+     * fraction digits.
+     */
+    private static final double MAX_FAST_SCALED = 1e7;
+    /** Past this magnitude a rounded value may not fit a long */
+    private static final double MAX_ROUNDED_MAGNITUDE = 1e12;
+    /**
+     * How close to a rounding tie the scaled value may get before falling back to {@link java.util.Formatter}. The
+     * formatter rounds the shortest decimal representation half up, which is only ambiguous right at a tie, and the
+     * scaling error for scaled values under {@link #MAX_FAST_SCALED} is over a hundred times below this.
+     */
+    private static final double TIE_MARGIN = 1e-6;
+
+    static {
+        for (int i = 0; i <= MAX_FRAGMENT; i++) {
+            INT_FRAGMENTS[i] = String.valueOf(i);
+        }
+    }
+
+    private DecimalUtils() {}
+
+    /**
+     * Append an integer, same output as {@link String#valueOf(int)}, from the precomputed fragments when in
+     * {@code 0..MAX_FRAGMENT}.
+     *
+     * @param value the integer to append
+     * @param out the {@link Appendable} to append into
+     * @throws IOException if anything goes wrong when appending to the {@link Appendable}
+     */
+    static void appendInt(int value, @NonNull Appendable out) throws IOException {
+        if (value >= 0 && value <= MAX_FRAGMENT) {
+            out.append(INT_FRAGMENTS[value]);
+        } else {
+            out.append(String.valueOf(value));
+        }
+    }
+
+    /**
+     * Append a decimal with a fixed count of fraction digits, same output as
+     * {@code String.format(Locale.US, "%." + fractionDigits + "f", value)}.
+     *
+     * @param value the decimal to append
+     * @param fractionDigits the count of digits after the decimal point, {@code 1..6}
+     * @param out the {@link Appendable} to append into
+     * @throws IOException if anything goes wrong when appending to the {@link Appendable}
+     */
+    static void appendFixed(double value, int fractionDigits, @NonNull Appendable out) throws IOException {
+        if (fractionDigits < 1 || fractionDigits >= POWERS_OF_TEN.length) {
+            throw new IllegalArgumentException("fractionDigits must be between 1 and " + (POWERS_OF_TEN.length - 1));
+        }
+        double magnitude = Math.abs(value);
+        long scale = POWERS_OF_TEN[fractionDigits];
+        double scaled = magnitude * scale;
+        double floor = Math.floor(scaled);
+        if (!(scaled < MAX_FAST_SCALED) || Math.abs(scaled - floor - 0.5) < TIE_MARGIN) {
+            out.append(String.format(Locale.US, "%." + fractionDigits + "f", value));
+            return;
+        }
+
+        long rounded = (long) floor + (scaled - floor > 0.5 ? 1 : 0);
+        appendRounded((rounded << 1) | (Double.doubleToRawLongBits(value) >>> 63), fractionDigits, out);
+    }
+
+    /**
+     * Round a decimal to a fixed count of fraction digits, for {@link #appendRounded(long, int, Appendable)} to append
+     * later with the same output as {@link #appendFixed(double, int, Appendable)}.
+     *
+     * @param value the decimal to round, finite and of a magnitude under {@code 1e12}
+     * @param fractionDigits the count of digits after the decimal point, {@code 1..6}
+     * @return the rounded magnitude in units of the last fraction digit, shifted left once, with the sign of the value
+     *     in the lowest bit, so a negative value rounding to zero keeps its sign
+     * @throws IllegalArgumentException if the value or the count of fraction digits is out of bounds
+     */
+    static long roundFixed(double value, int fractionDigits) throws IllegalArgumentException {
+        if (fractionDigits < 1 || fractionDigits >= POWERS_OF_TEN.length) {
+            throw new IllegalArgumentException("fractionDigits must be between 1 and " + (POWERS_OF_TEN.length - 1));
+        }
+        double magnitude = Math.abs(value);
+        if (!(magnitude < MAX_ROUNDED_MAGNITUDE)) {
+            throw new IllegalArgumentException("value must be finite and < " + MAX_ROUNDED_MAGNITUDE);
+        }
+        long sign = Double.doubleToRawLongBits(value) >>> 63;
+        double scaled = magnitude * POWERS_OF_TEN[fractionDigits];
+        double floor = Math.floor(scaled);
+        if (scaled < MAX_FAST_SCALED && Math.abs(scaled - floor - 0.5) >= TIE_MARGIN) {
+            return (((long) floor + (scaled - floor > 0.5 ? 1 : 0)) << 1) | sign;
+        }
+        // rounded the way the formatter does, from its own output
+        String formatted = String.format(Locale.US, "%." + fractionDigits + "f", magnitude);
+        return (Long.parseLong(formatted.replace(".", "")) << 1) | sign;
+    }
+
+    /**
+     * Append a decimal rounded by {@link #roundFixed(double, int)}
+     *
+     * @param rounded the rounded decimal
+     * @param fractionDigits the count of digits after the decimal point it was rounded to, {@code 1..6}
+     * @param out the {@link Appendable} to append into
+     * @throws IOException if anything goes wrong when appending to the {@link Appendable}
+     */
+    static void appendRounded(long rounded, int fractionDigits, @NonNull Appendable out) throws IOException {
+        // the formatter keeps the sign of negative values that round to zero, "-0.000"
+        if ((rounded & 1) != 0) {
+            out.append('-');
+        }
+        long scale = POWERS_OF_TEN[fractionDigits];
+        long magnitude = rounded >>> 1;
+        long integer = magnitude / scale;
+        if (integer <= MAX_FRAGMENT) {
+            out.append(INT_FRAGMENTS[(int) integer]);
+        } else {
+            appendDigits(integer, out);
+        }
+        out.append('.');
+        long fraction = magnitude % scale;
+        for (long digit = scale / 10; digit > 0; digit /= 10) {
+            out.append((char) ('0' + (fraction / digit) % 10));
+        }
+    }
+
+    private static void appendDigits(long value, Appendable out) throws IOException {
+        long digit = 1;
+        while (value / digit >= 10) {
+            digit *= 10;
+        }
+        for (; digit > 0; digit /= 10) {
+            out.append((char) ('0' + (value / digit) % 10));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.mikeychowy.jazzicon;
+
+/**
+ * A count-min sketch of 4-bit counters estimating how often a key has been seen recently, the TinyLFU admission
+ * filter of {@link IconCache}. <br>
+ * <br>
+ * Each key maps to one counter in each of four rows, and the estimate is the smallest of them. Once the samples reach
+ * ten times the capacity, every counter is halved so old popularity fades away. Not thread-safe, the cache only uses
+ * it under its policy lock.
+ */
+final class FrequencySketch {
+    /** the highest value of a 4-bit counter */
+    private static final int MAX_COUNT = 15;
+    /** the seeds of the four rows */
+    private static final long[] SEEDS = {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    /** clears the top bit of each counter after a shift, for halving all sixteen counters of a long at once */
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    /** sixteen 4-bit counters per long, the four rows are interleaved */
+    private final long[] table;
+    /** the mask of an index into {@link #table} */
+    private final int tableMask;
+    /** the count of increments after which all the counters are halved */
+    private final int sampleSize;
+    /** the count of increments since the last halving */
+    private int size;
+
+    /**
+     * Create a new sketch
+     *
+     * @param capacity the expected maximum count of entries of the cache
+     */
+    FrequencySketch(long capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be > 0");
+        }
+        int maximum = (int) Math.min(capacity, 1 << 26);
+        this.table = new long[Math.max(1, Integer.highestOneBit(maximum - 1) << 1)];
+        this.tableMask = table.length - 1;
+        this.sampleSize = 10 * maximum;
+    }
+
+    /**
+     * Estimate how often the key has been seen
+     *
+     * @param hash the hash of the key
+     * @return the estimated frequency, from 0 to 15
+     */
+    int frequency(int hash) {
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < SEEDS.length; row++) {
+            int index = indexOf(hash, row);
+            int offset = counterOffset(hash, row);
+            frequency = Math.min(frequency, (int) ((table[index] >>> offset) & MAX_COUNT));
+        }
+        return frequency;
+    }
+
+    /**
+     * Record one more sighting of the key
+     *
+     * @param hash the hash of the key
+     */
+    void increment(int hash) {
+        boolean added = false;
+        for (int row = 0; row < SEEDS.length; row++) {
+            int index = indexOf(hash, row);
+            int offset = counterOffset(hash, row);
+            if (((table[index] >>> offset) & MAX_COUNT) != MAX_COUNT) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++size >= sampleSize) {
+            reset();
+        }
+    }
+
+    /** Halve every counter */
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size /= 2;
+    }
+
+    private int indexOf(int hash, int row) {
+        long spread = (hash + SEEDS[row]) * SEEDS[row];
+        spread += spread >>> 32;
+        return (int) spread & tableMask;
+    }
+
+    private static int counterOffset(int hash, int row) {
+        // each row owns a quarter of the sixteen counters of a long
+        return ((row << 2) + ((hash >>> (row << 3)) & 3)) << 2;
+    }
+}
@@ -0,0 +1,72 @@
+package io.github.mikeychowy.jazzicon;
+
+import org.jspecify.annotations.NonNull;
+
+/**
+ * A 64-bit hash of the text, see {@link SeedStrategy#hash64()}. The rounds and the final avalanche are the ones of
+ * xxHash64, over the UTF-16 characters read 4 at a time straight from the {@link CharSequence}, nothing is copied or
+ * encoded.
+ */
+enum Hash64SeedStrategy implements SeedStrategy {
+    /** the only instance */
+    INSTANCE;
+
+    /** the longest text hashed whole, a longer one only has its head, its tail and its length hashed */
+    static final int MAXIMUM_HASHED = 4096;
+    /** the characters hashed from each end of a longer text */
+    private static final int HASHED_END = MAXIMUM_HASHED / 2;
+
+    private static final long PRIME_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME_3 = 0x165667B19E3779F9L;
+    private static final long PRIME_4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME_5 = 0x27D4EB2F165667C5L;
+
+    @Override
+    public String id() {
+        return "hash64";
+    }
+
+    @Override
+    public long seedOf(@NonNull CharSequence safeText) {
+        int length = safeText.length();
+        long hash = PRIME_5 + length;
+        if (length <= MAXIMUM_HASHED) {
+            hash = hashRange(safeText, 0, length, hash);
+        } else {
+            hash = hashRange(safeText, 0, HASHED_END, hash);
+            hash = hashRange(safeText, length - HASHED_END, length, hash);
+        }
+        return avalanche(hash);
+    }
+
+    private static long hashRange(CharSequence text, int from, int to, long hash) {
+        int i = from;
+        for (; i + 4 <= to; i += 4) {
+            long block = text.charAt(i)
+                    | (long) text.charAt(i + 1) << 16
+                    | (long) text.charAt(i + 2) << 32
+                    | (long) text.charAt(i + 3) << 48;
+            hash ^= round(block);
+            hash = Long.rotateLeft(hash, 27) * PRIME_1 + PRIME_4;
+        }
+        for (; i < to; i++) {
+            hash ^= text.charAt(i) * PRIME_5;
+            hash = Long.rotateLeft(hash, 11) * PRIME_1;
+        }
+        return hash;
+    }
+
+    private static long round(long block) {
+        return Long.rotateLeft(block * PRIME_2, 31) * PRIME_1;
+    }
+
+    private static long avalanche(long hash) {
+        hash ^= hash >>> 33;
+        hash *= PRIME_2;
+        hash ^= hash >>> 29;
+        hash *= PRIME_3;
+        hash ^= hash >>> 32;
+        return hash;
+    }
+}
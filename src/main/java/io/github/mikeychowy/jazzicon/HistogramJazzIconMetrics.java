@@ -0,0 +1,99 @@
+package io.github.mikeychowy.jazzicon;
+
+import org.jspecify.annotations.NonNull;
+
+/**
+ * {@link JazzIconMetrics} keeping a {@link LogHistogram} per phase, plus one of the bytes of the icons and one of the
+ * lock waits, in memory, to be scraped by whatever reports the metrics. One instance can be shared by several
+ * generators, their renders are then counted together.
+ *
+ * <p>Example:
+ *
+ * <pre>{@code
+ * HistogramJazzIconMetrics metrics = new HistogramJazzIconMetrics();
+ * JazzIcon generator = JazzIcon.builder().withMetrics(metrics).build();
+ * ...
+ * long p99 = metrics.getPhase(JazzIconMetrics.Phase.SHAPES).getValueAtPercentile(99);
+ * }</pre>
+ */
+public final class HistogramJazzIconMetrics implements JazzIconMetrics {
+    /** the nanoseconds of each phase, by the ordinal of the phase */
+    private final LogHistogram[] phases = new LogHistogram[Phase.values().length];
+    /** the bytes of each icon */
+    private final LogHistogram bytesWritten = new LogHistogram();
+    /** the nanoseconds each render waited for the lock */
+    private final LogHistogram lockWaits = new LogHistogram();
+
+    /** Create new, empty, metrics */
+    public HistogramJazzIconMetrics() {
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = new LogHistogram();
+        }
+    }
+
+    @Override
+    public void recordPhase(@NonNull Phase phase, long nanos) {
+        phases[phase.ordinal()].record(nanos);
+    }
+
+    @Override
+    public void recordBytesWritten(long bytes) {
+        bytesWritten.record(bytes);
+    }
+
+    @Override
+    public void recordLockWait(long nanos) {
+        lockWaits.record(nanos);
+    }
+
+    /**
+     * The durations of a phase
+     *
+     * @param phase the phase
+     * @return the live histogram of the durations of the phase, in nanoseconds
+     */
+    public LogHistogram getPhase(@NonNull Phase phase) {
+        return phases[phase.ordinal()];
+    }
+
+    /**
+     * The sizes of the icons handed over as bytes or as a String
+     *
+     * @return the live histogram of the UTF-8 bytes of each icon, its sum is the total of the bytes written
+     */
+    public LogHistogram getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * The time the renders waited for the generator's lock
+     *
+     * @return the live histogram of the lock waits, in nanoseconds
+     */
+    public LogHistogram getLockWaits() {
+        return lockWaits;
+    }
+
+    /** Forget everything recorded so far */
+    public void reset() {
+        for (LogHistogram phase : phases) {
+            phase.reset();
+        }
+        bytesWritten.reset();
+        lockWaits.reset();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("HistogramJazzIconMetrics{");
+        for (Phase phase : Phase.values()) {
+            sb.append(phase).append('=').append(getPhase(phase)).append(", ");
+        }
+        return sb.append("bytesWritten=")
+                .append(bytesWritten)
+                .append(", lockWaits=")
+                .append(lockWaits)
+                .append('}')
+                .toString();
+    }
+}
@@ -0,0 +1,228 @@
+package io.github.mikeychowy.jazzicon;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Lazily precomputed results of {@link ColorUtils#rotateHue(float, float, float, double)} for the colors of a palette,
+ * over the whole range of hue shifts a given wobble can produce. <br>
+ * <br>
+ * The hue shift of a render is {@code (30 * position) - (wobble / 2.0F)} with {@code position} in {@code [0, 1)}, so it
+ * always falls in a 30 degrees wide window. The window is cut into {@link #STEPS_PER_DEGREE} buckets per degree. Within
+ * one sextant of the color wheel only one RGB channel changes and it changes monotonically, so a bucket whose ends stay
+ * in the same sextant either has a single output, or two outputs one step apart split by an exact threshold that is
+ * found by bisection. Any other bucket, and any hue shift outside the window, is computed exactly. The lookups are
+ * therefore bit-identical to {@link JazzIcon#rotateColor(String, double)}. <br>
+ * <br>
+ * A bucket is only filled the first time a color is rotated by a hue shift falling in it, so building the table costs
+ * nothing whatever the size of the palette, and a render pays at most one bisection per color it picks.
+ */
+final class HueRotationTable {
+    /** How many buckets each degree of hue shift is cut into */
+    static final int STEPS_PER_DEGREE = 16;
+    /** The width of the hue shift window in degrees, from {@code 30 * position} */
+    private static final int WINDOW_DEGREES = 30;
+    /** Count of buckets per color */
+    private static final int BUCKETS = WINDOW_DEGREES * STEPS_PER_DEGREE;
+    /** How far each bucket is widened when checked, to absorb rounding when a hue shift is assigned to a bucket */
+    private static final double BUCKET_SLACK = 1e-9;
+    /** The filled bucket of the hue shifts that have to be computed exactly */
+    private static final Bucket EXACT = new Bucket(Double.NaN, 0, 0);
+
+    /** The HSV hue of each palette color, NaN for greys */
+    private final float[] hues;
+    /** The HSV saturation of each palette color */
+    private final float[] saturations;
+    /** The HSV value of each palette color */
+    private final float[] values;
+    /** The lowest hue shift covered, {@code -(wobble / 2.0F)} */
+    private final double origin;
+    /**
+     * Per color, its buckets, null until the color is first rotated inside the window. A bucket is null until it is
+     * filled, the buckets are immutable so a racing thread either sees a whole bucket or fills its own copy.
+     */
+    private final AtomicReferenceArray<Bucket[]> buckets;
+
+    /**
+     * Create the table for the supplied palette colors and wobble, the arrays are copied and nothing is computed until
+     * a color is rotated.
+     *
+     * @param packedColors the palette colors as packed ARGB ints, in the palette's order
+     * @param hues the HSV hue of each palette color
+     * @param saturations the HSV saturation of each palette color
+     * @param values the HSV value of each palette color
+     * @param wobble the wobble used for color rotating into hue shift
+     */
+    HueRotationTable(
+            int @NonNull [] packedColors,
+            float @NonNull [] hues,
+            float @NonNull [] saturations,
+            float @NonNull [] values,
+            int wobble) {
+        this.hues = hues.clone();
+        this.saturations = saturations.clone();
+        this.values = values.clone();
+        this.origin = -(wobble / 2.0F);
+        this.buckets = new AtomicReferenceArray<>(packedColors.length);
+    }
+
+    /**
+     * Get the count of the colors in the table
+     *
+     * @return the count of the colors
+     */
+    int size() {
+        return hues.length;
+    }
+
+    /**
+     * Rotate the color at the supplied index of the palette.
+     *
+     * @param colorIndex the index of the color in the palette's order
+     * @param hueShift the hueShift for the color on the color wheel
+     * @return the packed rotated color, same as {@link ColorUtils#rotateHue(float, float, float, double)}
+     */
+    int rotate(int colorIndex, double hueShift) {
+        double offset = (hueShift - origin) * STEPS_PER_DEGREE;
+        if (offset >= 0 && offset < BUCKETS) {
+            Bucket bucket = bucket(colorIndex, (int) offset);
+            if (bucket != EXACT) {
+                return hueShift < bucket.threshold ? bucket.below : bucket.above;
+            }
+        }
+        return rotateExactly(colorIndex, hueShift);
+    }
+
+    /**
+     * Rotate every color of the palette into the supplied array.
+     *
+     * @param hueShift the hueShift for the colors on the color wheel
+     * @param out the array to write the packed rotated colors into, in the palette's order, at least {@link #size()}
+     *     long
+     */
+    void rotateAll(double hueShift, int @NonNull [] out) {
+        for (int i = 0; i < hues.length; i++) {
+            out[i] = rotate(i, hueShift);
+        }
+    }
+
+    /**
+     * Count the buckets filled so far, over all the colors
+     *
+     * @return the count of the filled buckets
+     */
+    int filledBuckets() {
+        int filled = 0;
+        for (int color = 0; color < buckets.length(); color++) {
+            Bucket[] row = buckets.get(color);
+            if (Objects.nonNull(row)) {
+                for (Bucket bucket : row) {
+                    filled += Objects.isNull(bucket) ? 0 : 1;
+                }
+            }
+        }
+        return filled;
+    }
+
+    private int rotateExactly(int colorIndex, double hueShift) {
+        return ColorUtils.rotateHue(hues[colorIndex], saturations[colorIndex], values[colorIndex], hueShift);
+    }
+
+    private Bucket bucket(int color, int index) {
+        Bucket[] row = buckets.get(color);
+        if (Objects.isNull(row)) {
+            buckets.compareAndSet(color, null, new Bucket[BUCKETS]);
+            row = buckets.get(color);
+        }
+        Bucket bucket = row[index];
+        if (Objects.isNull(bucket)) {
+            bucket = fillBucket(color, index);
+            row[index] = bucket;
+        }
+        return bucket;
+    }
+
+    private Bucket fillBucket(int color, int bucket) {
+        double low = origin + (double) bucket / STEPS_PER_DEGREE - BUCKET_SLACK;
+        double high = origin + (double) (bucket + 1) / STEPS_PER_DEGREE + BUCKET_SLACK;
+        if (sextant(hues[color], low) != sextant(hues[color], high)) {
+            return EXACT;
+        }
+
+        int lowColor = rotateExactly(color, low);
+        int highColor = rotateExactly(color, high);
+        if (lowColor == highColor) {
+            return new Bucket(Double.POSITIVE_INFINITY, lowColor, lowColor);
+        }
+        if (!isSingleStep(lowColor, highColor)) {
+            return EXACT;
+        }
+
+        // the output is a monotonic step function in this bucket, find the exact shift where it steps
+        double stepped = high;
+        while (true) {
+            double middle = low + (stepped - low) / 2;
+            if (middle <= low || middle >= stepped) {
+                break;
+            }
+            if (rotateExactly(color, middle) == lowColor) {
+                low = middle;
+            } else {
+                stepped = middle;
+            }
+        }
+        return new Bucket(stepped, lowColor, highColor);
+    }
+
+    /**
+     * The sextant of the color wheel the rotated hue lands in, mirroring the float steps of
+     * {@link ColorUtils#rotateHue(float, float, float, double)}. Hue shifts that wrap around the wheel get a different
+     * value on each side of the wrap.
+     */
+    private static int sextant(float hue, double hueShift) {
+        if (Float.isNaN(hue)) {
+            // greys ignore the hue altogether
+            return -1;
+        }
+        double unwrapped = hue + hueShift;
+        double newHue = unwrapped % 360.0;
+        if (newHue < 0) {
+            newHue += 360.0;
+        }
+        float normalized = (((float) newHue % 360F) + 360F) % 360F;
+        return (int) Math.floor(unwrapped / 60.0) * 6 + (int) (normalized / 60.0);
+    }
+
+    /** Whether the two packed colors differ by exactly one step in exactly one channel */
+    private static boolean isSingleStep(int lowColor, int highColor) {
+        int differences = 0;
+        for (int shift = 0; shift <= 16; shift += 8) {
+            int lowValue = (lowColor >>> shift) & 0xFF;
+            int highValue = (highColor >>> shift) & 0xFF;
+            if (lowValue != highValue) {
+                if (Math.abs(lowValue - highValue) != 1) {
+                    return false;
+                }
+                differences++;
+            }
+        }
+        return differences == 1;
+    }
+
+    /** A filled bucket of one color */
+    private static final class Bucket {
+        /** the hue shift from which {@link #above} applies */
+        private final double threshold;
+        /** the packed rotated color below the threshold */
+        private final int below;
+        /** the packed rotated color from the threshold on */
+        private final int above;
+
+        private Bucket(double threshold, int below, int above) {
+            this.threshold = threshold;
+            this.below = below;
+            this.above = above;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package io.github.mikeychowy.jazzicon;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.apache.commons.lang3.StringUtils;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Renders a batch of texts in parallel on an {@link Executor}, and delivers the results in input order on the calling
+ * thread as soon as they are ready. The texts are read as the renders free up: at most {@link #WINDOW} renders are
+ * running and at most {@link #LOOKAHEAD} inputs are read ahead of the delivered results, so a batch of any size only
+ * holds a window of icons in memory. A trimmed text repeated within the inputs read ahead is only rendered once.
+ */
+final class IconBatch {
+    /** the maximum count of renders running at once */
+    static final int WINDOW = 256;
+    /** the maximum count of inputs read ahead of the delivered results */
+    static final int LOOKAHEAD = WINDOW * 4;
+
+    private IconBatch() {
+        // static helper
+    }
+
+    /**
+     * Render a batch, delivering one result per input in input order
+     *
+     * @param texts the texts to be the seeds of the icons, iterated once, a duplicate read ahead shares the render
+     * @param executor the executor to render on
+     * @param render renders one text into its UTF-8 bytes
+     * @param consumer receives the results in input order, on the calling thread
+     */
+    static void generate(
+            @NonNull Iterable<String> texts,
+            @NonNull Executor executor,
+            @NonNull Function<String, byte[]> render,
+            @NonNull Consumer<IconResult> consumer) {
+        Iterator<String> inputs = texts.iterator();
+        Deque<PendingInput> readAhead = new ArrayDeque<>();
+        // the renders of the inputs read ahead, by trimmed text
+        Map<String, SharedRender> renders = new HashMap<>();
+        AtomicInteger running = new AtomicInteger();
+        // released once per finished render, to read further as soon as one frees up
+        Semaphore finished = new Semaphore(0);
+        int nextIndex = 0;
+        while (true) {
+            while (inputs.hasNext()
+                    && (readAhead.isEmpty() || (running.get() < WINDOW && readAhead.size() < LOOKAHEAD))) {
+                String text = inputs.next();
+                SharedRender shared = renders.computeIfAbsent(keyOf(text), key -> {
+                    running.incrementAndGet();
+                    CompletableFuture<byte[]> icon = submit(text, executor, render);
+                    icon.whenComplete((bytes, failure) -> {
+                        running.decrementAndGet();
+                        finished.release();
+                    });
+                    return new SharedRender(icon);
+                });
+                shared.deliveries++;
+                readAhead.add(new PendingInput(nextIndex++, text, shared));
+            }
+            PendingInput head = readAhead.peek();
+            if (Objects.isNull(head)) {
+                return;
+            }
+            if (!head.render.icon.isDone() && inputs.hasNext() && readAhead.size() < LOOKAHEAD) {
+                // only held back by the running renders, read further once one of them is done
+                finished.acquireUninterruptibly();
+                continue;
+            }
+            readAhead.poll();
+            IconResult result = await(head.index, head.text, head.render.icon);
+            if (--head.render.deliveries == 0) {
+                renders.remove(keyOf(head.text));
+            }
+            consumer.accept(result);
+        }
+    }
+
+    /**
+     * Render a batch into a list
+     *
+     * @param texts the texts to be the seeds of the icons, iterated once, a duplicate read ahead shares the render
+     * @param executor the executor to render on
+     * @param render renders one text into its UTF-8 bytes
+     * @return one result per input, in input order
+     */
+    static List<IconResult> generate(
+            @NonNull Iterable<String> texts, @NonNull Executor executor, @NonNull Function<String, byte[]> render) {
+        List<IconResult> results = new ArrayList<>();
+        generate(texts, executor, render, results::add);
+        return results;
+    }
+
+    private static String keyOf(String text) {
+        return StringUtils.trimToEmpty(text);
+    }
+
+    /**
+     * Start rendering one text
+     *
+     * @param text the text to be the seed of the icon
+     * @param executor the executor to render on
+     * @param render renders one text into its UTF-8 bytes
+     * @return the future icon bytes, failed if the executor rejected the render
+     */
+    static CompletableFuture<byte[]> submit(String text, Executor executor, Function<String, byte[]> render) {
+        try {
+            return CompletableFuture.supplyAsync(() -> render.apply(text), executor);
+        } catch (RuntimeException e) {
+            // e.g. rejected by a saturated or shut down executor, only fails this text
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Turn the outcome of a render into a result, errors are rethrown
+     *
+     * @param index the position of the input
+     * @param text the input text
+     * @param icon the icon bytes, null if the render failed
+     * @param failure why the render failed, possibly wrapped in a {@link CompletionException}
+     * @return the result
+     */
+    static IconResult toResult(int index, String text, byte @Nullable [] icon, @Nullable Throwable failure) {
+        if (Objects.isNull(failure)) {
+            return IconResult.success(index, text, Objects.requireNonNull(icon));
+        }
+        Throwable cause = failure instanceof CompletionException && Objects.nonNull(failure.getCause())
+                ? failure.getCause()
+                : failure;
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return IconResult.failure(
+                index,
+                text,
+                cause instanceof RuntimeException runtime
+                        ? runtime
+                        : new JazzIconGenerationException("error while generating icon", cause));
+    }
+
+    private static IconResult await(int index, String text, CompletableFuture<byte[]> icon) {
+        try {
+            return toResult(index, text, icon.join(), null);
+        } catch (RuntimeException e) {
+            // a CompletionException wrapping the failure, or the cancellation of the render
+            return toResult(index, text, null, e);
+        }
+    }
+
+    /** A render shared by the inputs read ahead with the same trimmed text */
+    private static final class SharedRender {
+        private final CompletableFuture<byte[]> icon;
+        /** how many of the inputs read ahead are still to be delivered from it */
+        private int deliveries;
+
+        private SharedRender(CompletableFuture<byte[]> icon) {
+            this.icon = icon;
+        }
+    }
+
+    /** An input read ahead, waiting to be delivered */
+    @SuppressWarnings("ClassCanBeRecord")
+    private static final class PendingInput {
+        private final int index;
+        private final String text;
+        private final SharedRender render;
+
+        private PendingInput(int index, String text, SharedRender render) {
+            this.index = index;
+            this.text = text;
+            this.render = render;
+        }
+    }
+}
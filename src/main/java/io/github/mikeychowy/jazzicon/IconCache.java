@@ -0,0 +1,373 @@
+package io.github.mikeychowy.jazzicon;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongPredicate;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A bounded cache of rendered icons with W-TinyLFU admission and eviction. <br>
+ * <br>
+ * New entries land in a small LRU window, then move to a segmented LRU main space split into probation and protected.
+ * When the main space is full, the newcomer from the window only gets in if the {@link FrequencySketch} has seen it
+ * more often than the entry about to be evicted, so a burst of one-off lookups can't flush the popular entries. <br>
+ * <br>
+ * A hit is a {@link ConcurrentHashMap} read plus an offer into a lossy per-thread-stripe ring buffer; the policy is
+ * only updated when the buffers are drained, under a lock that hits never wait for.
+ */
+final class IconCache {
+    /** the count of the read buffer stripes */
+    private static final int READ_BUFFER_STRIPES =
+            Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1)) << 1;
+    /** the count of the slots of each read buffer stripe */
+    private static final int READ_BUFFER_SIZE = 16;
+    /** the count of buffered reads in a stripe from which a drain is attempted */
+    private static final int READ_BUFFER_DRAIN_THRESHOLD = 4;
+    /** the share of the maximum weight given to the admission window */
+    private static final double WINDOW_SHARE = 0.01;
+    /** the share of the main space given to the protected segment */
+    private static final double PROTECTED_SHARE = 0.8;
+
+    /** the entries, the only structure hits touch */
+    private final ConcurrentHashMap<IconKey, Node> data = new ConcurrentHashMap<>();
+    /** the policy lock, held for writes and drains, never waited on by hits */
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    /** the admission filter, only touched under {@link #evictionLock} */
+    private final FrequencySketch sketch;
+    /** the read buffer stripes, see {@link ReadBuffer} */
+    private final ReadBuffer[] readBuffers = new ReadBuffer[READ_BUFFER_STRIPES];
+    /** whether the weight is the byte size of the icons, instead of 1 per icon */
+    private final boolean weighBytes;
+    /** the maximum total weight */
+    private final long maximumWeight;
+    /** the maximum weight of the window */
+    private final long windowMaximum;
+    /** the maximum weight of the protected segment */
+    private final long protectedMaximum;
+
+    /** the admission window, in LRU order, under {@link #evictionLock} */
+    private final LinkedHashSet<Node> window = new LinkedHashSet<>();
+    /** the probation segment of the main space, in LRU order, under {@link #evictionLock} */
+    private final LinkedHashSet<Node> probation = new LinkedHashSet<>();
+    /** the protected segment of the main space, in LRU order, under {@link #evictionLock} */
+    private final LinkedHashSet<Node> protectedSegment = new LinkedHashSet<>();
+    /** the weight of the window, under {@link #evictionLock} */
+    private long windowWeight;
+    /** the weight of the protected segment, under {@link #evictionLock} */
+    private long protectedWeight;
+    /** the weight of everything, under {@link #evictionLock} */
+    private volatile long totalWeight;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
+
+    /**
+     * Create a new cache
+     *
+     * @param maximumWeight the maximum count of icons, or of bytes if {@code weighBytes}
+     * @param weighBytes whether the weight is the byte size of the icons, instead of 1 per icon
+     */
+    IconCache(long maximumWeight, boolean weighBytes) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("maximumWeight must be > 0");
+        }
+        this.maximumWeight = maximumWeight;
+        this.weighBytes = weighBytes;
+        this.windowMaximum = Math.max(1, (long) (maximumWeight * WINDOW_SHARE));
+        this.protectedMaximum = (long) ((maximumWeight - windowMaximum) * PROTECTED_SHARE);
+        // an icon is a little over a kilobyte, close enough to size the sketch
+        this.sketch = new FrequencySketch(weighBytes ? Math.max(1, maximumWeight / 1024) : maximumWeight);
+        for (int i = 0; i < readBuffers.length; i++) {
+            readBuffers[i] = new ReadBuffer();
+        }
+    }
+
+    /**
+     * Get a cached icon, recording the hit or miss
+     *
+     * @param text the trimmed seed text
+     * @param fingerprint the fingerprint of the configuration the icon was rendered with
+     * @return the cached icon bytes, not to be modified, or null if not cached
+     */
+    byte @Nullable [] get(@NonNull String text, long fingerprint) {
+        Node node = data.get(new IconKey(text, fingerprint));
+        if (Objects.isNull(node)) {
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        ReadBuffer buffer = readBuffers[stripe()];
+        if (buffer.offer(node) && evictionLock.tryLock()) {
+            try {
+                drainReadBuffers();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+        return node.value;
+    }
+
+    /**
+     * Cache a freshly rendered icon, keeping the one already cached if another thread got there first
+     *
+     * @param text the trimmed seed text
+     * @param fingerprint the fingerprint of the configuration the icon was rendered with
+     * @param value the icon bytes, not to be modified afterwards
+     * @param loadTimeNanos how long the render took, for the stats
+     * @return the cached icon bytes, either {@code value} or the one cached before
+     */
+    byte @NonNull [] put(@NonNull String text, long fingerprint, byte @NonNull [] value, long loadTimeNanos) {
+        loadCount.increment();
+        totalLoadTime.add(loadTimeNanos);
+        IconKey key = new IconKey(text, fingerprint);
+        long weight = weighBytes ? value.length : 1;
+        try {
+            evictionLock.lock();
+            drainReadBuffers();
+            sketch.increment(key.hashCode());
+            if (weight > maximumWeight) {
+                // would evict everything else and still not fit
+                return value;
+            }
+            Node node = new Node(key, value, weight);
+            Node existing = data.putIfAbsent(key, node);
+            if (Objects.nonNull(existing)) {
+                return existing.value;
+            }
+            window.add(node);
+            windowWeight += weight;
+            totalWeight += weight;
+            evict();
+            return value;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Drop the cached icons of some configurations, the stats are kept
+     *
+     * @param dropFingerprint whether the icons of a configuration fingerprint are dropped
+     */
+    void invalidate(@NonNull LongPredicate dropFingerprint) {
+        try {
+            evictionLock.lock();
+            drainReadBuffers();
+            for (Node node : data.values()) {
+                if (dropFingerprint.test(node.key.getFingerprint())) {
+                    remove(node);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /** Drop every cached icon, the stats are kept */
+    void invalidateAll() {
+        try {
+            evictionLock.lock();
+            drainReadBuffers();
+            for (Node node : data.values()) {
+                node.alive = false;
+            }
+            data.clear();
+            window.clear();
+            probation.clear();
+            protectedSegment.clear();
+            windowWeight = 0;
+            protectedWeight = 0;
+            totalWeight = 0;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Get a snapshot of the stats
+     *
+     * @return the stats so far
+     */
+    @NonNull IconCacheStats stats() {
+        return new IconCacheStats(
+                hitCount.sum(),
+                missCount.sum(),
+                evictionCount.sum(),
+                loadCount.sum(),
+                totalLoadTime.sum(),
+                data.size(),
+                totalWeight);
+    }
+
+    /** Under {@link #evictionLock}, move the window overflow to probation and evict until the weight fits */
+    private void evict() {
+        // the newest arrival from the window competes with the probation LRU for its spot
+        Node candidate = null;
+        while (windowWeight > windowMaximum && !window.isEmpty()) {
+            candidate = removeFirst(window);
+            windowWeight -= candidate.weight;
+            candidate.segment = Segment.PROBATION;
+            probation.add(candidate);
+        }
+        while (totalWeight > maximumWeight) {
+            Node victim = first(probation);
+            if (Objects.isNull(victim)) {
+                victim = Objects.nonNull(first(protectedSegment)) ? first(protectedSegment) : first(window);
+            }
+            if (Objects.nonNull(candidate)
+                    && candidate.alive
+                    && candidate != victim
+                    && sketch.frequency(candidate.key.hashCode()) <= sketch.frequency(victim.key.hashCode())) {
+                // the newcomer isn't more popular than the entry it would replace, reject it instead
+                victim = candidate;
+            }
+            remove(Objects.requireNonNull(victim));
+            evictionCount.increment();
+        }
+    }
+
+    /** Under {@link #evictionLock}, apply the buffered reads to the policy */
+    private void drainReadBuffers() {
+        for (ReadBuffer buffer : readBuffers) {
+            buffer.drainTo(this);
+        }
+    }
+
+    /** Under {@link #evictionLock}, record an access to the node */
+    private void onAccess(Node node) {
+        sketch.increment(node.key.hashCode());
+        if (!node.alive) {
+            return;
+        }
+        switch (node.segment) {
+            case WINDOW -> {
+                window.remove(node);
+                window.add(node);
+            }
+            case PROBATION -> {
+                probation.remove(node);
+                node.segment = Segment.PROTECTED;
+                protectedSegment.add(node);
+                protectedWeight += node.weight;
+                while (protectedWeight > protectedMaximum && protectedSegment.size() > 1) {
+                    Node demoted = removeFirst(protectedSegment);
+                    protectedWeight -= demoted.weight;
+                    demoted.segment = Segment.PROBATION;
+                    probation.add(demoted);
+                }
+            }
+            case PROTECTED -> {
+                protectedSegment.remove(node);
+                protectedSegment.add(node);
+            }
+        }
+    }
+
+    private void remove(Node node) {
+        node.alive = false;
+        data.remove(node.key, node);
+        switch (node.segment) {
+            case WINDOW -> {
+                window.remove(node);
+                windowWeight -= node.weight;
+            }
+            case PROBATION -> probation.remove(node);
+            case PROTECTED -> {
+                protectedSegment.remove(node);
+                protectedWeight -= node.weight;
+            }
+        }
+        totalWeight -= node.weight;
+    }
+
+    private static @Nullable Node first(LinkedHashSet<Node> segment) {
+        Iterator<Node> iterator = segment.iterator();
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    private static Node removeFirst(LinkedHashSet<Node> segment) {
+        Iterator<Node> iterator = segment.iterator();
+        Node node = iterator.next();
+        iterator.remove();
+        return node;
+    }
+
+    private static int stripe() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & (READ_BUFFER_STRIPES - 1);
+    }
+
+    /** The segment a node is in */
+    private enum Segment {
+        WINDOW,
+        PROBATION,
+        PROTECTED
+    }
+
+    /** A cached icon, the policy fields are only touched under {@link #evictionLock} */
+    private static final class Node {
+        private final IconKey key;
+        private final byte[] value;
+        private final long weight;
+        private Segment segment = Segment.WINDOW;
+        private boolean alive = true;
+
+        private Node(IconKey key, byte[] value, long weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * A lossy ring buffer of recent hits. Offers that find it full are dropped, the sketch only needs a sample of the
+     * reads, so a hit never blocks on the policy.
+     */
+    private static final class ReadBuffer {
+        private final AtomicReferenceArray<Node> slots = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+        private final AtomicLong writeCount = new AtomicLong();
+        private volatile long readCount;
+
+        /** @return whether the buffer is full enough to be worth draining */
+        private boolean offer(Node node) {
+            long head = readCount;
+            long tail = writeCount.get();
+            long size = tail - head;
+            if (size >= READ_BUFFER_SIZE) {
+                return true;
+            }
+            if (writeCount.compareAndSet(tail, tail + 1)) {
+                slots.lazySet((int) (tail & (READ_BUFFER_SIZE - 1)), node);
+            }
+            return size + 1 >= READ_BUFFER_DRAIN_THRESHOLD;
+        }
+
+        /** Under the cache's policy lock, feed the buffered reads to the cache */
+        private void drainTo(IconCache cache) {
+            long head = readCount;
+            long tail = writeCount.get();
+            while (head < tail) {
+                int index = (int) (head & (READ_BUFFER_SIZE - 1));
+                Node node = slots.get(index);
+                if (Objects.isNull(node)) {
+                    // claimed but not published yet, picked up by the next drain
+                    break;
+                }
+                slots.lazySet(index, null);
+                cache.onAccess(node);
+                head++;
+            }
+            readCount = head;
+        }
+    }
+}
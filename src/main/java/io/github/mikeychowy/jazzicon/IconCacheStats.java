@@ -0,0 +1,139 @@
+package io.github.mikeychowy.jazzicon;
+
+/**
+ * An immutable snapshot of the statistics of a {@link CachingJazzIcon}, the counts are since the cache was created.
+ */
+@SuppressWarnings("ClassCanBeRecord")
+public final class IconCacheStats {
+    /** the count of lookups served from the cache */
+    private final long hitCount;
+    /** the count of lookups that had to render */
+    private final long missCount;
+    /** the count of icons evicted, or rejected by the admission filter */
+    private final long evictionCount;
+    /** the count of renders done for the cache */
+    private final long loadCount;
+    /** the total time spent rendering for the cache, in nanoseconds */
+    private final long totalLoadTimeNanos;
+    /** the count of icons currently cached */
+    private final long size;
+    /** the weight of the icons currently cached, either their count or their bytes */
+    private final long weight;
+
+    /**
+     * Create a new snapshot
+     *
+     * @param hitCount the count of lookups served from the cache
+     * @param missCount the count of lookups that had to render
+     * @param evictionCount the count of icons evicted, or rejected by the admission filter
+     * @param loadCount the count of renders done for the cache
+     * @param totalLoadTimeNanos the total time spent rendering for the cache, in nanoseconds
+     * @param size the count of icons currently cached
+     * @param weight the weight of the icons currently cached, either their count or their bytes
+     */
+    IconCacheStats(
+            long hitCount,
+            long missCount,
+            long evictionCount,
+            long loadCount,
+            long totalLoadTimeNanos,
+            long size,
+            long weight) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.loadCount = loadCount;
+        this.totalLoadTimeNanos = totalLoadTimeNanos;
+        this.size = size;
+        this.weight = weight;
+    }
+
+    /**
+     * The count of lookups served from the cache
+     *
+     * @return the count of hits
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * The count of lookups that had to render
+     *
+     * @return the count of misses
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * The count of icons evicted, or rejected by the admission filter
+     *
+     * @return the count of evictions
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * The count of renders done for the cache
+     *
+     * @return the count of loads
+     */
+    public long getLoadCount() {
+        return loadCount;
+    }
+
+    /**
+     * The total time spent rendering for the cache
+     *
+     * @return the total load time, in nanoseconds
+     */
+    public long getTotalLoadTimeNanos() {
+        return totalLoadTimeNanos;
+    }
+
+    /**
+     * The count of icons currently cached
+     *
+     * @return the count of cached icons
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * The weight of the icons currently cached, their count or their bytes depending on how the cache is bounded
+     *
+     * @return the weight of the cached icons
+     */
+    public long getWeight() {
+        return weight;
+    }
+
+    /**
+     * The share of lookups served from the cache
+     *
+     * @return the hit rate from 0 to 1, 1 if there has been no lookup yet
+     */
+    public double hitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    /**
+     * The average time spent rendering an icon for the cache
+     *
+     * @return the average load time in nanoseconds, 0 if there has been no load yet
+     */
+    public double averageLoadPenaltyNanos() {
+        return loadCount == 0 ? 0.0 : (double) totalLoadTimeNanos / loadCount;
+    }
+
+    @Override
+    public String toString() {
+        return "IconCacheStats{hitCount=" + hitCount + ", missCount=" + missCount + ", evictionCount=" + evictionCount
+                + ", loadCount=" + loadCount + ", totalLoadTimeNanos=" + totalLoadTimeNanos + ", size=" + size
+                + ", weight=" + weight + '}';
+    }
+}
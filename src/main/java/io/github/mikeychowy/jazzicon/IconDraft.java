@@ -0,0 +1,89 @@
+package io.github.mikeychowy.jazzicon;
+
+/**
+ * The mutable geometry of an icon while it is drawn, reused from one render to the next, see {@link IconModel} for its
+ * immutable counterpart. <br>
+ * <br>
+ * Everything is in primitive arrays, one slot per shape: the shape type, up to {@link #POINTS_PER_SHAPE} coordinates,
+ * the transform rounded the way it is written, and the packed color. The arrays may be longer than the count of
+ * shapes, the slots past it are garbage.
+ */
+final class IconDraft {
+    /** The most coordinates of a shape, the 8 of a polygon */
+    static final int POINTS_PER_SHAPE = 8;
+    /** The translation x and y, rounded to 3 fraction digits, and the rotation, rounded to 1 */
+    static final int TRANSFORM_VALUES = 3;
+    /** The fraction digits of the translation */
+    static final int TRANSLATE_DIGITS = 3;
+    /** The fraction digits of the rotation */
+    static final int ROTATE_DIGITS = 1;
+
+    /** the count of the shapes, on top of the background */
+    int shapeCount;
+    /** the {@link JazzIcon.ShapeType} ordinal of each shape */
+    byte[] shapes;
+    /** the coordinates of each shape, from 0 to 100, {@link #POINTS_PER_SHAPE} per shape */
+    byte[] points;
+    /** the transform of each shape, {@link #TRANSFORM_VALUES} per shape, rounded by {@link DecimalUtils#roundFixed} */
+    int[] transforms;
+    /** the packed color of the background, then of each shape */
+    int[] colors;
+
+    /**
+     * Create a new draft
+     *
+     * @param shapeCount the count of the shapes it has room for
+     */
+    IconDraft(int shapeCount) {
+        this.shapes = new byte[shapeCount];
+        this.points = new byte[shapeCount * POINTS_PER_SHAPE];
+        this.transforms = new int[shapeCount * TRANSFORM_VALUES];
+        this.colors = new int[shapeCount + 1];
+    }
+
+    /**
+     * Start a new drawing, growing the arrays if needed
+     *
+     * @param shapeCount the count of the shapes to be drawn
+     */
+    void reset(int shapeCount) {
+        if (shapes.length < shapeCount) {
+            shapes = new byte[shapeCount];
+            points = new byte[shapeCount * POINTS_PER_SHAPE];
+            transforms = new int[shapeCount * TRANSFORM_VALUES];
+            colors = new int[shapeCount + 1];
+        }
+        this.shapeCount = shapeCount;
+    }
+
+    /**
+     * Get the count of the coordinates of a shape type
+     *
+     * @param shapeType the {@link JazzIcon.ShapeType} ordinal
+     * @return 3 for a circle, {@link #POINTS_PER_SHAPE} for a polygon, none for a rectangle
+     */
+    static int pointCount(byte shapeType) {
+        if (shapeType == JazzIcon.ShapeType.CIRCLE.ordinal()) {
+            return 3;
+        }
+        return shapeType == JazzIcon.ShapeType.POLYGON.ordinal() ? POINTS_PER_SHAPE : 0;
+    }
+
+    /**
+     * Copy the drawing into arrays of its exact size, the unused coordinates left by earlier drawings zeroed
+     *
+     * @return the copy, sharing nothing with this draft
+     */
+    IconDraft copy() {
+        IconDraft copy = new IconDraft(shapeCount);
+        copy.shapeCount = shapeCount;
+        System.arraycopy(shapes, 0, copy.shapes, 0, shapeCount);
+        for (int slot = 0; slot < shapeCount; slot++) {
+            int offset = slot * POINTS_PER_SHAPE;
+            System.arraycopy(points, offset, copy.points, offset, pointCount(shapes[slot]));
+        }
+        System.arraycopy(transforms, 0, copy.transforms, 0, shapeCount * TRANSFORM_VALUES);
+        System.arraycopy(colors, 0, copy.colors, 0, shapeCount + 1);
+        return copy;
+    }
+}
@@ -0,0 +1,79 @@
+package io.github.mikeychowy.jazzicon;
+
+import org.jspecify.annotations.NonNull;
+
+/**
+ * The key of a rendered icon, the trimmed seed text and the fingerprint of the configuration it was rendered with.
+ * Only deterministic renders have a key, see {@link #isCacheable(String, JazzIconConfig)}.
+ */
+final class IconKey {
+    /** the trimmed seed text */
+    private final String text;
+    /** the fingerprint of the configuration, see {@link JazzIconConfig#getFingerprint()} */
+    private final long fingerprint;
+    /** the precomputed hash */
+    private final int hash;
+
+    /**
+     * Create a new key
+     *
+     * @param text the trimmed seed text
+     * @param fingerprint the fingerprint of the configuration
+     */
+    IconKey(@NonNull String text, long fingerprint) {
+        this.text = text;
+        this.fingerprint = fingerprint;
+        this.hash = 31 * text.hashCode() + Long.hashCode(fingerprint);
+    }
+
+    /**
+     * Whether the icon of a trimmed text is the same on every render with a configuration, texts of 3 characters or
+     * fewer are padded with random characters unless the padding is {@link JazzIcon.PaddingMode#DETERMINISTIC}
+     *
+     * @param trimmedText the trimmed seed text
+     * @param config the configuration snapshot to render with
+     * @return whether the icon can be cached
+     */
+    static boolean isCacheable(@NonNull String trimmedText, @NonNull JazzIconConfig config) {
+        return trimmedText.length() > 3 || config.getPaddingMode() == JazzIcon.PaddingMode.DETERMINISTIC;
+    }
+
+    /**
+     * Get the trimmed seed text
+     *
+     * @return the trimmed seed text
+     */
+    String getText() {
+        return text;
+    }
+
+    /**
+     * Get the fingerprint of the configuration
+     *
+     * @return the fingerprint of the configuration
+     */
+    long getFingerprint() {
+        return fingerprint;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IconKey other)) {
+            return false;
+        }
+        return fingerprint == other.fingerprint && text.equals(other.text);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "IconKey{text='" + text + "', fingerprint=" + Long.toHexString(fingerprint) + '}';
+    }
+}
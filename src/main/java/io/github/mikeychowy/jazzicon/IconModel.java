@@ -0,0 +1,343 @@
+package io.github.mikeychowy.jazzicon;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The immutable geometry of a JazzIcon: the background color, then the type, the coordinates, the transform and the
+ * color of each shape, without any of the SVG around it, see {@link JazzIcon#generateModel(String)}. <br>
+ * <br>
+ * It is a handful of primitive arrays, about 100 bytes for the default 4 shapes, so it is cheap to keep around, to
+ * send in its binary form, see {@link #toBytes()}, and to write in whichever format is needed afterwards, see
+ * {@link SvgIconSerializer}. The transforms are kept rounded the way they are written, so a model written as SVG is
+ * the same icon, byte for byte, as the one rendered directly.
+ */
+public final class IconModel {
+    /** The version of the binary form written by {@link #toBytes()} */
+    static final byte BINARY_VERSION = 1;
+
+    /** the geometry, never modified */
+    private final IconDraft draft;
+
+    /**
+     * Create a new model
+     *
+     * @param draft the geometry, owned by the model from now on
+     */
+    IconModel(@NonNull IconDraft draft) {
+        this.draft = draft;
+    }
+
+    /**
+     * Read a model from its binary form
+     *
+     * @param bytes the bytes written by {@link #toBytes()}
+     * @return the model
+     * @throws IllegalArgumentException if the bytes are null, truncated, of another version, or out of bounds
+     */
+    public static IconModel fromBytes(byte @NonNull [] bytes) throws IllegalArgumentException {
+        if (Objects.isNull(bytes)) {
+            throw new IllegalArgumentException("bytes must not be null");
+        }
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        try {
+            byte version = in.get();
+            if (version != BINARY_VERSION) {
+                throw new IllegalArgumentException("unsupported icon model version: " + version);
+            }
+            int shapeCount = in.getInt();
+            // every shape takes at least 15 bytes, a bigger count is garbage, not an allocation
+            if (shapeCount < 0 || shapeCount > in.remaining() / 15) {
+                throw new IllegalArgumentException("shapeCount out of bounds: " + shapeCount);
+            }
+            IconDraft draft = new IconDraft(shapeCount);
+            draft.reset(shapeCount);
+            draft.colors[0] = in.getInt();
+            for (int slot = 0; slot < shapeCount; slot++) {
+                byte code = in.get();
+                Shape shape = Shape.ofCode(code);
+                if (Objects.isNull(shape)) {
+                    throw new IllegalArgumentException("shape type out of bounds: " + code);
+                }
+                byte type = (byte) shape.getShapeType().ordinal();
+                draft.shapes[slot] = type;
+                int offset = slot * IconDraft.POINTS_PER_SHAPE;
+                for (int i = 0; i < IconDraft.pointCount(type); i++) {
+                    byte point = in.get();
+                    if (point < 0 || point > 100) {
+                        throw new IllegalArgumentException("point out of bounds: " + point);
+                    }
+                    draft.points[offset + i] = point;
+                }
+                int transform = slot * IconDraft.TRANSFORM_VALUES;
+                draft.transforms[transform] = in.getInt();
+                draft.transforms[transform + 1] = in.getInt();
+                draft.transforms[transform + 2] = in.getShort();
+                for (int i = transform; i < transform + IconDraft.TRANSFORM_VALUES; i++) {
+                    if (draft.transforms[i] < 0) {
+                        throw new IllegalArgumentException("transform out of bounds: " + draft.transforms[i]);
+                    }
+                }
+                draft.colors[slot + 1] = in.getInt();
+            }
+            if (in.hasRemaining()) {
+                throw new IllegalArgumentException("trailing bytes after the icon model: " + in.remaining());
+            }
+            return new IconModel(draft);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("icon model bytes are truncated", e);
+        }
+    }
+
+    /**
+     * Write the model in a compact binary form, read back by {@link #fromBytes(byte[])}: a version byte, the count of
+     * the shapes and the background color, then each shape's type, coordinates, transform and color.
+     *
+     * @return the bytes of the model
+     */
+    public byte[] toBytes() {
+        int size = 1 + Integer.BYTES * 2;
+        for (int slot = 0; slot < draft.shapeCount; slot++) {
+            size += 1 + IconDraft.pointCount(draft.shapes[slot]) + Integer.BYTES * 3 + Short.BYTES;
+        }
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.put(BINARY_VERSION);
+        out.putInt(draft.shapeCount);
+        out.putInt(draft.colors[0]);
+        for (int slot = 0; slot < draft.shapeCount; slot++) {
+            byte type = draft.shapes[slot];
+            out.put(Shape.of(JazzIcon.ShapeType.vals[type]).getCode());
+            out.put(draft.points, slot * IconDraft.POINTS_PER_SHAPE, IconDraft.pointCount(type));
+            int transform = slot * IconDraft.TRANSFORM_VALUES;
+            out.putInt(draft.transforms[transform]);
+            out.putInt(draft.transforms[transform + 1]);
+            // a rotation is under 540 degrees, rounded to 1 fraction digit it fits a short
+            out.putShort((short) draft.transforms[transform + 2]);
+            out.putInt(draft.colors[slot + 1]);
+        }
+        return out.array();
+    }
+
+    /**
+     * Get the count of the shapes, on top of the background
+     *
+     * @return the count of the shapes
+     */
+    public int getShapeCount() {
+        return draft.shapeCount;
+    }
+
+    /**
+     * Get the color of the background
+     *
+     * @return the packed ARGB color of the background
+     */
+    public int getBackgroundColor() {
+        return draft.colors[0];
+    }
+
+    /**
+     * Get the type of a shape
+     *
+     * @param index the index of the shape, from 0 to {@link #getShapeCount()} exclusive
+     * @return the type of the shape
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    public Shape getShapeType(int index) throws IndexOutOfBoundsException {
+        return Shape.of(JazzIcon.ShapeType.vals[draft.shapes[checkIndex(index)]]);
+    }
+
+    /**
+     * Get the coordinates of a shape, from 0 to 100: the cx, cy and r of a circle, the x and y of the 4 points of a
+     * polygon, none for a rectangle, which covers the whole icon
+     *
+     * @param index the index of the shape, from 0 to {@link #getShapeCount()} exclusive
+     * @return a copy of the coordinates
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    public int[] getPoints(int index) throws IndexOutOfBoundsException {
+        int offset = checkIndex(index) * IconDraft.POINTS_PER_SHAPE;
+        int[] points = new int[IconDraft.pointCount(draft.shapes[index])];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = draft.points[offset + i];
+        }
+        return points;
+    }
+
+    /**
+     * Get the horizontal translation of a shape, rounded to 3 fraction digits
+     *
+     * @param index the index of the shape, from 0 to {@link #getShapeCount()} exclusive
+     * @return the horizontal translation
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    public double getTranslateX(int index) throws IndexOutOfBoundsException {
+        return transform(index, 0, 1_000.0);
+    }
+
+    /**
+     * Get the vertical translation of a shape, rounded to 3 fraction digits
+     *
+     * @param index the index of the shape, from 0 to {@link #getShapeCount()} exclusive
+     * @return the vertical translation
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    public double getTranslateY(int index) throws IndexOutOfBoundsException {
+        return transform(index, 1, 1_000.0);
+    }
+
+    /**
+     * Get the rotation of a shape around the center of the icon, in degrees, rounded to 1 fraction digit
+     *
+     * @param index the index of the shape, from 0 to {@link #getShapeCount()} exclusive
+     * @return the rotation
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    public double getRotation(int index) throws IndexOutOfBoundsException {
+        return transform(index, 2, 10.0);
+    }
+
+    /**
+     * Get the color of a shape
+     *
+     * @param index the index of the shape, from 0 to {@link #getShapeCount()} exclusive
+     * @return the packed ARGB color of the shape
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    public int getColor(int index) throws IndexOutOfBoundsException {
+        return draft.colors[checkIndex(index) + 1];
+    }
+
+    /**
+     * Get the geometry, for the serializers
+     *
+     * @return the geometry, not to be modified
+     */
+    IconDraft getDraft() {
+        return draft;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IconModel)) {
+            return false;
+        }
+        IconDraft other = ((IconModel) o).draft;
+        return draft.shapeCount == other.shapeCount
+                && Arrays.equals(draft.shapes, other.shapes)
+                && Arrays.equals(draft.points, other.points)
+                && Arrays.equals(draft.transforms, other.transforms)
+                && Arrays.equals(draft.colors, other.colors);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(draft.shapes);
+        result = 31 * result + Arrays.hashCode(draft.points);
+        result = 31 * result + Arrays.hashCode(draft.transforms);
+        result = 31 * result + Arrays.hashCode(draft.colors);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("IconModel{backgroundColor=")
+                .append(ColorUtils.toHexColor(getBackgroundColor()))
+                .append(", shapes=[");
+        for (int i = 0; i < draft.shapeCount; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(getShapeType(i))
+                    .append(Arrays.toString(getPoints(i)))
+                    .append(" translate(")
+                    .append(getTranslateX(i))
+                    .append(' ')
+                    .append(getTranslateY(i))
+                    .append(") rotate(")
+                    .append(getRotation(i))
+                    .append(") ")
+                    .append(ColorUtils.toHexColor(getColor(i)));
+        }
+        return builder.append("]}").toString();
+    }
+
+    private int checkIndex(int index) {
+        return Objects.checkIndex(index, draft.shapeCount);
+    }
+
+    private double transform(int index, int value, double scale) {
+        int rounded = draft.transforms[checkIndex(index) * IconDraft.TRANSFORM_VALUES + value];
+        double magnitude = (rounded >>> 1) / scale;
+        return (rounded & 1) != 0 ? -magnitude : magnitude;
+    }
+
+    /**
+     * The type of a shape, a rectangle covering the whole icon, a circle, or a polygon of 4 points. Each type has its
+     * own code in the binary form and maps to the {@link JazzIcon.ShapeType} drawn, both spelled out rather than taken
+     * from the declaration order, so reordering either enum doesn't change the bytes or the shapes.
+     */
+    public enum Shape {
+        /** Corresponds to {@code <rect></rect>} */
+        RECTANGLE((byte) 0, JazzIcon.ShapeType.RECTANGLE),
+        /** Corresponds to {@code <circle></circle>} */
+        CIRCLE((byte) 1, JazzIcon.ShapeType.CIRCLE),
+        /** Corresponds to {@code <polygon></polygon>} */
+        POLYGON((byte) 2, JazzIcon.ShapeType.POLYGON),
+        ;
+
+        /** the code of the type in the binary form, see {@link #toBytes()} */
+        private final byte code;
+        /** the type drawn by the renders */
+        private final JazzIcon.ShapeType shapeType;
+
+        Shape(byte code, JazzIcon.@NonNull ShapeType shapeType) {
+            this.code = code;
+            this.shapeType = shapeType;
+        }
+
+        /**
+         * Get the type of a code of the binary form
+         *
+         * @param code the code of the type in the binary form
+         * @return the type, or null if no type has this code
+         */
+        static @Nullable Shape ofCode(byte code) {
+            for (Shape shape : values()) {
+                if (shape.code == code) {
+                    return shape;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Get the type of a shape drawn by the renders
+         *
+         * @param shapeType the type drawn by the renders
+         * @return the type of the model
+         */
+        static @NonNull Shape of(JazzIcon.@NonNull ShapeType shapeType) {
+            return switch (shapeType) {
+                case RECTANGLE -> RECTANGLE;
+                case CIRCLE -> CIRCLE;
+                case POLYGON -> POLYGON;
+            };
+        }
+
+        byte getCode() {
+            return code;
+        }
+
+        JazzIcon.@NonNull ShapeType getShapeType() {
+            return shapeType;
+        }
+    }
+}
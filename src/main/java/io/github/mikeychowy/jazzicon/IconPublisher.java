@@ -0,0 +1,173 @@
+package io.github.mikeychowy.jazzicon;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * A {@link Flow.Publisher} of the icons of a sequence of texts, rendered in parallel on an {@link Executor} and emitted
+ * in input order. Renders only start once demanded, at most {@link #MAXIMUM_IN_FLIGHT} ahead of the emitted results,
+ * so a slow subscriber holds back the rendering instead of piling up icons. Each subscriber iterates the texts anew.
+ */
+final class IconPublisher implements Flow.Publisher<IconResult> {
+    /** the maximum count of renders in flight or waiting to be emitted, per subscription */
+    static final int MAXIMUM_IN_FLIGHT = 64;
+
+    /** the texts to be the seeds of the icons */
+    private final Iterable<String> texts;
+    /** the executor to render on */
+    private final Executor executor;
+    /** renders one text into its UTF-8 bytes */
+    private final Function<String, byte[]> render;
+
+    /**
+     * Create a new publisher
+     *
+     * @param texts the texts to be the seeds of the icons
+     * @param executor the executor to render on
+     * @param render renders one text into its UTF-8 bytes
+     */
+    IconPublisher(
+            @NonNull Iterable<String> texts, @NonNull Executor executor, @NonNull Function<String, byte[]> render) {
+        this.texts = texts;
+        this.executor = executor;
+        this.render = render;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super IconResult> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber must not be null");
+        IconSubscription subscription = new IconSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        subscription.start();
+    }
+
+    /**
+     * One subscription, all its state is only touched by the thread winning {@link #drain()}, so the subscriber is
+     * signalled serially as the spec requires.
+     */
+    private final class IconSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super IconResult> subscriber;
+        /** the demanded count of results not emitted yet */
+        private final AtomicLong demand = new AtomicLong();
+        /** the count of drain requests, only the one raising it from 0 drains */
+        private final AtomicInteger wip = new AtomicInteger();
+        /** the renders in input order, the oldest first */
+        private final ArrayDeque<PendingRender> pending = new ArrayDeque<>();
+        private Iterator<String> inputs;
+        private int nextIndex;
+        private volatile boolean cancelled;
+        /** the first non-positive request, 1 as long as there has been none */
+        private volatile long invalidRequest = 1;
+        private boolean done;
+
+        private IconSubscription(Flow.Subscriber<? super IconResult> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        private void start() {
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = Math.min(invalidRequest, n);
+            } else {
+                // capped at Long.MAX_VALUE, which means unbounded
+                demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                drainOnce();
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drainOnce() {
+            if (done) {
+                return;
+            }
+            if (cancelled) {
+                finish();
+                return;
+            }
+            if (invalidRequest <= 0) {
+                finish();
+                subscriber.onError(new IllegalArgumentException("request must be > 0, got: " + invalidRequest));
+                return;
+            }
+            try {
+                if (Objects.isNull(inputs)) {
+                    inputs = texts.iterator();
+                }
+                while (demand.get() > 0 && !pending.isEmpty() && pending.peek().future.isDone()) {
+                    PendingRender head = pending.poll();
+                    IconResult result = head.future
+                            .handle((icon, failure) -> IconBatch.toResult(head.index, head.text, icon, failure))
+                            .join();
+                    demand.decrementAndGet();
+                    subscriber.onNext(result);
+                    if (cancelled) {
+                        finish();
+                        return;
+                    }
+                }
+                // only render what has been demanded, and no further than the window ahead
+                while (pending.size() < Math.min(demand.get(), MAXIMUM_IN_FLIGHT) && inputs.hasNext()) {
+                    String text = inputs.next();
+                    CompletableFuture<byte[]> future = IconBatch.submit(text, executor, render);
+                    pending.add(new PendingRender(nextIndex++, text, future));
+                    future.whenComplete((icon, failure) -> drain());
+                }
+                if (pending.isEmpty() && !inputs.hasNext()) {
+                    finish();
+                    subscriber.onComplete();
+                }
+            } catch (RuntimeException | Error e) {
+                // a failing iterator, or an error rethrown from a render
+                finish();
+                subscriber.onError(e);
+            }
+        }
+
+        private void finish() {
+            done = true;
+            pending.clear();
+        }
+    }
+
+    /** A render in flight or waiting to be emitted */
+    @SuppressWarnings("ClassCanBeRecord")
+    private static final class PendingRender {
+        private final int index;
+        private final String text;
+        private final CompletableFuture<byte[]> future;
+
+        private PendingRender(int index, String text, CompletableFuture<byte[]> future) {
+            this.index = index;
+            this.text = text;
+            this.future = future;
+        }
+    }
+}
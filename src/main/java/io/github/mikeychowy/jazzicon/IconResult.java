@@ -0,0 +1,122 @@
+package io.github.mikeychowy.jazzicon;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The outcome of one input of a batch generation, either the icon or the failure to render it. A failure only fails its
+ * own input, the rest of the batch is still rendered.
+ */
+public final class IconResult {
+    /** the position of the input in the batch */
+    private final int index;
+    /** the input text */
+    private final @Nullable String text;
+    /** the UTF-8 bytes of the icon, null if the render failed, shared with the duplicates of the input */
+    private final byte @Nullable [] icon;
+    /** the reason the render failed, null if it succeeded */
+    private final @Nullable RuntimeException failure;
+
+    private IconResult(
+            int index, @Nullable String text, byte @Nullable [] icon, @Nullable RuntimeException failure) {
+        this.index = index;
+        this.text = text;
+        this.icon = icon;
+        this.failure = failure;
+    }
+
+    /**
+     * Create a successful result
+     *
+     * @param index the position of the input in the batch
+     * @param text the input text
+     * @param icon the UTF-8 bytes of the icon, not to be modified afterwards
+     * @return the result
+     */
+    static IconResult success(int index, @Nullable String text, byte @NonNull [] icon) {
+        return new IconResult(index, text, icon, null);
+    }
+
+    /**
+     * Create a failed result
+     *
+     * @param index the position of the input in the batch
+     * @param text the input text
+     * @param failure the reason the render failed
+     * @return the result
+     */
+    static IconResult failure(int index, @Nullable String text, @NonNull RuntimeException failure) {
+        return new IconResult(index, text, null, failure);
+    }
+
+    /**
+     * The position of the input in the batch, results are always delivered in this order
+     *
+     * @return the position of the input
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * The input text, as given
+     *
+     * @return the input text
+     */
+    public @Nullable String getText() {
+        return text;
+    }
+
+    /**
+     * Whether the icon has been rendered
+     *
+     * @return true if the icon has been rendered, false if the render failed
+     */
+    public boolean isSuccess() {
+        return Objects.isNull(failure);
+    }
+
+    /**
+     * The SVG string of the icon
+     *
+     * @return the SVG string of the icon
+     * @throws JazzIconGenerationException if the render failed, with the failure as its cause
+     */
+    public String getIcon() throws JazzIconGenerationException {
+        return new String(checkedIcon(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The UTF-8 bytes of the SVG of the icon
+     *
+     * @return a copy of the UTF-8 bytes of the icon
+     * @throws JazzIconGenerationException if the render failed, with the failure as its cause
+     */
+    public byte[] getIconBytes() throws JazzIconGenerationException {
+        return checkedIcon().clone();
+    }
+
+    /**
+     * The reason the render failed
+     *
+     * @return the failure, null if the icon has been rendered
+     */
+    public @Nullable RuntimeException getFailure() {
+        return failure;
+    }
+
+    private byte[] checkedIcon() {
+        if (Objects.isNull(icon)) {
+            throw new JazzIconGenerationException("icon of batch input " + index + " failed to render", failure);
+        }
+        return icon;
+    }
+
+    @Override
+    public String toString() {
+        return "IconResult{index=" + index + ", text='" + text + "', "
+                + (isSuccess() ? "bytes=" + Objects.requireNonNull(icon).length : "failure=" + failure) + '}';
+    }
+}
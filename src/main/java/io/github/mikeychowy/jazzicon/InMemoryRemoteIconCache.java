@@ -0,0 +1,60 @@
+package io.github.mikeychowy.jazzicon;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * A {@link RemoteIconCache} in the memory of the JVM, unbounded, completing every call right away. <br>
+ * <br>
+ * A stand-in for a real shared cache: share one instance between several {@link CachingJazzIcon}s to have them behave
+ * like the nodes of a cluster, in tests or in a single node setup.
+ */
+public class InMemoryRemoteIconCache implements RemoteIconCache {
+    /** the stored icons by their keys */
+    private final Map<String, byte[]> icons = new ConcurrentHashMap<>();
+    /** the count of {@link #putAll(Map)} calls */
+    private final LongAdder batchCount = new LongAdder();
+
+    @Override
+    public @NonNull CompletionStage<byte[]> get(@NonNull String key) {
+        return CompletableFuture.completedFuture(icons.get(key));
+    }
+
+    @Override
+    public @NonNull CompletionStage<Void> putAll(@NonNull Map<String, byte[]> icons) {
+        if (Objects.isNull(icons)) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("icons must not be null"));
+        }
+        this.icons.putAll(icons);
+        batchCount.increment();
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Get the count of stored icons
+     *
+     * @return the count of stored icons
+     */
+    public int size() {
+        return icons.size();
+    }
+
+    /**
+     * Get the count of batches stored so far
+     *
+     * @return the count of {@link #putAll(Map)} calls
+     */
+    public long getBatchCount() {
+        return batchCount.sum();
+    }
+
+    /** Drop every stored icon */
+    public void clear() {
+        icons.clear();
+    }
+}
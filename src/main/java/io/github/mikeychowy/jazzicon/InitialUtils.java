@@ -1,11 +1,8 @@
 package io.github.mikeychowy.jazzicon;
 
 import com.machinezoo.noexception.Exceptions;
-import java.io.ByteArrayOutputStream;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.io.Writer;
-import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -18,6 +15,8 @@ public final class InitialUtils {
     /** The icon with initials generation error message */
     private static final String ICON_WITH_INITIALS_GENERATION_ERROR_MESSAGE =
             "error while generating icon with initials";
+    /** The opening tag of the initials without classes or styles, built once */
+    private static final String DEFAULT_TEXT_OPENING_TAG = buildTextOpeningTag(List.of(), List.of());
 
     private InitialUtils() {}
 
@@ -75,31 +74,48 @@ public final class InitialUtils {
         Exceptions.wrap(e -> new JazzIconGenerationException(ICON_WITH_INITIALS_GENERATION_ERROR_MESSAGE, e))
                 .run(() -> {
                     var initials = InitialUtils.getInitials(name);
+                    String openingTag = textOpeningTag(initialClasses, initialStyles);
                     generator.generateIconToWriter(
                             name,
                             out,
                             Exceptions.wrap(e -> new JazzIconGenerationException(
                                             "error while generating icon with initials", e))
                                     .consumer(w -> {
-                                        w.append("<text ");
-                                        if (!initialClasses.isEmpty()) {
-                                            w.append("class=\"");
-                                            w.append(String.join(" ", initialClasses));
-                                            w.append("\" ");
-                                        }
-                                        if (!initialStyles.isEmpty()) {
-                                            w.append("style=\"");
-                                            w.append(String.join(" ", initialStyles));
-                                            w.append("\" ");
-                                        }
-                                        w.append(
-                                                "x=\"50%\" y=\"50%\" text-anchor=\"middle\" dominant-baseline=\"middle\" class=\"fill-white font-bold text-[30px] font-sans\">");
+                                        w.append(openingTag);
                                         w.append(initials);
                                         w.append("</text>");
                                     }));
                 });
     }
 
+    /**
+     * Get the opening {@code <text>} tag of the initials, the one without classes or styles is built only once
+     *
+     * @param initialClasses the classes to be inserted to the initial
+     * @param initialStyles the styles to be inserted to the initial
+     * @return the opening tag of the initials
+     */
+    static String textOpeningTag(@NonNull List<String> initialClasses, @NonNull List<String> initialStyles) {
+        if (initialClasses.isEmpty() && initialStyles.isEmpty()) {
+            return DEFAULT_TEXT_OPENING_TAG;
+        }
+        return buildTextOpeningTag(initialClasses, initialStyles);
+    }
+
+    private static String buildTextOpeningTag(
+            @NonNull List<String> initialClasses, @NonNull List<String> initialStyles) {
+        StringBuilder tag = new StringBuilder("<text ");
+        if (!initialClasses.isEmpty()) {
+            tag.append("class=\"").append(String.join(" ", initialClasses)).append("\" ");
+        }
+        if (!initialStyles.isEmpty()) {
+            tag.append("style=\"").append(String.join(" ", initialStyles)).append("\" ");
+        }
+        tag.append(
+                "x=\"50%\" y=\"50%\" text-anchor=\"middle\" dominant-baseline=\"middle\" class=\"fill-white font-bold text-[30px] font-sans\">");
+        return tag.toString();
+    }
+
     /**
      * Generate the JazzIcon to a {@link Writer} with initials of the supplied name on top of the colorful icon. This is
      * a convenience method when you have no classes or styles to be inserted to the initial's element
@@ -132,9 +148,11 @@ public final class InitialUtils {
             @NonNull List<String> initialStyles) {
         Exceptions.wrap(e -> new JazzIconGenerationException(ICON_WITH_INITIALS_GENERATION_ERROR_MESSAGE, e))
                 .run(() -> {
-                    try (OutputStreamWriter osw = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)) {
-                        generateIconWithInitialsToWriter(generator, name, osw, initialClasses, initialStyles);
-                        osw.flush();
+                    AsciiByteSink sink = new AsciiByteSink();
+                    generateIconWithInitialsToWriter(generator, name, sink, initialClasses, initialStyles);
+                    try (OutputStream out = outputStream) {
+                        sink.writeTo(out);
+                        out.flush();
                     }
                 });
     }
@@ -171,10 +189,9 @@ public final class InitialUtils {
             throws JazzIconGenerationException {
         return Exceptions.wrap(e -> new JazzIconGenerationException(ICON_WITH_INITIALS_GENERATION_ERROR_MESSAGE, e))
                 .get(() -> {
-                    try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-                        generateIconWithInitialsToStream(generator, name, outputStream, initialClasses, initialStyles);
-                        return outputStream.toString(StandardCharsets.UTF_8);
-                    }
+                    AsciiByteSink sink = new AsciiByteSink();
+                    generateIconWithInitialsToWriter(generator, name, sink, initialClasses, initialStyles);
+                    return sink.toString();
                 });
     }
 
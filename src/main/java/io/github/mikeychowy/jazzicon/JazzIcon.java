@@ -4,22 +4,41 @@ import com.github.ajalt.colormath.RenderCondition;
 import com.github.ajalt.colormath.model.HSV;
 import com.github.ajalt.colormath.model.RGB;
 import com.machinezoo.noexception.Exceptions;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
+import java.util.Collection;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 import org.apache.commons.lang3.StringUtils;
+import org.hipparchus.random.ISAACRandom;
+import org.hipparchus.random.MersenneTwister;
 import org.hipparchus.random.RandomGenerator;
+import org.hipparchus.random.Well1024a;
+import org.hipparchus.random.Well19937a;
+import org.hipparchus.random.Well19937c;
+import org.hipparchus.random.Well44497a;
+import org.hipparchus.random.Well44497b;
 import org.hipparchus.random.Well512a;
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
@@ -28,8 +47,21 @@ import org.slf4j.LoggerFactory;
 
 /**
  * A JazzIcon generator, no more boring Jdenticons for Java, now we can bring funky new colors to the JVM. <br>
- * ALL REFERENCE (non-static) OPERATIONS ARE GUARANTEED TO BE THREAD-SAFE BY THE USE OF {@link ReentrantLock}, EVEN THE
- * GETTERS. <br>
+ * ALL REFERENCE (non-static) OPERATIONS ARE GUARANTEED TO BE THREAD-SAFE. CONFIGURATION CHANGES ARE SERIALIZED BY A
+ * {@link ReentrantLock} AND PUBLISHED AS AN IMMUTABLE SNAPSHOT, WHICH THE GETTERS AND THE RENDERS READ WITHOUT LOCKING.
+ * <br>
+ * <br>
+ * Each render uses its own {@link RandomGenerator} created by the random generator factory, seeded from the text, so
+ * concurrent renders run in parallel. Only when no factory is known for the configured generator (see
+ * {@link #setRandomGenerator(RandomGenerator)}) do the renders fall back to sharing that instance under the lock. <br>
+ * <br>
+ * The protected drawing methods ({@link #nextTransform(int, Writer)}, {@link #nextColor(List, Writer)},
+ * {@link #createShape(int, ShapeType, List, Writer)}, {@link #createShapes(List, Writer)},
+ * {@link #randomStringFromAllowedChars(int)} and {@link #tryBestGetSeedFromText(String)}) are deprecated. The renders
+ * only go through them for a subclass overriding one of them, which then renders under the lock like before, and can't
+ * draw an {@link IconModel}. Add to the icon with an svgBodyInterceptor or {@link #addSvgOverlay(String)}, and change
+ * how the text seeds it with {@link #setSeedStrategy(SeedStrategy)} instead.
+ * <br>
  * <br>
  * SO IF YOU WANT TO WIRE THIS AS A SINGLETON IN YOUR USAGE,YOU'RE WELCOME TO
  */
@@ -53,12 +85,48 @@ public class JazzIcon {
 
     /** The logger */
     private static final Logger log = LoggerFactory.getLogger(JazzIcon.class);
-    /** Lock to make sure operations are thread-safe */
+    /** whether a class overrides any of the deprecated drawing methods, computed once per class */
+    private static final ClassValue<Boolean> OVERRIDES_DRAWING_METHODS = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (Class<?> current = type; current != JazzIcon.class; current = current.getSuperclass()) {
+                for (Method method : current.getDeclaredMethods()) {
+                    if (isDrawingMethod(method)) {
+                        log.warn(
+                                "{} overrides the deprecated {}, its icons are rendered through it under the lock",
+                                type.getName(),
+                                method.getName());
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    };
+    /**
+     * Factories for the {@link RandomGenerator} implementations whose {@code setSeed} fully resets their state, so a
+     * fresh instance per render produces the same values as reseeding a shared one
+     */
+    private static final Map<Class<? extends RandomGenerator>, Supplier<RandomGenerator>> RESEEDABLE_GENERATORS =
+            Map.of(
+                    Well512a.class, Well512a::new,
+                    Well1024a.class, Well1024a::new,
+                    Well19937a.class, Well19937a::new,
+                    Well19937c.class, Well19937c::new,
+                    Well44497a.class, Well44497a::new,
+                    Well44497b.class, Well44497b::new,
+                    MersenneTwister.class, MersenneTwister::new,
+                    ISAACRandom.class, ISAACRandom::new,
+                    SplitMix64Random.class, SplitMix64Random::new);
+
+    /** Lock to make sure configuration changes are thread-safe */
     protected final ReentrantLock lock = new ReentrantLock(true);
     /** List of classes which will be inserted into "class" attribute of the generated svg */
     protected final List<String> svgClasses = new ArrayList<>();
     /** List of styles which will be inserted into "style" attribute of the generated svg */
     protected final List<String> svgStyles = new ArrayList<>();
+    /** List of static svg fragments appended on top of the shapes of every generated svg */
+    protected final List<String> svgOverlays = new ArrayList<>();
     /** the count of the shapes to be generated, MUST be > 0 */
     protected int shapeCount;
     /** the wobble used for color rotating into hue shift, randomness purpose, MUST be > 0 */
@@ -67,8 +135,26 @@ public class JazzIcon {
     protected ColorPalettes baseColors;
     /** allow list for characters to be randomly picked during seed text padding */
     protected String allowedCharactersForPaddingText;
+    /** how a short seed text is padded, {@link PaddingMode#RANDOM} by default */
+    protected PaddingMode paddingMode = PaddingMode.RANDOM;
     /** the {@link RandomGenerator} to be used to generate random values for JazzIcon calculation. */
     protected RandomGenerator randomGenerator;
+    /** creates a fresh {@link RandomGenerator} per render, null when renders have to share {@link #randomGenerator} */
+    protected @Nullable Supplier<RandomGenerator> randomGeneratorFactory;
+    /** derives the seed of the random draws from the text, {@link SeedStrategy#legacy()} by default */
+    protected SeedStrategy seedStrategy = SeedStrategy.legacy();
+    /** the listener of the timings of the renders, {@link JazzIconMetrics#noop()} by default */
+    protected JazzIconMetrics metrics = JazzIconMetrics.noop();
+    /** the immutable snapshot of the configuration above, used by the renders and getters */
+    private volatile JazzIconConfig config;
+    /** notified of every new snapshot, in the order they were added */
+    final List<ConfigurationListener> configurationListeners = new CopyOnWriteArrayList<>();
+    /** how deep the current thread is in {@link #reconfigure(Consumer)}, only touched under the {@link #lock} */
+    private int reconfigureDepth;
+    /** whether a snapshot has to be published once {@link #reconfigure(Consumer)} returns, under the {@link #lock} */
+    private boolean refreshPending;
+    /** whether this class overrides any of the deprecated drawing methods, so the renders have to go through them */
+    private final boolean drawingMethodsOverridden = OVERRIDES_DRAWING_METHODS.get(getClass());
 
     /** Default constructor using all default values. For the less adventurous of us. */
     public JazzIcon() {
@@ -121,6 +207,8 @@ public class JazzIcon {
             throw new IllegalArgumentException("randomGenerator must not be null");
         }
         this.randomGenerator = randomGenerator;
+        this.randomGeneratorFactory = RESEEDABLE_GENERATORS.get(randomGenerator.getClass());
+        refreshConfig();
     }
 
     /**
@@ -142,6 +230,28 @@ public class JazzIcon {
         return rotated.toSRGB().toHex(true, RenderCondition.NEVER);
     }
 
+    /**
+     * Whether a method overrides one of the deprecated drawing methods
+     *
+     * @param method a method declared by a subclass
+     * @return true if it has the name and parameters of one of them
+     */
+    private static boolean isDrawingMethod(@NonNull Method method) {
+        if (Modifier.isStatic(method.getModifiers()) || method.isBridge() || method.isSynthetic()) {
+            return false;
+        }
+        Class<?>[] parameters = method.getParameterTypes();
+        return switch (method.getName()) {
+            case "nextTransform" -> Arrays.equals(parameters, new Class<?>[] {int.class, Writer.class});
+            case "nextColor", "createShapes" -> Arrays.equals(parameters, new Class<?>[] {List.class, Writer.class});
+            case "createShape" -> Arrays.equals(
+                    parameters, new Class<?>[] {int.class, ShapeType.class, List.class, Writer.class});
+            case "randomStringFromAllowedChars" -> Arrays.equals(parameters, new Class<?>[] {int.class});
+            case "tryBestGetSeedFromText" -> Arrays.equals(parameters, new Class<?>[] {String.class});
+            default -> false;
+        };
+    }
+
     /**
      * Convenience method to pipe the generated svg as a base64 data url
      *
@@ -163,66 +273,41 @@ public class JazzIcon {
     }
 
     /**
-     * Generate the next transformation of the svg shape, changes the shape's position and rotation.
+     * Generate the next transformation of the svg shape, changes the shape's position and rotation. <br>
+     * Uses the shared {@link #randomGenerator}, the renders only go through this method if a subclass overrides one of
+     * the drawing methods, see the class doc.
      *
      * @param index the index of the shape for which the transform will be generated, extra randomness
      * @param out the {@link Writer} to append the transform into
      * @throws IOException if anything goes wrong when appending the generated transform to the {@link Writer}.
+     * @deprecated overriding it makes the renders take the lock, add to the icon with an svgBodyInterceptor instead
      */
+    @Deprecated(since = "1.0.2")
     protected void nextTransform(int index, @NonNull Writer out) throws IOException {
         try {
             lock.lock();
-            double firstRotation = randomGenerator.nextDouble();
-            double boost = randomGenerator.nextDouble();
-            double secondRotation = randomGenerator.nextDouble();
-            double angle = 2 * Math.PI * firstRotation;
-            double velocity = (100 * (index + boost)) / shapeCount;
-            double x = Math.cos(angle) * velocity;
-            double y = Math.sin(angle) * velocity;
-            double r = firstRotation * 360 + secondRotation * 180;
-
-            out.append("translate(%s %s) rotate(%s 50 50)"
-                    .formatted(
-                            String.format(Locale.US, THREE_POINTS_DECIMAL_FORMAT, x),
-                            String.format(Locale.US, THREE_POINTS_DECIMAL_FORMAT, y),
-                            String.format(Locale.US, ONE_POINT_DECIMAL_FORMAT, r)));
+            JazzIconRenderer.nextTransform(randomGenerator, shapeCount, index, out);
         } finally {
             lock.unlock();
         }
     }
 
     /**
-     * Randomly pick the next color to be used from the list of baseColors rotated using hueShift.
+     * Randomly pick the next color to be used from the list of baseColors rotated using hueShift. <br>
+     * Uses the shared {@link #randomGenerator}, the renders themselves no longer go through this method.
      *
      * @param rotatedColors the list of colors that has been rotated according to the hueShift, MUST BE MUTABLE, WILL
      *     REMOVE THE PICKED COLOR FROM THE LIST, IF YOU HAVE AN IMMUTABLE LIST, COPY THE VALUES FROM IT USING
      *     {@code new ArrayList()}
      * @param out the {@link Writer} to append the picked color into
      * @throws IOException if anything goes wrong when appending the randomly picked color to the {@link Writer}.
+     * @deprecated overriding it makes the renders take the lock, use a {@link ColorPalettes} instead
      */
+    @Deprecated(since = "1.0.2")
     protected void nextColor(@NonNull List<String> rotatedColors, @NonNull Writer out) throws IOException {
         try {
             lock.lock();
-            // waste a cycle for extra randomness, spicy!
-            randomGenerator.nextDouble();
-            var position = randomGenerator.nextDouble();
-            int index = (int) Math.floor((rotatedColors.size() - 1) * position);
-            log.debug("nextColor: initial index={}, initial position={}", index, position);
-            while (index >= rotatedColors.size() || index < 0) {
-                log.debug("nextColor: index is way out of the list, regenerating");
-                position = randomGenerator.nextDouble();
-                index = (int) Math.floor((rotatedColors.size() - 1) * position);
-            }
-            log.debug("nextColor: final index={}, final position={}", index, position);
-
-            var color = rotatedColors.remove(index);
-            log.debug("nextColor: color from list = '{}'", color);
-            if (StringUtils.isBlank(color) || !ColorUtils.isValidHexColor(color)) {
-                log.debug(
-                        "nextColor: color from list is invalid, either blank or not a valid hex color, outputting white");
-                color = "#FFFFFF";
-            }
-            out.append(color);
+            JazzIconRenderer.nextColor(randomGenerator, rotatedColors, out);
         } finally {
             lock.unlock();
         }
@@ -231,15 +316,10 @@ public class JazzIcon {
     /**
      * The svg classes to be appended to a generated JazzIcon.
      *
-     * @return The svg classes
+     * @return The svg classes, an unmodifiable snapshot, use the add/remove methods to change them
      */
     public List<String> getSvgClasses() {
-        try {
-            lock.lock();
-            return svgClasses;
-        } finally {
-            lock.unlock();
-        }
+        return config.getSvgClasses();
     }
 
     /**
@@ -251,6 +331,7 @@ public class JazzIcon {
         try {
             lock.lock();
             this.svgClasses.add(svgClass);
+            refreshConfig();
         } finally {
             lock.unlock();
         }
@@ -266,6 +347,7 @@ public class JazzIcon {
             lock.lock();
             this.svgClasses.addAll(
                     Arrays.stream(svgClasses).filter(StringUtils::isNotBlank).toList());
+            refreshConfig();
         } finally {
             lock.unlock();
         }
@@ -281,6 +363,7 @@ public class JazzIcon {
             lock.lock();
             this.svgClasses.addAll(
                     svgClasses.stream().filter(StringUtils::isNotBlank).toList());
+            refreshConfig();
         } finally {
             lock.unlock();
         }
@@ -297,6 +380,7 @@ public class JazzIcon {
         try {
             lock.lock();
             this.svgClasses.remove(svgClass);
+            refreshConfig();
         } finally {
             lock.unlock();
         }
@@ -314,6 +398,7 @@ public class JazzIcon {
             lock.lock();
             this.svgClasses.removeAll(
                     Arrays.stream(svgClasses).filter(StringUtils::isNotBlank).toList());
+            refreshConfig();
         } finally {
             lock.unlock();
         }
@@ -331,6 +416,7 @@ public class JazzIcon {
             lock.lock();
             this.svgClasses.removeAll(
                     svgClasses.stream().filter(StringUtils::isNotBlank).toList());
+            refreshConfig();
         } finally {
             lock.unlock();
         }
@@ -339,15 +425,10 @@ public class JazzIcon {
     /**
      * The svg styles to be appended to a generated JazzIcon.
      *
-     * @return The svg styles
+     * @return The svg styles, an unmodifiable snapshot, use the add/remove methods to change them
      */
     public List<String> getSvgStyles() {
-        try {
-            lock.lock();
-            return svgStyles;
-        } finally {
-            lock.unlock();
-        }
+        return config.getSvgStyles();
     }
 
     /**
@@ -359,6 +440,7 @@ public class JazzIcon {
         try {
             lock.lock();
             this.svgStyles.add(svgStyle);
+            refreshConfig();
         } finally {
             lock.unlock();
         }
@@ -374,6 +456,7 @@ public class JazzIcon {
             lock.lock();
             this.svgStyles.addAll(
                     Arrays.stream(svgStyles).filter(StringUtils::isNotBlank).toList());
+            refreshConfig();
         } finally {
             lock.unlock();
         }
@@ -389,6 +472,7 @@ public class JazzIcon {
             lock.lock();
             this.svgStyles.addAll(
                     svgStyles.stream().filter(StringUtils::isNotBlank).toList());
+            refreshConfig();
         } finally {
             lock.unlock();
         }
@@ -404,6 +488,7 @@ public class JazzIcon {
         try {
             lock.lock();
             this.svgStyles.remove(svgStyle);
+            refreshConfig();
         } finally {
             lock.unlock();
         }
@@ -421,6 +506,7 @@ public class JazzIcon {
             lock.lock();
             this.svgStyles.removeAll(
                     Arrays.stream(svgStyles).filter(StringUtils::isNotBlank).toList());
+            refreshConfig();
         } finally {
             lock.unlock();
         }
@@ -438,6 +524,84 @@ public class JazzIcon {
             lock.lock();
             this.svgStyles.removeAll(
                     svgStyles.stream().filter(StringUtils::isNotBlank).toList());
+            refreshConfig();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The static svg overlays appended on top of the shapes of a generated JazzIcon.
+     *
+     * @return The svg overlays, an unmodifiable snapshot, use the add/remove methods to change them
+     */
+    public List<String> getSvgOverlays() {
+        return config.getSvgOverlays();
+    }
+
+    /**
+     * Add a static svg fragment to be appended on top of the shapes of every generated svg, after the shapes and
+     * before the body interceptor. Unlike an interceptor it is compiled once into the configuration, and the icons
+     * with overlays can still be cached. <br>
+     * <br>
+     * <strong><u>DISCLAIMER: THE FRAGMENT IS APPENDED AS IS, IT IS NOT GUARANTEED TO BE SAFE, I TAKE NO RESPONSIBILITY
+     * FOR YOUR OPERATION(S)</u></strong>
+     *
+     * @param svgOverlay the svg fragment, e.g. {@code <circle cx="50" cy="50" r="10" fill="#FFF" />}
+     * @throws IllegalArgumentException if the supplied svgOverlay param is blank, empty, or null
+     */
+    public void addSvgOverlay(String svgOverlay) throws IllegalArgumentException {
+        try {
+            lock.lock();
+            if (StringUtils.isBlank(svgOverlay)) {
+                throw new IllegalArgumentException("svgOverlay must not be just blanks, an empty string or null");
+            }
+            this.svgOverlays.add(svgOverlay);
+            refreshConfig();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Add the supplied static svg fragments on top of the shapes of every generated svg, blank ones are ignored, see
+     * {@link #addSvgOverlay(String)}.
+     *
+     * @param svgOverlays the svg fragments, appended in order
+     */
+    public void addSvgOverlays(@NonNull String... svgOverlays) {
+        try {
+            lock.lock();
+            this.svgOverlays.addAll(
+                    Arrays.stream(svgOverlays).filter(StringUtils::isNotBlank).toList());
+            refreshConfig();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove the supplied svg overlay. <br>
+     * If no such overlay is found, this operation is effectively a no-op.
+     *
+     * @param svgOverlay the svg fragment to be removed
+     */
+    public void removeSvgOverlay(@NonNull String svgOverlay) {
+        try {
+            lock.lock();
+            this.svgOverlays.remove(svgOverlay);
+            refreshConfig();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Remove every svg overlay */
+    public void clearSvgOverlays() {
+        try {
+            lock.lock();
+            this.svgOverlays.clear();
+            refreshConfig();
         } finally {
             lock.unlock();
         }
@@ -445,6 +609,8 @@ public class JazzIcon {
 
     /**
      * Generate the actual shape after randomly picking which of the 3 shapes will be generated this round. <br>
+     * Uses the shared {@link #randomGenerator}, the renders only go through this method if a subclass overrides one of
+     * the drawing methods, see the class doc. <br>
      * <br>
      * For each of the shape type, further randomize each of its values
      *
@@ -453,77 +619,40 @@ public class JazzIcon {
      * @param mutableRotatedColors the list of colors that has been rotated according to the hueShift
      * @param out {@link Writer} to append shapes into.
      * @throws IOException if anything goes wrong when generating the shapes.
+     * @deprecated overriding it makes the renders take the lock, add to the icon with an svgBodyInterceptor instead
      */
+    @Deprecated(since = "1.0.2")
     protected void createShape(
             int index, @NonNull ShapeType shapeType, @NonNull List<String> mutableRotatedColors, @NonNull Writer out)
             throws IOException {
-        log.debug("creating shape number: {},  picked shape: {}", index, shapeType);
-        if (ShapeType.CIRCLE.equals(shapeType)) {
-            log.debug("creating shape circle, appending head");
-            log.debug("creating shape circle, creating cx");
-            out.append("<circle cx=\"");
-            out.append(String.valueOf(randomGenerator.nextInt(101)));
-            out.append("\" ");
-
-            log.debug("creating shape circle, creating cy");
-            out.append("cy=\"");
-            out.append(String.valueOf(randomGenerator.nextInt(101)));
-            out.append("\" ");
-
-            log.debug("creating shape circle, creating r, picking integers inclusive of 20 ~ 55");
-            out.append("r=\"");
-            out.append(String.valueOf(randomGenerator.nextInt(34) + 20));
-        } else if (ShapeType.POLYGON.equals(shapeType)) {
-            log.debug("creating shape polygon, appending head");
-            log.debug("creating shape polygon, creating points");
-            out.append("<polygon points=\"");
-            // first point
-            log.debug("creating shape polygon, creating first point");
-            out.append(String.valueOf(randomGenerator.nextInt(101)));
-            out.append(",");
-            // first coordinates
-            log.debug("creating shape polygon, creating first coordinates");
-            out.append(String.valueOf(randomGenerator.nextInt(101)));
-            out.append(" ");
-            out.append(String.valueOf(randomGenerator.nextInt(101)));
-            out.append(",");
-            // second coordinates
-            log.debug("creating shape polygon, creating second coordinates");
-            out.append(String.valueOf(randomGenerator.nextInt(101)));
-            out.append(" ");
-            out.append(String.valueOf(randomGenerator.nextInt(101)));
-            out.append(",");
-            // third coordinates
-            log.debug("creating shape polygon, creating third coordinates");
-            out.append(String.valueOf(randomGenerator.nextInt(101)));
-            out.append(" ");
-            out.append(String.valueOf(randomGenerator.nextInt(101)));
-            out.append(",");
-            // second point
-            log.debug("creating shape polygon, creating second point");
-            out.append(String.valueOf(randomGenerator.nextInt(101)));
-        } else {
-            log.debug("creating shape rect");
-            out.append("<rect x=\"0\" y=\"0\" width=\"100%\" height=\"100%");
+        try {
+            lock.lock();
+            IconDraft draft = new IconDraft(1);
+            draft.reset(1);
+            JazzIconRenderer.drawPoints(randomGenerator, index, shapeType, draft, 0);
+            SvgIconSerializer.appendShapePoints(draft, 0, out);
+            out.append("\" transform=\"");
+            nextTransform(index, out);
+            out.append("\" fill=\"");
+            nextColor(mutableRotatedColors, out);
+            out.append("\" />");
+        } finally {
+            lock.unlock();
         }
-
-        log.debug("generating transform");
-        out.append("\" transform=\"");
-        nextTransform(index, out);
-        log.debug("generating random color");
-        out.append("\" fill=\"");
-        nextColor(mutableRotatedColors, out);
-        out.append("\" />");
     }
 
     /**
-     * Generate the shapes {@code shapeCount} times and write them into the supplied {@link Writer}. <br>
-     * For now, only generate rectangles of randomized colors and positions.
+     * Generate the base shape plus {@code shapeCount} shapes and write them into the supplied {@link Writer}. <br>
+     * Uses the shared {@link #randomGenerator}, the renders only go through this method if a subclass overrides one of
+     * the drawing methods, see the class doc.
      *
      * @param rotatedColors the list of colors that has been rotated according to the hueShift
      * @param out {@link Writer} to append shapes into.
      * @throws IOException if anything goes wrong when generating the shapes.
+     * @deprecated overriding it makes the renders take the lock, add to the icon with an svgBodyInterceptor or an
+     *     overlay instead
      */
+    @Deprecated(since = "1.0.2")
     protected void createShapes(@NonNull List<String> rotatedColors, @NonNull Writer out) throws IOException {
         try {
             lock.lock();
@@ -539,6 +668,10 @@ public class JazzIcon {
 
             log.debug("creating {} shapes", shapeCount);
             for (int i = 0; i < shapeCount; i++) {
+                if (randomGenerator instanceof SplitMix64Random counterBased) {
+                    // same blocks as the renders, see JazzIconRenderer#drawShapes
+                    counterBased.jumpTo((long) SplitMix64Random.SHAPE_DRAWS * (i + 1));
+                }
                 ShapeType shapeType = ShapeType.vals[randomGenerator.nextInt(ShapeType.vals.length)];
                 createShape(i, shapeType, mutableRotatedColors, out);
             }
@@ -548,53 +681,214 @@ public class JazzIcon {
     }
 
     /**
-     * Get random string from allow list of characters for padding, length of the string is decided by the parameter
+     * Get random string from allow list of characters for padding, length of the string is decided by the parameter.
+     * <br>
+     * Uses the shared {@link #randomGenerator}, the renders only go through this method if a subclass overrides one of
+     * the drawing methods and the {@link PaddingMode} is {@link PaddingMode#RANDOM}, see the class doc.
      *
      * @param length the length of the random string to be generated
      * @return the random string with the specified length, from the allow list for padding
+     * @deprecated overriding it makes the renders take the lock, use {@link PaddingMode} to change how a short text
+     *     is padded
      */
+    @Deprecated(since = "1.0.2")
     @SuppressWarnings("SameParameterValue")
     protected String randomStringFromAllowedChars(int length) {
         try {
             lock.lock();
-            StringBuilder sb = new StringBuilder(length);
-            int n = allowedCharactersForPaddingText.length();
-            for (int i = 0; i < length; i++) {
-                int idx = randomGenerator.nextInt(n);
-                sb.append(allowedCharactersForPaddingText.charAt(idx));
-            }
-            return sb.toString();
+            return JazzIconRenderer.randomStringFromAllowedChars(
+                    randomGenerator, allowedCharactersForPaddingText, length);
         } finally {
             lock.unlock();
         }
     }
 
     /**
-     * Generate the seed from your supplied text. <br>
+     * Generate the seed from your supplied text, with the configured {@link SeedStrategy}. <br>
      * <br>
-     * Take the substring of the text from the 3rd character until the 11th (or until the end of the text if length
-     * lesser than 11). Parse the resulting substring using {@link Long#parseUnsignedLong(String, int)} and return the
-     * result. <br>
-     * If any {@link NumberFormatException} occurs, return the text's hashCode instead.
+     * By default ({@link SeedStrategy#legacy()}), take the characters of the text from the 3rd until the 10th (or until
+     * the end of the text if shorter), and return them parsed as an unsigned hex number. <br>
+     * If they are not hex, return the text's hashCode instead.
      *
      * @param safeText the text to generate seed from, must be safe to use (not blank AND length > 3)
-     * @return the seed from the text, either through calculation, or the hashCode
+     * @return the seed from the text
+     * @deprecated overriding it makes the renders take the lock, use {@link #setSeedStrategy(SeedStrategy)} to change
+     *     the seed
      */
+    @Deprecated(since = "1.0.2")
     protected long tryBestGetSeedFromText(@NonNull String safeText) {
+        return config.getSeedStrategy().seedOf(safeText);
+    }
+
+    /**
+     * Rebuild the immutable configuration snapshot from the fields. Every mutation of the configuration fields MUST be
+     * followed by a call to this method while still holding the {@link #lock}, otherwise renders won't see the change.
+     * Within {@link #reconfigure(Consumer)}, the snapshot is only rebuilt once all the changes are done.
+     */
+    protected final void refreshConfig() {
+        try {
+            lock.lock();
+            if (reconfigureDepth > 0) {
+                refreshPending = true;
+                return;
+            }
+            JazzIconConfig previous = config;
+            JazzIconConfig next = new JazzIconConfig(
+                    shapeCount,
+                    wobble,
+                    baseColors,
+                    allowedCharactersForPaddingText,
+                    paddingMode,
+                    svgClasses,
+                    svgStyles,
+                    svgOverlays,
+                    randomGenerator,
+                    randomGeneratorFactory,
+                    seedStrategy,
+                    metrics,
+                    previous);
+            this.config = next;
+            if (Objects.nonNull(previous)) {
+                notifyConfigurationListeners(previous, next);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Under the {@link #lock}, tell the listeners about a new snapshot, a failing listener doesn't stop the others
+     *
+     * @param previous the replaced snapshot
+     * @param next the published snapshot
+     */
+    private void notifyConfigurationListeners(@NonNull JazzIconConfig previous, @NonNull JazzIconConfig next) {
+        if (configurationListeners.isEmpty()) {
+            return;
+        }
+        ConfigurationChange change = new ConfigurationChange(
+                previous.getVersion(), next.getVersion(), previous.getFingerprint(), next.getFingerprint());
+        for (ConfigurationListener listener : configurationListeners) {
+            try {
+                listener.onChange(change);
+            } catch (RuntimeException e) {
+                log.warn("configuration listener {} failed on {}", listener, change, e);
+            }
+        }
+    }
+
+    /**
+     * Put back the configuration fields of a snapshot, under the {@link #lock}
+     *
+     * @param snapshot the snapshot to take the fields from
+     */
+    private void restoreFields(@NonNull JazzIconConfig snapshot) {
+        this.shapeCount = snapshot.getShapeCount();
+        this.wobble = snapshot.getWobble();
+        this.baseColors = snapshot.getBaseColors();
+        this.allowedCharactersForPaddingText = snapshot.getAllowedCharactersForPaddingText();
+        this.paddingMode = snapshot.getPaddingMode();
+        svgClasses.clear();
+        svgClasses.addAll(snapshot.getSvgClasses());
+        svgStyles.clear();
+        svgStyles.addAll(snapshot.getSvgStyles());
+        svgOverlays.clear();
+        svgOverlays.addAll(snapshot.getSvgOverlays());
+        this.randomGenerator = snapshot.getRandomGenerator();
+        this.randomGeneratorFactory = snapshot.getRandomGeneratorFactory();
+        this.seedStrategy = snapshot.getSeedStrategy();
+        this.metrics = snapshot.getMetrics();
+    }
+
+    /**
+     * Apply several configuration changes at once. The renders keep using the current configuration until all the
+     * changes are done, then the new one is published as a single new version, and the listeners are notified once.
+     * If a change throws, the ones before it are rolled back and nothing is published. Each change is still validated
+     * on its own, so order them to be valid one after the other, e.g. a bigger palette before a higher shape count.
+     *
+     * <pre>{@code
+     * jazzIcon.reconfigure(icon -> {
+     *     icon.setBaseColors(ColorPalettes.TAILWIND).setShapeCount(6);
+     *     icon.addSvgClass("tenant");
+     * });
+     * }</pre>
+     *
+     * A nested call is part of the outermost one, which alone publishes or rolls back.
+     *
+     * @param changes the changes to apply to this generator, with its setters
+     * @return This class for fluent style API
+     * @throws IllegalArgumentException if the supplied changes param is null, or rethrown from a change
+     */
+    public JazzIcon reconfigure(Consumer<JazzIcon> changes) throws IllegalArgumentException {
+        if (Objects.isNull(changes)) {
+            throw new IllegalArgumentException("changes must not be null");
+        }
         try {
             lock.lock();
+            JazzIconConfig before = config;
+            reconfigureDepth++;
             try {
-                return Long.parseUnsignedLong(safeText.substring(2, Math.min(10, safeText.length())), 16);
-            } catch (NumberFormatException e) {
-                log.debug("Could not parse text '{}' to Long, falling back to hashCode", safeText, e);
-                // fallback to hash if not hex
-                return safeText.hashCode();
+                changes.accept(this);
+            } catch (RuntimeException e) {
+                if (reconfigureDepth == 1) {
+                    restoreFields(before);
+                    refreshPending = false;
+                }
+                throw e;
+            } finally {
+                reconfigureDepth--;
+            }
+            if (reconfigureDepth == 0) {
+                if (refreshPending) {
+                    refreshPending = false;
+                    refreshConfig();
+                } else {
+                    this.config = config.withMetrics(metrics);
+                }
             }
+            return this;
         } finally {
             lock.unlock();
         }
     }
 
+    /**
+     * Get the version of the current configuration, 1 when the generator is created, incremented by every change
+     * published, a {@link #reconfigure(Consumer)} counting as one
+     *
+     * @return the version of the current configuration
+     */
+    public long getConfigurationVersion() {
+        return config.getVersion();
+    }
+
+    /**
+     * Add a listener notified of every configuration change, with the versions and fingerprints of the replaced and of
+     * the published configuration, see {@link ConfigurationListener}
+     *
+     * @param listener the listener to add
+     * @return This class for fluent style API
+     * @throws IllegalArgumentException if the supplied listener param is null
+     */
+    public JazzIcon addConfigurationListener(ConfigurationListener listener) throws IllegalArgumentException {
+        if (Objects.isNull(listener)) {
+            throw new IllegalArgumentException("listener must not be null");
+        }
+        configurationListeners.add(listener);
+        return this;
+    }
+
+    /**
+     * Remove a listener added with {@link #addConfigurationListener(ConfigurationListener)}
+     *
+     * @param listener the listener to remove
+     * @return This class for fluent style API
+     */
+    public JazzIcon removeConfigurationListener(@Nullable ConfigurationListener listener) {
+        configurationListeners.remove(listener);
+        return this;
+    }
+
     /**
      * Generate a JazzIcon to a {@link Writer}, with an optional body interceptor
      *
@@ -612,214 +906,721 @@ public class JazzIcon {
             throws JazzIconGenerationException {
         Exceptions.wrap(e -> new JazzIconGenerationException(
                         "An error has been encountered while trying to generate icon to writer", e))
-                .run(() -> {
-                    try {
-                        // lock the generation, ensuring actual randomized seed and other values
-                        // remain constant for the round
-                        // this is almost the same effect as synchronized, with different semantics
-                        // and quite some different implementation inside
-                        lock.lock();
-                        log.debug("original text: {}", text);
-                        String safeText = StringUtils.trimToEmpty(text);
-                        if (safeText.length() <= 3) {
-                            log.debug(
-                                    "original text is too short, padding 6 characters to left and right (respectively) from allow list: {}",
-                                    allowedCharactersForPaddingText);
-                            safeText = randomStringFromAllowedChars(6) + safeText + randomStringFromAllowedChars(6);
-                        }
-                        log.debug("safe to use text: {}", safeText);
-
-                        long seed = tryBestGetSeedFromText(safeText);
-                        randomGenerator.setSeed(seed);
-                        log.debug("random generator seed: {}", seed);
-
-                        double position = randomGenerator.nextDouble();
-                        log.debug("random position: {}", position);
-                        double hueShift = (30 * position) - (wobble / 2.0F);
-                        log.debug("hue shift: {}", hueShift);
-
-                        List<String> rotatedColors = baseColors.getColors().stream()
-                                .map(base -> rotateColor(base, hueShift))
-                                .toList();
-                        log.debug("rotated colors: {}", rotatedColors);
-
-                        // append head
-                        log.debug("appending head");
-                        out.append("<svg ");
-                        if (!svgClasses.isEmpty()) {
-                            log.debug("svg classes are not empty, appending: {}", svgClasses);
-                            out.append("class=\"")
-                                    .append(String.join(" ", svgClasses))
-                                    .append("\" ");
-                        }
-                        if (!svgStyles.isEmpty()) {
-                            log.debug("svg styles are not empty, appending: {}", svgStyles);
-                            out.append("style=\"")
-                                    .append(String.join(" ", svgStyles))
-                                    .append("\" ");
-                        }
-                        out.append("xmlns=\"http://www.w3.org/2000/svg\" x=\"0\" y=\"0\" viewBox=\"0 0 100 100\">");
-
-                        createShapes(rotatedColors, out);
-
-                        // in case we need to add other shapes or whatever before appending tail
-                        if (Objects.nonNull(svgBodyInterceptor)) {
-                            log.debug("writer consumer is set, accepting");
-                            log.debug(
-                                    "DISCLAIMER: ANYTHING YOU DO IN THE CONSUMER TO THE SVG IS NOT GUARANTEED TO BE SAFE, I TAKE NO RESPONSIBILITY FOR YOUR OPERATION(S)");
-                            svgBodyInterceptor.accept(out);
-                        }
-
-                        // append tail
-                        log.debug("appending tail");
-                        out.append("</svg>");
-                    } finally {
-                        lock.unlock();
-                    }
-                });
+                .run(() -> render(text, out, svgBodyInterceptor, true, null));
     }
 
     /**
-     * Generate a JazzIcon to an {@link OutputStream}, with an optional body interceptor
+     * Render a whole JazzIcon without a body interceptor, for the layers built on top of the generator that need to
+     * know which configuration the icon came out of.
      *
      * @param text the text to be the seed of the icon
-     * @param outputStream the {@link OutputStream} to write the icon into
-     * @param svgBodyInterceptor optional body interceptor, in case you want to insert your own elements to the middle
-     *     of the icon body, or anything else to do. Optional, you can pass null. <br>
-     *     <br>
-     *     <strong><u>DISCLAIMER: ANYTHING YOU DO IN THE CONSUMER TO THE SVG IS NOT GUARANTEED TO BE SAFE, I TAKE NO
-     *     RESPONSIBILITY FOR YOUR OPERATION(S)</u></strong>
-     * @throws JazzIconGenerationException if anything goes wrong when generating the icon.
+     * @param out a {@link Writer} to write the icon into
+     * @return the snapshot the icon has been rendered with
+     * @throws IOException if anything goes wrong when appending to the {@link Writer}.
      */
-    public void generateIconToStream(
-            @NonNull String text, @NonNull OutputStream outputStream, @Nullable Consumer<Writer> svgBodyInterceptor)
-            throws JazzIconGenerationException {
-        try {
-            lock.lock();
-            Exceptions.wrap(e -> new JazzIconGenerationException(
-                            "An error has been encountered while trying to generate icon to stream", e))
-                    .run(() -> {
-                        try (OutputStreamWriter osw = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)) {
-                            generateIconToWriter(text, osw, svgBodyInterceptor);
-                            osw.flush();
-                        }
-                    });
-        } finally {
-            lock.unlock();
-        }
+    JazzIconConfig renderTo(@NonNull String text, @NonNull Writer out) throws IOException {
+        return render(text, out, null, true, null);
     }
 
     /**
-     * Generate a JazzIcon to an {@link OutputStream}
+     * Get the current configuration snapshot
      *
-     * @param text the text to be the seed of the icon
-     * @param outputStream the {@link OutputStream} to write the icon into
-     * @throws JazzIconGenerationException if anything goes wrong when generating the icon.
+     * @return the current configuration snapshot
      */
-    public void generateIconToStream(@NonNull String text, @NonNull OutputStream outputStream)
-            throws JazzIconGenerationException {
-        generateIconToStream(text, outputStream, null);
+    JazzIconConfig getConfig() {
+        return config;
     }
 
     /**
-     * Generate a JazzIcon directly to a String, with an optional body interceptor
+     * Get the 64-bit fingerprint of the current configuration. Two generators with the same fingerprint render the same
+     * icon for the same text, and the fingerprint is the same from one JVM run to the next, so it can key a shared
+     * cache. Only the metrics are left out. The generator and the factory are identified by their class names, so
+     * lambdas and anonymous classes, whose names can change from one build to the next, make it unstable across
+     * builds. The seed strategy is identified by its {@link SeedStrategy#id()}, a strategy without one makes it
+     * unstable across JVM runs.
+     *
+     * @return the fingerprint of the current configuration
+     */
+    public long getFingerprint() {
+        return config.getFingerprint();
+    }
+
+    /**
+     * Get the strong HTTP entity tag of the icon of a text, without rendering it. It is the same for every
+     * {@code generateIcon} variant without an svgBodyInterceptor, and changes whenever the configuration changes what
+     * that icon looks like, so a server can answer {@code If-None-Match} with a 304 without running the generator.
+     * <br>
+     * <br>
+     * A text of 3 characters or less is padded randomly, unless the {@link PaddingMode} is
+     * {@link PaddingMode#DETERMINISTIC}, so its icon changes on every render and it has no entity tag.
      *
      * @param text the text to be the seed of the icon
-     * @param svgBodyInterceptor optional body interceptor, in case you want to insert your own elements to the middle
-     *     of the icon body, or anything else to do. Optional, you can pass null. <br>
-     *     <br>
-     *     <strong><u>DISCLAIMER: ANYTHING YOU DO IN THE CONSUMER TO THE SVG IS NOT GUARANTEED TO BE SAFE, I TAKE NO
-     *     RESPONSIBILITY FOR YOUR OPERATION(S)</u></strong>
-     * @return the SVG string of the JazzIcon
-     * @throws JazzIconGenerationException if anything goes wrong when generating the icon.
+     * @return the quoted entity tag, or null if the icon of the text is padded randomly
      */
-    public String generateIcon(@NonNull String text, @Nullable Consumer<Writer> svgBodyInterceptor)
-            throws JazzIconGenerationException {
-        try {
-            lock.lock();
-            return Exceptions.wrap(e -> new JazzIconGenerationException(ICON_GENERATION_ERROR_MESSAGE, e))
-                    .get(() -> {
-                        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-                            generateIconToStream(text, outputStream, svgBodyInterceptor);
-                            return outputStream.toString(StandardCharsets.UTF_8);
-                        }
-                    });
-        } finally {
-            lock.unlock();
+    public @Nullable String etagFor(@Nullable String text) {
+        JazzIconConfig snapshot = config;
+        String safeText = StringUtils.trimToEmpty(text);
+        if (!IconKey.isCacheable(safeText, snapshot)) {
+            return null;
         }
+        long seed = drawingMethodsOverridden
+                ? tryBestGetSeedFromText(safeText.length() <= 3
+                        ? JazzIconRenderer.padDeterministically(snapshot.getAllowedCharactersForPaddingText(), safeText)
+                        : safeText)
+                : JazzIconRenderer.seedOf(snapshot, safeText);
+        return String.format("\"%016x%016x\"", snapshot.getFingerprint(), seed);
     }
 
     /**
-     * Generate a JazzIcon directly to a String
+     * Draw the geometry of the icon of a text, without writing any SVG, the same icon as
+     * {@link #generateIcon(String)} gives for the text. It can be written later by {@link #getSvgSerializer()}, or
+     * kept in its binary form, see {@link IconModel#toBytes()}.
      *
      * @param text the text to be the seed of the icon
-     * @return the SVG string of the JazzIcon
-     * @throws JazzIconGenerationException if anything goes wrong when generating the icon.
+     * @return the geometry of the icon
+     * @throws JazzIconGenerationException if anything goes wrong when drawing the icon.
+     * @throws UnsupportedOperationException if a subclass overrides the deprecated drawing methods, see the class doc
      */
-    public String generateIcon(@NonNull String text) {
-        return generateIcon(text, null);
+    public IconModel generateModel(@NonNull String text) throws JazzIconGenerationException {
+        return Exceptions.wrap(e -> new JazzIconGenerationException(ICON_GENERATION_ERROR_MESSAGE, e))
+                .get(() -> {
+                    RenderContext context = RenderContext.acquire();
+                    try {
+                        return new IconModel(draw(text, context).copy());
+                    } finally {
+                        RenderContext.release(context);
+                    }
+                });
     }
 
     /**
-     * The shape count to be generated in the icon
+     * Get a serializer writing {@link IconModel}s as SVG with the head and the overlays of the current configuration,
+     * a later configuration change doesn't change the serializer
      *
-     * @return the shape count to be generated in the icon
+     * @return the serializer
      */
-    public int getShapeCount() {
+    public SvgIconSerializer getSvgSerializer() {
+        JazzIconConfig snapshot = config;
+        return new SvgIconSerializer(snapshot.getSvgHeader(), snapshot.getSvgOverlay());
+    }
+
+    /**
+     * Draw with one configuration snapshot, same as {@link #render(String, Writer, Consumer, boolean, RenderContext)}
+     * but without writing anything
+     *
+     * @param text the text to be the seed of the icon
+     * @param context the reusable scratch state of the render
+     * @return the draft of the context, drawn
+     */
+    private IconDraft draw(@NonNull String text, @NonNull RenderContext context) {
+        if (drawingMethodsOverridden) {
+            throw new UnsupportedOperationException(
+                    getClass().getName() + " overrides the deprecated drawing methods, it can only render SVG");
+        }
+        JazzIconConfig snapshot = config;
+        IconDraft draft = context.getDraft();
+        Supplier<RandomGenerator> factory = snapshot.getRandomGeneratorFactory();
+        if (Objects.nonNull(factory)) {
+            int[] picked = context.picked(snapshot.getShapeCount() + 1);
+            JazzIconRenderer.draw(snapshot, context.randomGenerator(factory), text, draft, picked);
+            return draft;
+        }
         try {
+            // same as a render, the reseeding and all the draws have to stay together
             lock.lock();
-            return shapeCount;
+            JazzIconConfig locked = config;
+            int[] picked = context.picked(locked.getShapeCount() + 1);
+            JazzIconRenderer.draw(locked, locked.getRandomGenerator(), text, draft, picked);
+            return draft;
         } finally {
             lock.unlock();
         }
     }
 
     /**
-     * Sets the shape count to be generated in the icon. <br>
-     * By default, {@code 4} is used so the image is unique and colorful enough
+     * Render with one configuration snapshot for the whole render, so a concurrent configuration change is either
+     * fully visible or not visible at all.
      *
-     * @param shapeCount the new {@link ColorPalettes} shape count to be generated in the icon.
-     * @return This class for fluent style API
-     * @throws IllegalArgumentException if the supplied shapeCount param is lesser or equals 0 OR when the requested
-     *     {@code shapeCount + 1} is lower than the {@code baseColor}'s set size
+     * @param text the text to be the seed of the icon
+     * @param out a {@link Writer} to write the icon into
+     * @param svgBodyInterceptor optional body interceptor
+     * @param withHeadAndTail whether to write the head and tail, or only the body
+     * @param context the reusable scratch state of the render, or null to allocate it
+     * @return the snapshot the icon has been rendered with, for the matching head
+     * @throws IOException if anything goes wrong when appending to the {@link Writer}.
      */
-    public JazzIcon setShapeCount(int shapeCount) throws IllegalArgumentException {
+    private JazzIconConfig render(
+            @NonNull String text,
+            @NonNull Writer out,
+            @Nullable Consumer<Writer> svgBodyInterceptor,
+            boolean withHeadAndTail,
+            @Nullable RenderContext context)
+            throws IOException {
+        if (drawingMethodsOverridden) {
+            return renderThroughDrawingMethods(text, out, svgBodyInterceptor, withHeadAndTail);
+        }
+        JazzIconConfig snapshot = config;
+        Supplier<RandomGenerator> factory = snapshot.getRandomGeneratorFactory();
+        if (Objects.nonNull(factory)) {
+            RandomGenerator generator = Objects.isNull(context) ? factory.get() : context.randomGenerator(factory);
+            render(snapshot, generator, text, out, svgBodyInterceptor, withHeadAndTail, context);
+            return snapshot;
+        }
+        JazzIconMetrics renderMetrics = snapshot.getMetrics();
+        long waitStart = renderMetrics.isEnabled() ? System.nanoTime() : 0L;
         try {
+            // the generator can't be recreated per render, so the reseeding and all the draws
+            // from it have to stay together for the round
             lock.lock();
-            if (shapeCount <= 0) {
-                throw new IllegalArgumentException("shapeCount must be > 0");
-            }
-            if (shapeCount + 1 > baseColors.getColors().size()) {
-                throw new IllegalArgumentException(
-                        "Insufficient base colors, shapeCount list size must be higher than shapeCount + 1");
+            if (renderMetrics.isEnabled()) {
+                renderMetrics.recordLockWait(System.nanoTime() - waitStart);
             }
-            this.shapeCount = shapeCount;
-            return this;
+            JazzIconConfig locked = config;
+            render(locked, locked.getRandomGenerator(), text, out, svgBodyInterceptor, withHeadAndTail, context);
+            return locked;
         } finally {
             lock.unlock();
         }
     }
 
     /**
-     * The wobbles to the hue shift of the color rotator
+     * Render through the deprecated drawing methods, for a subclass overriding any of them, the way they were called
+     * before the renders stopped going through them. They all draw from the shared {@link #randomGenerator}, so the
+     * whole render holds the lock.
      *
-     * @return the wobbles to the hue shift of the color rotator
+     * @param text the text to be the seed of the icon
+     * @param out a {@link Writer} to write the icon into
+     * @param svgBodyInterceptor optional body interceptor
+     * @param withHeadAndTail whether to write the head and tail, or only the body
+     * @return the snapshot the icon has been rendered with, for the matching head
+     * @throws IOException if anything goes wrong when appending to the {@link Writer}.
      */
-    public int getWobble() {
+    private JazzIconConfig renderThroughDrawingMethods(
+            @NonNull String text,
+            @NonNull Writer out,
+            @Nullable Consumer<Writer> svgBodyInterceptor,
+            boolean withHeadAndTail)
+            throws IOException {
         try {
             lock.lock();
-            return wobble;
+            JazzIconConfig locked = config;
+            String safeText = StringUtils.trimToEmpty(text);
+            if (safeText.length() <= 3) {
+                safeText = locked.getPaddingMode() == PaddingMode.DETERMINISTIC
+                        ? JazzIconRenderer.padDeterministically(locked.getAllowedCharactersForPaddingText(), safeText)
+                        : randomStringFromAllowedChars(6) + safeText + randomStringFromAllowedChars(6);
+            }
+            randomGenerator.setSeed(tryBestGetSeedFromText(safeText));
+            double position = randomGenerator.nextDouble();
+            double hueShift = (30 * position) - (locked.getWobble() / 2.0F);
+            List<String> rotatedColors = locked.getBaseColors().getColors().stream()
+                    .map(base -> rotateColor(base, hueShift))
+                    .toList();
+
+            if (withHeadAndTail) {
+                out.append(locked.getSvgHeader());
+            }
+            createShapes(rotatedColors, out);
+            out.append(locked.getSvgOverlay());
+            if (Objects.nonNull(svgBodyInterceptor)) {
+                svgBodyInterceptor.accept(out);
+            }
+            if (withHeadAndTail) {
+                out.append(JazzIconRenderer.SVG_TAIL);
+            }
+            return locked;
         } finally {
             lock.unlock();
         }
     }
 
+    private static void render(
+            JazzIconConfig snapshot,
+            RandomGenerator randomGenerator,
+            String text,
+            Writer out,
+            @Nullable Consumer<Writer> svgBodyInterceptor,
+            boolean withHeadAndTail,
+            @Nullable RenderContext context)
+            throws IOException {
+        if (withHeadAndTail) {
+            JazzIconRenderer.render(snapshot, randomGenerator, text, out, svgBodyInterceptor, context);
+        } else {
+            JazzIconRenderer.renderBody(snapshot, randomGenerator, text, out, svgBodyInterceptor, context);
+        }
+    }
+
     /**
-     * Sets the wobbles to the hue shift of the color rotator. <br>
-     * By default, {@code 30} is used
+     * Generate a JazzIcon to an {@link OutputStream}, with an optional body interceptor
      *
-     * @param wobble the new {@link ColorPalettes} to be used by JazzIcon
-     * @return This class for fluent style API
+     * @param text the text to be the seed of the icon
+     * @param outputStream the {@link OutputStream} to write the icon into
+     * @param svgBodyInterceptor optional body interceptor, in case you want to insert your own elements to the middle
+     *     of the icon body, or anything else to do. Optional, you can pass null. <br>
+     *     <br>
+     *     <strong><u>DISCLAIMER: ANYTHING YOU DO IN THE CONSUMER TO THE SVG IS NOT GUARANTEED TO BE SAFE, I TAKE NO
+     *     RESPONSIBILITY FOR YOUR OPERATION(S)</u></strong>
+     * @throws JazzIconGenerationException if anything goes wrong when generating the icon.
+     */
+    public void generateIconToStream(
+            @NonNull String text, @NonNull OutputStream outputStream, @Nullable Consumer<Writer> svgBodyInterceptor)
+            throws JazzIconGenerationException {
+        Exceptions.wrap(e -> new JazzIconGenerationException(
+                        "An error has been encountered while trying to generate icon to stream", e))
+                .run(() -> {
+                    // render fully before touching the stream, then hand it over in one write
+                    RenderContext context = RenderContext.acquire();
+                    try {
+                        AsciiByteSink sink = context.getSink();
+                        render(text, sink, svgBodyInterceptor, true, context);
+                        long start = outputStart();
+                        try (OutputStream out = outputStream) {
+                            sink.writeTo(out);
+                            out.flush();
+                        }
+                        recordOutput(start, sink.size());
+                    } finally {
+                        RenderContext.release(context);
+                    }
+                });
+    }
+
+    /**
+     * Generate a JazzIcon to an {@link OutputStream}
+     *
+     * @param text the text to be the seed of the icon
+     * @param outputStream the {@link OutputStream} to write the icon into
+     * @throws JazzIconGenerationException if anything goes wrong when generating the icon.
+     */
+    public void generateIconToStream(@NonNull String text, @NonNull OutputStream outputStream)
+            throws JazzIconGenerationException {
+        generateIconToStream(text, outputStream, null);
+    }
+
+    /**
+     * Generate a JazzIcon into a {@link ByteBuffer}, with an optional body interceptor. The head and tail are copied
+     * from cached read-only buffers, only the body is rendered fresh. Nothing is written if the icon doesn't fit.
+     *
+     * @param text the text to be the seed of the icon
+     * @param target the {@link ByteBuffer} to put the UTF-8 bytes of the icon into, from its position on
+     * @param svgBodyInterceptor optional body interceptor, in case you want to insert your own elements to the middle
+     *     of the icon body, or anything else to do. Optional, you can pass null. <br>
+     *     <br>
+     *     <strong><u>DISCLAIMER: ANYTHING YOU DO IN THE CONSUMER TO THE SVG IS NOT GUARANTEED TO BE SAFE, I TAKE NO
+     *     RESPONSIBILITY FOR YOUR OPERATION(S)</u></strong>
+     * @return the count of the bytes put into the buffer
+     * @throws JazzIconGenerationException if anything goes wrong when generating the icon, or the icon doesn't fit in
+     *     the remaining space of the buffer.
+     */
+    public int generateIconTo(
+            @NonNull String text, @NonNull ByteBuffer target, @Nullable Consumer<Writer> svgBodyInterceptor)
+            throws JazzIconGenerationException {
+        return Exceptions.wrap(e -> new JazzIconGenerationException(
+                        "An error has been encountered while trying to generate icon to byte buffer", e))
+                .getAsInt(() -> {
+                    RenderContext context = RenderContext.acquire();
+                    try {
+                        ByteBuffer[] parts = renderParts(text, context, svgBodyInterceptor);
+                        int size = 0;
+                        for (ByteBuffer part : parts) {
+                            size += part.remaining();
+                        }
+                        if (target.remaining() < size) {
+                            throw new JazzIconGenerationException(
+                                    "target must have at least " + size + " bytes remaining, has "
+                                            + target.remaining(),
+                                    new BufferOverflowException());
+                        }
+                        long start = outputStart();
+                        for (ByteBuffer part : parts) {
+                            target.put(part);
+                        }
+                        recordOutput(start, size);
+                        return size;
+                    } finally {
+                        RenderContext.release(context);
+                    }
+                });
+    }
+
+    /**
+     * Generate a JazzIcon into a {@link ByteBuffer}
+     *
+     * @param text the text to be the seed of the icon
+     * @param target the {@link ByteBuffer} to put the UTF-8 bytes of the icon into, from its position on
+     * @return the count of the bytes put into the buffer
+     * @throws JazzIconGenerationException if anything goes wrong when generating the icon, or the icon doesn't fit in
+     *     the remaining space of the buffer.
+     */
+    public int generateIconTo(@NonNull String text, @NonNull ByteBuffer target) throws JazzIconGenerationException {
+        return generateIconTo(text, target, null);
+    }
+
+    /**
+     * Generate a JazzIcon to a {@link WritableByteChannel}, with an optional body interceptor. The head and tail are
+     * written from cached read-only buffers, only the body is rendered fresh, and a {@link GatheringByteChannel} gets
+     * all three in gathering writes. The channel is left open, unlike
+     * {@link #generateIconToStream(String, OutputStream, Consumer)}.
+     *
+     * @param text the text to be the seed of the icon
+     * @param channel the blocking {@link WritableByteChannel} to write the UTF-8 bytes of the icon into
+     * @param svgBodyInterceptor optional body interceptor, in case you want to insert your own elements to the middle
+     *     of the icon body, or anything else to do. Optional, you can pass null. <br>
+     *     <br>
+     *     <strong><u>DISCLAIMER: ANYTHING YOU DO IN THE CONSUMER TO THE SVG IS NOT GUARANTEED TO BE SAFE, I TAKE NO
+     *     RESPONSIBILITY FOR YOUR OPERATION(S)</u></strong>
+     * @return the count of the bytes written into the channel
+     * @throws IllegalArgumentException if the channel is a {@link SelectableChannel} in non-blocking mode
+     * @throws JazzIconGenerationException if anything goes wrong when generating or writing the icon.
+     */
+    public long generateIconTo(
+            @NonNull String text,
+            @NonNull WritableByteChannel channel,
+            @Nullable Consumer<Writer> svgBodyInterceptor)
+            throws IllegalArgumentException, JazzIconGenerationException {
+        if (channel instanceof SelectableChannel selectable && !selectable.isBlocking()) {
+            throw new IllegalArgumentException("channel must be in blocking mode");
+        }
+        return Exceptions.wrap(e -> new JazzIconGenerationException(
+                        "An error has been encountered while trying to generate icon to channel", e))
+                .getAsLong(() -> {
+                    RenderContext context = RenderContext.acquire();
+                    try {
+                        ByteBuffer[] parts = renderParts(text, context, svgBodyInterceptor);
+                        long start = outputStart();
+                        long written = 0;
+                        if (channel instanceof GatheringByteChannel gathering) {
+                            while (parts[parts.length - 1].hasRemaining()) {
+                                written += gathering.write(parts);
+                            }
+                        } else {
+                            for (ByteBuffer part : parts) {
+                                while (part.hasRemaining()) {
+                                    written += channel.write(part);
+                                }
+                            }
+                        }
+                        recordOutput(start, written);
+                        return written;
+                    } finally {
+                        RenderContext.release(context);
+                    }
+                });
+    }
+
+    /**
+     * Generate a JazzIcon to a {@link WritableByteChannel}, the channel is left open.
+     *
+     * @param text the text to be the seed of the icon
+     * @param channel the blocking {@link WritableByteChannel} to write the UTF-8 bytes of the icon into
+     * @return the count of the bytes written into the channel
+     * @throws IllegalArgumentException if the channel is a {@link SelectableChannel} in non-blocking mode
+     * @throws JazzIconGenerationException if anything goes wrong when generating or writing the icon.
+     */
+    public long generateIconTo(@NonNull String text, @NonNull WritableByteChannel channel)
+            throws IllegalArgumentException, JazzIconGenerationException {
+        return generateIconTo(text, channel, null);
+    }
+
+    /**
+     * Render the body into the sink of the context and pair it with the head of the same snapshot and the tail.
+     *
+     * @return the head, body, and tail buffers, positioned for a single write each
+     */
+    private ByteBuffer[] renderParts(
+            @NonNull String text, @NonNull RenderContext context, @Nullable Consumer<Writer> svgBodyInterceptor)
+            throws IOException {
+        AsciiByteSink body = context.getSink();
+        JazzIconConfig snapshot = render(text, body, svgBodyInterceptor, false, context);
+        return new ByteBuffer[] {
+            snapshot.getSvgHeaderBytes().duplicate(),
+            body.asByteBuffer(),
+            JazzIconRenderer.SVG_TAIL_BYTES.duplicate()
+        };
+    }
+
+    /**
+     * Start timing the hand-over of a rendered icon
+     *
+     * @return now, or 0 if the metrics are disabled
+     */
+    private long outputStart() {
+        return config.getMetrics().isEnabled() ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Record the hand-over of a rendered icon, see {@link JazzIconMetrics.Phase#OUTPUT}
+     *
+     * @param start when the hand-over started, from {@link #outputStart()}
+     * @param bytes the count of the bytes of the icon
+     */
+    private void recordOutput(long start, long bytes) {
+        JazzIconMetrics current = config.getMetrics();
+        if (current.isEnabled() && start != 0L) {
+            current.recordPhase(JazzIconMetrics.Phase.OUTPUT, System.nanoTime() - start);
+            current.recordBytesWritten(bytes);
+        }
+    }
+
+    /**
+     * Generate a JazzIcon directly to UTF-8 bytes, with an optional body interceptor. The generated svg is ASCII, so
+     * this skips the char encoding and the String altogether, ready to be sent as is.
+     *
+     * @param text the text to be the seed of the icon
+     * @param svgBodyInterceptor optional body interceptor, in case you want to insert your own elements to the middle
+     *     of the icon body, or anything else to do. Optional, you can pass null. <br>
+     *     <br>
+     *     <strong><u>DISCLAIMER: ANYTHING YOU DO IN THE CONSUMER TO THE SVG IS NOT GUARANTEED TO BE SAFE, I TAKE NO
+     *     RESPONSIBILITY FOR YOUR OPERATION(S)</u></strong>
+     * @return the UTF-8 bytes of the SVG of the JazzIcon
+     * @throws JazzIconGenerationException if anything goes wrong when generating the icon.
+     */
+    public byte[] generateIconBytes(@NonNull String text, @Nullable Consumer<Writer> svgBodyInterceptor)
+            throws JazzIconGenerationException {
+        return Exceptions.wrap(e -> new JazzIconGenerationException(ICON_GENERATION_ERROR_MESSAGE, e))
+                .get(() -> {
+                    RenderContext context = RenderContext.acquire();
+                    try {
+                        AsciiByteSink sink = context.getSink();
+                        render(text, sink, svgBodyInterceptor, true, context);
+                        long start = outputStart();
+                        byte[] icon = sink.toByteArray();
+                        recordOutput(start, icon.length);
+                        return icon;
+                    } finally {
+                        RenderContext.release(context);
+                    }
+                });
+    }
+
+    /**
+     * Generate a JazzIcon directly to UTF-8 bytes
+     *
+     * @param text the text to be the seed of the icon
+     * @return the UTF-8 bytes of the SVG of the JazzIcon
+     * @throws JazzIconGenerationException if anything goes wrong when generating the icon.
+     */
+    public byte[] generateIconBytes(@NonNull String text) throws JazzIconGenerationException {
+        return generateIconBytes(text, null);
+    }
+
+    /**
+     * Generate a JazzIcon directly to a String, with an optional body interceptor
+     *
+     * @param text the text to be the seed of the icon
+     * @param svgBodyInterceptor optional body interceptor, in case you want to insert your own elements to the middle
+     *     of the icon body, or anything else to do. Optional, you can pass null. <br>
+     *     <br>
+     *     <strong><u>DISCLAIMER: ANYTHING YOU DO IN THE CONSUMER TO THE SVG IS NOT GUARANTEED TO BE SAFE, I TAKE NO
+     *     RESPONSIBILITY FOR YOUR OPERATION(S)</u></strong>
+     * @return the SVG string of the JazzIcon
+     * @throws JazzIconGenerationException if anything goes wrong when generating the icon.
+     */
+    public String generateIcon(@NonNull String text, @Nullable Consumer<Writer> svgBodyInterceptor)
+            throws JazzIconGenerationException {
+        return Exceptions.wrap(e -> new JazzIconGenerationException(ICON_GENERATION_ERROR_MESSAGE, e))
+                .get(() -> {
+                    RenderContext context = RenderContext.acquire();
+                    try {
+                        AsciiByteSink sink = context.getSink();
+                        render(text, sink, svgBodyInterceptor, true, context);
+                        long start = outputStart();
+                        String icon = sink.toString();
+                        recordOutput(start, sink.size());
+                        return icon;
+                    } finally {
+                        RenderContext.release(context);
+                    }
+                });
+    }
+
+    /**
+     * Generate a JazzIcon directly to a String
+     *
+     * @param text the text to be the seed of the icon
+     * @return the SVG string of the JazzIcon
+     * @throws JazzIconGenerationException if anything goes wrong when generating the icon.
+     */
+    public String generateIcon(@NonNull String text) {
+        return generateIcon(text, null);
+    }
+
+    /**
+     * Generate a JazzIcon to a String asynchronously on the given executor. The render takes no lock and holds no
+     * monitor, so it doesn't block other renders or pin the carrier of a virtual thread.
+     *
+     * @param text the text to be the seed of the icon
+     * @param executor the executor to render on
+     * @return the future SVG string of the JazzIcon, failed with a {@link JazzIconGenerationException} if anything goes
+     *     wrong when generating the icon, or with the exception of the executor if it rejects the render
+     */
+    public CompletableFuture<String> generateIconAsync(@NonNull String text, @NonNull Executor executor) {
+        return IconBatch.submit(text, executor, this::generateIconBytes)
+                .thenApply(icon -> new String(icon, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Generate a JazzIcon to a String asynchronously on the {@link ForkJoinPool#commonPool()}
+     *
+     * @param text the text to be the seed of the icon
+     * @return the future SVG string of the JazzIcon, failed with a {@link JazzIconGenerationException} if anything goes
+     *     wrong when generating the icon
+     */
+    public CompletableFuture<String> generateIconAsync(@NonNull String text) {
+        return generateIconAsync(text, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Generate a JazzIcon to UTF-8 bytes asynchronously on the given executor. The render takes no lock and holds no
+     * monitor, so it doesn't block other renders or pin the carrier of a virtual thread.
+     *
+     * @param text the text to be the seed of the icon
+     * @param executor the executor to render on
+     * @return the future UTF-8 bytes of the SVG of the JazzIcon, failed with a {@link JazzIconGenerationException} if
+     *     anything goes wrong when generating the icon, or with the exception of the executor if it rejects the render
+     */
+    public CompletableFuture<byte[]> generateIconBytesAsync(@NonNull String text, @NonNull Executor executor) {
+        return IconBatch.submit(text, executor, this::generateIconBytes);
+    }
+
+    /**
+     * Generate a JazzIcon to UTF-8 bytes asynchronously on the {@link ForkJoinPool#commonPool()}
+     *
+     * @param text the text to be the seed of the icon
+     * @return the future UTF-8 bytes of the SVG of the JazzIcon, failed with a {@link JazzIconGenerationException} if
+     *     anything goes wrong when generating the icon
+     */
+    public CompletableFuture<byte[]> generateIconBytesAsync(@NonNull String text) {
+        return generateIconBytesAsync(text, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Publish the JazzIcons of a sequence of texts, rendered in parallel on the given executor and emitted in input
+     * order. Renders only start once the subscriber demands them, so a slow subscriber holds back the rendering. A
+     * failed render is emitted as a failed {@link IconResult}, a failing iteration of the texts fails the subscription.
+     * Each subscriber iterates the texts anew.
+     *
+     * @param texts the texts to be the seeds of the icons, iterated lazily
+     * @param executor the executor to render on
+     * @return the publisher of one result per text, in input order
+     */
+    public Flow.Publisher<IconResult> publishIcons(@NonNull Iterable<String> texts, @NonNull Executor executor) {
+        return new IconPublisher(texts, executor, this::generateIconBytes);
+    }
+
+    /**
+     * Publish the JazzIcons of a sequence of texts, rendered in parallel on the {@link ForkJoinPool#commonPool()} and
+     * emitted in input order, see {@link #publishIcons(Iterable, Executor)}
+     *
+     * @param texts the texts to be the seeds of the icons, iterated lazily
+     * @return the publisher of one result per text, in input order
+     */
+    public Flow.Publisher<IconResult> publishIcons(@NonNull Iterable<String> texts) {
+        return publishIcons(texts, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Generate a batch of JazzIcons in parallel on the given executor. A text repeated within the next 1024 texts
+     * (after trimming) is rendered only once, and a failure only fails its own input.
+     *
+     * @param texts the texts to be the seeds of the icons
+     * @param executor the executor to render on, a rejected render fails its input
+     * @return one result per input, in input order
+     */
+    public List<IconResult> generateIcons(@NonNull Collection<String> texts, @NonNull Executor executor) {
+        return IconBatch.generate(texts, executor, this::generateIconBytes);
+    }
+
+    /**
+     * Generate a batch of JazzIcons in parallel on the {@link ForkJoinPool#commonPool()}. A text repeated within the
+     * next 1024 texts (after trimming) is rendered only once, and a failure only fails its own input.
+     *
+     * @param texts the texts to be the seeds of the icons
+     * @return one result per input, in input order
+     */
+    public List<IconResult> generateIcons(@NonNull Collection<String> texts) {
+        return generateIcons(texts, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Generate a batch of JazzIcons in parallel on the given executor, handing each result to the consumer as soon as
+     * it and the ones before it are ready. Only a window of the icons is held in memory, so the batch can be as big as
+     * needed. A text repeated within the next 1024 texts (after trimming) is rendered only once, and a failure only
+     * fails its own input.
+     *
+     * @param texts the texts to be the seeds of the icons
+     * @param executor the executor to render on, a rejected render fails its input
+     * @param consumer receives one result per input, in input order, on the calling thread
+     */
+    public void generateIconsTo(
+            @NonNull Collection<String> texts, @NonNull Executor executor, @NonNull Consumer<IconResult> consumer) {
+        IconBatch.generate(texts, executor, this::generateIconBytes, consumer);
+    }
+
+    /**
+     * Generate a batch of JazzIcons in parallel on the {@link ForkJoinPool#commonPool()}, handing each result to the
+     * consumer as soon as it and the ones before it are ready. Only a window of the icons is held in memory, so the
+     * batch can be as big as needed. A text repeated within the next 1024 texts (after trimming) is rendered only once,
+     * and a failure only fails its own input.
+     *
+     * @param texts the texts to be the seeds of the icons
+     * @param consumer receives one result per input, in input order, on the calling thread
+     */
+    public void generateIconsTo(@NonNull Collection<String> texts, @NonNull Consumer<IconResult> consumer) {
+        generateIconsTo(texts, ForkJoinPool.commonPool(), consumer);
+    }
+
+    /**
+     * The shape count to be generated in the icon
+     *
+     * @return the shape count to be generated in the icon
+     */
+    public int getShapeCount() {
+        return config.getShapeCount();
+    }
+
+    /**
+     * Sets the shape count to be generated in the icon. <br>
+     * By default, {@code 4} is used so the image is unique and colorful enough
+     *
+     * @param shapeCount the new {@link ColorPalettes} shape count to be generated in the icon.
+     * @return This class for fluent style API
+     * @throws IllegalArgumentException if the supplied shapeCount param is lesser or equals 0 OR when the requested
+     *     {@code shapeCount + 1} is lower than the {@code baseColor}'s set size
+     */
+    public JazzIcon setShapeCount(int shapeCount) throws IllegalArgumentException {
+        try {
+            lock.lock();
+            if (shapeCount <= 0) {
+                throw new IllegalArgumentException("shapeCount must be > 0");
+            }
+            if (shapeCount + 1 > baseColors.getColors().size()) {
+                throw new IllegalArgumentException(
+                        "Insufficient base colors, shapeCount list size must be higher than shapeCount + 1");
+            }
+            this.shapeCount = shapeCount;
+            refreshConfig();
+            return this;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The wobbles to the hue shift of the color rotator
+     *
+     * @return the wobbles to the hue shift of the color rotator
+     */
+    public int getWobble() {
+        return config.getWobble();
+    }
+
+    /**
+     * Sets the wobbles to the hue shift of the color rotator. <br>
+     * By default, {@code 30} is used
+     *
+     * @param wobble the new {@link ColorPalettes} to be used by JazzIcon
+     * @return This class for fluent style API
      * @throws IllegalArgumentException if the supplied wobble param is lesser or equals 0
      */
     public JazzIcon setWobble(int wobble) throws IllegalArgumentException {
@@ -829,6 +1630,7 @@ public class JazzIcon {
                 throw new IllegalArgumentException("wobble must be > 0");
             }
             this.wobble = wobble;
+            refreshConfig();
             return this;
         } finally {
             lock.unlock();
@@ -841,12 +1643,7 @@ public class JazzIcon {
      * @return the {@link ColorPalettes} to be used by JazzIcon.
      */
     @NonNull public ColorPalettes getBaseColors() {
-        try {
-            lock.lock();
-            return baseColors;
-        } finally {
-            lock.unlock();
-        }
+        return config.getBaseColors();
     }
 
     /**
@@ -869,6 +1666,7 @@ public class JazzIcon {
                         "Insufficient base colors, shapeCount list size must be higher than shapeCount + 1");
             }
             this.baseColors = baseColors;
+            refreshConfig();
             return this;
         } finally {
             lock.unlock();
@@ -881,12 +1679,7 @@ public class JazzIcon {
      * @return the characters allow list for padding seed text when seed text lesser or equals 3
      */
     @NonNull public String getAllowedCharactersForPaddingText() {
-        try {
-            lock.lock();
-            return allowedCharactersForPaddingText;
-        } finally {
-            lock.unlock();
-        }
+        return config.getAllowedCharactersForPaddingText();
     }
 
     /**
@@ -906,6 +1699,7 @@ public class JazzIcon {
                         "allowedCharacters must not be just blanks, an empty string or null");
             }
             this.allowedCharactersForPaddingText = allowedCharactersForPaddingText;
+            refreshConfig();
             return this;
         } finally {
             lock.unlock();
@@ -918,17 +1712,18 @@ public class JazzIcon {
      * @return the {@link RandomGenerator} used by JazzIcon
      */
     @NonNull public RandomGenerator getRandomGenerator() {
-        try {
-            lock.lock();
-            return randomGenerator;
-        } finally {
-            lock.unlock();
-        }
+        return config.getRandomGenerator();
     }
 
     /**
      * Sets the {@link RandomGenerator} to be used by JazzIcon. <br>
-     * By default, {@link Well512a} is used
+     * By default, {@link Well512a} is used <br>
+     * <br>
+     * For the Hipparchus generators whose {@code setSeed} fully resets them ({@link Well512a}, {@link Well1024a},
+     * {@link Well19937a}, {@link Well19937c}, {@link Well44497a}, {@link Well44497b}, {@link MersenneTwister} and
+     * {@link ISAACRandom}), and for {@link SplitMix64Random}, every render gets its own fresh instance of the same
+     * class, so renders run in parallel. Any other generator is shared by all renders, which then have to take turns on
+     * the lock. Use {@link #setRandomGeneratorFactory(Supplier)} to make your own generator parallel as well.
      *
      * @param randomGenerator the new {@link RandomGenerator} to be used by JazzIcon
      * @return This class for fluent style API
@@ -941,44 +1736,165 @@ public class JazzIcon {
                 throw new IllegalArgumentException("randomGenerator must not be null");
             }
             this.randomGenerator = randomGenerator;
+            this.randomGeneratorFactory = RESEEDABLE_GENERATORS.get(randomGenerator.getClass());
+            refreshConfig();
             return this;
         } finally {
             lock.unlock();
         }
     }
 
-    @Override
-    public boolean equals(Object o) {
-        if (o == null || getClass() != o.getClass()) {
-            return false;
+    /**
+     * Sets the factory creating the {@link RandomGenerator} of the renders. A render never shares its generator with
+     * another one running at the same time, but the generators are kept and reseeded by the following renders. <br>
+     * The generators it creates MUST produce the same sequence after {@code setSeed(long)} regardless of what happened
+     * to them before, otherwise the same text won't always produce the same icon.
+     *
+     * @param randomGeneratorFactory the factory of the {@link RandomGenerator} to be used by JazzIcon
+     * @return This class for fluent style API
+     * @throws IllegalArgumentException if the supplied factory param is null or creates null
+     */
+    public JazzIcon setRandomGeneratorFactory(Supplier<RandomGenerator> randomGeneratorFactory)
+            throws IllegalArgumentException {
+        try {
+            lock.lock();
+            if (Objects.isNull(randomGeneratorFactory)) {
+                throw new IllegalArgumentException("randomGeneratorFactory must not be null");
+            }
+            RandomGenerator created = randomGeneratorFactory.get();
+            if (Objects.isNull(created)) {
+                throw new IllegalArgumentException("randomGeneratorFactory must not create null");
+            }
+            this.randomGenerator = created;
+            this.randomGeneratorFactory = randomGeneratorFactory;
+            refreshConfig();
+            return this;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * How a seed text of 3 characters or fewer is padded
+     *
+     * @return the {@link PaddingMode} used by JazzIcon
+     */
+    @NonNull public PaddingMode getPaddingMode() {
+        return config.getPaddingMode();
+    }
+
+    /**
+     * Sets how a seed text of 3 characters or fewer is padded. <br>
+     * By default, {@link PaddingMode#RANDOM} is used, so the icon of a short text changes on every render.
+     * {@link PaddingMode#DETERMINISTIC} derives the padding from the text itself, so short texts always get the same
+     * icon and can be cached like any other.
+     *
+     * @param paddingMode the new {@link PaddingMode} to be used by JazzIcon
+     * @return This class for fluent style API
+     * @throws IllegalArgumentException if the supplied paddingMode param is null
+     */
+    public JazzIcon setPaddingMode(PaddingMode paddingMode) throws IllegalArgumentException {
+        try {
+            lock.lock();
+            if (Objects.isNull(paddingMode)) {
+                throw new IllegalArgumentException("paddingMode must not be null");
+            }
+            this.paddingMode = paddingMode;
+            refreshConfig();
+            return this;
+        } finally {
+            lock.unlock();
         }
+    }
+
+    /**
+     * The {@link SeedStrategy} deriving the seed of the random draws from the text
+     *
+     * @return the {@link SeedStrategy} used by JazzIcon
+     */
+    @NonNull public SeedStrategy getSeedStrategy() {
+        return config.getSeedStrategy();
+    }
 
-        JazzIcon jazzIcon = (JazzIcon) o;
+    /**
+     * Sets the {@link SeedStrategy} deriving the seed of the random draws from the text. Changes the icons, unless it
+     * derives the same seeds. <br>
+     * By default, {@link SeedStrategy#legacy()} is used, {@link SeedStrategy#hash64()} gets fewer collisions
+     *
+     * @param seedStrategy the new {@link SeedStrategy} to be used by JazzIcon
+     * @return This class for fluent style API
+     * @throws IllegalArgumentException if the supplied seedStrategy param is null
+     */
+    public JazzIcon setSeedStrategy(SeedStrategy seedStrategy) throws IllegalArgumentException {
         try {
             lock.lock();
-            return shapeCount == jazzIcon.shapeCount
-                    && wobble == jazzIcon.wobble
-                    && baseColors.equals(jazzIcon.baseColors)
-                    && randomGenerator.getClass().equals(jazzIcon.randomGenerator.getClass());
+            if (Objects.isNull(seedStrategy)) {
+                throw new IllegalArgumentException("seedStrategy must not be null");
+            }
+            this.seedStrategy = seedStrategy;
+            refreshConfig();
+            return this;
         } finally {
             lock.unlock();
         }
     }
 
-    @Override
-    public int hashCode() {
+    /**
+     * The listener of the timings of the renders
+     *
+     * @return the listener of the timings of the renders
+     */
+    @NonNull public JazzIconMetrics getMetrics() {
+        return config.getMetrics();
+    }
+
+    /**
+     * Sets the listener of the timings of the renders, see {@link JazzIconMetrics}. The metrics don't change the
+     * output, so a change of metrics doesn't invalidate cached icons: the configuration keeps its version and the
+     * {@link ConfigurationListener}s aren't notified. <br>
+     * By default, {@link JazzIconMetrics#noop()} is used
+     *
+     * @param metrics the new listener of the timings of the renders
+     * @return This class for fluent style API
+     * @throws IllegalArgumentException if the supplied metrics param is null
+     */
+    public JazzIcon setMetrics(JazzIconMetrics metrics) throws IllegalArgumentException {
         try {
             lock.lock();
-            int result = shapeCount;
-            result = 31 * result + wobble;
-            result = 31 * result + baseColors.hashCode();
-            result = 31 * result + randomGenerator.getClass().hashCode();
-            return result;
+            if (Objects.isNull(metrics)) {
+                throw new IllegalArgumentException("metrics must not be null");
+            }
+            this.metrics = metrics;
+            if (reconfigureDepth == 0) {
+                this.config = config.withMetrics(metrics);
+            }
+            return this;
         } finally {
             lock.unlock();
         }
     }
 
+    /**
+     * Two generators are equal when they render the same icons: same shapes, colors in the same order, padding, svg
+     * classes, styles and overlays, generator class and seed strategy. The metrics are left out.
+     *
+     * @param o the other object
+     * @return whether the other object is a generator rendering the same icons
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        return config.rendersSameAs(((JazzIcon) o).config);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(config.getFingerprint());
+    }
+
     /** The shape type to be generated */
     protected enum ShapeType {
         /** Corresponds to {@code <rect></rect>} */
@@ -992,6 +1908,17 @@ public class JazzIcon {
         protected static final ShapeType[] vals = values();
     }
 
+    /** How a seed text of 3 characters or fewer is padded with 6 characters on each side */
+    public enum PaddingMode {
+        /** Padding drawn from the random generator, the icon of a short text changes on every render */
+        RANDOM,
+        /**
+         * Padding derived from a 64-bit hash of the text, the same short text always gets the same icon, on every
+         * thread and every JVM
+         */
+        DETERMINISTIC,
+    }
+
     /** Convenience Builder Style helper for JazzIcon class creation */
     @SuppressWarnings("ClassCanBeRecord")
     public static class JazzIconBuilder {
@@ -1070,6 +1997,61 @@ public class JazzIcon {
             return this;
         }
 
+        /**
+         * Change the factory creating the {@link RandomGenerator} of the renders.
+         *
+         * @param randomGeneratorFactory the factory of the {@link RandomGenerator} to be used by JazzIcon
+         * @return the builder
+         */
+        public JazzIconBuilder withRandomGeneratorFactory(Supplier<RandomGenerator> randomGeneratorFactory) {
+            jazzIcon.setRandomGeneratorFactory(randomGeneratorFactory);
+            return this;
+        }
+
+        /**
+         * Change how a seed text of 3 characters or fewer is padded
+         *
+         * @param paddingMode the {@link PaddingMode} to be used by JazzIcon
+         * @return the builder
+         */
+        public JazzIconBuilder withPaddingMode(PaddingMode paddingMode) {
+            jazzIcon.setPaddingMode(paddingMode);
+            return this;
+        }
+
+        /**
+         * Change the {@link SeedStrategy} deriving the seed of the random draws from the text
+         *
+         * @param seedStrategy the {@link SeedStrategy} to be used by JazzIcon
+         * @return the builder
+         */
+        public JazzIconBuilder withSeedStrategy(SeedStrategy seedStrategy) {
+            jazzIcon.setSeedStrategy(seedStrategy);
+            return this;
+        }
+
+        /**
+         * Change the listener of the timings of the renders
+         *
+         * @param metrics the listener of the timings of the renders
+         * @return the builder
+         */
+        public JazzIconBuilder withMetrics(JazzIconMetrics metrics) {
+            jazzIcon.setMetrics(metrics);
+            return this;
+        }
+
+        /**
+         * Add a listener notified of every configuration change
+         *
+         * @param listener the listener to add
+         * @return the builder
+         */
+        public JazzIconBuilder withConfigurationListener(ConfigurationListener listener) {
+            jazzIcon.addConfigurationListener(listener);
+            return this;
+        }
+
         /**
          * Finalize building
          *
@@ -0,0 +1,331 @@
+package io.github.mikeychowy.jazzicon;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.hipparchus.random.RandomGenerator;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Immutable snapshot of everything a {@link JazzIcon} needs to render an icon. <br>
+ * <br>
+ * A new snapshot is taken every time the generator's configuration changes, so a render always sees one consistent
+ * set of values without having to hold the generator's lock.
+ */
+@SuppressWarnings("ClassCanBeRecord")
+final class JazzIconConfig {
+    /** per JVM tokens of the live seed strategies without an id, see {@link #identityOf(SeedStrategy)} */
+    private static final Map<SeedStrategy, Long> SEED_STRATEGY_TOKENS =
+            Collections.synchronizedMap(new WeakHashMap<>());
+    /** the last token given to a seed strategy without an id */
+    private static final AtomicLong LAST_SEED_STRATEGY_TOKEN = new AtomicLong();
+
+    /** the count of the shapes to be generated */
+    private final int shapeCount;
+    /** the wobble used for color rotating into hue shift */
+    private final int wobble;
+    /** the {@link ColorPalettes} to be used for the theme of the icon */
+    private final ColorPalettes baseColors;
+    /** allow list for characters to be randomly picked during seed text padding */
+    private final String allowedCharactersForPaddingText;
+    /** how a short seed text is padded */
+    private final JazzIcon.PaddingMode paddingMode;
+    /** classes to be inserted into "class" attribute of the generated svg */
+    private final List<String> svgClasses;
+    /** styles to be inserted into "style" attribute of the generated svg */
+    private final List<String> svgStyles;
+    /** static svg fragments appended on top of the shapes */
+    private final List<String> svgOverlays;
+    /** the generator instance configured on the generator, shared by the renders when there is no factory */
+    private final RandomGenerator randomGenerator;
+    /** creates a fresh {@link RandomGenerator} per render, null if renders must share the generator instance */
+    private final @Nullable Supplier<RandomGenerator> randomGeneratorFactory;
+    /** derives the seed of the random draws from the text */
+    private final SeedStrategy seedStrategy;
+    /** identifies the seeds {@link #seedStrategy} derives, see {@link #identityOf(SeedStrategy)} */
+    private final String seedStrategyIdentity;
+    /** the listener of the timings of the renders, doesn't change the output */
+    private final JazzIconMetrics metrics;
+    /** the head of the svg, the opening tag with the classes and styles */
+    private final String svgHeader;
+    /** the read-only UTF-8 bytes of {@link #svgHeader} */
+    private final ByteBuffer svgHeaderBytes;
+    /** the svg overlays joined into one fragment, empty if there is none */
+    private final String svgOverlay;
+    /** identifies everything that shapes the output of a render, see {@link #getFingerprint()} */
+    private final long fingerprint;
+    /** 1 for the first snapshot of a generator, incremented by every snapshot replacing it */
+    private final long version;
+
+    /**
+     * Create a new snapshot, the lists are copied and the svg fragments are built once for all the renders, or taken
+     * from the previous snapshot when their lists didn't change.
+     *
+     * @param shapeCount the count of the shapes to be generated
+     * @param wobble the wobble used for color rotating into hue shift
+     * @param baseColors the {@link ColorPalettes} to be used for the theme of the icon
+     * @param allowedCharactersForPaddingText allow list for characters to be randomly picked during seed text padding
+     * @param paddingMode how a short seed text is padded
+     * @param svgClasses classes to be inserted into "class" attribute of the generated svg
+     * @param svgStyles styles to be inserted into "style" attribute of the generated svg
+     * @param svgOverlays static svg fragments appended on top of the shapes
+     * @param randomGenerator the generator instance configured on the generator
+     * @param randomGeneratorFactory creates a fresh {@link RandomGenerator} per render, or null
+     * @param seedStrategy derives the seed of the random draws from the text
+     * @param metrics the listener of the timings of the renders
+     * @param previous the snapshot this one replaces, to reuse its svg fragments and follow its version, or null
+     */
+    JazzIconConfig(
+            int shapeCount,
+            int wobble,
+            @NonNull ColorPalettes baseColors,
+            @NonNull String allowedCharactersForPaddingText,
+            JazzIcon.@NonNull PaddingMode paddingMode,
+            @NonNull List<String> svgClasses,
+            @NonNull List<String> svgStyles,
+            @NonNull List<String> svgOverlays,
+            @NonNull RandomGenerator randomGenerator,
+            @Nullable Supplier<RandomGenerator> randomGeneratorFactory,
+            @NonNull SeedStrategy seedStrategy,
+            @NonNull JazzIconMetrics metrics,
+            @Nullable JazzIconConfig previous) {
+        this.shapeCount = shapeCount;
+        this.wobble = wobble;
+        this.baseColors = baseColors;
+        this.allowedCharactersForPaddingText = allowedCharactersForPaddingText;
+        this.paddingMode = paddingMode;
+        this.randomGenerator = randomGenerator;
+        this.randomGeneratorFactory = randomGeneratorFactory;
+        this.seedStrategy = seedStrategy;
+        this.seedStrategyIdentity = Objects.nonNull(previous) && previous.seedStrategy == seedStrategy
+                ? previous.seedStrategyIdentity
+                : identityOf(seedStrategy);
+        this.metrics = metrics;
+        if (Objects.nonNull(previous)
+                && previous.svgClasses.equals(svgClasses)
+                && previous.svgStyles.equals(svgStyles)) {
+            this.svgClasses = previous.svgClasses;
+            this.svgStyles = previous.svgStyles;
+            this.svgHeader = previous.svgHeader;
+            this.svgHeaderBytes = previous.svgHeaderBytes;
+        } else {
+            this.svgClasses = List.copyOf(svgClasses);
+            this.svgStyles = List.copyOf(svgStyles);
+            this.svgHeader = JazzIconRenderer.buildSvgHeader(this.svgClasses, this.svgStyles);
+            this.svgHeaderBytes = JazzIconRenderer.toReadOnlyBuffer(svgHeader);
+        }
+        if (Objects.nonNull(previous) && previous.svgOverlays.equals(svgOverlays)) {
+            this.svgOverlays = previous.svgOverlays;
+            this.svgOverlay = previous.svgOverlay;
+        } else {
+            this.svgOverlays = List.copyOf(svgOverlays);
+            this.svgOverlay = String.join("", this.svgOverlays);
+        }
+        this.fingerprint = computeFingerprint();
+        this.version = Objects.isNull(previous) ? 1 : previous.version + 1;
+    }
+
+    /**
+     * Copy a snapshot with other metrics, keeping its version and fingerprint, as the metrics don't change the output
+     *
+     * @param source the snapshot to copy
+     * @param metrics the listener of the timings of the renders
+     */
+    private JazzIconConfig(@NonNull JazzIconConfig source, @NonNull JazzIconMetrics metrics) {
+        this.shapeCount = source.shapeCount;
+        this.wobble = source.wobble;
+        this.baseColors = source.baseColors;
+        this.allowedCharactersForPaddingText = source.allowedCharactersForPaddingText;
+        this.paddingMode = source.paddingMode;
+        this.svgClasses = source.svgClasses;
+        this.svgStyles = source.svgStyles;
+        this.svgOverlays = source.svgOverlays;
+        this.randomGenerator = source.randomGenerator;
+        this.randomGeneratorFactory = source.randomGeneratorFactory;
+        this.seedStrategy = source.seedStrategy;
+        this.seedStrategyIdentity = source.seedStrategyIdentity;
+        this.metrics = metrics;
+        this.svgHeader = source.svgHeader;
+        this.svgHeaderBytes = source.svgHeaderBytes;
+        this.svgOverlay = source.svgOverlay;
+        this.fingerprint = source.fingerprint;
+        this.version = source.version;
+    }
+
+    int getShapeCount() {
+        return shapeCount;
+    }
+
+    int getWobble() {
+        return wobble;
+    }
+
+    @NonNull ColorPalettes getBaseColors() {
+        return baseColors;
+    }
+
+    @NonNull String getAllowedCharactersForPaddingText() {
+        return allowedCharactersForPaddingText;
+    }
+
+    JazzIcon.@NonNull PaddingMode getPaddingMode() {
+        return paddingMode;
+    }
+
+    @NonNull List<String> getSvgClasses() {
+        return svgClasses;
+    }
+
+    @NonNull List<String> getSvgStyles() {
+        return svgStyles;
+    }
+
+    @NonNull List<String> getSvgOverlays() {
+        return svgOverlays;
+    }
+
+    /**
+     * Get the svg overlays joined into the one fragment appended on top of the shapes
+     *
+     * @return the joined svg overlays, empty if there is none
+     */
+    @NonNull String getSvgOverlay() {
+        return svgOverlay;
+    }
+
+    @NonNull RandomGenerator getRandomGenerator() {
+        return randomGenerator;
+    }
+
+    @Nullable Supplier<RandomGenerator> getRandomGeneratorFactory() {
+        return randomGeneratorFactory;
+    }
+
+    @NonNull SeedStrategy getSeedStrategy() {
+        return seedStrategy;
+    }
+
+    @NonNull JazzIconMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Get a copy of the snapshot with other metrics, same version and same fingerprint, see
+     * {@link JazzIcon#setMetrics(JazzIconMetrics)}
+     *
+     * @param metrics the listener of the timings of the renders
+     * @return this snapshot if it already has these metrics, otherwise a copy with them
+     */
+    @NonNull JazzIconConfig withMetrics(@NonNull JazzIconMetrics metrics) {
+        return this.metrics == metrics ? this : new JazzIconConfig(this, metrics);
+    }
+
+    @NonNull String getSvgHeader() {
+        return svgHeader;
+    }
+
+    /**
+     * Get the read-only UTF-8 bytes of the svg head, {@link ByteBuffer#duplicate()} it before writing.
+     *
+     * @return the read-only bytes of {@link #getSvgHeader()}
+     */
+    @NonNull ByteBuffer getSvgHeaderBytes() {
+        return svgHeaderBytes;
+    }
+
+    /**
+     * Get the fingerprint of the snapshot. Two snapshots with the same fingerprint render the same icon for the same
+     * text, so it can be used with the text as a cache key. It covers the palette colors in the order they are picked
+     * in, so a palette iterating in another order gets another fingerprint. The seed strategy is identified by its
+     * {@link SeedStrategy#id()}. It is the same from one JVM run to the next, as long as the generator isn't a lambda or
+     * an anonymous class, whose names can change from one build to the next, and the seed strategy has an id.
+     *
+     * @return the 64-bit fingerprint of the snapshot
+     */
+    long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Get the version of the snapshot, 1 for the first snapshot of a generator, incremented by every snapshot replacing
+     * it
+     *
+     * @return the version of the snapshot
+     */
+    long getVersion() {
+        return version;
+    }
+
+    /**
+     * Whether the other snapshot renders the same icons, everything the fingerprint covers compared one by one
+     *
+     * @param other the other snapshot
+     * @return whether both snapshots render the same icon for the same text
+     */
+    boolean rendersSameAs(@NonNull JazzIconConfig other) {
+        return shapeCount == other.shapeCount
+                && wobble == other.wobble
+                && baseColors.equals(other.baseColors)
+                && allowedCharactersForPaddingText.equals(other.allowedCharactersForPaddingText)
+                && paddingMode == other.paddingMode
+                && svgHeader.equals(other.svgHeader)
+                && svgOverlay.equals(other.svgOverlay)
+                && randomGenerator.getClass().equals(other.randomGenerator.getClass())
+                && seedStrategyIdentity.equals(other.seedStrategyIdentity);
+    }
+
+    private long computeFingerprint() {
+        // FNV-1a over every field that changes the output, each behind its tag so the fields can't run into each other
+        long hash = 0xcbf29ce484222325L;
+        hash = mix(mix(hash, "shapeCount"), shapeCount);
+        hash = mix(mix(hash, "wobble"), wobble);
+        hash = mix(mix(hash, "baseColors"), baseColors.getColors().size());
+        for (String color : baseColors.getColors()) {
+            hash = mix(hash, color);
+        }
+        hash = mix(mix(hash, "allowedCharacters"), allowedCharactersForPaddingText);
+        hash = mix(mix(hash, "svgHeader"), svgHeader);
+        hash = mix(mix(hash, "svgOverlay"), svgOverlay);
+        hash = mix(mix(hash, "randomGenerator"), randomGenerator.getClass().getName());
+        hash = mix(mix(hash, "paddingMode"), paddingMode.name());
+        hash = mix(mix(hash, "seedStrategy"), seedStrategyIdentity);
+        return hash;
+    }
+
+    /**
+     * Identify the seeds a strategy derives: its {@link SeedStrategy#id()}, or without one a token given to the instance
+     * for as long as it lives, shared with the strategies {@link Object#equals(Object) equal} to it
+     *
+     * @param seedStrategy the strategy to identify
+     * @return the identity of the strategy, only equal to the one of a strategy deriving the same seeds
+     */
+    private static @NonNull String identityOf(@NonNull SeedStrategy seedStrategy) {
+        String id = seedStrategy.id();
+        if (Objects.nonNull(id)) {
+            return "id:" + id;
+        }
+        long token = SEED_STRATEGY_TOKENS.computeIfAbsent(
+                seedStrategy, strategy -> LAST_SEED_STRATEGY_TOKEN.incrementAndGet());
+        return "instance:" + seedStrategy.getClass().getName() + '#' + token;
+    }
+
+    private static long mix(long hash, int value) {
+        for (int shift = 0; shift < 32; shift += 8) {
+            hash = (hash ^ ((value >>> shift) & 0xFF)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        return mix(hash, value.length());
+    }
+}
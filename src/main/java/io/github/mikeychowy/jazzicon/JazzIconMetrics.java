@@ -0,0 +1,73 @@
+package io.github.mikeychowy.jazzicon;
+
+import org.jspecify.annotations.NonNull;
+
+/**
+ * A listener for where the time of the renders of a {@link JazzIcon} goes, see
+ * {@link JazzIcon#setMetrics(JazzIconMetrics)}. It is called on the rendering threads, concurrently when the renders
+ * are, so an implementation must be thread-safe and cheap, it is on the hot path of every render. <br>
+ * <br>
+ * {@link #noop()} is the default, the renders check {@link #isEnabled()} once and skip the clock reads altogether, so
+ * the disabled metrics cost nothing but a branch. {@link HistogramJazzIconMetrics} keeps in-memory histograms to be
+ * scraped.
+ */
+public interface JazzIconMetrics {
+    /**
+     * The metrics doing nothing, the default of every generator
+     *
+     * @return the no-op metrics
+     */
+    static JazzIconMetrics noop() {
+        return NoOpJazzIconMetrics.INSTANCE;
+    }
+
+    /**
+     * Whether the renders should measure anything, read once per render
+     *
+     * @return true to be called with the timings, false to skip the measuring
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * Called once per phase of every render, the interceptor phase only when an interceptor is given
+     *
+     * @param phase the phase that just ended
+     * @param nanos how long the phase took, in nanoseconds
+     */
+    void recordPhase(@NonNull Phase phase, long nanos);
+
+    /**
+     * Called once per icon handed over as bytes or as a String, an icon appended to a caller's {@link java.io.Writer}
+     * is chars and isn't reported
+     *
+     * @param bytes the count of the UTF-8 bytes of the icon
+     */
+    void recordBytesWritten(long bytes);
+
+    /**
+     * Called when a render had to take the generator's lock, which is only when no random generator factory is known
+     * for the configured generator and the renders share it
+     *
+     * @param nanos how long the render waited for the lock, in nanoseconds
+     */
+    void recordLockWait(long nanos);
+
+    /** The phases of a render, in the order they run */
+    enum Phase {
+        /** padding a short text, deriving the seed from the text and seeding the random generator */
+        SEED,
+        /** computing the hue shift and getting the rotation table of the palette, built on its first use */
+        ROTATION,
+        /** creating the shapes, rotating the colors picked for them, and appending the overlays */
+        SHAPES,
+        /** running the body interceptor */
+        INTERCEPTOR,
+        /**
+         * handing the icon over: appending the head and tail to a caller's {@link java.io.Writer}, or copying the
+         * rendered bytes into the String, array, stream, buffer or channel
+         */
+        OUTPUT
+    }
+}
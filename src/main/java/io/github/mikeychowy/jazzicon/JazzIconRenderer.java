@@ -0,0 +1,521 @@
+package io.github.mikeychowy.jazzicon;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import org.apache.commons.lang3.StringUtils;
+import org.hipparchus.random.RandomGenerator;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The stateless rendering engine behind {@link JazzIcon}. <br>
+ * <br>
+ * Everything it needs comes in through the parameters: the immutable {@link JazzIconConfig} snapshot and the
+ * {@link RandomGenerator} for this render. It is the caller's job to make sure the generator is not shared with another
+ * render running at the same time.
+ */
+final class JazzIconRenderer {
+    /** The logger */
+    private static final Logger log = LoggerFactory.getLogger(JazzIconRenderer.class);
+    /** The tail of every svg */
+    static final String SVG_TAIL = "</svg>";
+    /** The read-only bytes of {@link #SVG_TAIL} */
+    static final ByteBuffer SVG_TAIL_BYTES = toReadOnlyBuffer(SVG_TAIL);
+
+    private JazzIconRenderer() {}
+
+    /**
+     * Render a JazzIcon to a {@link Writer}.
+     *
+     * @param config the configuration snapshot to render with
+     * @param randomGenerator the {@link RandomGenerator} used for padding and, once reseeded from the text, the icon
+     * @param text the text to be the seed of the icon
+     * @param out a {@link Writer} to write the icon into
+     * @param svgBodyInterceptor optional body interceptor, called right before the tail is appended
+     * @param context the reusable scratch state of the render, or null to allocate it
+     * @throws IOException if anything goes wrong when appending to the {@link Writer}.
+     */
+    static void render(
+            @NonNull JazzIconConfig config,
+            @NonNull RandomGenerator randomGenerator,
+            @NonNull String text,
+            @NonNull Writer out,
+            @Nullable Consumer<Writer> svgBodyInterceptor,
+            @Nullable RenderContext context)
+            throws IOException {
+        JazzIconMetrics metrics = config.getMetrics();
+        // an internal sink is handed over by its owner, which records the output then
+        boolean timed = metrics.isEnabled() && !(out instanceof AsciiByteSink);
+        long outputNanos = 0;
+        long start = timed ? System.nanoTime() : 0L;
+        // append head
+        log.debug("appending head");
+        out.append(config.getSvgHeader());
+        if (timed) {
+            outputNanos = System.nanoTime() - start;
+        }
+
+        renderBody(config, randomGenerator, text, out, svgBodyInterceptor, context);
+
+        if (timed) {
+            start = System.nanoTime();
+        }
+        // append tail
+        log.debug("appending tail");
+        out.append(SVG_TAIL);
+        if (timed) {
+            metrics.recordPhase(JazzIconMetrics.Phase.OUTPUT, outputNanos + System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Render only the body of a JazzIcon to a {@link Writer}, everything between {@link JazzIconConfig#getSvgHeader()}
+     * and {@link #SVG_TAIL}.
+     *
+     * @param config the configuration snapshot to render with
+     * @param randomGenerator the {@link RandomGenerator} used for padding and, once reseeded from the text, the icon
+     * @param text the text to be the seed of the icon
+     * @param out a {@link Writer} to write the body into
+     * @param svgBodyInterceptor optional body interceptor, called right after the shapes and the overlays
+     * @param context the reusable scratch state of the render, or null to allocate it
+     * @throws IOException if anything goes wrong when appending to the {@link Writer}.
+     */
+    static void renderBody(
+            @NonNull JazzIconConfig config,
+            @NonNull RandomGenerator randomGenerator,
+            @NonNull String text,
+            @NonNull Writer out,
+            @Nullable Consumer<Writer> svgBodyInterceptor,
+            @Nullable RenderContext context)
+            throws IOException {
+        JazzIconMetrics metrics = config.getMetrics();
+        boolean timed = metrics.isEnabled();
+        int shapeCount = config.getShapeCount();
+        IconDraft draft = Objects.isNull(context) ? new IconDraft(shapeCount) : context.getDraft();
+        int[] picked = Objects.isNull(context) ? new int[shapeCount + 1] : context.picked(shapeCount + 1);
+        long phaseStart = draw(config, randomGenerator, text, draft, picked);
+        SvgIconSerializer.appendShapes(draft, out);
+        String svgOverlay = config.getSvgOverlay();
+        if (!svgOverlay.isEmpty()) {
+            log.debug("appending svg overlays");
+            out.append(svgOverlay);
+        }
+        if (timed) {
+            phaseStart = lap(metrics, JazzIconMetrics.Phase.SHAPES, phaseStart);
+        }
+
+        // in case we need to add other shapes or whatever before appending tail
+        if (Objects.nonNull(svgBodyInterceptor)) {
+            log.debug("writer consumer is set, accepting");
+            log.debug(
+                    "DISCLAIMER: ANYTHING YOU DO IN THE CONSUMER TO THE SVG IS NOT GUARANTEED TO BE SAFE, I TAKE NO RESPONSIBILITY FOR YOUR OPERATION(S)");
+            svgBodyInterceptor.accept(out);
+            if (timed) {
+                lap(metrics, JazzIconMetrics.Phase.INTERCEPTOR, phaseStart);
+            }
+        }
+    }
+
+    /**
+     * Draw the geometry of a JazzIcon, without writing anything: pad the text if it is too short, seed the generator
+     * from it and draw the shapes and their colors, same draws as a render.
+     *
+     * @param config the configuration snapshot to draw with
+     * @param randomGenerator the {@link RandomGenerator} used for padding and, once reseeded from the text, the icon
+     * @param text the text to be the seed of the icon
+     * @param draft the draft to draw into, reset first
+     * @param picked scratch for the picked palette indices, at least {@code shapeCount + 1} long
+     * @return when the shapes started being drawn, from {@link System#nanoTime()} if the metrics are enabled
+     */
+    static long draw(
+            @NonNull JazzIconConfig config,
+            @NonNull RandomGenerator randomGenerator,
+            @NonNull String text,
+            @NonNull IconDraft draft,
+            int @NonNull [] picked) {
+        JazzIconMetrics metrics = config.getMetrics();
+        boolean timed = metrics.isEnabled();
+        long phaseStart = timed ? System.nanoTime() : 0L;
+        log.debug("original text: {}", text);
+        String safeText = StringUtils.trimToEmpty(text);
+        if (safeText.length() <= 3) {
+            String allowedCharacters = config.getAllowedCharactersForPaddingText();
+            log.debug(
+                    "original text is too short, padding 6 characters to left and right (respectively) from allow list: {}",
+                    allowedCharacters);
+            if (config.getPaddingMode() == JazzIcon.PaddingMode.DETERMINISTIC) {
+                safeText = padDeterministically(allowedCharacters, safeText);
+            } else {
+                safeText = pad(randomGenerator, allowedCharacters, safeText);
+            }
+        }
+        log.debug("safe to use text: {}", safeText);
+
+        long seed = config.getSeedStrategy().seedOf(safeText);
+        randomGenerator.setSeed(seed);
+        // guarded, the primitives would be boxed for nothing
+        if (log.isDebugEnabled()) {
+            log.debug("random generator seed: {}", seed);
+        }
+        if (timed) {
+            phaseStart = lap(metrics, JazzIconMetrics.Phase.SEED, phaseStart);
+        }
+
+        double position = randomGenerator.nextDouble();
+        double hueShift = (30 * position) - (config.getWobble() / 2.0F);
+        if (log.isDebugEnabled()) {
+            log.debug("random position: {}, hue shift: {}", position, hueShift);
+        }
+
+        // the colors are rotated lazily, only the ones picked for the shapes
+        HueRotationTable rotationTable = config.getBaseColors().getRotationTable(config.getWobble());
+        if (timed) {
+            phaseStart = lap(metrics, JazzIconMetrics.Phase.ROTATION, phaseStart);
+        }
+
+        drawShapes(randomGenerator, config.getShapeCount(), rotationTable, hueShift, picked, draft);
+        return phaseStart;
+    }
+
+    /**
+     * Derive the seed of the random draws of an icon without rendering it. The icon is a function of the snapshot and
+     * that seed only, whatever text led to it.
+     *
+     * @param config the snapshot to render with
+     * @param safeText the trimmed text, longer than 3 characters unless the padding is {@link
+     *     JazzIcon.PaddingMode#DETERMINISTIC}
+     * @return the seed the render of the text would use
+     */
+    static long seedOf(@NonNull JazzIconConfig config, @NonNull String safeText) {
+        String seedText = safeText;
+        if (safeText.length() <= 3) {
+            seedText = padDeterministically(config.getAllowedCharactersForPaddingText(), safeText);
+        }
+        return config.getSeedStrategy().seedOf(seedText);
+    }
+
+    /**
+     * Pad a short text with 6 characters to the left and right, drawn from the text itself, so the hash and the draws
+     * don't depend on the JVM or the previous renders
+     *
+     * @param allowedCharacters the characters to pick from
+     * @param safeText the trimmed text
+     * @return the padded text
+     */
+    static String padDeterministically(@NonNull String allowedCharacters, @NonNull String safeText) {
+        return pad(new SplitMix64Random(Hash64SeedStrategy.INSTANCE.seedOf(safeText)), allowedCharacters, safeText);
+    }
+
+    /**
+     * Pad a short text with 6 characters to the left and right
+     *
+     * @param paddingGenerator the generator drawing the characters
+     * @param allowedCharacters the characters to pick from
+     * @param safeText the trimmed text
+     * @return the padded text
+     */
+    private static String pad(
+            @NonNull RandomGenerator paddingGenerator, @NonNull String allowedCharacters, @NonNull String safeText) {
+        return randomStringFromAllowedChars(paddingGenerator, allowedCharacters, 6)
+                + safeText
+                + randomStringFromAllowedChars(paddingGenerator, allowedCharacters, 6);
+    }
+
+    /**
+     * Record the end of a phase
+     *
+     * @param metrics the enabled metrics
+     * @param phase the phase that just ended
+     * @param phaseStart when the phase started, from {@link System#nanoTime()}
+     * @return now, when the next phase starts
+     */
+    private static long lap(JazzIconMetrics metrics, JazzIconMetrics.Phase phase, long phaseStart) {
+        long now = System.nanoTime();
+        metrics.recordPhase(phase, now - phaseStart);
+        return now;
+    }
+
+    /**
+     * Build the head of the svg, the opening tag with the classes and styles.
+     *
+     * @param svgClasses classes to be inserted into "class" attribute of the generated svg
+     * @param svgStyles styles to be inserted into "style" attribute of the generated svg
+     * @return the head of the svg
+     */
+    static String buildSvgHeader(@NonNull List<String> svgClasses, @NonNull List<String> svgStyles) {
+        StringBuilder header = new StringBuilder("<svg ");
+        if (!svgClasses.isEmpty()) {
+            log.debug("svg classes are not empty, appending: {}", svgClasses);
+            header.append("class=\"").append(String.join(" ", svgClasses)).append("\" ");
+        }
+        if (!svgStyles.isEmpty()) {
+            log.debug("svg styles are not empty, appending: {}", svgStyles);
+            header.append("style=\"").append(String.join(" ", svgStyles)).append("\" ");
+        }
+        header.append("xmlns=\"http://www.w3.org/2000/svg\" x=\"0\" y=\"0\" viewBox=\"0 0 100 100\">");
+        return header.toString();
+    }
+
+    /**
+     * Copy the UTF-8 bytes of a fixed svg fragment into a read-only direct buffer, to be written to channels without
+     * an intermediate copy. Callers {@link ByteBuffer#duplicate()} it before writing, the positions are per write.
+     *
+     * @param fragment the fixed svg fragment
+     * @return the read-only direct buffer of the fragment
+     */
+    static ByteBuffer toReadOnlyBuffer(@NonNull String fragment) {
+        byte[] bytes = fragment.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length).put(bytes);
+        buffer.flip();
+        return buffer.asReadOnlyBuffer();
+    }
+
+    /**
+     * Generate the next transformation of the svg shape, changes the shape's position and rotation.
+     *
+     * @param randomGenerator the {@link RandomGenerator} of the current render
+     * @param shapeCount the count of the shapes to be generated
+     * @param index the index of the shape for which the transform will be generated, extra randomness
+     * @param out the {@link Writer} to append the transform into
+     * @throws IOException if anything goes wrong when appending the generated transform to the {@link Writer}.
+     */
+    static void nextTransform(
+            @NonNull RandomGenerator randomGenerator, int shapeCount, int index, @NonNull Writer out)
+            throws IOException {
+        IconDraft draft = new IconDraft(1);
+        draft.reset(1);
+        drawTransform(randomGenerator, shapeCount, index, draft, 0);
+        SvgIconSerializer.appendTransform(draft, 0, out);
+    }
+
+    /**
+     * Draw the next transformation of a shape, its position and rotation, rounded the way they are written.
+     *
+     * @param randomGenerator the {@link RandomGenerator} of the current render
+     * @param shapeCount the count of the shapes to be generated
+     * @param index the index of the shape for which the transform will be generated, extra randomness
+     * @param draft the draft to draw into
+     * @param slot the slot of the shape in the draft
+     */
+    static void drawTransform(
+            @NonNull RandomGenerator randomGenerator, int shapeCount, int index, @NonNull IconDraft draft, int slot) {
+        double firstRotation = randomGenerator.nextDouble();
+        double boost = randomGenerator.nextDouble();
+        double secondRotation = randomGenerator.nextDouble();
+        double angle = 2 * Math.PI * firstRotation;
+        double velocity = (100 * (index + boost)) / shapeCount;
+        double x = Math.cos(angle) * velocity;
+        double y = Math.sin(angle) * velocity;
+        double r = firstRotation * 360 + secondRotation * 180;
+
+        int offset = slot * IconDraft.TRANSFORM_VALUES;
+        draft.transforms[offset] = (int) DecimalUtils.roundFixed(x, IconDraft.TRANSLATE_DIGITS);
+        draft.transforms[offset + 1] = (int) DecimalUtils.roundFixed(y, IconDraft.TRANSLATE_DIGITS);
+        draft.transforms[offset + 2] = (int) DecimalUtils.roundFixed(r, IconDraft.ROTATE_DIGITS);
+    }
+
+    /**
+     * Randomly pick the next color to be used from the list of baseColors rotated using hueShift.
+     *
+     * @param randomGenerator the {@link RandomGenerator} of the current render
+     * @param rotatedColors the list of colors that has been rotated according to the hueShift, MUST BE MUTABLE, the
+     *     picked color is removed from the list
+     * @param out the {@link Writer} to append the picked color into
+     * @throws IOException if anything goes wrong when appending the randomly picked color to the {@link Writer}.
+     */
+    static void nextColor(
+            @NonNull RandomGenerator randomGenerator, @NonNull List<String> rotatedColors, @NonNull Writer out)
+            throws IOException {
+        // waste a cycle for extra randomness, spicy!
+        randomGenerator.nextDouble();
+        var position = randomGenerator.nextDouble();
+        int index = (int) Math.floor((rotatedColors.size() - 1) * position);
+        log.debug("nextColor: initial index={}, initial position={}", index, position);
+        while (index >= rotatedColors.size() || index < 0) {
+            log.debug("nextColor: index is way out of the list, regenerating");
+            position = randomGenerator.nextDouble();
+            index = (int) Math.floor((rotatedColors.size() - 1) * position);
+        }
+        log.debug("nextColor: final index={}, final position={}", index, position);
+
+        var color = rotatedColors.remove(index);
+        log.debug("nextColor: color from list = '{}'", color);
+        if (StringUtils.isBlank(color) || !ColorUtils.isValidHexColor(color)) {
+            log.debug("nextColor: color from list is invalid, either blank or not a valid hex color, outputting white");
+            color = "#FFFFFF";
+        }
+        out.append(color);
+    }
+
+    /**
+     * Randomly pick the next color to be used from the palette colors not picked yet and rotate only that one, same
+     * picking as {@link #nextColor(RandomGenerator, List, Writer)} without rotating the whole palette or shifting a list
+     * down, packed colors are always valid.
+     *
+     * @param randomGenerator the {@link RandomGenerator} of the current render
+     * @param rotationTable the hue rotation table of the palette
+     * @param hueShift the hueShift for the picked color on the color wheel
+     * @param picked the palette indices picked so far, sorted, the picked color's index is inserted
+     * @param pickedCount the count of the palette indices in {@code picked}
+     * @return the picked color, rotated and packed
+     */
+    static int nextPackedColor(
+            @NonNull RandomGenerator randomGenerator,
+            @NonNull HueRotationTable rotationTable,
+            double hueShift,
+            int @NonNull [] picked,
+            int pickedCount) {
+        int size = rotationTable.size() - pickedCount;
+        // waste a cycle for extra randomness, spicy!
+        randomGenerator.nextDouble();
+        var position = randomGenerator.nextDouble();
+        int index = (int) Math.floor((size - 1) * position);
+        while (index >= size || index < 0) {
+            log.debug("nextPackedColor: index is way out of the list, regenerating");
+            position = randomGenerator.nextDouble();
+            index = (int) Math.floor((size - 1) * position);
+        }
+
+        int colorIndex = pick(index, picked, pickedCount);
+        return rotationTable.rotate(colorIndex, hueShift);
+    }
+
+    /**
+     * Find the palette index of the color at the supplied index of the colors not picked yet, as if the picked ones had
+     * been removed from the palette, and insert it into the picked indices. Takes as many steps as colors picked, not
+     * as colors in the palette.
+     *
+     * @param index the index among the colors not picked yet
+     * @param picked the palette indices picked so far, sorted, with room for one more
+     * @param pickedCount the count of the palette indices in {@code picked}
+     * @return the palette index of the color
+     */
+    static int pick(int index, int @NonNull [] picked, int pickedCount) {
+        int colorIndex = index;
+        int slot = 0;
+        // every picked index at or before the candidate pushes it one further
+        while (slot < pickedCount && picked[slot] <= colorIndex) {
+            colorIndex++;
+            slot++;
+        }
+        System.arraycopy(picked, slot, picked, slot + 1, pickedCount - slot);
+        picked[slot] = colorIndex;
+        return colorIndex;
+    }
+
+    /**
+     * Draw the picked shape type but its color, further randomizing each of its values.
+     *
+     * @param randomGenerator the {@link RandomGenerator} of the current render
+     * @param shapeCount the count of the shapes to be generated
+     * @param index the current index of the shape count to be generated, for extra randomness in transforms
+     * @param shapeType the randomly picked shape type, either of rectangle, circle, or polygon
+     * @param draft the draft to draw into
+     * @param slot the slot of the shape in the draft
+     */
+    private static void drawShape(
+            @NonNull RandomGenerator randomGenerator,
+            int shapeCount,
+            int index,
+            JazzIcon.@NonNull ShapeType shapeType,
+            @NonNull IconDraft draft,
+            int slot) {
+        drawPoints(randomGenerator, index, shapeType, draft, slot);
+        drawTransform(randomGenerator, shapeCount, index, draft, slot);
+    }
+
+    /**
+     * Draw the points of the picked shape type, further randomizing each of its values.
+     *
+     * @param randomGenerator the {@link RandomGenerator} of the current render
+     * @param index the current index of the shape count to be generated
+     * @param shapeType the randomly picked shape type, either of rectangle, circle, or polygon
+     * @param draft the draft to draw into
+     * @param slot the slot of the shape in the draft
+     */
+    static void drawPoints(
+            @NonNull RandomGenerator randomGenerator,
+            int index,
+            JazzIcon.@NonNull ShapeType shapeType,
+            @NonNull IconDraft draft,
+            int slot) {
+        log.debug("creating shape number: {},  picked shape: {}", index, shapeType);
+        draft.shapes[slot] = (byte) shapeType.ordinal();
+        int offset = slot * IconDraft.POINTS_PER_SHAPE;
+        if (JazzIcon.ShapeType.CIRCLE.equals(shapeType)) {
+            // cx, cy, then r picking integers inclusive of 20 ~ 53
+            draft.points[offset] = (byte) randomGenerator.nextInt(101);
+            draft.points[offset + 1] = (byte) randomGenerator.nextInt(101);
+            draft.points[offset + 2] = (byte) (randomGenerator.nextInt(34) + 20);
+        } else if (JazzIcon.ShapeType.POLYGON.equals(shapeType)) {
+            // 4 points, x then y
+            for (int i = 0; i < IconDraft.POINTS_PER_SHAPE; i++) {
+                draft.points[offset + i] = (byte) randomGenerator.nextInt(101);
+            }
+        }
+    }
+
+    /**
+     * Draw the base shape plus {@code shapeCount} shapes from the palette's rotation table, same draws as
+     * {@link JazzIcon#createShapes(List, Writer)}. Only the {@code shapeCount + 1} picked colors are
+     * rotated, so the cost doesn't grow with the size of the palette.
+     *
+     * @param randomGenerator the {@link RandomGenerator} of the current render
+     * @param shapeCount the count of the shapes to be generated
+     * @param rotationTable the hue rotation table of the palette
+     * @param hueShift the hueShift for the colors on the color wheel
+     * @param picked scratch for the picked palette indices, at least {@code shapeCount + 1} long
+     * @param draft the draft to draw into, reset first
+     */
+    static void drawShapes(
+            @NonNull RandomGenerator randomGenerator,
+            int shapeCount,
+            @NonNull HueRotationTable rotationTable,
+            double hueShift,
+            int @NonNull [] picked,
+            @NonNull IconDraft draft) {
+        draft.reset(shapeCount);
+        int pickedCount = 0;
+
+        log.debug("creating base shape");
+        draft.colors[0] = nextPackedColor(randomGenerator, rotationTable, hueShift, picked, pickedCount++);
+
+        log.debug("creating {} shapes", shapeCount);
+        for (int i = 0; i < shapeCount; i++) {
+            if (randomGenerator instanceof SplitMix64Random counterBased) {
+                // each shape draws from its own block, whatever the shapes before it took
+                counterBased.jumpTo((long) SplitMix64Random.SHAPE_DRAWS * (i + 1));
+            }
+            JazzIcon.ShapeType shapeType =
+                    JazzIcon.ShapeType.vals[randomGenerator.nextInt(JazzIcon.ShapeType.vals.length)];
+            drawShape(randomGenerator, shapeCount, i, shapeType, draft, i);
+            draft.colors[i + 1] = nextPackedColor(randomGenerator, rotationTable, hueShift, picked, pickedCount++);
+        }
+    }
+
+    /**
+     * Get random string from allow list of characters for padding, length of the string is decided by the parameter
+     *
+     * @param randomGenerator the {@link RandomGenerator} of the current render
+     * @param allowedCharacters the allow list of characters for padding
+     * @param length the length of the random string to be generated
+     * @return the random string with the specified length, from the allow list for padding
+     */
+    static String randomStringFromAllowedChars(
+            @NonNull RandomGenerator randomGenerator, @NonNull String allowedCharacters, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        int n = allowedCharacters.length();
+        for (int i = 0; i < length; i++) {
+            int idx = randomGenerator.nextInt(n);
+            sb.append(allowedCharacters.charAt(idx));
+        }
+        return sb.toString();
+    }
+}
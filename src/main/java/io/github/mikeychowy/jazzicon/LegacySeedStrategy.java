@@ -0,0 +1,64 @@
+package io.github.mikeychowy.jazzicon;
+
+import org.jspecify.annotations.NonNull;
+
+/**
+ * The seed of the previous versions, see {@link SeedStrategy#legacy()}. Gets the exact same seeds as
+ * {@code Long.parseUnsignedLong(text.substring(2, Math.min(10, text.length())), 16)} falling back to
+ * {@code text.hashCode()}, without the substring and without a {@link NumberFormatException} to throw and catch for
+ * every text that isn't hex.
+ */
+enum LegacySeedStrategy implements SeedStrategy {
+    /** the only instance */
+    INSTANCE;
+
+    /** where the parsed characters start, after a {@code 0x} prefix */
+    private static final int HEX_START = 2;
+    /** where the parsed characters end, at most 8 hex digits so the value always fits */
+    private static final int HEX_END = 10;
+
+    @Override
+    public String id() {
+        return "legacy";
+    }
+
+    @Override
+    public long seedOf(@NonNull CharSequence safeText) {
+        int end = Math.min(HEX_END, safeText.length());
+        int i = HEX_START;
+        // Long.parseUnsignedLong accepts a leading plus sign, as long as digits follow
+        if (i < end && safeText.charAt(i) == '+') {
+            i++;
+        }
+        if (i >= end) {
+            return hashCodeOf(safeText);
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            // same digits as Long.parseUnsignedLong, which includes the non-ASCII ones
+            int digit = Character.digit(safeText.charAt(i), 16);
+            if (digit < 0) {
+                return hashCodeOf(safeText);
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    /**
+     * The {@link String#hashCode()} of the characters, whatever the {@link CharSequence}
+     *
+     * @param text the text
+     * @return the hash code, sign extended like the previous versions did
+     */
+    private static long hashCodeOf(CharSequence text) {
+        if (text instanceof String string) {
+            return string.hashCode();
+        }
+        int hash = 0;
+        for (int i = 0; i < text.length(); i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,181 @@
+package io.github.mikeychowy.jazzicon;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe histogram of non-negative values, recorded without locking or allocating. The values are counted in
+ * log-linear buckets, 8 per power of two, so a percentile is off by at most 12.5%, while the count, sum and maximum are
+ * exact. Values from 0 to 7 get a bucket each.
+ */
+public final class LogHistogram {
+    /** the sub-buckets per power of two, as a shift */
+    private static final int SUB_BUCKET_BITS = 3;
+    /** the sub-buckets per power of two */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /** enough buckets for every non-negative long */
+    public static final int BUCKET_COUNT = SUB_BUCKETS + (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Record a value
+     *
+     * @param value the value, a negative one is recorded as 0
+     */
+    public void record(long value) {
+        long safeValue = Math.max(0, value);
+        buckets.incrementAndGet(bucketOf(safeValue));
+        count.increment();
+        sum.add(safeValue);
+        if (safeValue > max.get()) {
+            max.accumulateAndGet(safeValue, Math::max);
+        }
+    }
+
+    /**
+     * The count of the recorded values
+     *
+     * @return the count of the recorded values
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * The sum of the recorded values
+     *
+     * @return the sum of the recorded values
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * The largest recorded value
+     *
+     * @return the largest recorded value, 0 if nothing has been recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * The mean of the recorded values
+     *
+     * @return the mean of the recorded values, 0 if nothing has been recorded
+     */
+    public double getMean() {
+        long total = getCount();
+        return total == 0 ? 0 : (double) getSum() / total;
+    }
+
+    /**
+     * The value under which the given percentage of the recorded values fall, the upper bound of its bucket
+     *
+     * @param percentile the percentage, from 0 to 100
+     * @return the value at the percentile, never more than {@link #getMax()}, 0 if nothing has been recorded
+     * @throws IllegalArgumentException if the percentile is not within 0 and 100
+     */
+    public long getValueAtPercentile(double percentile) throws IllegalArgumentException {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("percentile must be within 0 and 100");
+        }
+        long[] counts = getBucketCounts();
+        long total = 0;
+        for (long bucketCount : counts) {
+            total += bucketCount;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * A copy of the counts of the buckets, see {@link #lowerBoundOf(int)} and {@link #upperBoundOf(int)} for the values
+     * each one holds
+     *
+     * @return the counts of the buckets, {@link #BUCKET_COUNT} of them
+     */
+    public long[] getBucketCounts() {
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+        }
+        return counts;
+    }
+
+    /** Forget everything recorded so far, values recorded at the same time may be partially forgotten */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    /**
+     * The bucket of a value
+     *
+     * @param value the non-negative value
+     * @return the index of its bucket
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * The smallest value of a bucket
+     *
+     * @param bucket the index of the bucket
+     * @return the smallest value counted in the bucket
+     */
+    public static long lowerBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        int subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + subBucket) << shift;
+    }
+
+    /**
+     * The largest value of a bucket
+     *
+     * @param bucket the index of the bucket
+     * @return the largest value counted in the bucket
+     */
+    public static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        return lowerBoundOf(bucket) + (1L << shift) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "LogHistogram{count=" + getCount() + ", mean=" + getMean() + ", p50=" + getValueAtPercentile(50)
+                + ", p99=" + getValueAtPercentile(99) + ", max=" + getMax() + '}';
+    }
+}
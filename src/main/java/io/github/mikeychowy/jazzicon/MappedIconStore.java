@@ -0,0 +1,616 @@
+package io.github.mikeychowy.jazzicon;
+
+import com.machinezoo.noexception.Exceptions;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongPredicate;
+import java.util.zip.CRC32C;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A persistent, append-only store of rendered icons in a memory-mapped file, so a restarted process reuses the icons
+ * rendered before at page-cache speed. Use it through {@link PersistentJazzIcon}. <br>
+ * <br>
+ * The file is mapped in fixed-size chunks, and each icon is appended as a record holding the seed text, the
+ * configuration fingerprint, the icon bytes, and a CRC32C of all of them. The length of a record is written last, so a
+ * record is either complete or ignored. When the store is opened, the records are checked one by one and the store
+ * ends at the first torn or corrupt one, which the next append overwrites. Lookups go through an in-memory index and
+ * return read-only views of the mapped region, no copy to the heap. <br>
+ * <br>
+ * Records are never removed in place, {@link #compact(LongPredicate)} rewrites the file with only the icons of the
+ * configurations still in use, and swaps it in atomically. <br>
+ * <br>
+ * A store file can only be opened by one store at a time, across processes too. Lookups take no lock, appends take
+ * turns on a lock, which a compaction only takes to swap the compacted file in. <br>
+ * <br>
+ * Example:
+ *
+ * <pre>{@code
+ * try (MappedIconStore store = MappedIconStore.open(Path.of("/var/cache/avatars/icons.store"))) {
+ *     PersistentJazzIcon icons = new PersistentJazzIcon(new JazzIcon(), store);
+ *     String svg = icons.generateIcon("Harry");
+ * }
+ * }</pre>
+ */
+public final class MappedIconStore implements Closeable {
+    /** The default size of a mapped chunk of the file, 64 MiB */
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024 * 1024;
+    /** The smallest size of a mapped chunk of the file */
+    public static final int MINIMUM_CHUNK_SIZE = 4096;
+    /** The largest size of a mapped chunk of the file */
+    public static final int MAXIMUM_CHUNK_SIZE = 1 << 30;
+
+    /** "JZIC" */
+    private static final int MAGIC = 0x4A5A4943;
+    /** the version of the file format */
+    private static final int VERSION = 1;
+    /** magic, version, chunk size, reserved */
+    private static final int FILE_HEADER_SIZE = 16;
+    /** length, crc, fingerprint, text length, icon length */
+    private static final int RECORD_HEADER_SIZE = 24;
+    /** the record length marking the rest of a chunk as unused, the next record is at the start of the next chunk */
+    private static final int SKIP_TO_NEXT_CHUNK = -1;
+    /** the suffix of the file a compaction writes before swapping it in */
+    private static final String COMPACT_SUFFIX = ".compact";
+
+    /** the path of the store file */
+    private final Path path;
+    /** whether every append is forced to the storage device before it's visible */
+    private final boolean forceOnAppend;
+    /** held for appends and forcing, and by compactions and closing only to swap or close the file */
+    private final ReentrantLock writeLock = new ReentrantLock();
+    /** held for compactions and closing, so the file isn't closed or compacted again while being copied */
+    private final ReentrantLock compactionLock = new ReentrantLock();
+    /** the currently mapped file and its index, replaced by compactions */
+    private volatile Generation generation;
+    /** whether the store has been closed */
+    private volatile boolean closed;
+
+    private MappedIconStore(Path path, int chunkSize, boolean forceOnAppend) {
+        this.path = path;
+        this.forceOnAppend = forceOnAppend;
+        this.generation = Exceptions.wrap(
+                        e -> new JazzIconGenerationException("error while opening icon store " + path, e))
+                .get(() -> {
+                    Generation opened = Generation.open(path, chunkSize);
+                    // left over by a compaction that didn't finish, only deleted once the store is ours
+                    Files.deleteIfExists(compactPath(path));
+                    return opened;
+                });
+    }
+
+    /**
+     * Open the store file, creating it if it doesn't exist, with the default settings
+     *
+     * @param path the path of the store file
+     * @return the opened store
+     * @throws JazzIconGenerationException if the file can't be opened, isn't a store file, or is already open
+     */
+    public static MappedIconStore open(@NonNull Path path) throws JazzIconGenerationException {
+        return builder().withPath(path).open();
+    }
+
+    /**
+     * The convenience Builder helper for MappedIconStore.
+     *
+     * @return the builder
+     */
+    public static MappedIconStoreBuilder builder() {
+        return new MappedIconStoreBuilder();
+    }
+
+    /**
+     * Get the count of the stored icons
+     *
+     * @return the count of the stored icons
+     */
+    public int size() {
+        return generation.index.size();
+    }
+
+    /**
+     * Get the count of the bytes used in the store file, including records no longer indexed
+     *
+     * @return the count of the used bytes
+     */
+    public long getUsedBytes() {
+        return generation.end;
+    }
+
+    /**
+     * Get the path of the store file
+     *
+     * @return the path of the store file
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Rewrite the store file with only the icons rendered with the kept configurations, then swap it in atomically.
+     * Lookups and appends keep going to the old file meanwhile, the icons appended during the copy are copied over
+     * before the swap.
+     *
+     * @param keepFingerprint whether the icons of a configuration fingerprint are kept
+     * @throws JazzIconGenerationException if anything goes wrong when writing or swapping the file, the store is left
+     *     as it was
+     */
+    public void compact(@NonNull LongPredicate keepFingerprint) throws JazzIconGenerationException {
+        try {
+            compactionLock.lock();
+            ensureOpen();
+            Generation current = generation;
+            Path compactPath = compactPath(path);
+            Exceptions.wrap(e -> new JazzIconGenerationException("error while compacting icon store " + path, e))
+                    .run(() -> {
+                        Files.deleteIfExists(compactPath);
+                        Generation next = Generation.open(compactPath, current.chunkSize);
+                        try {
+                            // appends go on meanwhile, whatever they add is copied over below before the swap
+                            copyKept(current, next, keepFingerprint);
+                            swapIn(current, next, compactPath, keepFingerprint);
+                        } catch (IOException | RuntimeException e) {
+                            next.close();
+                            Files.deleteIfExists(compactPath);
+                            throw e;
+                        }
+                    });
+            // the old mapping stays readable for lookups still holding a view of it
+            Exceptions.wrap(e -> new JazzIconGenerationException("error while closing old icon store file", e))
+                    .run(current::close);
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    /**
+     * Copy the kept icons of a store file not copied yet into the compacted file
+     *
+     * @param from the store file being compacted
+     * @param to the compacted file, only touched by the compaction
+     * @param keepFingerprint whether the icons of a configuration fingerprint are kept
+     * @throws IOException if anything goes wrong when appending to the compacted file
+     */
+    private static void copyKept(Generation from, Generation to, LongPredicate keepFingerprint) throws IOException {
+        for (Map.Entry<IconKey, Location> entry : from.index.entrySet()) {
+            if (keepFingerprint.test(entry.getKey().getFingerprint()) && !to.index.containsKey(entry.getKey())) {
+                to.append(entry.getKey(), entry.getValue().icon(), false);
+            }
+        }
+    }
+
+    /**
+     * Swap the compacted file in, under the write lock only for the icons appended during the copy and the swap itself
+     *
+     * @param current the store file being compacted
+     * @param next the compacted file
+     * @param compactPath the path of the compacted file
+     * @param keepFingerprint whether the icons of a configuration fingerprint are kept
+     * @throws IOException if anything goes wrong when appending to, forcing or moving the compacted file
+     */
+    private void swapIn(Generation current, Generation next, Path compactPath, LongPredicate keepFingerprint)
+            throws IOException {
+        try {
+            writeLock.lock();
+            copyKept(current, next, keepFingerprint);
+            next.force();
+            Files.move(compactPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            generation = next;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Rewrite the store file without the records no longer indexed, keeping every icon
+     *
+     * @throws JazzIconGenerationException if anything goes wrong when writing or swapping the file
+     */
+    public void compact() throws JazzIconGenerationException {
+        compact(fingerprint -> true);
+    }
+
+    /**
+     * Force every append so far to the storage device
+     *
+     * @throws JazzIconGenerationException if anything goes wrong when forcing the file
+     */
+    public void force() throws JazzIconGenerationException {
+        try {
+            writeLock.lock();
+            ensureOpen();
+            generation.force();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Force the store to the storage device and close it, releasing the file for other stores
+     *
+     * @throws IOException if anything goes wrong when forcing or closing the file
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            compactionLock.lock();
+            writeLock.lock();
+            if (closed) {
+                return;
+            }
+            closed = true;
+            generation.force();
+            generation.close();
+        } finally {
+            writeLock.unlock();
+            compactionLock.unlock();
+        }
+    }
+
+    /**
+     * Get a stored icon
+     *
+     * @param key the key of the icon
+     * @return a read-only view of the mapped icon bytes, or null if not stored
+     * @throws IllegalStateException if the store is closed
+     */
+    @Nullable ByteBuffer get(@NonNull IconKey key) throws IllegalStateException {
+        ensureOpen();
+        Location location = generation.index.get(key);
+        return Objects.isNull(location) ? null : location.icon();
+    }
+
+    /**
+     * Store a freshly rendered icon, keeping the one already stored if another thread got there first
+     *
+     * @param key the key of the icon
+     * @param icon the icon bytes, from its position to its limit
+     * @return a read-only view of the stored icon bytes, or of {@code icon} if it is too big for a chunk
+     * @throws IllegalStateException if the store is closed
+     * @throws JazzIconGenerationException if anything goes wrong when appending to the file
+     */
+    @NonNull ByteBuffer put(@NonNull IconKey key, @NonNull ByteBuffer icon)
+            throws IllegalStateException, JazzIconGenerationException {
+        try {
+            writeLock.lock();
+            ensureOpen();
+            Generation current = generation;
+            Location existing = current.index.get(key);
+            if (Objects.nonNull(existing)) {
+                return existing.icon();
+            }
+            Location appended = Exceptions.wrap(
+                            e -> new JazzIconGenerationException("error while appending to icon store " + path, e))
+                    .get(() -> current.append(key, icon, forceOnAppend));
+            return Objects.isNull(appended) ? icon.asReadOnlyBuffer() : appended.icon();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("store is closed");
+        }
+    }
+
+    private static Path compactPath(Path path) {
+        return path.resolveSibling(path.getFileName() + COMPACT_SUFFIX);
+    }
+
+    private static int align(int length) {
+        return (length + 7) & ~7;
+    }
+
+    /** Where a stored icon is, in which mapped chunk and at which offset */
+    @SuppressWarnings("ClassCanBeRecord")
+    private static final class Location {
+        private final MappedByteBuffer chunk;
+        private final int iconOffset;
+        private final int iconLength;
+
+        private Location(MappedByteBuffer chunk, int iconOffset, int iconLength) {
+            this.chunk = chunk;
+            this.iconOffset = iconOffset;
+            this.iconLength = iconLength;
+        }
+
+        /** @return a read-only view of the icon bytes */
+        private ByteBuffer icon() {
+            return chunk.slice(iconOffset, iconLength).asReadOnlyBuffer();
+        }
+    }
+
+    /**
+     * One store file, its mapped chunks and its index. The chunks and the end are only touched under the store's write
+     * lock, the index is read without it.
+     */
+    private static final class Generation {
+        private final FileChannel channel;
+        private final FileLock lock;
+        private final int chunkSize;
+        private final ConcurrentHashMap<IconKey, Location> index = new ConcurrentHashMap<>();
+        private final List<MappedByteBuffer> chunks = new ArrayList<>();
+        private final CRC32C crc = new CRC32C();
+        private volatile long end;
+
+        private Generation(FileChannel channel, FileLock lock, int chunkSize) {
+            this.channel = channel;
+            this.lock = lock;
+            this.chunkSize = chunkSize;
+        }
+
+        /**
+         * Open a store file, checking and indexing its records
+         *
+         * @param path the path of the store file
+         * @param defaultChunkSize the chunk size for a new file, an existing file keeps its own
+         * @return the opened file
+         * @throws IOException if anything goes wrong when reading the file, or if it isn't a store file
+         */
+        private static Generation open(Path path, int defaultChunkSize) throws IOException {
+            FileChannel channel = FileChannel.open(
+                    path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                FileLock lock = tryLock(channel, path);
+                Generation generation;
+                int chunkSize = readChunkSize(channel, path);
+                if (chunkSize == 0) {
+                    generation = new Generation(channel, lock, defaultChunkSize);
+                    MappedByteBuffer first = generation.mapChunk(0);
+                    first.putInt(0, MAGIC);
+                    first.putInt(4, VERSION);
+                    first.putInt(8, defaultChunkSize);
+                    generation.end = FILE_HEADER_SIZE;
+                } else {
+                    generation = new Generation(channel, lock, chunkSize);
+                    generation.recover();
+                }
+                return generation;
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        private static FileLock tryLock(FileChannel channel, Path path) throws IOException {
+            FileLock lock;
+            try {
+                lock = channel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                lock = null;
+            }
+            if (Objects.isNull(lock)) {
+                throw new IOException("icon store is already open: " + path);
+            }
+            return lock;
+        }
+
+        /** @return the chunk size of the file, 0 for an empty file or a file created but never written to */
+        private static int readChunkSize(FileChannel channel, Path path) throws IOException {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+                // read the whole header
+            }
+            if (header.position() == 0 || (!header.hasRemaining() && header.getLong(0) == 0 && header.getLong(8) == 0)) {
+                return 0;
+            }
+            if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+                throw new IOException("not an icon store: " + path);
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException("unsupported icon store version " + header.getInt(4) + ": " + path);
+            }
+            int chunkSize = header.getInt(8);
+            if (chunkSize < MINIMUM_CHUNK_SIZE || chunkSize > MAXIMUM_CHUNK_SIZE || chunkSize % 8 != 0) {
+                throw new IOException("corrupt icon store header: " + path);
+            }
+            return chunkSize;
+        }
+
+        /** Index every complete record, the store ends at the first empty, torn or corrupt one */
+        private void recover() throws IOException {
+            long chunkCount = Math.max(1, (channel.size() + chunkSize - 1) / chunkSize);
+            int chunkIndex = 0;
+            int position = FILE_HEADER_SIZE;
+            MappedByteBuffer chunk = mapChunk(0);
+            while (true) {
+                int length = position + RECORD_HEADER_SIZE <= chunkSize ? chunk.getInt(position) : SKIP_TO_NEXT_CHUNK;
+                if (length == SKIP_TO_NEXT_CHUNK) {
+                    if (chunkIndex + 1 >= chunkCount) {
+                        // the next chunk was never written to
+                        position = chunkSize;
+                        break;
+                    }
+                    chunk = mapChunk(++chunkIndex);
+                    position = 0;
+                    continue;
+                }
+                if (length == 0) {
+                    break;
+                }
+                if (!isValidRecord(chunk, position, length)) {
+                    // torn by a crash, the next append overwrites it
+                    chunk.putInt(position, 0);
+                    chunk.force(position, Integer.BYTES);
+                    break;
+                }
+                byte[] text = new byte[chunk.getInt(position + 16)];
+                chunk.get(position + RECORD_HEADER_SIZE, text);
+                IconKey key = new IconKey(new String(text, StandardCharsets.UTF_8), chunk.getLong(position + 8));
+                index.put(
+                        key,
+                        new Location(chunk, position + RECORD_HEADER_SIZE + text.length, chunk.getInt(position + 20)));
+                position += align(length);
+            }
+            end = (long) chunkIndex * chunkSize + position;
+        }
+
+        private boolean isValidRecord(MappedByteBuffer chunk, int position, int length) {
+            if (length < RECORD_HEADER_SIZE || length > chunkSize - position) {
+                return false;
+            }
+            int textLength = chunk.getInt(position + 16);
+            int iconLength = chunk.getInt(position + 20);
+            if (textLength < 0 || iconLength < 0 || (long) RECORD_HEADER_SIZE + textLength + iconLength != length) {
+                return false;
+            }
+            crc.reset();
+            crc.update(chunk.slice(position + 8, length - 8));
+            return (int) crc.getValue() == chunk.getInt(position + 4);
+        }
+
+        /**
+         * Append a record, the length is written last so the record is complete before it can be recovered
+         *
+         * @return where the icon has been stored, or null if the record is too big for a chunk
+         */
+        private @Nullable Location append(IconKey key, ByteBuffer icon, boolean force) throws IOException {
+            byte[] text = key.getText().getBytes(StandardCharsets.UTF_8);
+            ByteBuffer source = icon.duplicate();
+            long length = (long) RECORD_HEADER_SIZE + text.length + source.remaining();
+            if (length > chunkSize - FILE_HEADER_SIZE) {
+                return null;
+            }
+            int recordLength = (int) length;
+            int chunkIndex = (int) (end / chunkSize);
+            int position = (int) (end % chunkSize);
+            if (position + align(recordLength) > chunkSize) {
+                if (position + Integer.BYTES <= chunkSize) {
+                    chunk(chunkIndex).putInt(position, SKIP_TO_NEXT_CHUNK);
+                }
+                chunkIndex++;
+                position = 0;
+            }
+            MappedByteBuffer chunk = chunk(chunkIndex);
+            int iconLength = source.remaining();
+            chunk.putLong(position + 8, key.getFingerprint());
+            chunk.putInt(position + 16, text.length);
+            chunk.putInt(position + 20, iconLength);
+            chunk.put(position + RECORD_HEADER_SIZE, text);
+            chunk.put(position + RECORD_HEADER_SIZE + text.length, source, source.position(), iconLength);
+            crc.reset();
+            crc.update(chunk.slice(position + 8, recordLength - 8));
+            chunk.putInt(position + 4, (int) crc.getValue());
+            chunk.putInt(position, recordLength);
+            if (force) {
+                chunk.force(position, align(recordLength));
+            }
+            Location location = new Location(chunk, position + RECORD_HEADER_SIZE + text.length, iconLength);
+            index.put(key, location);
+            end = (long) chunkIndex * chunkSize + position + align(recordLength);
+            return location;
+        }
+
+        private MappedByteBuffer chunk(int chunkIndex) throws IOException {
+            return chunkIndex < chunks.size() ? chunks.get(chunkIndex) : mapChunk(chunkIndex);
+        }
+
+        /** Map the next chunk, growing the file if needed */
+        private MappedByteBuffer mapChunk(int chunkIndex) throws IOException {
+            MappedByteBuffer chunk =
+                    channel.map(FileChannel.MapMode.READ_WRITE, (long) chunkIndex * chunkSize, chunkSize);
+            chunks.add(chunk);
+            return chunk;
+        }
+
+        private void force() {
+            chunks.forEach(MappedByteBuffer::force);
+        }
+
+        private void close() throws IOException {
+            try {
+                if (lock.isValid()) {
+                    lock.release();
+                }
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /** The convenience Builder helper for MappedIconStore. */
+    public static class MappedIconStoreBuilder {
+        /** the path of the store file */
+        private Path path;
+        /** the size of a mapped chunk of a new file */
+        private int chunkSize = DEFAULT_CHUNK_SIZE;
+        /** whether every append is forced to the storage device */
+        private boolean forceOnAppend;
+
+        /**
+         * Set the path of the store file
+         *
+         * @param path the path of the store file
+         * @return the builder
+         */
+        public MappedIconStoreBuilder withPath(Path path) {
+            this.path = path;
+            return this;
+        }
+
+        /**
+         * Set the size of a mapped chunk of a new file, an existing file keeps the chunk size it was created with.
+         * Icons bigger than a chunk are not stored.
+         *
+         * @param chunkSize the chunk size in bytes, a multiple of 8 from {@link #MINIMUM_CHUNK_SIZE} to
+         *     {@link #MAXIMUM_CHUNK_SIZE}
+         * @return the builder
+         */
+        public MappedIconStoreBuilder withChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        /**
+         * Set whether every append is forced to the storage device, so it survives a power loss and not only a crash of
+         * the process. Off by default, appends then reach the device when the OS writes the pages back, or on
+         * {@link MappedIconStore#force()} and {@link MappedIconStore#close()}.
+         *
+         * @param forceOnAppend whether every append is forced to the storage device
+         * @return the builder
+         */
+        public MappedIconStoreBuilder withForceOnAppend(boolean forceOnAppend) {
+            this.forceOnAppend = forceOnAppend;
+            return this;
+        }
+
+        /**
+         * Open the store
+         *
+         * @return the opened store
+         * @throws IllegalArgumentException if the path is null, or the chunk size is out of range
+         * @throws JazzIconGenerationException if the file can't be opened, isn't a store file, or is already open
+         */
+        public MappedIconStore open() throws IllegalArgumentException, JazzIconGenerationException {
+            if (Objects.isNull(path)) {
+                throw new IllegalArgumentException("path must not be null");
+            }
+            if (chunkSize < MINIMUM_CHUNK_SIZE || chunkSize > MAXIMUM_CHUNK_SIZE) {
+                throw new IllegalArgumentException(
+                        "chunkSize must be between " + MINIMUM_CHUNK_SIZE + " and " + MAXIMUM_CHUNK_SIZE);
+            }
+            if (chunkSize % 8 != 0) {
+                throw new IllegalArgumentException("chunkSize must be a multiple of 8");
+            }
+            return new MappedIconStore(path.toAbsolutePath(), chunkSize, forceOnAppend);
+        }
+    }
+}
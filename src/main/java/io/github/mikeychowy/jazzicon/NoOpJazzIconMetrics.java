@@ -0,0 +1,29 @@
+package io.github.mikeychowy.jazzicon;
+
+import org.jspecify.annotations.NonNull;
+
+/** The metrics doing nothing, see {@link JazzIconMetrics#noop()} */
+enum NoOpJazzIconMetrics implements JazzIconMetrics {
+    /** the only instance */
+    INSTANCE;
+
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+
+    @Override
+    public void recordPhase(@NonNull Phase phase, long nanos) {
+        // disabled
+    }
+
+    @Override
+    public void recordBytesWritten(long bytes) {
+        // disabled
+    }
+
+    @Override
+    public void recordLockWait(long nanos) {
+        // disabled
+    }
+}
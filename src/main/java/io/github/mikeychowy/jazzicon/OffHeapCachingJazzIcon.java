@@ -0,0 +1,244 @@
+package io.github.mikeychowy.jazzicon;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Objects;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A {@link JazzIcon} generator front with a cache of the rendered icons outside the Java heap. <br>
+ * <br>
+ * Same as {@link CachingJazzIcon}, the icons are cached by their trimmed text plus the fingerprint of the generator's
+ * configuration, the icons of a replaced configuration are dropped, and concurrent misses on the same icon are
+ * coalesced. But the icons are kept in large direct {@link ByteBuffer} slabs, indexed outside the heap too, so a cache
+ * of millions of icons costs the garbage collector nothing. The memory is fixed, allocated all at once when the cache
+ * is created, and counts toward {@code -XX:MaxDirectMemorySize} instead of the heap. {@link #close() Close} the cache
+ * once done with it: it stops listening to the generator and lets go of its slabs, for the garbage collector to free
+ * them. The generator only holds the cache weakly, so a cache never closed is still freed once unreachable, just
+ * later. <br>
+ * <br>
+ * When the slabs are full the oldest one is recycled, keeping the icons hit since they were cached and dropping the
+ * others. A hit takes no lock and is copied from its slab into a pooled per-thread buffer, then checked against the
+ * recycling of its slab, then written out, so the stream, channel and buffer methods allocate nothing on a hit.
+ *
+ * <p>Example:
+ *
+ * <pre>{@code
+ * try (OffHeapCachingJazzIcon icons = OffHeapCachingJazzIcon.builder()
+ *         .withGenerator(JazzIcon.builder().withShapeCount(5).build())
+ *         .withMaximumBytes(2L * 1024 * 1024 * 1024)
+ *         .build()) {
+ *     icons.generateIconTo("Harry", channel);
+ * }
+ * }</pre>
+ */
+public class OffHeapCachingJazzIcon extends AbstractCachingJazzIcon implements AutoCloseable {
+    /** The default bytes of the slabs, 64 MiB */
+    public static final long DEFAULT_MAXIMUM_BYTES = 64L * 1024 * 1024;
+    /** The default size of a slab, 4 MiB */
+    public static final int DEFAULT_SLAB_SIZE = OffHeapIconCache.DEFAULT_SLAB_SIZE;
+    /** the cache of the rendered icons, null once closed */
+    private volatile @Nullable OffHeapIconCache cache;
+    /** the statistics of the cache when it was closed */
+    private volatile @Nullable IconCacheStats closedStats;
+    /** the misses being rendered, by text and configuration fingerprint */
+    private final SingleFlight<IconKey, byte[]> misses;
+    /** drops the icons of the replaced configurations */
+    private final WeakConfigurationListener<OffHeapCachingJazzIcon> listener;
+
+    private OffHeapCachingJazzIcon(JazzIcon generator, long maximumBytes, int slabSize, Duration coalescingTimeout) {
+        super(generator, "off-heap cache");
+        if (Objects.isNull(coalescingTimeout)) {
+            throw new IllegalArgumentException("coalescingTimeout must not be null");
+        }
+        this.misses = new SingleFlight<>(coalescingTimeout.toNanos());
+        this.cache = new OffHeapIconCache(maximumBytes, slabSize);
+        this.listener = WeakConfigurationListener.register(
+                generator, this, OffHeapCachingJazzIcon::onConfigurationChange);
+    }
+
+    /**
+     * Drop the icons of the replaced configuration, if it rendered differently
+     *
+     * @param change the configuration change of the generator
+     */
+    private void onConfigurationChange(@NonNull ConfigurationChange change) {
+        OffHeapIconCache current = cache;
+        if (change.isRenderingChanged() && Objects.nonNull(current)) {
+            long replaced = change.getPreviousFingerprint();
+            current.invalidate(fingerprint -> fingerprint == replaced);
+        }
+    }
+
+    /**
+     * The convenience Builder helper for OffHeapCachingJazzIcon.
+     *
+     * @return the builder
+     */
+    public static OffHeapCachingJazzIconBuilder builder() {
+        return new OffHeapCachingJazzIconBuilder();
+    }
+
+    /**
+     * Get a snapshot of the cache statistics, the weight is the bytes of the cached icon records
+     *
+     * @return the hit, miss, eviction, and load statistics so far
+     */
+    public IconCacheStats stats() {
+        OffHeapIconCache current = cache;
+        return Objects.isNull(current) ? Objects.requireNonNull(closedStats) : current.stats();
+    }
+
+    /**
+     * Get the bytes allocated outside the heap by the cache, its slabs and its index
+     *
+     * @return the allocated bytes, fixed for the life of the cache, 0 once closed
+     */
+    public long capacity() {
+        OffHeapIconCache current = cache;
+        return Objects.isNull(current) ? 0 : current.capacity();
+    }
+
+    /** Drop every cached icon, the statistics are kept */
+    public void invalidateAll() {
+        OffHeapIconCache current = cache;
+        if (Objects.nonNull(current)) {
+            current.invalidateAll();
+        }
+    }
+
+    /**
+     * Stop listening to the generator and let go of the slabs and the index, for the garbage collector to free them.
+     * The statistics are kept, the icons can't be generated anymore. Closing again does nothing.
+     */
+    @Override
+    public synchronized void close() {
+        OffHeapIconCache current = cache;
+        if (Objects.isNull(current)) {
+            return;
+        }
+        listener.remove();
+        closedStats = current.stats();
+        cache = null;
+    }
+
+    /**
+     * Get the cache, refusing the lookups once closed
+     *
+     * @return the cache
+     * @throws JazzIconGenerationException if the cache is closed
+     */
+    private OffHeapIconCache openCache() throws JazzIconGenerationException {
+        OffHeapIconCache current = cache;
+        if (Objects.isNull(current)) {
+            throw new JazzIconGenerationException("off-heap icon cache is closed");
+        }
+        return current;
+    }
+
+    @Override
+    void beforeLookup() throws JazzIconGenerationException {
+        openCache();
+    }
+
+    @Override
+    ByteBuffer lookup(@NonNull IconKey key, @NonNull AsciiByteSink sink) {
+        OffHeapIconCache current = openCache();
+        if (!current.get(key.getText(), key.getFingerprint(), sink)) {
+            byte[] icon = misses.load(key, () -> render(key.getText(), current));
+            sink.writeBytes(ByteBuffer.wrap(icon), 0, icon.length);
+        }
+        return sink.asByteBuffer();
+    }
+
+    /**
+     * Render a missed icon and cache it
+     *
+     * @param safeText the trimmed text to be the seed of the icon
+     * @param target the cache to put the icon into
+     * @return the icon bytes, shared with the coalesced misses, not to be modified
+     */
+    private byte[] render(@NonNull String safeText, @NonNull OffHeapIconCache target) {
+        return renderMiss(
+                safeText,
+                (key, rendered, icon, renderNanos) ->
+                        target.put(key.getText(), key.getFingerprint(), icon, renderNanos));
+    }
+
+    /** The convenience Builder helper for OffHeapCachingJazzIcon. */
+    public static class OffHeapCachingJazzIconBuilder {
+        /** the generator rendering the cache misses */
+        private JazzIcon generator;
+        /** the bytes of the slabs */
+        private long maximumBytes = DEFAULT_MAXIMUM_BYTES;
+        /** the size of a slab */
+        private int slabSize = DEFAULT_SLAB_SIZE;
+        /** how long a miss waits for the render of the same icon by another miss */
+        private Duration coalescingTimeout = CoalescingJazzIcon.DEFAULT_TIMEOUT;
+
+        /**
+         * Create a builder with a default {@link JazzIcon}, {@link #DEFAULT_MAXIMUM_BYTES} and
+         * {@link #DEFAULT_SLAB_SIZE}
+         */
+        public OffHeapCachingJazzIconBuilder() {
+            this.generator = new JazzIcon();
+        }
+
+        /**
+         * Set the generator rendering the cache misses
+         *
+         * @param generator the generator
+         * @return the builder
+         */
+        public OffHeapCachingJazzIconBuilder withGenerator(JazzIcon generator) {
+            this.generator = generator;
+            return this;
+        }
+
+        /**
+         * Set the bytes of the slabs, rounded down to a whole count of slabs. The index takes about 6% more.
+         *
+         * @param maximumBytes the bytes of the slabs, MUST make 2 to 32768 slabs
+         * @return the builder
+         */
+        public OffHeapCachingJazzIconBuilder withMaximumBytes(long maximumBytes) {
+            this.maximumBytes = maximumBytes;
+            return this;
+        }
+
+        /**
+         * Set the size of a slab, the unit the cache recycles at once, and the biggest icon record it can hold
+         *
+         * @param slabSize the size of a slab, MUST be between 64 KiB and 1 GiB
+         * @return the builder
+         */
+        public OffHeapCachingJazzIconBuilder withSlabSize(int slabSize) {
+            this.slabSize = slabSize;
+            return this;
+        }
+
+        /**
+         * Set how long a miss waits for the render of the same icon by another miss, {@link
+         * CoalescingJazzIcon#DEFAULT_TIMEOUT} by default
+         *
+         * @param coalescingTimeout the time to wait, MUST be positive
+         * @return the builder
+         */
+        public OffHeapCachingJazzIconBuilder withCoalescingTimeout(Duration coalescingTimeout) {
+            this.coalescingTimeout = coalescingTimeout;
+            return this;
+        }
+
+        /**
+         * Build the caching generator, allocating all of its cache memory
+         *
+         * @return the caching generator
+         * @throws IllegalArgumentException if the generator or the timeout is null, the timeout is not positive, the
+         *     slab size is out of bounds, or the maximum doesn't make 2 to 32768 slabs
+         */
+        public OffHeapCachingJazzIcon build() throws IllegalArgumentException {
+            return new OffHeapCachingJazzIcon(generator, maximumBytes, slabSize, coalescingTimeout);
+        }
+    }
+}
@@ -0,0 +1,511 @@
+package io.github.mikeychowy.jazzicon;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongPredicate;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * A bounded cache of rendered icons outside the Java heap. <br>
+ * <br>
+ * The icons are appended as records to large direct {@link ByteBuffer} slabs, and found through an open-addressing
+ * hash table, itself a direct buffer of (key hash, location) pairs. Neither the icons nor the index are Java objects,
+ * so millions of them cost the garbage collector nothing. The memory is allocated once, all of it, when the cache is
+ * created. <br>
+ * <br>
+ * When every slab is full, the oldest one is recycled: its records hit since they were written are first moved to a
+ * spare slab, which becomes the one appended to, the others are dropped. So a popular icon survives while a one-off
+ * lookup is gone after one round of the slabs. <br>
+ * <br>
+ * Lookups take no lock. A record is copied out and then checked against the generation of its slab, bumped before the
+ * slab is recycled, so a lookup racing the recycling of its slab misses instead of returning the bytes of another icon.
+ * Appends, evictions and invalidations take turns on a lock.
+ */
+final class OffHeapIconCache {
+    /** The default size of a slab, 4 MiB */
+    static final int DEFAULT_SLAB_SIZE = 4 * 1024 * 1024;
+    /** The smallest size of a slab */
+    static final int MINIMUM_SLAB_SIZE = 64 * 1024;
+    /** The largest size of a slab */
+    static final int MAXIMUM_SLAB_SIZE = 1 << 30;
+    /** The largest count of slabs */
+    static final int MAXIMUM_SLABS = 1 << 15;
+
+    /** length, text length, fingerprint, key hash, icon length, reserved */
+    private static final int RECORD_HEADER_SIZE = 32;
+    /** key hash, location */
+    private static final int SLOT_SIZE = 16;
+    /** an index slot per this many bytes of slabs, an icon record is about 800 bytes, so the index stays sparse */
+    private static final int BYTES_PER_SLOT = 256;
+    /** the most slots of the index, 1 GiB */
+    private static final int MAXIMUM_SLOTS = 1 << 26;
+    private static final int OFFSET_BITS = 30;
+    private static final int GENERATION_BITS = 18;
+    private static final long OFFSET_MASK = (1L << OFFSET_BITS) - 1;
+    private static final int GENERATION_MASK = (1 << GENERATION_BITS) - 1;
+    /** the bit of a location set when the record has been hit since it was written or moved */
+    private static final long ACCESSED = 1L << 63;
+    /** reads and writes the index with memory ordering */
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    /** the slabs of the records */
+    private final ByteBuffer[] slabs;
+    /** the size of every slab */
+    private final int slabSize;
+    /** the generation of each slab, bumped before the slab is recycled */
+    private final AtomicIntegerArray generations;
+    /** the index, {@link #SLOT_SIZE} bytes per slot, a key hash of 0 marks an empty slot */
+    private final ByteBuffer index;
+    /** the count of slots minus 1 */
+    private final int indexMask;
+    /** the most entries before the index is considered full */
+    private final int maximumEntries;
+    /** the lock of the appends, evictions and invalidations */
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    /** the filled slabs, oldest first, under {@link #writeLock} */
+    private final ArrayDeque<Integer> filled = new ArrayDeque<>();
+    /** the slabs never written since the cache was created or emptied, under {@link #writeLock} */
+    private final ArrayDeque<Integer> unused = new ArrayDeque<>();
+    /** the end of the records of each slab, under {@link #writeLock} */
+    private final int[] slabEnds;
+    /** the slab appended to, under {@link #writeLock} */
+    private int head;
+    /** the slab the survivors of the next eviction are moved to, under {@link #writeLock} */
+    private int spare;
+    /** the count of indexed entries, under {@link #writeLock} */
+    private volatile int entries;
+    /** the bytes of the indexed records, under {@link #writeLock} */
+    private volatile long liveBytes;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
+
+    /**
+     * Create a new cache, allocating all of its memory
+     *
+     * @param maximumBytes the bytes of the slabs, rounded down to a whole count of slabs, the index takes about 6% more
+     * @param slabSize the size of a slab, the largest record it can hold
+     * @throws IllegalArgumentException if the slab size is out of bounds, or the maximum doesn't make 2 to
+     *     {@link #MAXIMUM_SLABS} slabs
+     */
+    OffHeapIconCache(long maximumBytes, int slabSize) throws IllegalArgumentException {
+        if (slabSize < MINIMUM_SLAB_SIZE || slabSize > MAXIMUM_SLAB_SIZE) {
+            throw new IllegalArgumentException(
+                    "slabSize must be between " + MINIMUM_SLAB_SIZE + " and " + MAXIMUM_SLAB_SIZE);
+        }
+        long slabCount = maximumBytes / slabSize;
+        if (slabCount < 2 || slabCount > MAXIMUM_SLABS) {
+            throw new IllegalArgumentException(
+                    "maximumBytes must be between 2 and " + MAXIMUM_SLABS + " times the slabSize");
+        }
+        this.slabSize = slabSize;
+        this.slabs = new ByteBuffer[(int) slabCount];
+        for (int i = 0; i < slabs.length; i++) {
+            slabs[i] = ByteBuffer.allocateDirect(slabSize).order(ByteOrder.nativeOrder());
+        }
+        this.generations = new AtomicIntegerArray(slabs.length);
+        this.slabEnds = new int[slabs.length];
+        long wantedSlots = Math.max(16, slabCount * slabSize / BYTES_PER_SLOT);
+        int slots = (int) Math.min(MAXIMUM_SLOTS, Long.highestOneBit(wantedSlots - 1) << 1);
+        this.index = ByteBuffer.allocateDirect(slots * SLOT_SIZE).order(ByteOrder.nativeOrder());
+        this.indexMask = slots - 1;
+        this.maximumEntries = slots / 4 * 3;
+        resetSlabs();
+    }
+
+    /**
+     * Copy a cached icon into a sink, recording the hit or miss
+     *
+     * @param text the trimmed seed text
+     * @param fingerprint the fingerprint of the configuration the icon was rendered with
+     * @param sink the sink to write the icon bytes into, empty
+     * @return whether the icon was cached, on a miss the sink may hold garbage and has to be reset
+     */
+    boolean get(@NonNull String text, long fingerprint, @NonNull AsciiByteSink sink) {
+        long keyHash = keyHash(text, fingerprint);
+        for (int probe = 0, slot = home(keyHash); probe <= indexMask; probe++, slot = (slot + 1) & indexMask) {
+            long slotHash = (long) LONGS.getAcquire(index, slot * SLOT_SIZE);
+            if (slotHash == 0) {
+                break;
+            }
+            if (slotHash != keyHash) {
+                continue;
+            }
+            long location = (long) LONGS.getAcquire(index, slot * SLOT_SIZE + 8);
+            if (read(location, text, fingerprint, sink)) {
+                if ((location & ACCESSED) == 0) {
+                    // a lost race only loses the second chance of the record
+                    LONGS.compareAndSet(index, slot * SLOT_SIZE + 8, location, location | ACCESSED);
+                }
+                hitCount.increment();
+                return true;
+            }
+            sink.reset();
+        }
+        missCount.increment();
+        return false;
+    }
+
+    /**
+     * Cache a freshly rendered icon, unless it is already cached or bigger than a slab
+     *
+     * @param text the trimmed seed text
+     * @param fingerprint the fingerprint of the configuration the icon was rendered with
+     * @param icon the icon bytes
+     * @param loadTimeNanos how long the render took, for the stats
+     */
+    void put(@NonNull String text, long fingerprint, byte @NonNull [] icon, long loadTimeNanos) {
+        loadCount.increment();
+        totalLoadTime.add(loadTimeNanos);
+        long length = recordLength(text.length(), icon.length);
+        if (length > slabSize) {
+            return;
+        }
+        long keyHash = keyHash(text, fingerprint);
+        try {
+            writeLock.lock();
+            if (find(keyHash, text, fingerprint) >= 0) {
+                // another thread got there first
+                return;
+            }
+            makeRoom((int) length);
+            int offset = slabEnds[head];
+            ByteBuffer slab = slabs[head];
+            slab.putInt(offset, (int) length);
+            slab.putInt(offset + 4, text.length());
+            slab.putLong(offset + 8, fingerprint);
+            slab.putLong(offset + 16, keyHash);
+            slab.putInt(offset + 24, icon.length);
+            slab.putInt(offset + 28, 0);
+            int textOffset = offset + RECORD_HEADER_SIZE;
+            for (int i = 0; i < text.length(); i++) {
+                slab.putChar(textOffset + 2 * i, text.charAt(i));
+            }
+            slab.put(textOffset + 2 * text.length(), icon);
+            slabEnds[head] = offset + (int) length;
+            insert(keyHash, location(head, offset));
+            entries++;
+            liveBytes += length;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Drop the cached icons of some configurations, the stats are kept. The records stay in their slabs until recycled.
+     *
+     * @param dropFingerprint whether the icons of a configuration fingerprint are dropped
+     */
+    void invalidate(@NonNull LongPredicate dropFingerprint) {
+        try {
+            writeLock.lock();
+            int slot = 0;
+            while (slot <= indexMask) {
+                long location = (long) LONGS.getAcquire(index, slot * SLOT_SIZE + 8);
+                if ((long) LONGS.getAcquire(index, slot * SLOT_SIZE) != 0
+                        && dropFingerprint.test(recordSlab(location).getLong(recordOffset(location) + 8))) {
+                    liveBytes -= recordSlab(location).getInt(recordOffset(location));
+                    entries--;
+                    // the next entry may be shifted into this slot, check it again
+                    delete(slot);
+                } else {
+                    slot++;
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /** Drop every cached icon, the stats are kept */
+    void invalidateAll() {
+        try {
+            writeLock.lock();
+            for (int slot = 0; slot <= indexMask; slot++) {
+                LONGS.setRelease(index, slot * SLOT_SIZE, 0L);
+                LONGS.setRelease(index, slot * SLOT_SIZE + 8, 0L);
+            }
+            for (int i = 0; i < slabs.length; i++) {
+                generations.incrementAndGet(i);
+            }
+            resetSlabs();
+            entries = 0;
+            liveBytes = 0;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Get a snapshot of the stats
+     *
+     * @return the stats so far, the weight is the bytes of the cached records
+     */
+    @NonNull IconCacheStats stats() {
+        return new IconCacheStats(
+                hitCount.sum(),
+                missCount.sum(),
+                evictionCount.sum(),
+                loadCount.sum(),
+                totalLoadTime.sum(),
+                entries,
+                liveBytes);
+    }
+
+    /**
+     * Get the bytes allocated outside the heap, the slabs and the index
+     *
+     * @return the allocated bytes
+     */
+    long capacity() {
+        return (long) slabs.length * slabSize + index.capacity();
+    }
+
+    /**
+     * Copy the icon of a record into a sink, if the record is still the one of the key
+     *
+     * @return whether the record matched and its slab wasn't recycled meanwhile
+     */
+    private boolean read(long location, String text, long fingerprint, AsciiByteSink sink) {
+        int slabIndex = slabOf(location);
+        int generation = generationOf(location);
+        int offset = recordOffset(location);
+        if (slabIndex >= slabs.length
+                || (generations.get(slabIndex) & GENERATION_MASK) != generation
+                || offset > slabSize - RECORD_HEADER_SIZE) {
+            return false;
+        }
+        // the slab may be recycled while it is read, check everything before trusting it
+        ByteBuffer slab = slabs[slabIndex];
+        int textLength = slab.getInt(offset + 4);
+        int iconLength = slab.getInt(offset + 24);
+        if (textLength != text.length()
+                || iconLength < 0
+                || slab.getLong(offset + 8) != fingerprint
+                || slab.getInt(offset) != recordLength(textLength, iconLength)
+                || offset + recordLength(textLength, iconLength) > slabSize) {
+            return false;
+        }
+        int textOffset = offset + RECORD_HEADER_SIZE;
+        for (int i = 0; i < textLength; i++) {
+            if (slab.getChar(textOffset + 2 * i) != text.charAt(i)) {
+                return false;
+            }
+        }
+        sink.writeBytes(slab, textOffset + 2 * textLength, iconLength);
+        // the reads above must not move after the generation check
+        VarHandle.acquireFence();
+        return (generations.get(slabIndex) & GENERATION_MASK) == generation;
+    }
+
+    /** Under {@link #writeLock}, recycle slabs until the head has room for a record and the index for an entry */
+    private void makeRoom(int length) {
+        int rounds = 0;
+        while (slabEnds[head] + length > slabSize || entries >= maximumEntries) {
+            // two rounds of the slabs without making room, the hits are keeping everything alive, stop sparing them
+            nextHead(rounds++ < 2 * slabs.length);
+        }
+    }
+
+    /**
+     * Under {@link #writeLock}, start appending to another slab, recycling the oldest one if none is unused
+     *
+     * @param keepHits whether the records hit since they were written survive the recycling
+     */
+    private void nextHead(boolean keepHits) {
+        filled.addLast(head);
+        if (!unused.isEmpty()) {
+            head = unused.pollFirst();
+            return;
+        }
+        int victim = filled.pollFirst();
+        int target = spare;
+        ByteBuffer victimSlab = slabs[victim];
+        ByteBuffer targetSlab = slabs[target];
+        int targetEnd = 0;
+        int victimGeneration = generations.get(victim) & GENERATION_MASK;
+        for (int offset = 0; offset < slabEnds[victim]; ) {
+            int length = victimSlab.getInt(offset);
+            long keyHash = victimSlab.getLong(offset + 16);
+            int slot = findLocation(keyHash, location(victim, victimGeneration, offset));
+            if (slot >= 0) {
+                long location = (long) LONGS.getAcquire(index, slot * SLOT_SIZE + 8);
+                // half of the spare at most, so the new head still has room
+                if (keepHits && (location & ACCESSED) != 0 && targetEnd + length <= slabSize / 2) {
+                    targetSlab.put(targetEnd, victimSlab, offset, length);
+                    LONGS.setRelease(index, slot * SLOT_SIZE + 8, location(target, targetEnd));
+                    targetEnd += length;
+                } else {
+                    delete(slot);
+                    entries--;
+                    liveBytes -= length;
+                    evictionCount.increment();
+                }
+            }
+            offset += length;
+        }
+        // the lookups still reading the victim will see the new generation and miss
+        generations.incrementAndGet(victim);
+        slabEnds[victim] = 0;
+        slabEnds[target] = targetEnd;
+        spare = victim;
+        head = target;
+    }
+
+    /** Under {@link #writeLock}, forget the slabs' content, the first one is the head and the last one the spare */
+    private void resetSlabs() {
+        filled.clear();
+        unused.clear();
+        for (int i = 1; i < slabs.length - 1; i++) {
+            unused.addLast(i);
+        }
+        Arrays.fill(slabEnds, 0);
+        head = 0;
+        spare = slabs.length - 1;
+    }
+
+    /**
+     * Under {@link #writeLock}, find the slot of a key
+     *
+     * @return the slot, or -1 if the key isn't indexed
+     */
+    private int find(long keyHash, String text, long fingerprint) {
+        for (int probe = 0, slot = home(keyHash); probe <= indexMask; probe++, slot = (slot + 1) & indexMask) {
+            long slotHash = index.getLong(slot * SLOT_SIZE);
+            if (slotHash == 0) {
+                return -1;
+            }
+            if (slotHash == keyHash && matches(index.getLong(slot * SLOT_SIZE + 8), text, fingerprint)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Under {@link #writeLock}, find the slot pointing to a record
+     *
+     * @return the slot, or -1 if the record isn't indexed anymore
+     */
+    private int findLocation(long keyHash, long location) {
+        for (int probe = 0, slot = home(keyHash); probe <= indexMask; probe++, slot = (slot + 1) & indexMask) {
+            long slotHash = index.getLong(slot * SLOT_SIZE);
+            if (slotHash == 0) {
+                return -1;
+            }
+            if (slotHash == keyHash && (index.getLong(slot * SLOT_SIZE + 8) & ~ACCESSED) == location) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /** Under {@link #writeLock}, whether the record of a location is the one of a key */
+    private boolean matches(long location, String text, long fingerprint) {
+        ByteBuffer slab = recordSlab(location);
+        int offset = recordOffset(location);
+        if (slab.getLong(offset + 8) != fingerprint || slab.getInt(offset + 4) != text.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (slab.getChar(offset + RECORD_HEADER_SIZE + 2 * i) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Under {@link #writeLock}, index a record, the location is published before the hash a lookup probes for */
+    private void insert(long keyHash, long location) {
+        int slot = home(keyHash);
+        while (index.getLong(slot * SLOT_SIZE) != 0) {
+            slot = (slot + 1) & indexMask;
+        }
+        LONGS.setRelease(index, slot * SLOT_SIZE + 8, location);
+        LONGS.setRelease(index, slot * SLOT_SIZE, keyHash);
+    }
+
+    /**
+     * Under {@link #writeLock}, empty a slot, shifting back the entries after it that would no longer be reachable. A
+     * lookup running meanwhile may miss a shifted entry, which is only a cache miss.
+     */
+    private void delete(int slot) {
+        int hole = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & indexMask;
+            long nextHash = index.getLong(next * SLOT_SIZE);
+            if (nextHash == 0) {
+                break;
+            }
+            int nextHome = home(nextHash);
+            // the entry can move to the hole if its home isn't cyclically between the hole and its slot
+            boolean reachable =
+                    hole <= next ? (hole < nextHome && nextHome <= next) : (hole < nextHome || nextHome <= next);
+            if (!reachable) {
+                LONGS.setRelease(index, hole * SLOT_SIZE + 8, index.getLong(next * SLOT_SIZE + 8));
+                LONGS.setRelease(index, hole * SLOT_SIZE, nextHash);
+                hole = next;
+            }
+        }
+        LONGS.setRelease(index, hole * SLOT_SIZE, 0L);
+        LONGS.setRelease(index, hole * SLOT_SIZE + 8, 0L);
+    }
+
+    private int home(long keyHash) {
+        return (int) (keyHash ^ (keyHash >>> 32)) & indexMask;
+    }
+
+    private long location(int slab, int offset) {
+        return location(slab, generations.get(slab) & GENERATION_MASK, offset);
+    }
+
+    private static long location(int slab, int generation, int offset) {
+        return ((long) slab << (OFFSET_BITS + GENERATION_BITS)) | ((long) generation << OFFSET_BITS) | offset;
+    }
+
+    private static int slabOf(long location) {
+        return (int) ((location & ~ACCESSED) >>> (OFFSET_BITS + GENERATION_BITS));
+    }
+
+    private static int generationOf(long location) {
+        return (int) (location >>> OFFSET_BITS) & GENERATION_MASK;
+    }
+
+    private ByteBuffer recordSlab(long location) {
+        return slabs[slabOf(location)];
+    }
+
+    private static int recordOffset(long location) {
+        return (int) (location & OFFSET_MASK);
+    }
+
+    /**
+     * The length of a record, its header, the text as UTF-16 and the icon, rounded up to 8 bytes
+     *
+     * @return the length, as a long to not overflow for a huge text
+     */
+    private static long recordLength(int textLength, int iconLength) {
+        return (RECORD_HEADER_SIZE + 2L * textLength + iconLength + 7) & ~7L;
+    }
+
+    /** The hash of a key, never 0, which marks the empty slots */
+    private static long keyHash(String text, long fingerprint) {
+        long z = Hash64SeedStrategy.INSTANCE.seedOf(text) ^ (fingerprint * 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return z == 0 ? 1 : z;
+    }
+}
@@ -0,0 +1,93 @@
+package io.github.mikeychowy.jazzicon;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * A {@link JazzIcon} generator front with a {@link MappedIconStore}, so the icons rendered before a restart are served
+ * from the store file instead of being rendered again. <br>
+ * <br>
+ * Icons are stored by their trimmed text plus the fingerprint of the generator's configuration at render time, so
+ * changing the generator's configuration never serves a stale icon, use {@link #compactToCurrentConfiguration()} to
+ * drop the icons of the old configurations from the file. Stored icons are written to a {@link ByteBuffer} or a
+ * {@link WritableByteChannel} straight from the mapped region, without a copy to the heap. Concurrent lookups of the
+ * same icon not stored yet are coalesced, see {@link CoalescingJazzIcon}, only one of them renders it. An icon without
+ * an entity tag, see {@link JazzIcon#etagFor(String)}, is never stored.
+ *
+ * <p>Example:
+ *
+ * <pre>{@code
+ * try (MappedIconStore store = MappedIconStore.open(Path.of("/var/cache/avatars/icons.store"))) {
+ *     PersistentJazzIcon icons = new PersistentJazzIcon(new JazzIcon(), store);
+ *     icons.generateIconTo("Harry", socketChannel);
+ * }
+ * }</pre>
+ */
+public class PersistentJazzIcon extends AbstractCachingJazzIcon {
+    /** the store of the rendered icons */
+    private final MappedIconStore store;
+    /** the icons not stored yet being rendered, by text and configuration fingerprint */
+    private final SingleFlight<IconKey, byte[]> misses =
+            new SingleFlight<>(CoalescingJazzIcon.DEFAULT_TIMEOUT.toNanos());
+
+    /**
+     * Create a new persistent generator
+     *
+     * @param generator the generator rendering the icons not stored yet
+     * @param store the store of the rendered icons, closed by the caller
+     * @throws IllegalArgumentException if the generator or the store is null
+     */
+    public PersistentJazzIcon(@NonNull JazzIcon generator, @NonNull MappedIconStore store)
+            throws IllegalArgumentException {
+        super(generator, "icon store");
+        if (Objects.isNull(store)) {
+            throw new IllegalArgumentException("store must not be null");
+        }
+        this.store = store;
+    }
+
+    /**
+     * Compact the store down to the icons rendered with the generator's current configuration
+     *
+     * @throws JazzIconGenerationException if anything goes wrong when compacting the store
+     */
+    public void compactToCurrentConfiguration() throws JazzIconGenerationException {
+        long current = generator.getConfig().getFingerprint();
+        store.compact(fingerprint -> fingerprint == current);
+    }
+
+    /**
+     * Get the store of the rendered icons
+     *
+     * @return the store
+     */
+    public MappedIconStore getStore() {
+        return store;
+    }
+
+    @Override
+    ByteBuffer lookup(@NonNull IconKey key, @NonNull AsciiByteSink sink) throws JazzIconGenerationException {
+        try {
+            ByteBuffer stored = store.get(key);
+            if (Objects.nonNull(stored)) {
+                return stored;
+            }
+            return ByteBuffer.wrap(misses.load(key, () -> render(key.getText())));
+        } catch (IllegalStateException e) {
+            // the store was closed by its owner, before or during the lookup
+            throw new JazzIconGenerationException("icon store is closed", e);
+        }
+    }
+
+    /**
+     * Render an icon not stored yet and store it
+     *
+     * @param safeText the trimmed text to be the seed of the icon
+     * @return the icon bytes, shared with the coalesced lookups, not to be modified
+     */
+    private byte[] render(@NonNull String safeText) {
+        return renderMiss(safeText, (key, rendered, icon, renderNanos) -> store.put(key, ByteBuffer.wrap(icon)));
+    }
+}
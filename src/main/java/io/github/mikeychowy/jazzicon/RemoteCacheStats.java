@@ -0,0 +1,107 @@
+package io.github.mikeychowy.jazzicon;
+
+/**
+ * An immutable snapshot of the statistics of the {@link RemoteIconCache} tier of a {@link CachingJazzIcon}, the counts
+ * are since the cache was created.
+ */
+@SuppressWarnings("ClassCanBeRecord")
+public final class RemoteCacheStats {
+    /** the count of lookups served by the remote cache */
+    private final long hitCount;
+    /** the count of lookups the remote cache didn't have */
+    private final long missCount;
+    /** the count of lookups given up on after the remote timeout */
+    private final long timeoutCount;
+    /** the count of failed lookups and batches */
+    private final long failureCount;
+    /** the count of icons written to the remote cache */
+    private final long writeCount;
+    /** the count of icons not written because too many were pending */
+    private final long droppedWriteCount;
+
+    /**
+     * Create a new snapshot
+     *
+     * @param hitCount the count of lookups served by the remote cache
+     * @param missCount the count of lookups the remote cache didn't have
+     * @param timeoutCount the count of lookups given up on after the remote timeout
+     * @param failureCount the count of failed lookups and batches
+     * @param writeCount the count of icons written to the remote cache
+     * @param droppedWriteCount the count of icons not written because too many were pending
+     */
+    RemoteCacheStats(
+            long hitCount,
+            long missCount,
+            long timeoutCount,
+            long failureCount,
+            long writeCount,
+            long droppedWriteCount) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.timeoutCount = timeoutCount;
+        this.failureCount = failureCount;
+        this.writeCount = writeCount;
+        this.droppedWriteCount = droppedWriteCount;
+    }
+
+    /**
+     * The count of lookups served by the remote cache
+     *
+     * @return the count of hits
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * The count of lookups the remote cache didn't have, rendered locally
+     *
+     * @return the count of misses
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * The count of lookups given up on after the remote timeout, rendered locally
+     *
+     * @return the count of timeouts
+     */
+    public long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    /**
+     * The count of failed lookups, rendered locally, and failed batches of writes
+     *
+     * @return the count of failures
+     */
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * The count of icons written to the remote cache
+     *
+     * @return the count of written icons
+     */
+    public long getWriteCount() {
+        return writeCount;
+    }
+
+    /**
+     * The count of icons not written to the remote cache because too many were already waiting to be
+     *
+     * @return the count of dropped writes
+     */
+    public long getDroppedWriteCount() {
+        return droppedWriteCount;
+    }
+
+    @Override
+    public String toString() {
+        return "RemoteCacheStats{hitCount=" + hitCount + ", missCount=" + missCount + ", timeoutCount=" + timeoutCount
+                + ", failureCount=" + failureCount + ", writeCount=" + writeCount + ", droppedWriteCount="
+                + droppedWriteCount + '}';
+    }
+}
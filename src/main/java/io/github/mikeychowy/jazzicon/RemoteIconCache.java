@@ -0,0 +1,40 @@
+package io.github.mikeychowy.jazzicon;
+
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * A cache of rendered icons shared by several nodes, e.g. on Redis or memcached, consulted by a
+ * {@link CachingJazzIcon} after its local cache misses, see
+ * {@link CachingJazzIcon.CachingJazzIconBuilder#withRemoteCache(RemoteIconCache)}. <br>
+ * <br>
+ * The keys are ASCII, at most 41 characters, without spaces: {@code jazzicon:} then the configuration fingerprint and
+ * the seed of the text, in hex. The icon is a function of those two only, so two nodes with the same configuration
+ * share their icons, and a configuration change moves to new keys, the old ones can be left to expire. <br>
+ * <br>
+ * A lookup is on the request path: the caller waits for the returned stage at most for the remote timeout, then renders
+ * locally. So {@link #get(String)} must return promptly and complete the stage asynchronously, a blocking
+ * implementation can't be bounded. The writes are batched and sent by a background task, off the request path. Both
+ * are called concurrently, an implementation must be thread-safe. A failed stage is logged and otherwise ignored, the
+ * remote cache is never needed for an icon to be served. <br>
+ * <br>
+ * {@link InMemoryRemoteIconCache} is a local stand-in, for tests and single node setups.
+ */
+public interface RemoteIconCache {
+    /**
+     * Look up an icon
+     *
+     * @param key the key of the icon
+     * @return a stage completed with the UTF-8 bytes of the icon, or with null if the key is absent
+     */
+    @NonNull CompletionStage<byte[]> get(@NonNull String key);
+
+    /**
+     * Store a batch of icons, e.g. in a single round trip
+     *
+     * @param icons the UTF-8 bytes of the icons by their keys, owned by the implementation
+     * @return a stage completed once the icons are stored
+     */
+    @NonNull CompletionStage<Void> putAll(@NonNull Map<String, byte[]> icons);
+}
@@ -0,0 +1,224 @@
+package io.github.mikeychowy.jazzicon;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link RemoteIconCache} tier of a cache: lookups bounded by a timeout, and writes queued, batched and sent in the
+ * background. <br>
+ * <br>
+ * A write is queued by the thread that rendered the icon, and sent with the others queued within the flush interval,
+ * or as soon as a whole batch is queued. Too many writes queued, e.g. because the remote cache is down, and the next
+ * ones are dropped, the icon is rendered again by whichever node misses it next. The flushes run on an
+ * {@link Executor}, delayed by {@link CompletableFuture#delayedExecutor(long, TimeUnit, Executor)}, so the tier owns no
+ * thread and needs no closing.
+ */
+final class RemoteTier {
+    /** The most writes queued, the next ones are dropped */
+    static final int MAXIMUM_PENDING_WRITES = 10_000;
+
+    private static final Logger log = LoggerFactory.getLogger(RemoteTier.class);
+
+    /** the remote cache */
+    private final RemoteIconCache remote;
+    /** how long a lookup waits for the remote cache */
+    private final long timeoutNanos;
+    /** the most icons written in one batch */
+    private final int batchSize;
+    /** how long a write waits for a batch to fill */
+    private final long flushIntervalNanos;
+    /** the executor running the flushes */
+    private final Executor executor;
+
+    /** the queued writes */
+    private final ConcurrentLinkedQueue<Map.Entry<String, byte[]>> pending = new ConcurrentLinkedQueue<>();
+    /** the count of queued writes */
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    /** whether a delayed flush is scheduled */
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder failureCount = new LongAdder();
+    private final LongAdder writeCount = new LongAdder();
+    private final LongAdder droppedWriteCount = new LongAdder();
+
+    /**
+     * Create a new tier
+     *
+     * @param remote the remote cache
+     * @param timeoutNanos how long a lookup waits for the remote cache
+     * @param batchSize the most icons written in one batch
+     * @param flushIntervalNanos how long a write waits for a batch to fill
+     * @param executor the executor running the flushes
+     * @throws IllegalArgumentException if the remote cache or the executor is null, or a bound is not positive
+     */
+    RemoteTier(
+            @NonNull RemoteIconCache remote,
+            long timeoutNanos,
+            int batchSize,
+            long flushIntervalNanos,
+            @NonNull Executor executor)
+            throws IllegalArgumentException {
+        if (Objects.isNull(remote)) {
+            throw new IllegalArgumentException("remoteCache must not be null");
+        }
+        if (Objects.isNull(executor)) {
+            throw new IllegalArgumentException("remoteExecutor must not be null");
+        }
+        if (timeoutNanos <= 0) {
+            throw new IllegalArgumentException("remoteTimeout must be > 0");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("remoteBatchSize must be > 0");
+        }
+        if (flushIntervalNanos <= 0) {
+            throw new IllegalArgumentException("remoteFlushInterval must be > 0");
+        }
+        this.remote = remote;
+        this.timeoutNanos = timeoutNanos;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushIntervalNanos;
+        this.executor = executor;
+    }
+
+    /**
+     * Get the remote key of an icon, the same for every node with the same configuration
+     *
+     * @param config the configuration the icon is rendered with
+     * @param safeText the trimmed text, not padded randomly
+     * @return the key
+     */
+    static String keyOf(@NonNull JazzIconConfig config, @NonNull String safeText) {
+        return String.format("jazzicon:%016x%016x", config.getFingerprint(), JazzIconRenderer.seedOf(config, safeText));
+    }
+
+    /**
+     * Look an icon up, waiting at most for the timeout
+     *
+     * @param key the key of the icon
+     * @return the icon bytes, or null if the remote cache doesn't have them, failed or timed out
+     */
+    byte @Nullable [] get(@NonNull String key) {
+        try {
+            byte[] icon = remote.get(key).toCompletableFuture().get(timeoutNanos, TimeUnit.NANOSECONDS);
+            (Objects.isNull(icon) ? missCount : hitCount).increment();
+            return icon;
+        } catch (TimeoutException e) {
+            timeoutCount.increment();
+            log.debug("remote lookup of {} timed out after {}ns", key, timeoutNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failureCount.increment();
+        } catch (ExecutionException | RuntimeException e) {
+            failureCount.increment();
+            log.warn("remote lookup of {} failed", key, e);
+        }
+        return null;
+    }
+
+    /**
+     * Queue an icon to be written, dropped if too many are queued already
+     *
+     * @param key the key of the icon
+     * @param icon the icon bytes, not to be modified afterwards
+     */
+    void putLater(@NonNull String key, byte @NonNull [] icon) {
+        int queued = pendingCount.incrementAndGet();
+        if (queued > MAXIMUM_PENDING_WRITES) {
+            pendingCount.decrementAndGet();
+            droppedWriteCount.increment();
+            return;
+        }
+        pending.add(Map.entry(key, icon));
+        if (queued % batchSize == 0) {
+            schedule(executor);
+        } else if (flushScheduled.compareAndSet(false, true)) {
+            schedule(CompletableFuture.delayedExecutor(flushIntervalNanos, TimeUnit.NANOSECONDS, executor));
+        }
+    }
+
+    /** Send every queued write now, in batches, on the calling thread */
+    void flush() {
+        flushScheduled.set(false);
+        while (true) {
+            Map<String, byte[]> batch = new LinkedHashMap<>();
+            Map.Entry<String, byte[]> write;
+            while (batch.size() < batchSize && (write = pending.poll()) != null) {
+                pendingCount.decrementAndGet();
+                batch.put(write.getKey(), write.getValue());
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            write(batch);
+        }
+    }
+
+    /**
+     * Get a snapshot of the stats
+     *
+     * @return the stats so far
+     */
+    @NonNull RemoteCacheStats stats() {
+        return new RemoteCacheStats(
+                hitCount.sum(),
+                missCount.sum(),
+                timeoutCount.sum(),
+                failureCount.sum(),
+                writeCount.sum(),
+                droppedWriteCount.sum());
+    }
+
+    /**
+     * Get the count of the queued writes
+     *
+     * @return the count of the queued writes
+     */
+    int pendingCount() {
+        return pendingCount.get();
+    }
+
+    /** Run a flush, the writes stay queued for the next one if the executor rejects it */
+    private void schedule(Executor target) {
+        try {
+            target.execute(this::flush);
+        } catch (RejectedExecutionException e) {
+            flushScheduled.set(false);
+            log.warn("remote cache flush rejected, {} writes stay queued", pendingCount.get(), e);
+        }
+    }
+
+    /** Send a batch, without waiting for it to be stored */
+    private void write(Map<String, byte[]> batch) {
+        try {
+            remote.putAll(batch).whenComplete((ignored, failure) -> {
+                if (Objects.isNull(failure)) {
+                    writeCount.add(batch.size());
+                } else {
+                    failureCount.increment();
+                    log.warn("remote cache write of {} icons failed", batch.size(), failure);
+                }
+            });
+        } catch (RuntimeException e) {
+            failureCount.increment();
+            log.warn("remote cache write of {} icons failed", batch.size(), e);
+        }
+    }
+}
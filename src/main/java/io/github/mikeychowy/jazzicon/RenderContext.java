@@ -0,0 +1,117 @@
+package io.github.mikeychowy.jazzicon;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+import org.hipparchus.random.RandomGenerator;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The reusable scratch state of a render: the output sink, the drawn geometry, the picked color indices and the
+ * random generator created by the configured factory. Once warmed up, a render only allocates its result. <br>
+ * <br>
+ * The contexts are pooled in a small array of slots picked by the id of the current thread, instead of a
+ * {@link ThreadLocal}: a virtual thread lives for one task, so a thread local context would be created for every task
+ * and never reused, while the slots are shared by every thread, virtual or not. Taking a context is one atomic swap,
+ * without a lock or a monitor, so a virtual thread is never pinned to its carrier. When the slot is empty, because
+ * another thread holds its context or a render is nested in a body interceptor, a fresh context is used and dropped
+ * afterwards.
+ */
+final class RenderContext {
+    /** The largest sink kept for reuse, a bigger one, grown by a body interceptor, is dropped */
+    static final int MAXIMUM_RETAINED_CAPACITY = 64 * 1024;
+    /** The pooled contexts, twice as many slots as processors, rounded up to a power of two */
+    private static final AtomicReferenceArray<RenderContext> POOL = new AtomicReferenceArray<>(
+            Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 4 - 1));
+
+    /** the sink the icon is rendered into, reset when the context is taken */
+    private final AsciiByteSink sink = new AsciiByteSink();
+    /** the geometry drawn by the render, grown when a render has more shapes */
+    private final IconDraft draft = new IconDraft(JazzIcon.DEFAULT_SHAPE_COUNT);
+    /** the palette indices picked by the render, grown when a render has more shapes */
+    private int[] picked = new int[JazzIcon.DEFAULT_SHAPE_COUNT + 1];
+    /** the factory {@link #randomGenerator} was created by */
+    private @Nullable Supplier<RandomGenerator> factory;
+    /** the generator created by {@link #factory}, reseeded by every render */
+    private @Nullable RandomGenerator randomGenerator;
+
+    /**
+     * Take a context from the pool, or create one if the slot of the current thread is empty
+     *
+     * @return a context with an empty sink, to be given back with {@link #release(RenderContext)}
+     */
+    static RenderContext acquire() {
+        RenderContext context = POOL.getAndSet(slot(), null);
+        if (context == null) {
+            return new RenderContext();
+        }
+        context.sink.reset();
+        return context;
+    }
+
+    /**
+     * Give a context back to the pool, dropped if the slot has been filled meanwhile or the sink grew too big
+     *
+     * @param context the context taken with {@link #acquire()}, not to be used afterwards
+     */
+    static void release(@NonNull RenderContext context) {
+        if (context.sink.capacity() <= MAXIMUM_RETAINED_CAPACITY) {
+            POOL.compareAndSet(slot(), null, context);
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private static int slot() {
+        // the ids are sequential, spread them so neighbouring threads don't share a slot
+        long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 40) & (POOL.length() - 1);
+    }
+
+    /**
+     * Get the sink to render into
+     *
+     * @return the sink, empty when the context has just been taken
+     */
+    AsciiByteSink getSink() {
+        return sink;
+    }
+
+    /**
+     * Get the draft to draw the icon into
+     *
+     * @return the draft, its content is garbage until it is reset
+     */
+    IconDraft getDraft() {
+        return draft;
+    }
+
+    /**
+     * Get an array for the palette indices picked by a render
+     *
+     * @param length the count of the colors a render picks
+     * @return an array of at least that length, its content is garbage
+     */
+    int[] picked(int length) {
+        if (picked.length < length) {
+            picked = new int[length];
+        }
+        return picked;
+    }
+
+    /**
+     * Get the generator of the factory, created on first use. The factories MUST create generators that fully reset
+     * on {@code setSeed(long)}, so one instance reseeded by every render gives the same icons as a fresh one.
+     *
+     * @param factory the factory of the configuration rendered with
+     * @return the generator created by the factory
+     */
+    RandomGenerator randomGenerator(@NonNull Supplier<RandomGenerator> factory) {
+        RandomGenerator current = randomGenerator;
+        if (this.factory != factory || current == null) {
+            current = factory.get();
+            this.factory = factory;
+            this.randomGenerator = current;
+        }
+        return current;
+    }
+}
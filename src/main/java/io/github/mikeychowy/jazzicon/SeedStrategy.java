@@ -0,0 +1,63 @@
+package io.github.mikeychowy.jazzicon;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Derives the seed of the random draws of a render from the text, see
+ * {@link JazzIcon#setSeedStrategy(SeedStrategy)}. The same text MUST always get the same seed, otherwise the same text
+ * won't always produce the same icon. It is called on the rendering threads, concurrently when the renders are, so an
+ * implementation must be thread-safe. <br>
+ * <br>
+ * {@link #legacy()} is the default and keeps the icons of the previous versions, {@link #hash64()} spreads the texts
+ * over the whole 64 bits. <br>
+ * <br>
+ * A strategy with parameters, a salt for instance, should return them in its {@link #id()}, so the caches keyed by the
+ * configuration fingerprint tell two of its instances apart.
+ */
+@FunctionalInterface
+public interface SeedStrategy {
+    /**
+     * The seed of the previous versions: the 3rd to the 10th characters parsed as an unsigned hex number, or the
+     * {@link String#hashCode()} of the text when they are not hex. Checked in place, without throwing. <br>
+     * Any text that isn't a hex address ends up with a 32-bit seed, so two texts are a lot more likely to get the same
+     * icon than with {@link #hash64()}.
+     *
+     * @return the legacy strategy
+     */
+    static SeedStrategy legacy() {
+        return LegacySeedStrategy.INSTANCE;
+    }
+
+    /**
+     * A fast, non-cryptographic, 64-bit hash of the text. A text longer than 4096 characters only has its first and
+     * last 2048 characters and its length hashed, so hashing takes bounded time whatever the size of the input. Changes
+     * the icons compared to {@link #legacy()}.
+     *
+     * @return the 64-bit hash strategy
+     */
+    static SeedStrategy hash64() {
+        return Hash64SeedStrategy.INSTANCE;
+    }
+
+    /**
+     * Identify the seeds the strategy derives, for the configuration fingerprint and {@link JazzIcon#equals(Object)}.
+     * Two strategies with the same id MUST derive the same seed for every text, so it has to cover the parameters of
+     * the strategy, e.g. {@code "salted:" + salt}, and it should stay the same from one JVM run to the next. <br>
+     * Defaults to null, the strategy is then only the same as itself, or as an {@link Object#equals(Object) equal}
+     * strategy, and its part of the fingerprint changes from one JVM run to the next.
+     *
+     * @return the stable id of the strategy, or null to identify it by the instance
+     */
+    default @Nullable String id() {
+        return null;
+    }
+
+    /**
+     * Derive the seed from the text
+     *
+     * @param safeText the text to derive the seed from, trimmed and already padded if it was too short
+     * @return the seed
+     */
+    long seedOf(@NonNull CharSequence safeText);
+}
@@ -0,0 +1,95 @@
+package io.github.mikeychowy.jazzicon;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Coalesces the concurrent loads of the same key: the first caller loads, the callers arriving while it does wait for
+ * its result instead of loading the same value again. <br>
+ * <br>
+ * A key is only tracked while its load runs, it is removed as soon as the load completes or fails, so nothing is kept
+ * afterwards. A failed load fails its waiters too, and the next caller loads again.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the loaded values, shared by the leader and its waiters
+ */
+final class SingleFlight<K, V> {
+    /** the loads running, by key */
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    /** how long a waiter waits for the load of another caller */
+    private final long timeoutNanos;
+
+    /**
+     * Create a new single flight
+     *
+     * @param timeoutNanos how long a waiter waits for the load of another caller, in nanoseconds
+     * @throws IllegalArgumentException if the timeout is not positive
+     */
+    SingleFlight(long timeoutNanos) throws IllegalArgumentException {
+        if (timeoutNanos <= 0) {
+            throw new IllegalArgumentException("timeout must be > 0");
+        }
+        this.timeoutNanos = timeoutNanos;
+    }
+
+    /**
+     * Load the value of a key, or wait for the load already running for it
+     *
+     * @param key the key of the value
+     * @param loader loads the value, only called if no load of the key is running
+     * @return the loaded value, the same instance for the leader and its waiters
+     * @throws JazzIconGenerationException if the load of another caller failed, timed out or the wait was interrupted,
+     *     the failure of the caller's own load is thrown as is
+     */
+    V load(@NonNull K key, @NonNull Supplier<V> loader) throws JazzIconGenerationException {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> leading = inFlight.putIfAbsent(key, flight);
+        if (leading == null) {
+            return lead(key, flight, loader);
+        }
+        return await(leading);
+    }
+
+    /**
+     * Get the count of the loads running
+     *
+     * @return the count of the keys being loaded
+     */
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private V lead(K key, CompletableFuture<V> flight, Supplier<V> loader) {
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private V await(CompletableFuture<V> leading) {
+        try {
+            return leading.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JazzIconGenerationException("interrupted while waiting for the render of the same icon", e);
+        } catch (TimeoutException e) {
+            throw new JazzIconGenerationException(
+                    "timed out after " + TimeUnit.NANOSECONDS.toMillis(timeoutNanos)
+                            + "ms waiting for the render of the same icon",
+                    e);
+        } catch (ExecutionException e) {
+            throw new JazzIconGenerationException("the render of the same icon failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package io.github.mikeychowy.jazzicon;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import org.hipparchus.random.RandomGenerator;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * A counter-based {@link RandomGenerator}: the n-th draw after {@link #setSeed(long)} is a pure function of the seed and
+ * n, the SplitMix64 mix of {@code seed + (n + 1) * 0x9E3779B97F4A7C15}. The whole state is the seed and a counter, so
+ * seeding is two assignments instead of the re-initialization of a 512-bit state, and any draw can be computed directly
+ * with {@link #longAt(long)} or reached with {@link #jumpTo(long)}. <br>
+ * <br>
+ * With it, {@link JazzIcon} gives every shape its own block of {@link #SHAPE_DRAWS} draws, so the draws of a shape
+ * don't depend on how many the shapes before it took. The icons differ from the ones of the default {@link
+ * org.hipparchus.random.Well512a}. Every render gets its own instance, so renders never share it or take a lock:
+ *
+ * <pre>{@code
+ * JazzIcon generator = JazzIcon.builder().withRandomGenerator(new SplitMix64Random()).build();
+ * }</pre>
+ *
+ * Not thread-safe, and not meant for anything cryptographic.
+ */
+public final class SplitMix64Random implements RandomGenerator {
+    /**
+     * the draws reserved for each shape of a render, the most one shape takes is 14: a polygon draws its type, 8 point
+     * coordinates, 3 for the transform and 2 for the color
+     */
+    public static final int SHAPE_DRAWS = 16;
+
+    /** the SplitMix64 increment, the golden ratio as a 64-bit odd number */
+    private static final long GAMMA = 0x9E3779B97F4A7C15L;
+    /** makes the seeds of the instances created at the same time differ, like {@link java.util.Random} does */
+    private static final AtomicLong SEED_UNIQUIFIER = new AtomicLong(0x2545F4914F6CDD1DL);
+
+    private long seed;
+    private long counter;
+
+    /** Create a new generator with a seed that differs from one instance to the next */
+    public SplitMix64Random() {
+        this(SEED_UNIQUIFIER.addAndGet(GAMMA) ^ System.nanoTime());
+    }
+
+    /**
+     * Create a new generator
+     *
+     * @param seed the seed
+     */
+    public SplitMix64Random(long seed) {
+        setSeed(seed);
+    }
+
+    @Override
+    public void setSeed(int seed) {
+        setSeed((long) seed);
+    }
+
+    @Override
+    public void setSeed(int @NonNull [] seed) {
+        long combined = 0;
+        for (int value : seed) {
+            combined = mix(combined + GAMMA + (value & 0xFFFFFFFFL));
+        }
+        setSeed(combined);
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        this.seed = seed;
+        this.counter = 0;
+    }
+
+    /**
+     * Compute a draw without moving the counter
+     *
+     * @param index the index of the draw since the seeding, from 0
+     * @return the 64 bits of the draw, the same as the {@link #nextLong()} at that index
+     */
+    public long longAt(long index) {
+        return mix(seed + (index + 1) * GAMMA);
+    }
+
+    /**
+     * Move the counter, the next draw is the one at the index
+     *
+     * @param index the index of the next draw since the seeding, from 0
+     * @throws IllegalArgumentException if the index is negative
+     */
+    public void jumpTo(long index) throws IllegalArgumentException {
+        if (index < 0) {
+            throw new IllegalArgumentException("index must be >= 0");
+        }
+        this.counter = index;
+    }
+
+    /**
+     * The index of the next draw since the seeding
+     *
+     * @return the index of the next draw
+     */
+    public long getCounter() {
+        return counter;
+    }
+
+    @Override
+    public long nextLong() {
+        return longAt(counter++);
+    }
+
+    @Override
+    public int nextInt() {
+        return (int) (nextLong() >>> 32);
+    }
+
+    /**
+     * A draw within a bound, always exactly one draw, from the high 32 bits scaled down instead of rejecting. The bias
+     * is at most {@code bound / 2^32}, irrelevant for the small bounds of a render.
+     *
+     * @param bound the exclusive upper bound, MUST be > 0
+     * @return a value from 0 to {@code bound - 1}
+     * @throws IllegalArgumentException if the bound is not positive
+     */
+    @Override
+    public int nextInt(int bound) throws IllegalArgumentException {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be > 0");
+        }
+        return (int) (((nextLong() >>> 32) * bound) >>> 32);
+    }
+
+    @Override
+    public long nextLong(long bound) throws IllegalArgumentException {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be > 0");
+        }
+        long bits;
+        long value;
+        do {
+            bits = nextLong() >>> 1;
+            value = bits % bound;
+        } while (bits - value + (bound - 1) < 0);
+        return value;
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return nextLong() < 0;
+    }
+
+    @Override
+    public float nextFloat() {
+        return (nextLong() >>> 40) * 0x1.0p-24f;
+    }
+
+    @Override
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    @Override
+    public double nextGaussian() {
+        // Box-Muller, always two draws, the second value is dropped to keep no state but the counter
+        double radius = Math.sqrt(-2 * Math.log(1.0 - nextDouble()));
+        return radius * Math.cos(2 * Math.PI * nextDouble());
+    }
+
+    @Override
+    public void nextBytes(byte @NonNull [] bytes) {
+        nextBytes(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void nextBytes(byte @NonNull [] bytes, int start, int len) {
+        Objects.checkFromIndexSize(start, len, bytes.length);
+        int i = start;
+        int end = start + len;
+        while (i < end) {
+            long random = nextLong();
+            for (int n = Math.min(end - i, Long.BYTES); n > 0; n--) {
+                bytes[i++] = (byte) random;
+                random >>>= Byte.SIZE;
+            }
+        }
+    }
+
+    /**
+     * The SplitMix64 finalizer, a bijection of the 64 bits
+     *
+     * @param z the value to mix
+     * @return the mixed value
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    @Override
+    public String toString() {
+        return "SplitMix64Random{counter=" + counter + '}';
+    }
+}
@@ -0,0 +1,174 @@
+package io.github.mikeychowy.jazzicon;
+
+import com.machinezoo.noexception.Exceptions;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Objects;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Write an {@link IconModel} as SVG, the same output as {@link JazzIcon#generateIcon(String)} for the same text, with
+ * the head and the overlays of the configuration the serializer was taken from, see
+ * {@link JazzIcon#getSvgSerializer()}. <br>
+ * <br>
+ * The model holds the geometry only, so it can be drawn once and written in as many formats as needed, or kept in
+ * its binary form, see {@link IconModel#toBytes()}, and written later.
+ */
+public final class SvgIconSerializer {
+    private static final String SERIALIZATION_ERROR_MESSAGE = "error while serializing icon model";
+
+    /** the head of the svg, up to the body */
+    private final String svgHeader;
+    /** the overlays appended after the shapes */
+    private final String svgOverlay;
+
+    /**
+     * Create a new serializer
+     *
+     * @param svgHeader the head of the svg, up to the body
+     * @param svgOverlay the overlays appended after the shapes, empty for none
+     */
+    SvgIconSerializer(@NonNull String svgHeader, @NonNull String svgOverlay) {
+        this.svgHeader = svgHeader;
+        this.svgOverlay = svgOverlay;
+    }
+
+    /**
+     * Write an icon model to a String
+     *
+     * @param model the model to write
+     * @return the SVG string of the icon
+     * @throws JazzIconGenerationException if anything goes wrong when writing the icon.
+     * @throws IllegalArgumentException if the model is null
+     */
+    public String serialize(@NonNull IconModel model) throws JazzIconGenerationException, IllegalArgumentException {
+        AsciiByteSink sink = new AsciiByteSink();
+        serialize(model, sink);
+        return sink.toString();
+    }
+
+    /**
+     * Write an icon model directly to UTF-8 bytes
+     *
+     * @param model the model to write
+     * @return the UTF-8 bytes of the SVG of the icon
+     * @throws JazzIconGenerationException if anything goes wrong when writing the icon.
+     * @throws IllegalArgumentException if the model is null
+     */
+    public byte[] serializeToBytes(@NonNull IconModel model)
+            throws JazzIconGenerationException, IllegalArgumentException {
+        AsciiByteSink sink = new AsciiByteSink();
+        serialize(model, sink);
+        return sink.toByteArray();
+    }
+
+    /**
+     * Write an icon model to a {@link Writer}, the writer is not flushed nor closed
+     *
+     * @param model the model to write
+     * @param out the {@link Writer} to write the icon into
+     * @throws JazzIconGenerationException if anything goes wrong when writing the icon.
+     * @throws IllegalArgumentException if the model or the writer is null
+     */
+    public void serialize(@NonNull IconModel model, @NonNull Writer out)
+            throws JazzIconGenerationException, IllegalArgumentException {
+        if (Objects.isNull(model)) {
+            throw new IllegalArgumentException("model must not be null");
+        }
+        if (Objects.isNull(out)) {
+            throw new IllegalArgumentException("out must not be null");
+        }
+        Exceptions.wrap(e -> new JazzIconGenerationException(SERIALIZATION_ERROR_MESSAGE, e))
+                .run(() -> {
+                    out.append(svgHeader);
+                    appendShapes(model.getDraft(), out);
+                    out.append(svgOverlay);
+                    out.append(JazzIconRenderer.SVG_TAIL);
+                });
+    }
+
+    /**
+     * Append the background and the shapes of a drawing
+     *
+     * @param draft the drawing
+     * @param out the {@link Writer} to append into
+     * @throws IOException if anything goes wrong when appending to the {@link Writer}.
+     */
+    static void appendShapes(@NonNull IconDraft draft, @NonNull Writer out) throws IOException {
+        out.append("<rect x=\"0\" y=\"0\" width=\"100%\" height=\"100%\" fill=\"");
+        ColorUtils.appendHexColor(draft.colors[0], out);
+        out.append("\" />");
+        for (int slot = 0; slot < draft.shapeCount; slot++) {
+            appendShapeUntilFill(draft, slot, out);
+            ColorUtils.appendHexColor(draft.colors[slot + 1], out);
+            out.append("\" />");
+        }
+    }
+
+    /**
+     * Append a shape of a drawing up to its fill color, the caller appends the color and closes the shape
+     *
+     * @param draft the drawing
+     * @param slot the slot of the shape in the drawing
+     * @param out the {@link Writer} to append into
+     * @throws IOException if anything goes wrong when appending to the {@link Writer}.
+     */
+    static void appendShapeUntilFill(@NonNull IconDraft draft, int slot, @NonNull Writer out) throws IOException {
+        appendShapePoints(draft, slot, out);
+        out.append("\" transform=\"");
+        appendTransform(draft, slot, out);
+        out.append("\" fill=\"");
+    }
+
+    /**
+     * Append a shape of a drawing up to its points, the caller appends the transform, the color and closes the shape
+     *
+     * @param draft the drawing
+     * @param slot the slot of the shape in the drawing
+     * @param out the {@link Writer} to append into
+     * @throws IOException if anything goes wrong when appending to the {@link Writer}.
+     */
+    static void appendShapePoints(@NonNull IconDraft draft, int slot, @NonNull Writer out) throws IOException {
+        int offset = slot * IconDraft.POINTS_PER_SHAPE;
+        byte[] points = draft.points;
+        if (draft.shapes[slot] == JazzIcon.ShapeType.CIRCLE.ordinal()) {
+            out.append("<circle cx=\"");
+            DecimalUtils.appendInt(points[offset], out);
+            out.append("\" cy=\"");
+            DecimalUtils.appendInt(points[offset + 1], out);
+            out.append("\" r=\"");
+            DecimalUtils.appendInt(points[offset + 2], out);
+        } else if (draft.shapes[slot] == JazzIcon.ShapeType.POLYGON.ordinal()) {
+            out.append("<polygon points=\"");
+            for (int i = 0; i < IconDraft.POINTS_PER_SHAPE; i += 2) {
+                if (i > 0) {
+                    out.append(' ');
+                }
+                DecimalUtils.appendInt(points[offset + i], out);
+                out.append(',');
+                DecimalUtils.appendInt(points[offset + i + 1], out);
+            }
+        } else {
+            out.append("<rect x=\"0\" y=\"0\" width=\"100%\" height=\"100%");
+        }
+    }
+
+    /**
+     * Append the transform of a shape of a drawing
+     *
+     * @param draft the drawing
+     * @param slot the slot of the shape in the drawing
+     * @param out the {@link Writer} to append into
+     * @throws IOException if anything goes wrong when appending to the {@link Writer}.
+     */
+    static void appendTransform(@NonNull IconDraft draft, int slot, @NonNull Writer out) throws IOException {
+        int offset = slot * IconDraft.TRANSFORM_VALUES;
+        out.append("translate(");
+        DecimalUtils.appendRounded(draft.transforms[offset], IconDraft.TRANSLATE_DIGITS, out);
+        out.append(' ');
+        DecimalUtils.appendRounded(draft.transforms[offset + 1], IconDraft.TRANSLATE_DIGITS, out);
+        out.append(") rotate(");
+        DecimalUtils.appendRounded(draft.transforms[offset + 2], IconDraft.ROTATE_DIGITS, out);
+        out.append(" 50 50)");
+    }
+}
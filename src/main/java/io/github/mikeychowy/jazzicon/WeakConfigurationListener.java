@@ -0,0 +1,59 @@
+package io.github.mikeychowy.jazzicon;
+
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * A {@link ConfigurationListener} holding its owner weakly, so a front listening to a long-lived generator doesn't stay
+ * reachable from it. Once the owner is garbage collected, the listener removes itself on the next change.
+ *
+ * @param <T> the type of the owner
+ */
+final class WeakConfigurationListener<T> implements ConfigurationListener {
+    /** the generator listened to */
+    private final JazzIcon generator;
+    /** the owner notified of the changes */
+    private final WeakReference<T> owner;
+    /** called with the owner on every change, must not hold the owner itself */
+    private final BiConsumer<T, ConfigurationChange> onChange;
+
+    private WeakConfigurationListener(
+            @NonNull JazzIcon generator, @NonNull T owner, @NonNull BiConsumer<T, ConfigurationChange> onChange) {
+        this.generator = generator;
+        this.owner = new WeakReference<>(owner);
+        this.onChange = onChange;
+    }
+
+    /**
+     * Add a listener to a generator, holding its owner weakly
+     *
+     * @param generator the generator to listen to
+     * @param owner the owner notified of the changes
+     * @param onChange called with the owner on every change, e.g. an unbound method reference, must not hold the owner
+     * @param <T> the type of the owner
+     * @return the added listener, to remove it once the owner is closed
+     */
+    static <T> @NonNull WeakConfigurationListener<T> register(
+            @NonNull JazzIcon generator, @NonNull T owner, @NonNull BiConsumer<T, ConfigurationChange> onChange) {
+        WeakConfigurationListener<T> listener = new WeakConfigurationListener<>(generator, owner, onChange);
+        generator.addConfigurationListener(listener);
+        return listener;
+    }
+
+    @Override
+    public void onChange(@NonNull ConfigurationChange change) {
+        T current = owner.get();
+        if (Objects.isNull(current)) {
+            generator.removeConfigurationListener(this);
+            return;
+        }
+        onChange.accept(current, change);
+    }
+
+    /** Stop listening to the generator */
+    void remove() {
+        generator.removeConfigurationListener(this);
+    }
+}
@@ -0,0 +1,63 @@
+package io.github.mikeychowy.jazzicon;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class AsciiByteSinkTest {
+
+    @Test
+    void test_write_whenAscii_returningLatin1StringAndSameBytes() throws Exception {
+        var sink = new AsciiByteSink(4);
+        sink.append("<svg ").append('x').write("=\"0\">".toCharArray(), 0, 4);
+        sink.write('>');
+
+        assertThat(sink.toString()).isEqualTo("<svg x=\"0\">");
+        assertThat(sink.toByteArray()).isEqualTo("<svg x=\"0\">".getBytes(StandardCharsets.US_ASCII));
+        assertThat(sink.size()).isEqualTo(11);
+    }
+
+    @Test
+    void test_write_whenNotAscii_sameBytesAsUtf8OutputStreamWriter() throws Exception {
+        for (var text : List.of("é", "Ünïcödé", "漢字", "🎷 jazz", "lone \uD83C surrogate", "\uDFB7 low first", "end \uD83C")) {
+            var expected = new ByteArrayOutputStream();
+            try (var writer = new OutputStreamWriter(expected, StandardCharsets.UTF_8)) {
+                for (char c : text.toCharArray()) {
+                    writer.write(c);
+                }
+            }
+            var sink = new AsciiByteSink();
+            for (char c : text.toCharArray()) {
+                sink.write(c);
+            }
+            var out = new ByteArrayOutputStream();
+            sink.writeTo(out);
+
+            assertThat(out.toByteArray()).as(text).isEqualTo(expected.toByteArray());
+            assertThat(sink.toString()).as(text).isEqualTo(expected.toString(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void test_reset_forgetsWrittenBytes() {
+        var sink = new AsciiByteSink();
+        sink.append("é");
+
+        sink.reset();
+        sink.append("abc");
+
+        assertThat(sink.toString()).isEqualTo("abc");
+    }
+
+    @Test
+    void test_constructor_throwingIllegalArgumentException_whenCapacityIsNotPositive() {
+        assertThatThrownBy(() -> new AsciiByteSink(0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("initialCapacity must be > 0");
+    }
+}
@@ -0,0 +1,491 @@
+package io.github.mikeychowy.jazzicon;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.ref.WeakReference;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class CachingJazzIconTest {
+
+    @Test
+    void test_generateIcon_sameTextTwice_hitsAndMatchesGenerator() {
+        JazzIcon generator = new JazzIcon();
+        CachingJazzIcon caching = CachingJazzIcon.builder().withGenerator(generator).build();
+
+        String first = caching.generateIcon("Harry Potter");
+        String second = caching.generateIcon("  Harry Potter ");
+
+        assertThat(first).isEqualTo(generator.generateIcon("Harry Potter"));
+        assertThat(second).isEqualTo(first);
+        IconCacheStats stats = caching.stats();
+        assertThat(stats.getMissCount()).isEqualTo(1);
+        assertThat(stats.getHitCount()).isEqualTo(1);
+        assertThat(stats.getLoadCount()).isEqualTo(1);
+        assertThat(stats.getSize()).isEqualTo(1);
+        assertThat(stats.hitRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    void test_generateIconBytes_modifiedResult_doesNotCorruptCache() {
+        CachingJazzIcon caching = CachingJazzIcon.builder().build();
+        byte[] first = caching.generateIconBytes("Hermione");
+        byte[] expected = first.clone();
+
+        first[0] = 'x';
+
+        assertThat(caching.generateIconBytes("Hermione")).isEqualTo(expected);
+    }
+
+    @Test
+    void test_generateIcon_generatorConfigChanged_rendersAgain() {
+        JazzIcon generator = new JazzIcon();
+        CachingJazzIcon caching = new CachingJazzIcon(generator, 100);
+        String before = caching.generateIcon("Ronald Weasley");
+
+        generator.setShapeCount(2);
+        String after = caching.generateIcon("Ronald Weasley");
+
+        assertThat(after).isNotEqualTo(before).isEqualTo(generator.generateIcon("Ronald Weasley"));
+        assertThat(caching.stats().getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    void test_generatorConfigChanged_onlyReplacedConfigurationDropped() {
+        JazzIcon generator = new JazzIcon();
+        CachingJazzIcon caching = new CachingJazzIcon(generator, 100);
+        caching.generateIcon("Ronald Weasley");
+        caching.generateIcon("Ginny Weasley");
+
+        generator.setShapeCount(2);
+        assertThat(caching.stats().getSize()).isZero();
+        caching.generateIcon("Ronald Weasley");
+
+        // the metrics don't change the icons, nothing to drop
+        generator.setMetrics(new HistogramJazzIconMetrics());
+        assertThat(caching.stats().getSize()).isEqualTo(1);
+        caching.generateIcon("Ronald Weasley");
+        assertThat(caching.stats().getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void test_generatorConfigChanged_iconsDroppedOnNextLookupNotUnderTheLock() {
+        JazzIcon generator = new JazzIcon();
+        CachingJazzIcon caching = new CachingJazzIcon(generator, 100);
+        caching.generateIcon("Ronald Weasley");
+
+        generator.setShapeCount(2);
+        // the listener only recorded the replaced configuration
+        assertThat(caching.cache.stats().getSize()).isEqualTo(1);
+
+        // switched back before the next lookup, the icons of the configuration in use are kept
+        generator.setShapeCount(JazzIcon.DEFAULT_SHAPE_COUNT);
+        caching.generateIcon("Ronald Weasley");
+        assertThat(caching.cache.stats().getHitCount()).isEqualTo(1);
+
+        generator.setShapeCount(2);
+        caching.generateIcon("Ginny Weasley");
+        assertThat(caching.cache.stats().getSize()).isEqualTo(1);
+        assertThat(caching.cache.stats().getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    void test_close_stopsListeningAndDropsTheIcons() {
+        JazzIcon generator = new JazzIcon();
+        CachingJazzIcon caching = new CachingJazzIcon(generator, 100);
+        caching.generateIcon("Harry Potter");
+        assertThat(generator.configurationListeners).hasSize(1);
+
+        caching.close();
+        caching.close();
+
+        assertThat(generator.configurationListeners).isEmpty();
+        assertThat(caching.stats().getSize()).isZero();
+        assertThat(caching.stats().getMissCount()).isEqualTo(1);
+        assertThat(catchThrowable(() -> caching.generateIcon("Harry Potter")))
+                .isInstanceOf(JazzIconGenerationException.class)
+                .hasMessageContaining("closed");
+    }
+
+    @Test
+    void test_notClosed_notHeldByTheGenerator() throws InterruptedException {
+        JazzIcon generator = new JazzIcon();
+        var caching = new WeakReference<>(new CachingJazzIcon(generator, 100));
+        caching.get().generateIcon("Harry Potter");
+
+        for (int i = 0; i < 50 && Objects.nonNull(caching.get()); i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+
+        assertThat(caching.get()).isNull();
+        generator.setShapeCount(2);
+        assertThat(generator.configurationListeners).isEmpty();
+    }
+
+    @Test
+    void test_generateIcon_seedStrategyOfSameClassSwapped_rendersAgain() {
+        JazzIcon generator =
+                JazzIcon.builder().withSeedStrategy(new SaltedSeedStrategy(1)).build();
+        CachingJazzIcon caching = new CachingJazzIcon(generator, 100);
+        String before = caching.generateIcon("Ronald Weasley");
+
+        generator.setSeedStrategy(new SaltedSeedStrategy(2));
+        assertThat(caching.stats().getSize()).isZero();
+        String after = caching.generateIcon("Ronald Weasley");
+
+        assertThat(after).isNotEqualTo(before).isEqualTo(generator.generateIcon("Ronald Weasley"));
+        assertThat(caching.stats().getMissCount()).isEqualTo(2);
+
+        // same salt, same seeds, the icon is still cached
+        generator.setSeedStrategy(new SaltedSeedStrategy(2));
+        assertThat(caching.generateIcon("Ronald Weasley")).isEqualTo(after);
+        assertThat(caching.stats().getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void test_generateIcon_seedStrategyLambdasWithoutIdSwapped_rendersAgain() {
+        JazzIcon generator = JazzIcon.builder().withSeedStrategy(salted(1)).build();
+        CachingJazzIcon caching = new CachingJazzIcon(generator, 100);
+        String before = caching.generateIcon("Ronald Weasley");
+
+        generator.setSeedStrategy(salted(2));
+        String after = caching.generateIcon("Ronald Weasley");
+
+        assertThat(after).isNotEqualTo(before).isEqualTo(generator.generateIcon("Ronald Weasley"));
+        assertThat(caching.stats().getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    void test_generateIcon_concurrentMisses_renderedOnce() throws Exception {
+        var rendering = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        // the first render is held until the other misses have queued up behind it
+        JazzIcon generator = new JazzIcon() {
+            @Override
+            JazzIconConfig renderTo(String text, Writer out) throws IOException {
+                rendering.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.renderTo(text, out);
+            }
+        };
+        CachingJazzIcon caching = new CachingJazzIcon(generator, 100);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<CompletableFuture<String>> results = new ArrayList<>();
+            results.add(CompletableFuture.supplyAsync(() -> caching.generateIcon("Harry Potter"), executor));
+            assertThat(rendering.await(10, TimeUnit.SECONDS)).isTrue();
+            for (int i = 0; i < 3; i++) {
+                results.add(CompletableFuture.supplyAsync(() -> caching.generateIcon("Harry Potter"), executor));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (CompletableFuture<String> result : results) {
+                assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo(new JazzIcon().generateIcon("Harry Potter"));
+            }
+            assertThat(caching.stats().getLoadCount()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void test_generateIcon_shortText_isNotCached() {
+        CachingJazzIcon caching = CachingJazzIcon.builder().build();
+
+        String first = caching.generateIcon("ab");
+        String second = caching.generateIcon("ab");
+
+        assertThat(first).isNotBlank();
+        assertThat(second).isNotBlank();
+        assertThat(caching.stats().getSize()).isZero();
+        assertThat(caching.stats().getHitCount()).isZero();
+    }
+
+    @Test
+    void test_generateIcon_shortTextDeterministicPadding_isCached() {
+        JazzIcon generator =
+                JazzIcon.builder().withPaddingMode(JazzIcon.PaddingMode.DETERMINISTIC).build();
+        CachingJazzIcon caching = new CachingJazzIcon(generator, 100);
+
+        String first = caching.generateIcon("ab");
+
+        assertThat(caching.generateIcon("ab")).isEqualTo(first).isEqualTo(generator.generateIcon("ab"));
+        assertThat(caching.stats().getHitCount()).isEqualTo(1);
+        assertThat(caching.stats().getSize()).isEqualTo(1);
+    }
+
+    @Test
+    void test_generateIcon_oneOffScan_keepsHotKeys() {
+        CachingJazzIcon caching = CachingJazzIcon.builder().withMaximumEntries(100).build();
+        List<String> hot = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            hot.add("hot text " + i);
+        }
+        for (int round = 0; round < 5; round++) {
+            hot.forEach(caching::generateIcon);
+        }
+
+        for (int i = 0; i < 1_000; i++) {
+            caching.generateIcon("scanned text " + i);
+        }
+        long hitsBefore = caching.stats().getHitCount();
+        hot.forEach(caching::generateIcon);
+
+        assertThat(caching.stats().getSize()).isLessThanOrEqualTo(100);
+        assertThat(caching.stats().getHitCount() - hitsBefore).isGreaterThanOrEqualTo(45);
+    }
+
+    @Test
+    void test_generateIcon_boundedByBytes_staysUnderMaximum() {
+        long maximumBytes = 20_000;
+        CachingJazzIcon caching = CachingJazzIcon.builder().withMaximumBytes(maximumBytes).build();
+
+        for (int i = 0; i < 200; i++) {
+            caching.generateIcon("some text " + i);
+        }
+
+        IconCacheStats stats = caching.stats();
+        assertThat(stats.getWeight()).isPositive().isLessThanOrEqualTo(maximumBytes);
+        assertThat(stats.getEvictionCount()).isPositive();
+        assertThat(stats.getSize()).isLessThan(200);
+    }
+
+    @Test
+    void test_invalidateAll_cachedIcons_rendersAgain() {
+        CachingJazzIcon caching = CachingJazzIcon.builder().build();
+        caching.generateIcon("Neville");
+
+        caching.invalidateAll();
+        caching.generateIcon("Neville");
+
+        assertThat(caching.stats().getMissCount()).isEqualTo(2);
+        assertThat(caching.stats().getSize()).isEqualTo(1);
+    }
+
+    @Test
+    void test_outputs_cachedIcon_allWriteSameBytes() throws IOException {
+        CachingJazzIcon caching = CachingJazzIcon.builder().build();
+        byte[] expected = caching.generateIconBytes("Luna Lovegood");
+
+        StringWriter writer = new StringWriter();
+        caching.generateIconToWriter("Luna Lovegood", writer);
+        ByteArrayOutputStream stream = spy(new ByteArrayOutputStream());
+        caching.generateIconToStream("Luna Lovegood", stream);
+        ByteBuffer buffer = ByteBuffer.allocate(expected.length);
+        int put = caching.generateIconTo("Luna Lovegood", buffer);
+        ByteArrayOutputStream channelOut = new ByteArrayOutputStream();
+        long written = caching.generateIconTo("Luna Lovegood", Channels.newChannel(channelOut));
+
+        assertThat(writer.toString().getBytes(StandardCharsets.UTF_8)).isEqualTo(expected);
+        assertThat(stream.toByteArray()).isEqualTo(expected);
+        verify(stream).close();
+        assertThat(put).isEqualTo(expected.length);
+        assertThat(buffer.array()).isEqualTo(expected);
+        assertThat(written).isEqualTo(expected.length);
+        assertThat(channelOut.toByteArray()).isEqualTo(expected);
+        assertThat(caching.stats().getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    void test_generateIconTo_bufferTooSmall_throwsAndWritesNothing() {
+        CachingJazzIcon caching = CachingJazzIcon.builder().build();
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+
+        JazzIconGenerationException exception = catchThrowableOfType(
+                JazzIconGenerationException.class, () -> caching.generateIconTo("Draco Malfoy", buffer));
+
+        assertThat(exception).hasCauseInstanceOf(BufferOverflowException.class);
+        assertThat(buffer.position()).isZero();
+    }
+
+    @Test
+    void test_builder_invalidMaximum_throws() {
+        Throwable entries = catchThrowable(() -> CachingJazzIcon.builder().withMaximumEntries(0).build());
+        Throwable bytes = catchThrowable(() -> CachingJazzIcon.builder().withMaximumBytes(-1).build());
+        Throwable generator = catchThrowable(() -> new CachingJazzIcon(null, 10));
+
+        assertThat(entries).isInstanceOf(IllegalArgumentException.class).hasMessage("maximum must be > 0");
+        assertThat(bytes).isInstanceOf(IllegalArgumentException.class).hasMessage("maximum must be > 0");
+        assertThat(generator).isInstanceOf(IllegalArgumentException.class).hasMessage("generator must not be null");
+    }
+
+    @Test
+    void test_generateIcon_concurrentLookups_allMatchGenerator() {
+        JazzIcon generator = new JazzIcon();
+        CachingJazzIcon caching = CachingJazzIcon.builder().withGenerator(generator).withMaximumEntries(64).build();
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            texts.add("concurrent text " + i);
+        }
+        List<String> expected = texts.stream().map(generator::generateIcon).toList();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(CompletableFuture.supplyAsync(
+                        () -> {
+                            for (int round = 0; round < 200; round++) {
+                                int index = round % texts.size();
+                                if (!caching.generateIcon(texts.get(index)).equals(expected.get(index))) {
+                                    return false;
+                                }
+                            }
+                            return true;
+                        },
+                        executor));
+            }
+
+            assertThat(futures).allSatisfy(future -> assertThat(future.join()).isTrue());
+        } finally {
+            executor.shutdown();
+        }
+        IconCacheStats stats = caching.stats();
+        assertThat(stats.getHitCount() + stats.getMissCount()).isEqualTo(8 * 200);
+        assertThat(stats.getSize()).isEqualTo(32);
+    }
+
+    @Test
+    void test_generateIcon_remoteCache_sharedBetweenNodes() {
+        var remote = new InMemoryRemoteIconCache();
+        var renders = new AtomicInteger();
+        CachingJazzIcon first = CachingJazzIcon.builder()
+                .withGenerator(countingRenders(renders))
+                .withRemoteCache(remote)
+                .withRemoteExecutor(Runnable::run)
+                .build();
+        CachingJazzIcon second = CachingJazzIcon.builder()
+                .withGenerator(countingRenders(renders))
+                .withRemoteCache(remote)
+                .withRemoteExecutor(Runnable::run)
+                .build();
+
+        String rendered = first.generateIcon("Harry Potter");
+        first.flushRemoteWrites();
+        String shared = second.generateIcon("Harry Potter");
+
+        assertThat(shared).isEqualTo(rendered).isEqualTo(new JazzIcon().generateIcon("Harry Potter"));
+        assertThat(renders).hasValue(1);
+        assertThat(remote.size()).isEqualTo(1);
+        assertThat(first.remoteStats().getWriteCount()).isEqualTo(1);
+        assertThat(second.remoteStats().getHitCount()).isEqualTo(1);
+        assertThat(second.stats().getSize()).isEqualTo(1);
+    }
+
+    @Test
+    void test_generateIcon_unresponsiveRemoteCache_rendersLocallyAfterTimeout() {
+        RemoteIconCache unresponsive = new RemoteIconCache() {
+            @Override
+            public CompletionStage<byte[]> get(String key) {
+                return new CompletableFuture<>();
+            }
+
+            @Override
+            public CompletionStage<Void> putAll(Map<String, byte[]> icons) {
+                return new CompletableFuture<>();
+            }
+        };
+        CachingJazzIcon caching = CachingJazzIcon.builder()
+                .withRemoteCache(unresponsive)
+                .withRemoteTimeout(Duration.ofMillis(20))
+                .build();
+
+        assertThat(caching.generateIcon("Harry Potter")).isEqualTo(new JazzIcon().generateIcon("Harry Potter"));
+        assertThat(caching.remoteStats().getTimeoutCount()).isEqualTo(1);
+        assertThat(caching.generateIcon("Harry Potter")).isEqualTo(new JazzIcon().generateIcon("Harry Potter"));
+        assertThat(caching.remoteStats().getTimeoutCount()).isEqualTo(1);
+    }
+
+    @Test
+    void test_remoteStats_noRemoteCache_null() {
+        CachingJazzIcon caching = CachingJazzIcon.builder().build();
+
+        caching.flushRemoteWrites();
+
+        assertThat(caching.remoteStats()).isNull();
+    }
+
+    @Test
+    void test_build_invalidRemoteSettings_throw() {
+        var remote = new InMemoryRemoteIconCache();
+
+        assertThat(catchThrowable(() -> CachingJazzIcon.builder()
+                        .withRemoteCache(remote)
+                        .withRemoteTimeout(Duration.ZERO)
+                        .build()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("remoteTimeout");
+        assertThat(catchThrowable(() -> CachingJazzIcon.builder()
+                        .withRemoteCache(remote)
+                        .withRemoteWriteBehind(0, Duration.ofMillis(10))
+                        .build()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("remoteBatchSize");
+        assertThat(catchThrowable(() -> CachingJazzIcon.builder()
+                        .withRemoteCache(remote)
+                        .withRemoteWriteBehind(10, null)
+                        .build()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("remoteFlushInterval");
+    }
+
+    private static SeedStrategy salted(long salt) {
+        return text -> SeedStrategy.hash64().seedOf(text) ^ salt;
+    }
+
+    private static final class SaltedSeedStrategy implements SeedStrategy {
+        private final long salt;
+
+        private SaltedSeedStrategy(long salt) {
+            this.salt = salt;
+        }
+
+        @Override
+        public String id() {
+            return "salted:" + salt;
+        }
+
+        @Override
+        public long seedOf(CharSequence safeText) {
+            return SeedStrategy.hash64().seedOf(safeText) ^ salt;
+        }
+    }
+
+    private static JazzIcon countingRenders(AtomicInteger renders) {
+        return new JazzIcon() {
+            @Override
+            JazzIconConfig renderTo(String text, Writer out) throws IOException {
+                renders.incrementAndGet();
+                return super.renderTo(text, out);
+            }
+        };
+    }
+}
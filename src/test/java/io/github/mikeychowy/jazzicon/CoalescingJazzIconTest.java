@@ -0,0 +1,91 @@
+package io.github.mikeychowy.jazzicon;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class CoalescingJazzIconTest {
+
+    @Test
+    void test_generateIcon_matchesGeneratorAndKeepsNothing() {
+        JazzIcon generator = new JazzIcon();
+        var coalescing = new CoalescingJazzIcon(generator);
+
+        assertThat(coalescing.generateIcon(" Harry Potter ")).isEqualTo(generator.generateIcon("Harry Potter"));
+        byte[] bytes = coalescing.generateIconBytes("Harry Potter");
+        bytes[0] = 'x';
+        assertThat(coalescing.generateIconBytes("Harry Potter")).isEqualTo(generator.generateIconBytes("Harry Potter"));
+        assertThat(coalescing.inFlightCount()).isZero();
+        assertThat(coalescing.getGenerator()).isSameAs(generator);
+    }
+
+    @Test
+    void test_generateIcon_concurrentSameText_renderedOnce() throws Exception {
+        var renders = new AtomicInteger();
+        var rendering = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        // the first render is held until the others have queued up behind it
+        JazzIcon generator = new JazzIcon() {
+            @Override
+            public byte[] generateIconBytes(String text) {
+                renders.incrementAndGet();
+                rendering.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.generateIconBytes(text);
+            }
+        };
+        var coalescing = new CoalescingJazzIcon(generator, Duration.ofSeconds(10));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            var results = new CompletableFuture<?>[8];
+            results[0] = CompletableFuture.supplyAsync(() -> coalescing.generateIcon("Harry Potter"), executor);
+            assertThat(rendering.await(10, TimeUnit.SECONDS)).isTrue();
+            for (int i = 1; i < results.length; i++) {
+                results[i] = CompletableFuture.supplyAsync(() -> coalescing.generateIcon("Harry Potter"), executor);
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (CompletableFuture<?> result : results) {
+                assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo(new JazzIcon().generateIcon("Harry Potter"));
+            }
+            assertThat(renders).hasValue(1);
+            assertThat(coalescing.inFlightCount()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void test_generateIcon_shortText_notShared() {
+        var coalescing = new CoalescingJazzIcon(new JazzIcon());
+
+        assertThat(coalescing.generateIcon("ab")).isNotBlank();
+        assertThat(coalescing.inFlightCount()).isZero();
+    }
+
+    @Test
+    void test_newCoalescingJazzIcon_invalidArguments_throw() {
+        assertThat(catchThrowable(() -> new CoalescingJazzIcon(null)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("generator");
+        assertThat(catchThrowable(() -> new CoalescingJazzIcon(new JazzIcon(), null)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("timeout");
+        assertThat(catchThrowable(() -> new CoalescingJazzIcon(new JazzIcon(), Duration.ZERO)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("must be > 0");
+    }
+}
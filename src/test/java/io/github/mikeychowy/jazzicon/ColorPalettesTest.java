@@ -0,0 +1,68 @@
+package io.github.mikeychowy.jazzicon;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class ColorPalettesTest {
+
+    @Test
+    void test_newColorPalettes_list_keepsInsertionOrderWithoutDuplicates() {
+        var palette = new ColorPalettes(List.of("#fc7500", "#01888C", "#FC7500", " ", "#034F5D"));
+
+        assertThat(palette.getColors()).containsExactly("#FC7500", "#01888C", "#034F5D");
+        assertThat(palette.getColorOrder()).isEqualTo(ColorPalettes.ColorOrder.INSERTION);
+    }
+
+    @Test
+    void test_newColorPalettes_set_sortedWhateverTheIterationOrder() {
+        var reversed = new LinkedHashSet<>(List.of("#F3C100", "#C7144C", "#01888C"));
+
+        var fromSet = new ColorPalettes(Set.of("#01888C", "#F3C100", "#C7144C"));
+        var fromReversed = new ColorPalettes(reversed);
+
+        assertThat(fromSet.getColors()).containsExactly("#01888C", "#C7144C", "#F3C100");
+        assertThat(fromReversed.getColors()).containsExactlyElementsOf(fromSet.getColors());
+        assertThat(fromSet.getColorOrder()).isEqualTo(ColorPalettes.ColorOrder.SORTED);
+        assertThat(new ColorPalettes(reversed, ColorPalettes.ColorOrder.INSERTION).getColors())
+                .containsExactly("#F3C100", "#C7144C", "#01888C");
+    }
+
+    @Test
+    void test_newColorPalettes_nullOrder_throws() {
+        var ex = catchThrowable(() -> new ColorPalettes(List.of("#01888C"), null));
+
+        assertThat(ex).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("null");
+    }
+
+    @Test
+    void test_equals_sameColorsInSameOrder() {
+        var palette = new ColorPalettes(List.of("#01888C", "#fc7500"));
+
+        assertThat(palette)
+                .isEqualTo(new ColorPalettes(List.of("#01888C", "#FC7500")))
+                .hasSameHashCodeAs(new ColorPalettes(Set.of("#FC7500", "#01888C")))
+                .isEqualTo(new ColorPalettes(Set.of("#FC7500", "#01888C")))
+                .isNotEqualTo(new ColorPalettes(List.of("#FC7500", "#01888C")))
+                .isNotEqualTo(new ColorPalettes(List.of("#01888C")))
+                .isNotEqualTo(null);
+        assertThat(palette.toString()).contains("#01888C", "#FC7500");
+    }
+
+    @Test
+    void test_generateIcon_sameColorsInAnyOrder_sameIconAndFingerprint() {
+        var colors = List.of("#01888C", "#FC7500", "#034F5D", "#F73F01", "#FC1960", "#C7144C");
+        var shuffled = List.of("#F73F01", "#034F5D", "#C7144C", "#01888C", "#FC1960", "#FC7500");
+        var first = new JazzIcon().setShapeCount(3).setBaseColors(new ColorPalettes(Set.copyOf(colors)));
+        var second = new JazzIcon()
+                .setShapeCount(3)
+                .setBaseColors(new ColorPalettes(shuffled, ColorPalettes.ColorOrder.SORTED));
+
+        assertThat(first.generateIcon("Harry Potter")).isEqualTo(second.generateIcon("Harry Potter"));
+        assertThat(first.getConfig().getFingerprint()).isEqualTo(second.getConfig().getFingerprint());
+    }
+}
@@ -1,8 +1,11 @@
 package io.github.mikeychowy.jazzicon;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.io.StringWriter;
 import java.util.List;
+import java.util.Random;
 import org.junit.jupiter.api.Test;
 
 class ColorUtilsTest {
@@ -35,4 +38,52 @@ class ColorUtilsTest {
         var result = ColorUtils.isValidHexColor(null);
         assertThat(result).isFalse();
     }
+
+    @Test
+    void test_parseHexColor_returningPackedArgb_whenInputsAreValid() {
+        assertThat(ColorUtils.parseHexColor("#01888C")).isEqualTo(0xFF01888C);
+        assertThat(ColorUtils.parseHexColor("fc7500")).isEqualTo(0xFFFC7500);
+        assertThat(ColorUtils.parseHexColor("#C63")).isEqualTo(0xFFCC6633);
+        assertThat(ColorUtils.parseHexColor("#C638")).isEqualTo(0x88CC6633);
+        assertThat(ColorUtils.parseHexColor("12345678")).isEqualTo(0x78123456);
+    }
+
+    @Test
+    void test_parseHexColor_throwingIllegalArgumentException_whenInputIsInvalid() {
+        assertThatThrownBy(() -> ColorUtils.parseHexColor("#thunder"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("#thunder");
+    }
+
+    @Test
+    void test_toHexColor_returningLowercaseHexWithoutAlpha() throws Exception {
+        var writer = new StringWriter();
+        ColorUtils.appendHexColor(0x80FC0A60, writer);
+
+        assertThat(ColorUtils.toHexColor(0x80FC0A60)).isEqualTo("#fc0a60");
+        assertThat(writer.toString()).isEqualTo("#fc0a60");
+    }
+
+    @Test
+    void test_hue_returningNaN_whenColorIsGrey() {
+        assertThat(ColorUtils.hue(0xFF777777)).isNaN();
+        assertThat(ColorUtils.saturation(0xFF777777)).isZero();
+        assertThat(ColorUtils.value(0xFFFFFFFF)).isEqualTo(1F);
+    }
+
+    @Test
+    void test_rotateHue_sameAsRotateColor() {
+        var random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            int color = 0xFF000000 | random.nextInt(0x1000000);
+            double hueShift = (random.nextDouble() * 720) - 360;
+            var rotated = ColorUtils.rotateHue(
+                    ColorUtils.hue(color), ColorUtils.saturation(color), ColorUtils.value(color), hueShift);
+
+            var hex = ColorUtils.toHexColor(color);
+            assertThat(ColorUtils.toHexColor(rotated))
+                    .as("%s rotated by %s", hex, hueShift)
+                    .isEqualTo(JazzIcon.rotateColor(hex, hueShift));
+        }
+    }
 }
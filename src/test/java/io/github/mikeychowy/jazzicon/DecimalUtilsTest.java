@@ -0,0 +1,110 @@
+package io.github.mikeychowy.jazzicon;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Locale;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class DecimalUtilsTest {
+
+    @Test
+    void test_appendInt_sameAsStringValueOf() throws Exception {
+        var sb = new StringBuilder();
+        for (int i = -5; i <= 150; i++) {
+            sb.setLength(0);
+            DecimalUtils.appendInt(i, sb);
+            assertThat(sb.toString()).isEqualTo(String.valueOf(i));
+        }
+    }
+
+    @Test
+    void test_appendFixed_sameAsStringFormat_whenValuesAreRandom() throws Exception {
+        var random = new Random(42);
+        var sb = new StringBuilder();
+        for (int i = 0; i < 200_000; i++) {
+            double value = (i % 2 == 0) ? (random.nextDouble() * 400) - 200 : random.nextDouble() * 540;
+            assertSameAsFormat(value, 3, sb);
+            assertSameAsFormat(value, 1, sb);
+        }
+    }
+
+    @Test
+    void test_appendFixed_sameAsStringFormat_whenValuesAreTiesOrSpecial() throws Exception {
+        var sb = new StringBuilder();
+        double[] values = {
+            0, -0.0, 0.0005, -0.0005, 0.00049, 0.05, 0.15, 0.25, -0.04, -0.05, 0.95, 99.9995, 100, 359.95, 123456.7895,
+            1e12, -1e12, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY
+        };
+        for (double value : values) {
+            assertSameAsFormat(value, 3, sb);
+            assertSameAsFormat(value, 1, sb);
+        }
+    }
+
+    @Test
+    void test_appendFixed_sameAsStringFormat_whenTiesAreNearFastPathBound() throws Exception {
+        var random = new Random(42);
+        var sb = new StringBuilder();
+        for (int fractionDigits = 1; fractionDigits <= 6; fractionDigits++) {
+            double scale = Math.pow(10, fractionDigits);
+            for (double magnitude : new double[] {1e6, 1e7, 1e8, 1e9}) {
+                double scaledBound = magnitude * scale;
+                for (int i = 0; i < 2_000; i++) {
+                    // a tie at the last fraction digit, as close to the bound as the scale allows
+                    double tie = (Math.floor(random.nextDouble() * scaledBound) + 0.5) / scale;
+                    assertSameAsFormat(tie, fractionDigits, sb);
+                    assertSameAsFormat(-tie, fractionDigits, sb);
+                    sb.setLength(0);
+                    DecimalUtils.appendRounded(DecimalUtils.roundFixed(tie, fractionDigits), fractionDigits, sb);
+                    assertThat(sb.toString())
+                            .as("%s with %s fraction digits", tie, fractionDigits)
+                            .isEqualTo(String.format(Locale.US, "%." + fractionDigits + "f", tie));
+                }
+            }
+        }
+        // rounded wrongly by a fast path bounded by the magnitude alone
+        assertSameAsFormat(8974742.37935, 4, sb);
+        assertSameAsFormat(8496382.0776765, 6, sb);
+    }
+
+    @Test
+    void test_appendFixed_throwingIllegalArgumentException_whenFractionDigitsAreUnsupported() {
+        var sb = new StringBuilder();
+        assertThatThrownBy(() -> DecimalUtils.appendFixed(1.0, 0, sb)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> DecimalUtils.appendFixed(1.0, 7, sb)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void test_roundFixed_appendedSameAsStringFormat() throws Exception {
+        var random = new Random(42);
+        var sb = new StringBuilder();
+        double[] values = {0, -0.0, 0.0005, -0.0005, -0.00049, 0.05, 0.15, -0.05, 99.9995, 359.95, 123456.7895};
+        for (int i = 0; i < 100_000 + values.length; i++) {
+            double value = i < values.length ? values[i] : (random.nextDouble() * 400) - 200;
+            for (int fractionDigits : new int[] {1, 3}) {
+                sb.setLength(0);
+                DecimalUtils.appendRounded(DecimalUtils.roundFixed(value, fractionDigits), fractionDigits, sb);
+                assertThat(sb.toString())
+                        .as("%s with %s fraction digits", value, fractionDigits)
+                        .isEqualTo(String.format(Locale.US, "%." + fractionDigits + "f", value));
+            }
+        }
+    }
+
+    @Test
+    void test_roundFixed_throwingIllegalArgumentException_whenValueIsOutOfBounds() {
+        assertThatThrownBy(() -> DecimalUtils.roundFixed(Double.NaN, 3)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> DecimalUtils.roundFixed(1e12, 3)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> DecimalUtils.roundFixed(1.0, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void assertSameAsFormat(double value, int fractionDigits, StringBuilder sb) throws Exception {
+        sb.setLength(0);
+        DecimalUtils.appendFixed(value, fractionDigits, sb);
+        assertThat(sb.toString())
+                .as("%s with %s fraction digits", value, fractionDigits)
+                .isEqualTo(String.format(Locale.US, "%." + fractionDigits + "f", value));
+    }
+}
@@ -0,0 +1,40 @@
+package io.github.mikeychowy.jazzicon;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class HistogramJazzIconMetricsTest {
+
+    @Test
+    void test_record_eachKind_landsInItsOwnHistogram() {
+        var metrics = new HistogramJazzIconMetrics();
+
+        metrics.recordPhase(JazzIconMetrics.Phase.SHAPES, 1_000);
+        metrics.recordPhase(JazzIconMetrics.Phase.SHAPES, 3_000);
+        metrics.recordBytesWritten(2_048);
+        metrics.recordLockWait(50);
+
+        assertThat(metrics.isEnabled()).isTrue();
+        assertThat(metrics.getPhase(JazzIconMetrics.Phase.SHAPES).getCount()).isEqualTo(2);
+        assertThat(metrics.getPhase(JazzIconMetrics.Phase.SHAPES).getSum()).isEqualTo(4_000);
+        assertThat(metrics.getPhase(JazzIconMetrics.Phase.SEED).getCount()).isZero();
+        assertThat(metrics.getBytesWritten().getSum()).isEqualTo(2_048);
+        assertThat(metrics.getLockWaits().getMax()).isEqualTo(50);
+        assertThat(metrics.toString()).contains("SHAPES=LogHistogram{count=2");
+    }
+
+    @Test
+    void test_reset_forgetsEveryHistogram() {
+        var metrics = new HistogramJazzIconMetrics();
+        JazzIcon.builder().withMetrics(metrics).build().generateIcon("Harry Potter");
+        assertThat(metrics.getPhase(JazzIconMetrics.Phase.OUTPUT).getCount()).isEqualTo(1);
+
+        metrics.reset();
+
+        for (JazzIconMetrics.Phase phase : JazzIconMetrics.Phase.values()) {
+            assertThat(metrics.getPhase(phase).getCount()).isZero();
+        }
+        assertThat(metrics.getBytesWritten().getCount()).isZero();
+    }
+}
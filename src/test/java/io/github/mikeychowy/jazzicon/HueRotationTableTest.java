@@ -0,0 +1,94 @@
+package io.github.mikeychowy.jazzicon;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class HueRotationTableTest {
+
+    @Test
+    void test_rotate_insideWindow_sameAsRotateColor() {
+        var random = new Random(42);
+        for (var palette : List.of(ColorPalettes.JAZZ_ICON, ColorPalettes.CATPUCCIN_MOCHA, ColorPalettes.TAILWIND)) {
+            var colors = new ArrayList<>(palette.getColors());
+            for (int wobble : new int[] {30, 7, 90}) {
+                var table = tableOf(colors, wobble);
+                for (int i = 0; i < 2_000; i++) {
+                    double hueShift = (30 * random.nextDouble()) - (wobble / 2.0F);
+                    int index = random.nextInt(colors.size());
+                    assertThat(ColorUtils.toHexColor(table.rotate(index, hueShift)))
+                            .as("%s rotated by %s", colors.get(index), hueShift)
+                            .isEqualTo(JazzIcon.rotateColor(colors.get(index), hueShift));
+                }
+            }
+        }
+    }
+
+    @Test
+    void test_rotate_outsideWindow_fallsBackToRotateColor() {
+        var colors = new ArrayList<>(ColorPalettes.JAZZ_ICON.getColors());
+        var table = tableOf(colors, 30);
+        for (double hueShift : new double[] {-400, -15.0001, 15, 15.5, 720}) {
+            for (int i = 0; i < colors.size(); i++) {
+                assertThat(ColorUtils.toHexColor(table.rotate(i, hueShift)))
+                        .isEqualTo(JazzIcon.rotateColor(colors.get(i), hueShift));
+            }
+        }
+    }
+
+    @Test
+    void test_rotateAll_keepsPaletteOrder() {
+        var colors = new ArrayList<>(ColorPalettes.SECTION_1.getColors());
+        var table = tableOf(colors, 30);
+        var result = new int[table.size()];
+
+        table.rotateAll(3.25, result);
+
+        assertThat(result).hasSize(colors.size());
+        for (int i = 0; i < colors.size(); i++) {
+            assertThat(ColorUtils.toHexColor(result[i])).isEqualTo(JazzIcon.rotateColor(colors.get(i), 3.25));
+        }
+    }
+
+    @Test
+    void test_rotate_largePalette_fillsOnlyTheBucketsLookedUp() {
+        var colors = IntStream.range(0, 5_000)
+                .mapToObj(i -> String.format("#%06X", i * 3_319))
+                .toList();
+        var table = tableOf(colors, 30);
+        assertThat(table.filledBuckets()).isZero();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(ColorUtils.toHexColor(table.rotate(i * 1_000, 2.5)))
+                    .isEqualTo(JazzIcon.rotateColor(colors.get(i * 1_000), 2.5));
+        }
+        table.rotate(0, 2.5);
+
+        assertThat(table.filledBuckets()).isEqualTo(3);
+    }
+
+    @Test
+    void test_getRotationTable_sameWobble_returningSameTable() {
+        var table = ColorPalettes.SECTION_1.getRotationTable(30);
+
+        assertThat(ColorPalettes.SECTION_1.getRotationTable(30)).isSameAs(table);
+        assertThat(ColorPalettes.SECTION_1.getRotationTable(31)).isNotSameAs(table);
+    }
+
+    private static HueRotationTable tableOf(List<String> colors, int wobble) {
+        int[] packed = colors.stream().mapToInt(ColorUtils::parseHexColor).toArray();
+        float[] hues = new float[packed.length];
+        float[] saturations = new float[packed.length];
+        float[] values = new float[packed.length];
+        for (int i = 0; i < packed.length; i++) {
+            hues[i] = ColorUtils.hue(packed[i]);
+            saturations[i] = ColorUtils.saturation(packed[i]);
+            values[i] = ColorUtils.value(packed[i]);
+        }
+        return new HueRotationTable(packed, hues, saturations, values, wobble);
+    }
+}
@@ -0,0 +1,189 @@
+package io.github.mikeychowy.jazzicon;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import org.hipparchus.random.Well1024a;
+import org.junit.jupiter.api.Test;
+
+class IconModelTest {
+    private static final String[] TEXTS = {
+        "Harry Potter", "Hermione Granger", "Ron Weasley", "Albus Dumbledore", "Severus Snape", "Minerva McGonagall",
+    };
+
+    @Test
+    void test_serialize_sameAsGenerateIcon() {
+        var jazzIcon = new JazzIcon();
+        SvgIconSerializer serializer = jazzIcon.getSvgSerializer();
+
+        for (int i = 0; i < 500; i++) {
+            String text = "user-" + i + "@example.com";
+            IconModel model = jazzIcon.generateModel(text);
+
+            assertThat(serializer.serialize(model)).isEqualTo(jazzIcon.generateIcon(text));
+            assertThat(serializer.serializeToBytes(model)).isEqualTo(jazzIcon.generateIconBytes(text));
+        }
+    }
+
+    @Test
+    void test_serialize_withOverlaysAndSharedGenerator_sameAsGenerateIcon() {
+        var jazzIcon = new JazzIcon()
+                .setRandomGenerator(new Well1024a())
+                .setShapeCount(7)
+                .setPaddingMode(JazzIcon.PaddingMode.DETERMINISTIC);
+        jazzIcon.addSvgClass("avatar");
+        jazzIcon.addSvgOverlay("<circle cx=\"50\" cy=\"50\" r=\"10\" fill=\"#fff\" />");
+        SvgIconSerializer serializer = jazzIcon.getSvgSerializer();
+
+        for (String text : new String[] {"Harry Potter", "Ron", "", "ü"}) {
+            StringWriter out = new StringWriter();
+            serializer.serialize(jazzIcon.generateModel(text), out);
+
+            assertThat(out.toString()).isEqualTo(jazzIcon.generateIcon(text));
+        }
+    }
+
+    @Test
+    void test_getSvgSerializer_laterConfigurationChange_keepsItsOwnHead() {
+        var jazzIcon = new JazzIcon();
+        SvgIconSerializer serializer = jazzIcon.getSvgSerializer();
+        IconModel model = jazzIcon.generateModel("Harry Potter");
+        String icon = jazzIcon.generateIcon("Harry Potter");
+
+        jazzIcon.addSvgClass("avatar");
+
+        assertThat(serializer.serialize(model)).isEqualTo(icon);
+        assertThat(jazzIcon.getSvgSerializer().serialize(model)).isEqualTo(jazzIcon.generateIcon("Harry Potter"));
+    }
+
+    @Test
+    void test_toBytes_roundTrip_equalCompactModel() {
+        var jazzIcon = new JazzIcon();
+
+        for (String text : TEXTS) {
+            IconModel model = jazzIcon.generateModel(text);
+            byte[] bytes = model.toBytes();
+            IconModel read = IconModel.fromBytes(bytes);
+
+            assertThat(read).isEqualTo(model).hasSameHashCodeAs(model).isNotSameAs(model);
+            assertThat(read.toBytes()).isEqualTo(bytes);
+            assertThat(bytes.length).isLessThanOrEqualTo(100);
+            assertThat(bytes.length).isLessThan(jazzIcon.generateIconBytes(text).length / 5);
+        }
+    }
+
+    @Test
+    void test_shape_everyConstant_roundTripsThroughCodeAndShapeType() {
+        for (IconModel.Shape shape : IconModel.Shape.values()) {
+            assertThat(IconModel.Shape.ofCode(shape.getCode())).isSameAs(shape);
+            assertThat(IconModel.Shape.of(shape.getShapeType())).isSameAs(shape);
+            assertThat(shape.getShapeType().name()).isEqualTo(shape.name());
+        }
+        for (JazzIcon.ShapeType shapeType : JazzIcon.ShapeType.values()) {
+            assertThat(IconModel.Shape.of(shapeType).getShapeType()).isSameAs(shapeType);
+        }
+        // the codes are the binary form, they must never change
+        assertThat(IconModel.Shape.RECTANGLE.getCode()).isEqualTo((byte) 0);
+        assertThat(IconModel.Shape.CIRCLE.getCode()).isEqualTo((byte) 1);
+        assertThat(IconModel.Shape.POLYGON.getCode()).isEqualTo((byte) 2);
+        assertThat(IconModel.Shape.ofCode((byte) 3)).isNull();
+        assertThat(IconModel.Shape.ofCode((byte) -1)).isNull();
+    }
+
+    @Test
+    void test_generateModel_getters_matchTheSvg() {
+        IconModel model = new JazzIcon().generateModel("Harry Potter");
+        String icon = new JazzIcon().generateIcon("Harry Potter");
+
+        assertThat(model.getShapeCount()).isEqualTo(JazzIcon.DEFAULT_SHAPE_COUNT);
+        assertThat(icon).contains("fill=\"" + ColorUtils.toHexColor(model.getBackgroundColor()) + "\"");
+        for (int i = 0; i < model.getShapeCount(); i++) {
+            int[] points = model.getPoints(i);
+            switch (model.getShapeType(i)) {
+                case CIRCLE -> assertThat(points).hasSize(3);
+                case POLYGON -> assertThat(points).hasSize(8);
+                default -> assertThat(points).isEmpty();
+            }
+            assertThat(Arrays.stream(points).allMatch(point -> point >= 0 && point <= 100)).isTrue();
+            assertThat(model.getTranslateX(i)).isBetween(-100.0, 100.0);
+            assertThat(model.getTranslateY(i)).isBetween(-100.0, 100.0);
+            assertThat(model.getRotation(i)).isBetween(0.0, 540.0);
+            assertThat(icon)
+                    .contains(String.format(
+                            Locale.US,
+                            "translate(%.3f %.3f) rotate(%.1f 50 50)\" fill=\"%s\"",
+                            model.getTranslateX(i),
+                            model.getTranslateY(i),
+                            model.getRotation(i),
+                            ColorUtils.toHexColor(model.getColor(i))));
+        }
+        assertThat(model.toString()).startsWith("IconModel{backgroundColor=#");
+    }
+
+    @Test
+    void test_getPoints_modifiedCopy_modelUnchanged() {
+        var jazzIcon = new JazzIcon();
+        IconModel model = jazzIcon.generateModel("Harry Potter");
+        byte[] before = model.toBytes();
+
+        for (int i = 0; i < model.getShapeCount(); i++) {
+            Arrays.fill(model.getPoints(i), -1);
+        }
+        jazzIcon.generateModel("Hermione Granger");
+
+        assertThat(model.toBytes()).isEqualTo(before);
+    }
+
+    @Test
+    void test_getShapeType_indexOutOfBounds_throw() {
+        IconModel model = new JazzIcon().generateModel("Harry Potter");
+
+        assertThat(catchThrowable(() -> model.getShapeType(-1))).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThat(catchThrowable(() -> model.getColor(model.getShapeCount())))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void test_fromBytes_invalidBytes_throwingIllegalArgumentException() {
+        byte[] bytes = new JazzIcon().generateModel("Harry Potter").toBytes();
+        byte[] otherVersion = bytes.clone();
+        otherVersion[0] = 2;
+        byte[] badType = bytes.clone();
+        badType[9] = 7;
+
+        assertThat(catchThrowable(() -> IconModel.fromBytes(null)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("bytes");
+        assertThat(catchThrowable(() -> IconModel.fromBytes(Arrays.copyOf(bytes, bytes.length - 1))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("truncated");
+        assertThat(catchThrowable(() -> IconModel.fromBytes(Arrays.copyOf(bytes, bytes.length + 1))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("trailing");
+        assertThat(catchThrowable(() -> IconModel.fromBytes(otherVersion)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("version");
+        assertThat(catchThrowable(() -> IconModel.fromBytes(badType)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("shape type");
+        assertThat(catchThrowable(() -> IconModel.fromBytes("garbage".getBytes(StandardCharsets.US_ASCII))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void test_serialize_nullArguments_throwingIllegalArgumentException() {
+        SvgIconSerializer serializer = new JazzIcon().getSvgSerializer();
+        IconModel model = new JazzIcon().generateModel("Harry Potter");
+
+        assertThat(catchThrowable(() -> serializer.serialize(null)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("model");
+        assertThat(catchThrowable(() -> serializer.serialize(model, null)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("out");
+    }
+}
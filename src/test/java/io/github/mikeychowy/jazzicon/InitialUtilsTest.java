@@ -102,4 +102,12 @@ class InitialUtilsTest {
                         + "dominant-baseline=\"middle\" "
                         + "class=\"fill-white font-bold text-[30px] font-sans\">H</text>");
     }
+
+    @Test
+    void test_textOpeningTag_withoutClassesOrStyles_builtOnce() {
+        assertThat(InitialUtils.textOpeningTag(List.of(), List.of()))
+                .isSameAs(InitialUtils.textOpeningTag(List.of(), List.of()))
+                .startsWith("<text x=");
+        assertThat(InitialUtils.textOpeningTag(List.of("show"), List.of())).startsWith("<text class=\"show\" x=");
+    }
 }
@@ -4,28 +4,61 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatNoException;
 import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.machinezoo.noexception.Exceptions;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.Pipe;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.text.MessageFormat;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
 import org.assertj.core.api.ThrowableAssert;
+import org.hipparchus.random.JDKRandomGenerator;
+import org.hipparchus.random.MersenneTwister;
 import org.hipparchus.random.RandomGenerator;
 import org.hipparchus.random.Well1024a;
 import org.hipparchus.random.Well512a;
+import org.jspecify.annotations.NonNull;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -177,6 +210,7 @@ class JazzIconTest {
     }
 
     @Test
+    @SuppressWarnings("deprecation")
     void test_nextColor_whenRotatedColorsListIndexIsBlank_returningWhiteHex() {
         var rotatedColors = new ArrayList<String>();
         rotatedColors.add("");
@@ -197,6 +231,7 @@ class JazzIconTest {
     }
 
     @Test
+    @SuppressWarnings("deprecation")
     void test_nextColor_whenRotatedColorsListIndexIsNotValidHexColor_returningWhiteHex() {
         var rotatedColors = new ArrayList<String>();
         rotatedColors.add("XXXXX");
@@ -322,6 +357,108 @@ class JazzIconTest {
         });
     }
 
+    @Test
+    void test_generateIconBytes_sameAsGenerateIconInUtf8() {
+        var jazzIcon = new JazzIcon();
+        jazzIcon.addSvgClass("avatar");
+        jazzIcon.addSvgStyle("content: 'é';");
+
+        var bytes = jazzIcon.generateIconBytes("Harry");
+        var withInterceptor = jazzIcon.generateIconBytes("Harry", writer -> {
+            try {
+                writer.append("<text>Ünïcödé 🎷</text>");
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        assertThat(new String(bytes, StandardCharsets.UTF_8)).isEqualTo(jazzIcon.generateIcon("Harry"));
+        assertThat(new String(withInterceptor, StandardCharsets.UTF_8))
+                .contains("content: 'é';")
+                .contains("<text>Ünïcödé 🎷</text></svg>");
+    }
+
+    @Test
+    void test_generateIconToStream_closesStreamAfterWriting() throws IOException {
+        var jazzIcon = new JazzIcon();
+        var outputStream = spy(new ByteArrayOutputStream());
+
+        jazzIcon.generateIconToStream("Harry", outputStream);
+
+        verify(outputStream).close();
+        assertThat(outputStream.toByteArray()).isEqualTo(jazzIcon.generateIconBytes("Harry"));
+    }
+
+    @Test
+    void test_generateIconTo_byteBuffer_sameAsGenerateIconBytes() {
+        var jazzIcon = new JazzIcon();
+        var target = ByteBuffer.allocate(8192);
+        target.put((byte) '!');
+
+        var written = jazzIcon.generateIconTo("Harry", target);
+        jazzIcon.addSvgClass("avatar");
+        var writtenWithClass = jazzIcon.generateIconTo("Harry", target);
+
+        var expected = jazzIcon.generateIconBytes("Harry");
+        assertThat(target.position()).isEqualTo(1 + written + writtenWithClass);
+        assertThat(writtenWithClass).isEqualTo(expected.length);
+        assertThat(Arrays.copyOfRange(target.array(), 1 + written, target.position()))
+                .isEqualTo(expected);
+        assertThat(new String(target.array(), 1 + written, writtenWithClass, StandardCharsets.UTF_8))
+                .startsWith("<svg class=\"avatar\" ");
+    }
+
+    @Test
+    void test_generateIconTo_byteBufferTooSmall_throwsJazzIconGenerationExceptionWithoutWriting() {
+        var jazzIcon = new JazzIcon();
+        var target = ByteBuffer.allocate(64);
+
+        var ex = catchThrowableOfType(
+                JazzIconGenerationException.class, () -> jazzIcon.generateIconTo("Harry", target));
+
+        assertThat(ex).hasCauseInstanceOf(BufferOverflowException.class).hasMessageContaining("64");
+        assertThat(target.position()).isZero();
+    }
+
+    @Test
+    void test_generateIconTo_channel_writesAllBytesAndKeepsChannelOpen() throws IOException {
+        var jazzIcon = new JazzIcon();
+        jazzIcon.addSvgStyle("padding: 0;");
+        var expected = jazzIcon.generateIconBytes("Harry");
+
+        var outputStream = new ByteArrayOutputStream();
+        var channel = Channels.newChannel(outputStream);
+        assertThat(jazzIcon.generateIconTo("Harry", channel)).isEqualTo(expected.length);
+        assertThat(channel.isOpen()).isTrue();
+        assertThat(outputStream.toByteArray()).isEqualTo(expected);
+
+        var file = Files.createTempFile("jazzicon", ".svg");
+        try (var fileChannel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            assertThat(jazzIcon.generateIconTo("Harry", fileChannel)).isEqualTo(expected.length);
+            assertThat(jazzIcon.generateIconTo("Harry", fileChannel)).isEqualTo(expected.length);
+        }
+        var fileBytes = Files.readAllBytes(file);
+        Files.delete(file);
+        assertThat(Arrays.copyOfRange(fileBytes, expected.length, fileBytes.length))
+                .isEqualTo(expected);
+    }
+
+    @Test
+    void test_generateIconTo_nonBlockingChannel_throwsIllegalArgumentException() throws IOException {
+        var jazzIcon = new JazzIcon();
+        var pipe = Pipe.open();
+        try (var sink = pipe.sink();
+                var source = pipe.source()) {
+            sink.configureBlocking(false);
+
+            var ex = catchThrowableOfType(
+                    IllegalArgumentException.class, () -> jazzIcon.generateIconTo("Harry", sink));
+
+            assertThat(ex).hasMessage("channel must be in blocking mode");
+            assertThat(source.isOpen()).isTrue();
+        }
+    }
+
     @Test
     void test_generateIconToWriter_whenIOExceptionOccurs_throwsJazzIconGenerationException() throws IOException {
         var jazzIcon = new JazzIcon();
@@ -397,6 +534,126 @@ class JazzIconTest {
         assertThat(harrySvg.get()).isEqualTo(harrySvg2.get());
     }
 
+    @Test
+    void test_generateIcon_concurrentRendersWithoutLock_sameBytesAsSharedGenerator() {
+        // a generator without known factory renders under the lock with the shared instance
+        var sharedGeneratorIcon = new JazzIcon().setRandomGenerator(new Well512a() {});
+        var jazzIcon = new JazzIcon();
+        var texts = List.of(
+                "0x8ba1f109551bD432803012645Ac136ddd64DBA72",
+                "Harry",
+                "john.doe@example.com",
+                "550e8400-e29b-41d4-a716-446655440000");
+        var expected = texts.stream().map(sharedGeneratorIcon::generateIcon).toList();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            var futures = new ArrayList<CompletableFuture<Boolean>>();
+            for (int i = 0; i < 400; i++) {
+                int idx = i % texts.size();
+                futures.add(CompletableFuture.supplyAsync(
+                        () -> jazzIcon.generateIcon(texts.get(idx)).equals(expected.get(idx)), executor));
+            }
+            assertThat(futures).allSatisfy(future -> assertThat(future.join()).isTrue());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(jazzIcon.lock.isLocked()).isFalse();
+    }
+
+    @Test
+    void test_generateIcon_baselineGoldenIcons_sameBytesWithAndWithoutLock() throws IOException {
+        // the palettes of 1.0.1 iterated in a per JVM order, the fixture records the order they were rendered with
+        JazzIcon lockFree = null;
+        JazzIcon locked = null;
+        int icons = 0;
+        for (String line : goldenLines("/golden/baseline-icons.tsv")) {
+            if (line.startsWith("#")) {
+                continue;
+            }
+            String[] columns = line.split("\t", -1);
+            if ("config".equals(columns[0])) {
+                lockFree = goldenJazzIcon(columns, false);
+                locked = goldenJazzIcon(columns, true);
+                assertThat(lockFree.getConfig().getRandomGeneratorFactory()).isNotNull();
+                assertThat(locked.getConfig().getRandomGeneratorFactory()).isNull();
+                continue;
+            }
+            assertThat(lockFree.generateIcon(columns[1])).as(columns[1]).isEqualTo(columns[2]);
+            assertThat(locked.generateIcon(columns[1])).as(columns[1]).isEqualTo(columns[2]);
+            icons++;
+        }
+        assertThat(icons).isEqualTo(27);
+    }
+
+    @Test
+    void test_generateIcon_splitMix64GoldenIcons_sameBytes() throws IOException {
+        JazzIcon jazzIcon = null;
+        int icons = 0;
+        for (String line : goldenLines("/golden/splitmix64-icons.tsv")) {
+            if (line.startsWith("#")) {
+                continue;
+            }
+            String[] columns = line.split("\t", -1);
+            if ("config".equals(columns[0])) {
+                jazzIcon = goldenJazzIcon(columns, false);
+                assertThat(jazzIcon.getRandomGenerator()).isOfAnyClassIn(SplitMix64Random.class);
+                continue;
+            }
+            assertThat(jazzIcon.generateIcon(columns[1])).as(columns[1]).isEqualTo(columns[2]);
+            icons++;
+        }
+        assertThat(icons).isEqualTo(14);
+    }
+
+    private List<String> goldenLines(String resource) throws IOException {
+        try (var in = getClass().getResourceAsStream(resource)) {
+            assertThat(in).isNotNull();
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+        }
+    }
+
+    private static JazzIcon goldenJazzIcon(String[] config, boolean sharedGenerator) {
+        RandomGenerator randomGenerator =
+                switch (config[3]) {
+                    case "Well512a" -> sharedGenerator ? new Well512a() {} : new Well512a();
+                    case "Well1024a" -> sharedGenerator ? new Well1024a() {} : new Well1024a();
+                    case "MersenneTwister" -> sharedGenerator ? new MersenneTwister() {} : new MersenneTwister();
+                    case "SplitMix64Random" -> new SplitMix64Random();
+                    default -> throw new IllegalArgumentException(config[3]);
+                };
+        var jazzIcon = new JazzIcon(
+                Integer.parseInt(config[1]),
+                Integer.parseInt(config[2]),
+                new ColorPalettes(List.of(config[4].split(","))),
+                JazzIcon.DEFAULT_ALLOWED_CHARACTERS,
+                randomGenerator);
+        if (!"-".equals(config[5])) {
+            jazzIcon.addSvgClasses(config[5].split(" "));
+        }
+        if (!"-".equals(config[6])) {
+            jazzIcon.addSvgStyles(config[6].split("\\|"));
+        }
+        return jazzIcon;
+    }
+
+    @Test
+    void test_setRandomGeneratorFactory_validationAndRendering() {
+        var ex = catchThrowableOfType(
+                IllegalArgumentException.class,
+                setupJazzIconThrowingCondition(jazzIcon -> jazzIcon.setRandomGeneratorFactory(null)));
+        assertThat(ex).isNotNull().hasMessageContaining("null");
+        ex = catchThrowableOfType(
+                IllegalArgumentException.class,
+                setupJazzIconThrowingCondition(jazzIcon -> jazzIcon.setRandomGeneratorFactory(() -> null)));
+        assertThat(ex).isNotNull().hasMessageContaining("null");
+
+        var jazzIcon = JazzIcon.builder().withRandomGeneratorFactory(Well1024a::new).build();
+        assertThat(jazzIcon.getRandomGenerator()).isOfAnyClassIn(Well1024a.class);
+        assertThat(jazzIcon.generateIcon("Harry"))
+                .isEqualTo(new JazzIcon().setRandomGenerator(new Well1024a()).generateIcon("Harry"));
+    }
+
     @Test
     void test_equals() {
         assertThat(new JazzIcon()).isEqualTo(new JazzIcon());
@@ -437,4 +694,817 @@ class JazzIconTest {
         var hc2 = jazzIcon.hashCode();
         assertThat(hc1).isEqualTo(hc2);
     }
+
+    @Test
+    void test_generateIcons_duplicates_renderedOnceInInputOrder() {
+        AtomicInteger renders = new AtomicInteger();
+        var jazzIcon = new JazzIcon().setRandomGeneratorFactory(countingRenders(renders));
+        List<String> texts =
+                List.of("Harry Potter", "Hermione Granger", " Harry Potter ", "Ronald Weasley", "Harry Potter");
+        renders.set(0);
+
+        List<IconResult> results = jazzIcon.generateIcons(texts);
+
+        assertThat(renders).hasValue(3);
+        assertThat(results).hasSize(5);
+        for (int i = 0; i < texts.size(); i++) {
+            assertThat(results.get(i).getIndex()).isEqualTo(i);
+            assertThat(results.get(i).getText()).isEqualTo(texts.get(i));
+            assertThat(results.get(i).isSuccess()).isTrue();
+            assertThat(results.get(i).getIcon()).isEqualTo(jazzIcon.generateIcon(texts.get(i)));
+        }
+    }
+
+    @Test
+    void test_generateIcons_oneFailure_onlyFailsThatInput() {
+        var jazzIcon = spy(new JazzIcon());
+        doThrow(new JazzIconGenerationException("boom")).when(jazzIcon).generateIconBytes("Voldemort");
+
+        List<IconResult> results = jazzIcon.generateIcons(List.of("Harry Potter", "Voldemort", "Neville"));
+
+        assertThat(results).extracting(IconResult::isSuccess).containsExactly(true, false, true);
+        assertThat(results.get(1).getFailure()).hasMessage("boom");
+        assertThat(catchThrowable(() -> results.get(1).getIcon()))
+                .isInstanceOf(JazzIconGenerationException.class)
+                .hasCauseInstanceOf(JazzIconGenerationException.class);
+        assertThat(results.get(2).getIconBytes()).isEqualTo(jazzIcon.generateIconBytes("Neville"));
+    }
+
+    @Test
+    void test_generateIcons_customExecutor_rendersOnIt() {
+        var jazzIcon = new JazzIcon();
+        AtomicInteger executions = new AtomicInteger();
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            Executor executor = command -> {
+                executions.incrementAndGet();
+                executorService.execute(command);
+            };
+
+            List<IconResult> results = jazzIcon.generateIcons(List.of("Luna", "Ginny", "Luna"), executor);
+
+            assertThat(executions).hasValue(2);
+            assertThat(results).allMatch(IconResult::isSuccess);
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    void test_generateIcons_rejectingExecutor_failsEveryInputWithoutThrowing() {
+        var jazzIcon = new JazzIcon();
+        Executor rejecting = command -> {
+            throw new RejectedExecutionException("saturated");
+        };
+
+        List<IconResult> results = jazzIcon.generateIcons(List.of("Luna", "Ginny"), rejecting);
+
+        assertThat(results).noneMatch(IconResult::isSuccess);
+        assertThat(results.get(0).getFailure()).isInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    void test_generateIconsTo_biggerThanWindow_deliversInOrder() {
+        var jazzIcon = new JazzIcon();
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < IconBatch.WINDOW * 3; i++) {
+            texts.add("text " + (i % (IconBatch.WINDOW * 2)));
+        }
+        List<IconResult> delivered = new ArrayList<>();
+
+        jazzIcon.generateIconsTo(texts, delivered::add);
+
+        assertThat(delivered)
+                .extracting(IconResult::getIndex)
+                .containsExactlyElementsOf(IntStream.range(0, texts.size()).boxed().toList());
+        assertThat(delivered.get(IconBatch.WINDOW * 2).getIcon()).isEqualTo(delivered.get(0).getIcon());
+        assertThat(delivered.get(texts.size() - 1).getIcon())
+                .isEqualTo(jazzIcon.generateIcon(texts.get(texts.size() - 1)));
+    }
+
+    @Test
+    void test_generateIconsTo_firstRenderStuck_readsAheadPastTheRunningWindowButNoFurther() throws Exception {
+        int size = IconBatch.LOOKAHEAD * 3;
+        AtomicInteger read = new AtomicInteger();
+        Iterable<String> texts = () -> new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return read.get() < size;
+            }
+
+            @Override
+            public String next() {
+                return "text " + read.getAndIncrement();
+            }
+        };
+        CountDownLatch release = new CountDownLatch(1);
+        Function<String, byte[]> render = text -> {
+            if ("text 0".equals(text)) {
+                Exceptions.sneak().run(release::await);
+            }
+            return text.getBytes(StandardCharsets.UTF_8);
+        };
+        List<IconResult> delivered = new CopyOnWriteArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            CompletableFuture<Void> batch =
+                    CompletableFuture.runAsync(() -> IconBatch.generate(texts, executor, render, delivered::add));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (read.get() < IconBatch.LOOKAHEAD && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            Thread.sleep(50);
+
+            // the finished renders behind the stuck one don't hold the window
+            assertThat(read).hasValue(IconBatch.LOOKAHEAD);
+            assertThat(delivered).isEmpty();
+
+            release.countDown();
+            batch.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(read).hasValue(size);
+        assertThat(delivered)
+                .extracting(IconResult::getIndex)
+                .containsExactlyElementsOf(IntStream.range(0, size).boxed().toList());
+    }
+
+    @Test
+    void test_generateIconAsync_text_completesWithSameIcon() {
+        var jazzIcon = new JazzIcon();
+
+        String icon = jazzIcon.generateIconAsync("Harry Potter").join();
+        byte[] iconBytes = jazzIcon.generateIconBytesAsync("Harry Potter").join();
+
+        assertThat(icon).isEqualTo(jazzIcon.generateIcon("Harry Potter"));
+        assertThat(iconBytes).isEqualTo(jazzIcon.generateIconBytes("Harry Potter"));
+    }
+
+    @Test
+    void test_generateIconAsync_rejectingExecutor_failsFuture() {
+        var jazzIcon = new JazzIcon();
+        Executor rejecting = command -> {
+            throw new RejectedExecutionException("saturated");
+        };
+
+        CompletableFuture<String> future = jazzIcon.generateIconAsync("Harry Potter", rejecting);
+
+        assertThat(future).isCompletedExceptionally();
+        assertThat(catchThrowable(future::join)).hasCauseInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    void test_generateIconAsync_virtualThreads_renderConcurrentlyWithoutPinning() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "virtual threads need JDK 21");
+        int parties = 32;
+        CyclicBarrier barrier = new CyclicBarrier(parties);
+        AtomicBoolean submitted = new AtomicBoolean();
+        // every render waits in its own random generator factory until all of them got there, so this only completes
+        // if the renders run at the same time instead of taking turns, and a render parking there while holding a
+        // monitor pins its carrier
+        var jazzIcon = new JazzIcon().setRandomGeneratorFactory(() -> {
+            if (submitted.get()) {
+                Exceptions.wrap(e -> new IllegalStateException("renders were serialized", e))
+                        .run(() -> barrier.await(30, TimeUnit.SECONDS));
+            }
+            return new Well512a();
+        });
+        // looked up reflectively, the tests still compile for Java 17
+        ExecutorService executor = (ExecutorService) Exceptions.sneak()
+                .get(() -> Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null));
+        Path dump = Files.createTempFile("pinning", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO);
+            recording.start();
+            submitted.set(true);
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+            for (int i = 0; i < parties; i++) {
+                futures.add(jazzIcon.generateIconAsync("concurrent text " + i, executor));
+            }
+
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(60, TimeUnit.SECONDS);
+            recording.stop();
+            recording.dump(dump);
+
+            assertThat(futures).allSatisfy(future -> assertThat(future.join()).startsWith("<svg"));
+            assertThat(RecordingFile.readAllEvents(dump))
+                    .filteredOn(event -> event.getEventType().getName().equals("jdk.VirtualThreadPinned"))
+                    .isEmpty();
+        } finally {
+            executor.shutdown();
+            Files.deleteIfExists(dump);
+        }
+    }
+
+    @Test
+    void test_publishIcons_slowSubscriber_rendersOnlyWhatIsDemanded() throws Exception {
+        AtomicInteger renders = new AtomicInteger();
+        var jazzIcon = new JazzIcon().setRandomGeneratorFactory(countingRenders(renders));
+        renders.set(0);
+        List<String> texts = IntStream.range(0, 10).mapToObj(i -> "published text " + i).toList();
+        List<IconResult> received = new CopyOnWriteArrayList<>();
+        CountDownLatch firstThree = new CountDownLatch(3);
+        AtomicReference<Flow.Subscription> subscription = new AtomicReference<>();
+        CompletableFuture<Void> completed = new CompletableFuture<>();
+
+        jazzIcon.publishIcons(texts).subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                subscription.set(s);
+            }
+
+            @Override
+            public void onNext(IconResult item) {
+                received.add(item);
+                firstThree.countDown();
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                completed.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                completed.complete(null);
+            }
+        });
+
+        Thread.sleep(50);
+        assertThat(renders).hasValue(0);
+        subscription.get().request(3);
+        assertThat(firstThree.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(received).hasSize(3);
+        assertThat(renders).hasValue(3);
+        subscription.get().request(Long.MAX_VALUE);
+        completed.get(10, TimeUnit.SECONDS);
+
+        assertThat(received)
+                .extracting(IconResult::getIndex)
+                .containsExactlyElementsOf(IntStream.range(0, 10).boxed().toList());
+        assertThat(received.get(7).getIcon()).isEqualTo(jazzIcon.generateIcon("published text 7"));
+    }
+
+    @Test
+    void test_publishIcons_invalidRequest_signalsError() throws Exception {
+        var jazzIcon = new JazzIcon();
+        CompletableFuture<Void> completed = new CompletableFuture<>();
+
+        jazzIcon.publishIcons(List.of("Harry Potter")).subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                s.request(0);
+            }
+
+            @Override
+            public void onNext(IconResult item) {
+                // never demanded
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                completed.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                completed.complete(null);
+            }
+        });
+
+        assertThat(catchThrowable(() -> completed.get(10, TimeUnit.SECONDS)))
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void test_setMetrics_validationAndDefault() {
+        var jazzIcon = new JazzIcon();
+        assertThat(jazzIcon.getMetrics()).isSameAs(JazzIconMetrics.noop());
+        assertThat(jazzIcon.getMetrics().isEnabled()).isFalse();
+
+        var ex = catchThrowable(setupJazzIconThrowingCondition(j -> j.setMetrics(null)));
+        assertThat(ex).isNotNull().isInstanceOf(IllegalArgumentException.class).hasMessageContaining("null");
+    }
+
+    @Test
+    void test_setMetrics_sameVersionAndListenersNotNotified() {
+        List<ConfigurationChange> changes = new ArrayList<>();
+        var jazzIcon = new JazzIcon().addConfigurationListener(changes::add);
+        long version = jazzIcon.getConfigurationVersion();
+        long fingerprint = jazzIcon.getFingerprint();
+        var metrics = new HistogramJazzIconMetrics();
+
+        jazzIcon.setMetrics(metrics);
+        assertThat(jazzIcon.getMetrics()).isSameAs(metrics);
+        jazzIcon.reconfigure(icon -> icon.setMetrics(JazzIconMetrics.noop()));
+        assertThat(jazzIcon.getMetrics()).isSameAs(JazzIconMetrics.noop());
+        assertThat(jazzIcon.getConfigurationVersion()).isEqualTo(version);
+        assertThat(jazzIcon.getFingerprint()).isEqualTo(fingerprint);
+        assertThat(changes).isEmpty();
+
+        // along with a change of the output, the metrics are published with the new version
+        jazzIcon.reconfigure(icon -> icon.setMetrics(metrics).setWobble(45));
+        assertThat(jazzIcon.getMetrics()).isSameAs(metrics);
+        assertThat(jazzIcon.getConfigurationVersion()).isEqualTo(version + 1);
+        assertThat(changes).hasSize(1);
+
+        var ex = catchThrowable(() -> jazzIcon.reconfigure(icon -> {
+            icon.setMetrics(JazzIconMetrics.noop());
+            icon.setShapeCount(100);
+        }));
+        assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+        assertThat(jazzIcon.getMetrics()).isSameAs(metrics);
+    }
+
+    @Test
+    void test_generateIcon_withMetrics_recordsEveryPhaseOnceAndSameIcon() {
+        var metrics = new HistogramJazzIconMetrics();
+        var plain = new JazzIcon();
+        var measured = JazzIcon.builder().withMetrics(metrics).build();
+        Consumer<Writer> interceptor = Exceptions.sneak().consumer(out -> out.append("<g />"));
+
+        String icon = measured.generateIcon("Harry Potter", interceptor);
+
+        assertThat(icon).isEqualTo(plain.generateIcon("Harry Potter", interceptor));
+        assertThat(measured.getConfig().getFingerprint()).isEqualTo(plain.getConfig().getFingerprint());
+        for (JazzIconMetrics.Phase phase : JazzIconMetrics.Phase.values()) {
+            assertThat(metrics.getPhase(phase).getCount()).as(phase.name()).isEqualTo(1);
+        }
+        assertThat(metrics.getBytesWritten().getSum()).isEqualTo(icon.getBytes(StandardCharsets.UTF_8).length);
+        // every generator known to reseed renders without the lock
+        assertThat(metrics.getLockWaits().getCount()).isZero();
+    }
+
+    @Test
+    void test_generateIconToWriter_withMetrics_recordsOutputWithoutBytes() {
+        var metrics = new HistogramJazzIconMetrics();
+        var jazzIcon = JazzIcon.builder().withMetrics(metrics).build();
+
+        jazzIcon.generateIconToWriter("Harry Potter", new StringWriter(), null);
+
+        assertThat(metrics.getPhase(JazzIconMetrics.Phase.SHAPES).getCount()).isEqualTo(1);
+        assertThat(metrics.getPhase(JazzIconMetrics.Phase.INTERCEPTOR).getCount()).isZero();
+        assertThat(metrics.getPhase(JazzIconMetrics.Phase.OUTPUT).getCount()).isEqualTo(1);
+        assertThat(metrics.getBytesWritten().getCount()).isZero();
+    }
+
+    @Test
+    void test_generateIconTo_withMetrics_recordsBytesOfEveryOutput() throws IOException {
+        var metrics = new HistogramJazzIconMetrics();
+        var jazzIcon = JazzIcon.builder().withMetrics(metrics).build();
+        int size = jazzIcon.generateIconBytes("Harry Potter").length;
+
+        jazzIcon.generateIconTo("Harry Potter", ByteBuffer.allocate(size));
+        jazzIcon.generateIconTo("Harry Potter", Channels.newChannel(new ByteArrayOutputStream()));
+        jazzIcon.generateIconToStream("Harry Potter", new ByteArrayOutputStream());
+
+        assertThat(metrics.getPhase(JazzIconMetrics.Phase.OUTPUT).getCount()).isEqualTo(4);
+        assertThat(metrics.getBytesWritten().getCount()).isEqualTo(4);
+        assertThat(metrics.getBytesWritten().getSum()).isEqualTo(4L * size);
+    }
+
+    @Test
+    void test_generateIcon_sharedGeneratorWithMetrics_recordsLockWait() {
+        var metrics = new HistogramJazzIconMetrics();
+        var jazzIcon = JazzIcon.builder()
+                .withRandomGenerator(new JDKRandomGenerator())
+                .withMetrics(metrics)
+                .build();
+
+        jazzIcon.generateIcon("Harry Potter");
+        jazzIcon.generateIcon("Hermione Granger");
+
+        assertThat(metrics.getLockWaits().getCount()).isEqualTo(2);
+        assertThat(metrics.getPhase(JazzIconMetrics.Phase.SEED).getCount()).isEqualTo(2);
+    }
+
+    @Test
+    void test_setSeedStrategy_validationAndDefault() {
+        var jazzIcon = new JazzIcon();
+        assertThat(jazzIcon.getSeedStrategy()).isSameAs(SeedStrategy.legacy());
+
+        var ex = catchThrowable(setupJazzIconThrowingCondition(j -> j.setSeedStrategy(null)));
+        assertThat(ex).isNotNull().isInstanceOf(IllegalArgumentException.class).hasMessageContaining("null");
+    }
+
+    @Test
+    void test_generateIcon_hash64SeedStrategy_deterministicOtherIconAndFingerprint() {
+        var legacy = new JazzIcon();
+        var hashed = JazzIcon.builder().withSeedStrategy(SeedStrategy.hash64()).build();
+
+        String icon = hashed.generateIcon("harry.potter@example.com");
+
+        assertThat(icon).isEqualTo(hashed.generateIcon("harry.potter@example.com"));
+        assertThat(icon).isNotEqualTo(legacy.generateIcon("harry.potter@example.com"));
+        assertThat(hashed.getConfig().getFingerprint()).isNotEqualTo(legacy.getConfig().getFingerprint());
+        assertThat(hashed.setSeedStrategy(SeedStrategy.legacy()).getConfig().getFingerprint())
+                .isEqualTo(legacy.getConfig().getFingerprint());
+    }
+
+    @Test
+    void test_generateIcon_customSeedStrategy_usedForEveryText() {
+        var constant = JazzIcon.builder().withSeedStrategy(text -> 42L).build();
+
+        assertThat(constant.generateIcon("Harry Potter")).isEqualTo(constant.generateIcon("Hermione Granger"));
+    }
+
+    @Test
+    void test_equals_seedStrategiesOfSameClass_comparedByIdOrInstance() {
+        SeedStrategy salted = new SeedStrategy() {
+            @Override
+            public String id() {
+                return "salted:1";
+            }
+
+            @Override
+            public long seedOf(CharSequence safeText) {
+                return safeText.length() + 1L;
+            }
+        };
+        SeedStrategy sameId = new SeedStrategy() {
+            @Override
+            public String id() {
+                return "salted:1";
+            }
+
+            @Override
+            public long seedOf(CharSequence safeText) {
+                return safeText.length() + 1L;
+            }
+        };
+        var withSalted = JazzIcon.builder().withSeedStrategy(salted).build();
+        assertThat(JazzIcon.builder().withSeedStrategy(sameId).build())
+                .isEqualTo(withSalted)
+                .hasSameHashCodeAs(withSalted);
+
+        List<SeedStrategy> withoutId = new ArrayList<>();
+        for (long salt = 1; salt <= 2; salt++) {
+            long capturedSalt = salt;
+            withoutId.add(text -> text.length() + capturedSalt);
+        }
+        var first = JazzIcon.builder().withSeedStrategy(withoutId.get(0)).build();
+        var second = JazzIcon.builder().withSeedStrategy(withoutId.get(1)).build();
+        assertThat(withoutId.get(0).getClass()).isEqualTo(withoutId.get(1).getClass());
+        assertThat(first).isNotEqualTo(second);
+        assertThat(first.getFingerprint()).isNotEqualTo(second.getFingerprint());
+        assertThat(JazzIcon.builder().withSeedStrategy(withoutId.get(0)).build())
+                .isEqualTo(first)
+                .hasSameHashCodeAs(first);
+    }
+
+    @Test
+    void test_generateIcon_splitMix64_deterministicWithoutLock() {
+        var metrics = new HistogramJazzIconMetrics();
+        var counterBased = JazzIcon.builder()
+                .withRandomGenerator(new SplitMix64Random())
+                .withMetrics(metrics)
+                .build();
+        var other = JazzIcon.builder().withRandomGenerator(new SplitMix64Random()).build();
+
+        String icon = counterBased.generateIcon("0x4e1a9cb7f2d3");
+
+        assertThat(icon)
+                .isEqualTo(counterBased.generateIcon("0x4e1a9cb7f2d3"))
+                .isEqualTo(other.generateIcon("0x4e1a9cb7f2d3"))
+                .isNotEqualTo(new JazzIcon().generateIcon("0x4e1a9cb7f2d3"));
+        assertThat(metrics.getLockWaits().getCount()).isZero();
+        assertThat(counterBased.getConfig().getFingerprint())
+                .isNotEqualTo(new JazzIcon().getConfig().getFingerprint());
+    }
+
+    @Test
+    void test_setPaddingMode_validationAndDefault() {
+        var jazzIcon = new JazzIcon();
+        assertThat(jazzIcon.getPaddingMode()).isEqualTo(JazzIcon.PaddingMode.RANDOM);
+
+        var ex = catchThrowable(setupJazzIconThrowingCondition(j -> j.setPaddingMode(null)));
+        assertThat(ex).isNotNull().isInstanceOf(IllegalArgumentException.class).hasMessageContaining("null");
+    }
+
+    @Test
+    void test_generateIcon_deterministicPadding_shortTextsStableAndDistinct() {
+        var first = JazzIcon.builder().withPaddingMode(JazzIcon.PaddingMode.DETERMINISTIC).build();
+
+        String al = first.generateIcon("Al");
+        first.generateIcon("Harry Potter");
+
+        assertThat(al).isEqualTo(first.generateIcon(" Al ")).isNotEqualTo(first.generateIcon("Bo"));
+        assertThat(first.generateIcon("")).isEqualTo(first.generateIcon("   "));
+        assertThat(first.generateIcon("Harry Potter")).isEqualTo(new JazzIcon().generateIcon("Harry Potter"));
+        assertThat(first.getConfig().getFingerprint()).isNotEqualTo(new JazzIcon().getConfig().getFingerprint());
+        assertThat(first.setPaddingMode(JazzIcon.PaddingMode.RANDOM).getConfig().getFingerprint())
+                .isEqualTo(new JazzIcon().getConfig().getFingerprint());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void test_generateIcon_largePalette_sameAsRotatingAndRemovingFromWholePalette() throws IOException {
+        var palette = new ColorPalettes(IntStream.range(0, 300)
+                .mapToObj(i -> String.format("#%06X", i * 55_931))
+                .toList());
+        var jazzIcon = new JazzIcon().setBaseColors(palette).setShapeCount(10);
+        var reference = new JazzIcon().setBaseColors(palette).setShapeCount(10);
+        for (String text : List.of("Harry Potter", "0x4e1a9cb7f2d3", "hermione@example.com")) {
+            reference.randomGenerator.setSeed(SeedStrategy.legacy().seedOf(text));
+            double hueShift = (30 * reference.randomGenerator.nextDouble()) - (jazzIcon.getWobble() / 2.0F);
+            List<String> rotatedColors = palette.getColors().stream()
+                    .map(color -> JazzIcon.rotateColor(color, hueShift))
+                    .toList();
+            var body = new StringWriter();
+            reference.createShapes(rotatedColors, body);
+
+            assertThat(jazzIcon.generateIcon(text))
+                    .isEqualTo(jazzIcon.getConfig().getSvgHeader() + body + JazzIconRenderer.SVG_TAIL);
+        }
+    }
+
+    @Test
+    void test_generateIcon_drawingMethodOverriddenButDelegating_sameIconsAsNotOverridden() {
+        var overriding = new JazzIcon() {
+            @Override
+            @SuppressWarnings("deprecation")
+            protected void nextColor(@NonNull List<String> rotatedColors, @NonNull Writer out) throws IOException {
+                super.nextColor(rotatedColors, out);
+            }
+        };
+        var plain = new JazzIcon();
+
+        for (String text : List.of("Harry Potter", "0x4e1a9cb7f2d3", "hermione@example.com")) {
+            assertThat(overriding.generateIcon(text)).isEqualTo(plain.generateIcon(text));
+            assertThat(overriding.etagFor(text)).isEqualTo(plain.etagFor(text));
+        }
+        overriding.setRandomGenerator(new SplitMix64Random()).setPaddingMode(JazzIcon.PaddingMode.DETERMINISTIC);
+        plain.setRandomGenerator(new SplitMix64Random()).setPaddingMode(JazzIcon.PaddingMode.DETERMINISTIC);
+        for (String text : List.of("Harry Potter", "Al", "")) {
+            assertThat(overriding.generateIcon(text)).isEqualTo(plain.generateIcon(text));
+            assertThat(overriding.etagFor(text)).isEqualTo(plain.etagFor(text));
+        }
+    }
+
+    @Test
+    void test_generateIcon_drawingMethodOverridden_stillCalledByTheRenders() {
+        var jazzIcon = new JazzIcon() {
+            @Override
+            @SuppressWarnings("deprecation")
+            protected void nextColor(@NonNull List<String> rotatedColors, @NonNull Writer out) throws IOException {
+                assertThat(lock.isHeldByCurrentThread()).isTrue();
+                rotatedColors.remove(0);
+                out.append("#123456");
+            }
+        };
+
+        String icon = jazzIcon.generateIcon("Harry Potter");
+        String withInterceptor = jazzIcon.generateIcon("Harry Potter", out -> {});
+        String async = jazzIcon.generateIconAsync("Harry Potter").join();
+
+        assertThat(icon)
+                .isEqualTo(withInterceptor)
+                .isEqualTo(async);
+        assertThat(Pattern.compile("fill=\"#123456\"").matcher(icon).results().count())
+                .isEqualTo(jazzIcon.getShapeCount() + 1);
+        assertThat(catchThrowable(() -> jazzIcon.generateModel("Harry Potter")))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void test_pick_indexAmongRemaining_skipsPickedAndKeepsThemSorted() {
+        int[] picked = new int[4];
+
+        assertThat(JazzIconRenderer.pick(2, picked, 0)).isEqualTo(2);
+        assertThat(JazzIconRenderer.pick(2, picked, 1)).isEqualTo(3);
+        assertThat(JazzIconRenderer.pick(0, picked, 2)).isEqualTo(0);
+        assertThat(JazzIconRenderer.pick(1, picked, 3)).isEqualTo(4);
+        assertThat(picked).containsExactly(0, 2, 3, 4);
+    }
+
+    @Test
+    void test_addSvgOverlay_appendedAfterShapesBeforeInterceptorAndCacheable() {
+        var jazzIcon = new JazzIcon();
+        String plain = jazzIcon.generateIcon("Harry Potter");
+        long plainFingerprint = jazzIcon.getConfig().getFingerprint();
+
+        String circle = "<circle cx=\"50\" cy=\"50\" r=\"10\" />";
+        jazzIcon.addSvgOverlay(circle);
+        jazzIcon.addSvgOverlays("<g id=\"badge\" />", " ");
+        var out = new StringWriter();
+        jazzIcon.generateIconToWriter(
+                "Harry Potter", out, Exceptions.sneak().consumer(w -> w.append("<text>HP</text>")));
+
+        assertThat(jazzIcon.getSvgOverlays()).containsExactly(circle, "<g id=\"badge\" />");
+        assertThat(out.toString())
+                .isEqualTo(plain.replace("</svg>", circle + "<g id=\"badge\" /><text>HP</text></svg>"));
+        assertThat(jazzIcon.getConfig().getFingerprint()).isNotEqualTo(plainFingerprint);
+
+        jazzIcon.removeSvgOverlay("<g id=\"badge\" />");
+        assertThat(jazzIcon.getSvgOverlays()).hasSize(1);
+        jazzIcon.clearSvgOverlays();
+        assertThat(jazzIcon.generateIcon("Harry Potter")).isEqualTo(plain);
+        assertThat(jazzIcon.getConfig().getFingerprint()).isEqualTo(plainFingerprint);
+        var ex = catchThrowable(setupJazzIconThrowingCondition(j -> j.addSvgOverlay(" ")));
+        assertThat(ex).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("blanks");
+    }
+
+    @Test
+    void test_refreshConfig_svgClassesUnchanged_reusesCompiledHeader() {
+        var jazzIcon = new JazzIcon();
+        jazzIcon.addSvgClasses("rounded-full", "size-24");
+        var before = jazzIcon.getConfig();
+
+        jazzIcon.setWobble(45);
+        assertThat(jazzIcon.getConfig().getSvgHeader()).isSameAs(before.getSvgHeader());
+        assertThat(jazzIcon.getConfig().getSvgHeaderBytes()).isSameAs(before.getSvgHeaderBytes());
+
+        jazzIcon.addSvgStyle("padding: 0;");
+        assertThat(jazzIcon.getConfig().getSvgHeader())
+                .isNotSameAs(before.getSvgHeader())
+                .contains("style=\"padding: 0;\"");
+    }
+
+    @Test
+    void test_equals_everythingRenderedCompared() {
+        var colors = List.of("#01888C", "#FC7500", "#034F5D", "#F73F01", "#FC1960", "#C7144C");
+        var jazzIcon = new JazzIcon().setBaseColors(new ColorPalettes(colors));
+        var thatJazzIcon = new JazzIcon().setBaseColors(new ColorPalettes(List.copyOf(colors)));
+
+        assertThat(jazzIcon).isEqualTo(thatJazzIcon).hasSameHashCodeAs(thatJazzIcon);
+        thatJazzIcon.addSvgClass("round");
+        assertThat(jazzIcon).isNotEqualTo(thatJazzIcon);
+        jazzIcon.addSvgClass("round");
+        assertThat(jazzIcon).isEqualTo(thatJazzIcon);
+        thatJazzIcon.setAllowedCharactersForPaddingText("abc");
+        assertThat(jazzIcon).isNotEqualTo(thatJazzIcon);
+        jazzIcon.setAllowedCharactersForPaddingText("abc").setMetrics(new HistogramJazzIconMetrics());
+        assertThat(jazzIcon).isEqualTo(thatJazzIcon).hasSameHashCodeAs(thatJazzIcon);
+    }
+
+    @Test
+    void test_getFingerprint_defaultConfiguration_stableAcrossRuns() {
+        // pinned, a change of the default fingerprint invalidates every shared cache and entity tag
+        assertThat(new JazzIcon().getFingerprint()).isEqualTo(0x0da64283dd6b1c63L);
+    }
+
+    @Test
+    void test_etagFor_matchesWhatIsRendered() {
+        var jazzIcon = new JazzIcon();
+        String etag = jazzIcon.etagFor("Harry Potter");
+
+        assertThat(etag).isEqualTo("\"0da64283dd6b1c63ffffffffa8d8076c\"");
+        assertThat(jazzIcon.etagFor(" Harry Potter ")).isEqualTo(etag);
+        assertThat(jazzIcon.etagFor("Ronald Weasley")).isNotEqualTo(etag);
+        // the same seed renders the same icon, whatever the text
+        assertThat(jazzIcon.etagFor("0xAbCdEf12")).isEqualTo(jazzIcon.etagFor("0xabcdef12"));
+        assertThat(jazzIcon.generateIcon("0xAbCdEf12")).isEqualTo(jazzIcon.generateIcon("0xabcdef12"));
+
+        jazzIcon.setShapeCount(3);
+        assertThat(jazzIcon.etagFor("Harry Potter")).isNotEqualTo(etag);
+        jazzIcon.setShapeCount(JazzIcon.DEFAULT_SHAPE_COUNT).addSvgOverlay("<circle cx=\"50\" cy=\"50\" r=\"5\"/>");
+        assertThat(jazzIcon.etagFor("Harry Potter")).isNotEqualTo(etag);
+        jazzIcon.clearSvgOverlays();
+        assertThat(jazzIcon.etagFor("Harry Potter")).isEqualTo(etag);
+        assertThat(new CachingJazzIcon(jazzIcon, 10).etagFor("Harry Potter")).isEqualTo(etag);
+    }
+
+    @Test
+    void test_etagFor_shortText_onlyWhenPaddedDeterministically() {
+        var jazzIcon = new JazzIcon();
+
+        assertThat(jazzIcon.etagFor("Al")).isNull();
+        assertThat(jazzIcon.etagFor(null)).isNull();
+
+        jazzIcon.setPaddingMode(JazzIcon.PaddingMode.DETERMINISTIC);
+        String etag = jazzIcon.etagFor("Al");
+        assertThat(etag).isNotNull().isEqualTo(jazzIcon.etagFor(" Al ")).isNotEqualTo(jazzIcon.etagFor("Bo"));
+        // padded the same way the render pads them
+        assertThat(JazzIconRenderer.seedOf(jazzIcon.getConfig(), "Al"))
+                .isNotEqualTo(JazzIconRenderer.seedOf(jazzIcon.getConfig(), "Bo"));
+    }
+
+    @Test
+    void test_reconfigure_severalChanges_publishedAsOneVersion() {
+        List<ConfigurationChange> changes = new ArrayList<>();
+        var jazzIcon = JazzIcon.builder().withConfigurationListener(changes::add).build();
+        long version = jazzIcon.getConfigurationVersion();
+        long fingerprint = jazzIcon.getFingerprint();
+
+        jazzIcon.reconfigure(icon -> {
+            icon.setBaseColors(ColorPalettes.TAILWIND).setShapeCount(6);
+            icon.addSvgClass("tenant");
+            icon.reconfigure(nested -> nested.setWobble(45));
+        });
+
+        assertThat(jazzIcon.getConfigurationVersion()).isEqualTo(version + 1);
+        assertThat(changes).hasSize(1);
+        ConfigurationChange change = changes.get(0);
+        assertThat(change.getPreviousVersion()).isEqualTo(version);
+        assertThat(change.getVersion()).isEqualTo(version + 1);
+        assertThat(change.getPreviousFingerprint()).isEqualTo(fingerprint);
+        assertThat(change.getFingerprint()).isEqualTo(jazzIcon.getFingerprint());
+        assertThat(change.isRenderingChanged()).isTrue();
+        assertThat(jazzIcon.getWobble()).isEqualTo(45);
+        assertThat(jazzIcon.getSvgClasses()).containsExactly("tenant");
+
+        jazzIcon.reconfigure(icon -> {});
+        assertThat(jazzIcon.getConfigurationVersion()).isEqualTo(version + 1);
+    }
+
+    @Test
+    void test_reconfigure_failingChange_rolledBackAndNothingPublished() {
+        List<ConfigurationChange> changes = new ArrayList<>();
+        var jazzIcon = new JazzIcon().addConfigurationListener(changes::add);
+        String icon = jazzIcon.generateIcon("Harry Potter");
+        long version = jazzIcon.getConfigurationVersion();
+
+        var ex = catchThrowable(() -> jazzIcon.reconfigure(generator -> {
+            generator.setWobble(45).addSvgStyle("opacity: .5");
+            generator.setShapeCount(100);
+        }));
+
+        assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+        assertThat(changes).isEmpty();
+        assertThat(jazzIcon.getConfigurationVersion()).isEqualTo(version);
+        assertThat(jazzIcon.getWobble()).isEqualTo(JazzIcon.DEFAULT_WOBBLE);
+        assertThat(jazzIcon.getSvgStyles()).isEmpty();
+        assertThat(jazzIcon.generateIcon("Harry Potter")).isEqualTo(icon);
+        // the fields were put back, the next change starts from the published configuration
+        jazzIcon.setShapeCount(3);
+        assertThat(jazzIcon.getWobble()).isEqualTo(JazzIcon.DEFAULT_WOBBLE);
+        assertThat(jazzIcon.getSvgStyles()).isEmpty();
+        assertThat(catchThrowable(() -> jazzIcon.reconfigure(null))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void test_reconfigure_concurrentRenders_seeEitherConfiguration() throws Exception {
+        var jazzIcon = new JazzIcon();
+        String before = jazzIcon.generateIcon("Harry Potter");
+        String after = new JazzIcon()
+                .setBaseColors(ColorPalettes.TAILWIND)
+                .setShapeCount(6)
+                .setWobble(45)
+                .generateIcon("Harry Potter");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture<Void> renders = CompletableFuture.runAsync(
+                    () -> {
+                        for (int i = 0; i < 2_000; i++) {
+                            assertThat(jazzIcon.generateIcon("Harry Potter")).isIn(before, after);
+                        }
+                    },
+                    executor);
+            for (int i = 0; i < 200; i++) {
+                jazzIcon.reconfigure(icon -> icon.setBaseColors(ColorPalettes.TAILWIND)
+                        .setShapeCount(6)
+                        .setWobble(45));
+                jazzIcon.reconfigure(icon -> icon.setShapeCount(JazzIcon.DEFAULT_SHAPE_COUNT)
+                        .setBaseColors(JazzIcon.DEFAULT_BASE_COLORS)
+                        .setWobble(JazzIcon.DEFAULT_WOBBLE));
+            }
+            renders.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void test_configurationListener_failing_othersStillNotified() {
+        List<ConfigurationChange> changes = new ArrayList<>();
+        ConfigurationListener failing = change -> {
+            throw new IllegalStateException("boom");
+        };
+        ConfigurationListener recording = changes::add;
+        var jazzIcon = new JazzIcon().addConfigurationListener(failing).addConfigurationListener(recording);
+
+        jazzIcon.setPaddingMode(JazzIcon.PaddingMode.RANDOM);
+        assertThat(changes).hasSize(1);
+        assertThat(changes.get(0).isRenderingChanged()).isFalse();
+
+        jazzIcon.removeConfigurationListener(failing).removeConfigurationListener(recording);
+        jazzIcon.setWobble(45);
+        assertThat(changes).hasSize(1);
+        assertThat(catchThrowable(() -> jazzIcon.addConfigurationListener(null)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("null");
+    }
+
+    /**
+     * The generators are reused across renders, but every render seeds one, so count the seedings
+     *
+     * @param renders the counter of the renders
+     * @return a factory of generators that count the renders
+     */
+    private static Supplier<RandomGenerator> countingRenders(AtomicInteger renders) {
+        return () -> new Well512a() {
+            // still false while the constructor of Well512a seeds it
+            private boolean constructed = true;
+
+            @Override
+            public void setSeed(long seed) {
+                if (constructed) {
+                    renders.incrementAndGet();
+                }
+                super.setSeed(seed);
+            }
+        };
+    }
 }
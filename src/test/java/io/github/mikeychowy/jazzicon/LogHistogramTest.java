@@ -0,0 +1,93 @@
+package io.github.mikeychowy.jazzicon;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+class LogHistogramTest {
+
+    @Test
+    void test_bucketOf_everyBucket_boundsContainTheValue() {
+        for (long value : new long[] {0, 1, 7, 8, 9, 15, 16, 17, 1_000, 123_456_789, Long.MAX_VALUE}) {
+            int bucket = LogHistogram.bucketOf(value);
+            assertThat(bucket).isBetween(0, LogHistogram.BUCKET_COUNT - 1);
+            assertThat(LogHistogram.lowerBoundOf(bucket)).isLessThanOrEqualTo(value);
+            assertThat(LogHistogram.upperBoundOf(bucket)).isGreaterThanOrEqualTo(value);
+        }
+        for (int bucket = 1; bucket < LogHistogram.BUCKET_COUNT; bucket++) {
+            assertThat(LogHistogram.lowerBoundOf(bucket)).isEqualTo(LogHistogram.upperBoundOf(bucket - 1) + 1);
+        }
+        assertThat(LogHistogram.upperBoundOf(LogHistogram.BUCKET_COUNT - 1)).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void test_record_values_exactCountSumMaxAndBoundedPercentiles() {
+        var histogram = new LogHistogram();
+        LongStream.rangeClosed(1, 1000).forEach(histogram::record);
+
+        assertThat(histogram.getCount()).isEqualTo(1000);
+        assertThat(histogram.getSum()).isEqualTo(500_500);
+        assertThat(histogram.getMax()).isEqualTo(1000);
+        assertThat(histogram.getMean()).isEqualTo(500.5);
+        assertThat(histogram.getValueAtPercentile(50)).isBetween(500L, 563L);
+        assertThat(histogram.getValueAtPercentile(99)).isBetween(990L, 1000L);
+        assertThat(histogram.getValueAtPercentile(100)).isEqualTo(1000);
+        assertThat(histogram.getValueAtPercentile(0)).isEqualTo(1);
+    }
+
+    @Test
+    void test_record_negative_countedAsZero() {
+        var histogram = new LogHistogram();
+        histogram.record(-5);
+
+        assertThat(histogram.getBucketCounts()[0]).isEqualTo(1);
+        assertThat(histogram.getSum()).isZero();
+    }
+
+    @Test
+    void test_getValueAtPercentile_emptyOrInvalid() {
+        var histogram = new LogHistogram();
+        assertThat(histogram.getValueAtPercentile(99)).isZero();
+        assertThat(histogram.getMean()).isZero();
+
+        assertThat(catchThrowable(() -> histogram.getValueAtPercentile(101)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("within 0 and 100");
+        assertThat(catchThrowable(() -> histogram.getValueAtPercentile(Double.NaN)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void test_record_concurrently_noLostValues() throws InterruptedException {
+        var histogram = new LogHistogram();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int thread = 0; thread < 8; thread++) {
+                executor.execute(() -> LongStream.range(0, 10_000).forEach(histogram::record));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(histogram.getCount()).isEqualTo(80_000);
+        assertThat(LongStream.of(histogram.getBucketCounts()).sum()).isEqualTo(80_000);
+        assertThat(histogram.getMax()).isEqualTo(9_999);
+    }
+
+    @Test
+    void test_reset_forgetsEverything() {
+        var histogram = new LogHistogram();
+        histogram.record(42);
+        histogram.reset();
+
+        assertThat(histogram.getCount()).isZero();
+        assertThat(histogram.getMax()).isZero();
+        assertThat(LongStream.of(histogram.getBucketCounts()).sum()).isZero();
+    }
+}
@@ -0,0 +1,217 @@
+package io.github.mikeychowy.jazzicon;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedIconStoreTest {
+    @TempDir
+    Path directory;
+
+    private static ByteBuffer iconOf(String content) {
+        return ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String contentOf(ByteBuffer icon) {
+        return StandardCharsets.UTF_8.decode(icon.duplicate()).toString();
+    }
+
+    @Test
+    void test_put_thenGet_returnsStoredIcon() throws IOException {
+        try (MappedIconStore store = MappedIconStore.open(directory.resolve("icons.store"))) {
+            ByteBuffer stored = store.put(new IconKey("Harry", 1L), iconOf("<svg>harry</svg>"));
+
+            assertThat(contentOf(stored)).isEqualTo("<svg>harry</svg>");
+            assertThat(stored.isReadOnly()).isTrue();
+            assertThat(contentOf(store.get(new IconKey("Harry", 1L)))).isEqualTo("<svg>harry</svg>");
+            assertThat(store.get(new IconKey("Harry", 2L))).isNull();
+            assertThat(store.size()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void test_put_existingKey_keepsFirstIconWithoutAppending() throws IOException {
+        try (MappedIconStore store = MappedIconStore.open(directory.resolve("icons.store"))) {
+            store.put(new IconKey("Harry", 1L), iconOf("first"));
+            long used = store.getUsedBytes();
+
+            ByteBuffer stored = store.put(new IconKey("Harry", 1L), iconOf("second"));
+
+            assertThat(contentOf(stored)).isEqualTo("first");
+            assertThat(store.getUsedBytes()).isEqualTo(used);
+        }
+    }
+
+    @Test
+    void test_open_afterClose_recoversEveryIcon() throws IOException {
+        Path path = directory.resolve("icons.store");
+        try (MappedIconStore store =
+                MappedIconStore.builder().withPath(path).withChunkSize(4096).open()) {
+            for (int i = 0; i < 200; i++) {
+                store.put(new IconKey("text " + i, i % 3), iconOf("<svg>" + "x".repeat(i) + "</svg>"));
+            }
+        }
+
+        try (MappedIconStore reopened = MappedIconStore.open(path)) {
+            assertThat(reopened.size()).isEqualTo(200);
+            for (int i = 0; i < 200; i++) {
+                assertThat(contentOf(reopened.get(new IconKey("text " + i, i % 3))))
+                        .isEqualTo("<svg>" + "x".repeat(i) + "</svg>");
+            }
+        }
+    }
+
+    @Test
+    void test_open_tornLastRecord_dropsItAndKeepsAppending() throws IOException {
+        Path path = directory.resolve("icons.store");
+        long endOfFirst;
+        try (MappedIconStore store = MappedIconStore.open(path)) {
+            store.put(new IconKey("Harry", 1L), iconOf("harry"));
+            endOfFirst = store.getUsedBytes();
+            store.put(new IconKey("Hermione", 1L), iconOf("hermione"));
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            // a crash in the middle of the second record, its icon bytes never made it
+            channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0}), endOfFirst + 34);
+        }
+
+        try (MappedIconStore reopened = MappedIconStore.open(path)) {
+            assertThat(reopened.size()).isEqualTo(1);
+            assertThat(reopened.getUsedBytes()).isEqualTo(endOfFirst);
+            assertThat(reopened.get(new IconKey("Hermione", 1L))).isNull();
+            reopened.put(new IconKey("Ronald", 1L), iconOf("ronald"));
+        }
+        try (MappedIconStore reopened = MappedIconStore.open(path)) {
+            assertThat(reopened.size()).isEqualTo(2);
+            assertThat(contentOf(reopened.get(new IconKey("Harry", 1L)))).isEqualTo("harry");
+            assertThat(contentOf(reopened.get(new IconKey("Ronald", 1L)))).isEqualTo("ronald");
+        }
+    }
+
+    @Test
+    void test_compact_keptFingerprints_dropsTheOthersAndShrinks() throws IOException {
+        Path path = directory.resolve("icons.store");
+        try (MappedIconStore store =
+                MappedIconStore.builder().withPath(path).withChunkSize(4096).open()) {
+            for (int i = 0; i < 100; i++) {
+                store.put(new IconKey("text " + i, i % 2), iconOf("icon " + i));
+            }
+            ByteBuffer beforeCompaction = store.get(new IconKey("text 1", 1L));
+            long used = store.getUsedBytes();
+
+            store.compact(fingerprint -> fingerprint == 1L);
+
+            assertThat(store.size()).isEqualTo(50);
+            assertThat(store.getUsedBytes()).isLessThan(used);
+            assertThat(store.get(new IconKey("text 0", 0L))).isNull();
+            assertThat(contentOf(store.get(new IconKey("text 1", 1L)))).isEqualTo("icon 1");
+            assertThat(contentOf(beforeCompaction)).isEqualTo("icon 1");
+            store.put(new IconKey("after", 1L), iconOf("after compaction"));
+        }
+        assertThat(Files.exists(directory.resolve("icons.store.compact"))).isFalse();
+
+        try (MappedIconStore reopened = MappedIconStore.open(path)) {
+            assertThat(reopened.size()).isEqualTo(51);
+            assertThat(contentOf(reopened.get(new IconKey("after", 1L)))).isEqualTo("after compaction");
+        }
+    }
+
+    @Test
+    void test_compact_appendDuringTheCopy_isNotBlockedAndKept() throws IOException {
+        try (MappedIconStore store = MappedIconStore.open(directory.resolve("icons.store"))) {
+            for (int i = 0; i < 10; i++) {
+                store.put(new IconKey("text " + i, 1L), iconOf("icon " + i));
+            }
+            AtomicBoolean appended = new AtomicBoolean();
+
+            store.compact(fingerprint -> {
+                if (appended.compareAndSet(false, true)) {
+                    // times out if the copy holds the lock of the appends
+                    CompletableFuture.runAsync(() -> store.put(new IconKey("during", 1L), iconOf("during")))
+                            .orTimeout(5, TimeUnit.SECONDS)
+                            .join();
+                }
+                return true;
+            });
+
+            assertThat(store.size()).isEqualTo(11);
+            assertThat(contentOf(store.get(new IconKey("during", 1L)))).isEqualTo("during");
+        }
+    }
+
+    @Test
+    void test_put_iconBiggerThanChunk_isNotStored() throws IOException {
+        try (MappedIconStore store = MappedIconStore.builder()
+                .withPath(directory.resolve("icons.store"))
+                .withChunkSize(4096)
+                .open()) {
+            String big = "x".repeat(5000);
+
+            ByteBuffer returned = store.put(new IconKey("big", 1L), iconOf(big));
+
+            assertThat(contentOf(returned)).isEqualTo(big);
+            assertThat(store.get(new IconKey("big", 1L))).isNull();
+        }
+    }
+
+    @Test
+    void test_open_alreadyOpen_throws() throws IOException {
+        Path path = directory.resolve("icons.store");
+        try (MappedIconStore ignored = MappedIconStore.open(path)) {
+            Throwable throwable = catchThrowable(() -> MappedIconStore.open(path));
+
+            assertThat(throwable)
+                    .isInstanceOf(JazzIconGenerationException.class)
+                    .hasRootCauseMessage("icon store is already open: " + path.toAbsolutePath());
+        }
+    }
+
+    @Test
+    void test_open_notAStore_throws() throws IOException {
+        Path path = directory.resolve("not.store");
+        Files.writeString(path, "definitely not an icon store");
+
+        Throwable throwable = catchThrowable(() -> MappedIconStore.open(path));
+
+        assertThat(throwable)
+                .isInstanceOf(JazzIconGenerationException.class)
+                .hasRootCauseMessage("not an icon store: " + path.toAbsolutePath());
+    }
+
+    @Test
+    void test_get_closedStore_throws() throws IOException {
+        MappedIconStore store = MappedIconStore.open(directory.resolve("icons.store"));
+        store.close();
+
+        Throwable throwable = catchThrowable(() -> store.get(new IconKey("Harry", 1L)));
+
+        assertThat(throwable).isInstanceOf(IllegalStateException.class).hasMessage("store is closed");
+    }
+
+    @Test
+    void test_builder_invalidChunkSize_throws() {
+        Throwable tooSmall = catchThrowable(() ->
+                MappedIconStore.builder().withPath(directory).withChunkSize(1024).open());
+        Throwable unaligned = catchThrowable(() ->
+                MappedIconStore.builder().withPath(directory).withChunkSize(4097).open());
+        Throwable noPath = catchThrowable(() -> MappedIconStore.builder().open());
+
+        assertThat(tooSmall)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("chunkSize must be between 4096 and 1073741824");
+        assertThat(unaligned).isInstanceOf(IllegalArgumentException.class).hasMessage("chunkSize must be a multiple of 8");
+        assertThat(noPath).isInstanceOf(IllegalArgumentException.class).hasMessage("path must not be null");
+    }
+}
@@ -0,0 +1,185 @@
+package io.github.mikeychowy.jazzicon;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.lang.ref.WeakReference;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import org.junit.jupiter.api.Test;
+
+class OffHeapCachingJazzIconTest {
+
+    @Test
+    void test_generateIcon_sameTextTwice_hitsAndMatchesGenerator() {
+        JazzIcon generator = new JazzIcon();
+        OffHeapCachingJazzIcon caching = OffHeapCachingJazzIcon.builder().withGenerator(generator).build();
+
+        String first = caching.generateIcon("Harry Potter");
+        String second = caching.generateIcon("  Harry Potter ");
+
+        assertThat(first).isEqualTo(generator.generateIcon("Harry Potter"));
+        assertThat(second).isEqualTo(first);
+        IconCacheStats stats = caching.stats();
+        assertThat(stats.getMissCount()).isEqualTo(1);
+        assertThat(stats.getHitCount()).isEqualTo(1);
+        assertThat(stats.getSize()).isEqualTo(1);
+        assertThat(stats.getWeight()).isGreaterThan(first.length());
+    }
+
+    @Test
+    void test_outputs_hit_matchGenerator() throws Exception {
+        JazzIcon generator = new JazzIcon();
+        OffHeapCachingJazzIcon caching = OffHeapCachingJazzIcon.builder().withGenerator(generator).build();
+        byte[] expected = generator.generateIconBytes("Hermione");
+        caching.generateIconBytes("Hermione");
+
+        byte[] bytes = caching.generateIconBytes("Hermione");
+        var stream = new ByteArrayOutputStream();
+        caching.generateIconToStream("Hermione", stream);
+        var writer = new StringWriter();
+        caching.generateIconToWriter("Hermione", writer);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(expected.length + 10);
+        int put = caching.generateIconTo("Hermione", buffer);
+        var channelBytes = new ByteArrayOutputStream();
+        long written = caching.generateIconTo("Hermione", Channels.newChannel(channelBytes));
+
+        assertThat(bytes).isEqualTo(expected);
+        assertThat(stream.toByteArray()).isEqualTo(expected);
+        assertThat(writer.toString()).isEqualTo(new String(expected, StandardCharsets.UTF_8));
+        assertThat(put).isEqualTo(expected.length);
+        assertThat(buffer.flip()).isEqualTo(ByteBuffer.wrap(expected));
+        assertThat(written).isEqualTo(expected.length);
+        assertThat(channelBytes.toByteArray()).isEqualTo(expected);
+        assertThat(caching.stats().getHitCount()).isEqualTo(5);
+    }
+
+    @Test
+    void test_generateIconTo_bufferTooSmall_throwsAndWritesNothing() {
+        OffHeapCachingJazzIcon caching = OffHeapCachingJazzIcon.builder().build();
+        ByteBuffer buffer = ByteBuffer.allocate(10);
+
+        var ex = catchThrowableOfType(
+                JazzIconGenerationException.class, () -> caching.generateIconTo("Harry Potter", buffer));
+
+        assertThat(ex).hasCauseInstanceOf(BufferOverflowException.class);
+        assertThat(buffer.position()).isZero();
+    }
+
+    @Test
+    void test_generatorConfigChanged_onlyReplacedConfigurationDropped() {
+        JazzIcon generator = new JazzIcon();
+        OffHeapCachingJazzIcon caching = OffHeapCachingJazzIcon.builder().withGenerator(generator).build();
+        String before = caching.generateIcon("Ronald Weasley");
+
+        generator.setShapeCount(2);
+        assertThat(caching.stats().getSize()).isZero();
+        String after = caching.generateIcon("Ronald Weasley");
+
+        assertThat(after).isNotEqualTo(before).isEqualTo(generator.generateIcon("Ronald Weasley"));
+        assertThat(caching.stats().getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    void test_generateIcon_shortText_notCached() {
+        OffHeapCachingJazzIcon caching = OffHeapCachingJazzIcon.builder().build();
+
+        assertThat(caching.generateIcon("ab")).isNotBlank();
+        assertThat(caching.stats().getSize()).isZero();
+        assertThat(caching.stats().getMissCount()).isZero();
+    }
+
+    @Test
+    void test_generateIcon_smallCache_evictsAndStillRendersEveryIcon() {
+        JazzIcon generator = new JazzIcon();
+        OffHeapCachingJazzIcon caching = OffHeapCachingJazzIcon.builder()
+                .withGenerator(generator)
+                .withSlabSize(OffHeapIconCache.MINIMUM_SLAB_SIZE)
+                .withMaximumBytes(2L * OffHeapIconCache.MINIMUM_SLAB_SIZE)
+                .build();
+
+        for (int i = 0; i < 500; i++) {
+            assertThat(caching.generateIcon("Harry " + i)).isEqualTo(generator.generateIcon("Harry " + i));
+        }
+
+        assertThat(caching.stats().getEvictionCount()).isPositive();
+        assertThat(caching.generateIcon("Harry 499")).isEqualTo(generator.generateIcon("Harry 499"));
+    }
+
+    @Test
+    void test_invalidateAll_rendersAgain() {
+        OffHeapCachingJazzIcon caching = OffHeapCachingJazzIcon.builder().build();
+        caching.generateIcon("Harry Potter");
+
+        caching.invalidateAll();
+        caching.generateIcon("Harry Potter");
+
+        assertThat(caching.stats().getMissCount()).isEqualTo(2);
+        assertThat(caching.etagFor("Harry Potter")).isEqualTo(caching.getGenerator().etagFor("Harry Potter"));
+        assertThat(caching.capacity()).isGreaterThan(OffHeapCachingJazzIcon.DEFAULT_MAXIMUM_BYTES);
+    }
+
+    @Test
+    void test_close_stopsListeningAndReleasesTheSlabs() {
+        JazzIcon generator = new JazzIcon();
+        OffHeapCachingJazzIcon caching = OffHeapCachingJazzIcon.builder().withGenerator(generator).build();
+        caching.generateIcon("Harry Potter");
+        assertThat(generator.configurationListeners).hasSize(1);
+
+        caching.close();
+        caching.close();
+
+        assertThat(generator.configurationListeners).isEmpty();
+        assertThat(caching.capacity()).isZero();
+        assertThat(caching.stats().getMissCount()).isEqualTo(1);
+        assertThat(catchThrowable(() -> caching.generateIcon("Harry Potter")))
+                .isInstanceOf(JazzIconGenerationException.class)
+                .hasMessageContaining("closed");
+        caching.invalidateAll();
+        generator.setShapeCount(2);
+    }
+
+    @Test
+    void test_notClosed_notHeldByTheGenerator() throws InterruptedException {
+        JazzIcon generator = new JazzIcon();
+        var caching = new WeakReference<>(OffHeapCachingJazzIcon.builder()
+                .withGenerator(generator)
+                .withSlabSize(OffHeapIconCache.MINIMUM_SLAB_SIZE)
+                .withMaximumBytes(2L * OffHeapIconCache.MINIMUM_SLAB_SIZE)
+                .build());
+
+        for (int i = 0; i < 50 && Objects.nonNull(caching.get()); i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+
+        assertThat(caching.get()).isNull();
+        // the listener left behind removes itself on the next change
+        generator.setShapeCount(2);
+        assertThat(generator.configurationListeners).isEmpty();
+    }
+
+    @Test
+    void test_build_invalidArguments_throw() {
+        assertThat(catchThrowable(() -> OffHeapCachingJazzIcon.builder().withGenerator(null).build()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("generator");
+        assertThat(catchThrowable(() -> OffHeapCachingJazzIcon.builder().withSlabSize(1024).build()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("slabSize");
+        assertThat(catchThrowable(() -> OffHeapCachingJazzIcon.builder()
+                        .withMaximumBytes(OffHeapCachingJazzIcon.DEFAULT_SLAB_SIZE)
+                        .build()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("maximumBytes");
+        assertThat(catchThrowable(() -> OffHeapCachingJazzIcon.builder().withCoalescingTimeout(null).build()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("coalescingTimeout");
+    }
+}
@@ -0,0 +1,176 @@
+package io.github.mikeychowy.jazzicon;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+class OffHeapIconCacheTest {
+    private static final int SLAB = OffHeapIconCache.MINIMUM_SLAB_SIZE;
+
+    @Test
+    void test_get_afterPut_copiesIcon() {
+        var cache = new OffHeapIconCache(2L * SLAB, SLAB);
+        cache.put("Harry", 1L, icon("Harry", 1L), 10);
+        var sink = new AsciiByteSink();
+
+        assertThat(cache.get("Harry", 1L, sink)).isTrue();
+        assertThat(sink.toByteArray()).isEqualTo(icon("Harry", 1L));
+        assertThat(cache.get("Harry", 2L, new AsciiByteSink())).isFalse();
+        assertThat(cache.get("Harr", 1L, new AsciiByteSink())).isFalse();
+        IconCacheStats stats = cache.stats();
+        assertThat(stats.getHitCount()).isEqualTo(1);
+        assertThat(stats.getMissCount()).isEqualTo(2);
+        assertThat(stats.getLoadCount()).isEqualTo(1);
+        assertThat(stats.getTotalLoadTimeNanos()).isEqualTo(10);
+        assertThat(stats.getSize()).isEqualTo(1);
+    }
+
+    @Test
+    void test_put_sameKeyTwice_keptOnce() {
+        var cache = new OffHeapIconCache(2L * SLAB, SLAB);
+
+        cache.put("Harry", 1L, icon("Harry", 1L), 0);
+        cache.put("Harry", 1L, icon("Harry", 1L), 0);
+
+        assertThat(cache.stats().getSize()).isEqualTo(1);
+    }
+
+    @Test
+    void test_put_biggerThanSlab_notCached() {
+        var cache = new OffHeapIconCache(2L * SLAB, SLAB);
+
+        cache.put("Harry", 1L, new byte[SLAB], 0);
+
+        assertThat(cache.get("Harry", 1L, new AsciiByteSink())).isFalse();
+        assertThat(cache.stats().getSize()).isZero();
+    }
+
+    @Test
+    void test_put_beyondCapacity_evictsOldestAndStaysBounded() {
+        var cache = new OffHeapIconCache(4L * SLAB, SLAB);
+
+        for (int i = 0; i < 2_000; i++) {
+            cache.put("Harry " + i, 1L, icon("Harry " + i, 1L), 0);
+        }
+
+        IconCacheStats stats = cache.stats();
+        assertThat(stats.getEvictionCount()).isPositive();
+        assertThat(stats.getSize() + stats.getEvictionCount()).isEqualTo(2_000);
+        assertThat(stats.getWeight()).isLessThanOrEqualTo(4L * SLAB);
+        assertThat(cache.get("Harry 0", 1L, new AsciiByteSink())).isFalse();
+        var sink = new AsciiByteSink();
+        assertThat(cache.get("Harry 1999", 1L, sink)).isTrue();
+        assertThat(sink.toByteArray()).isEqualTo(icon("Harry 1999", 1L));
+    }
+
+    @Test
+    void test_put_beyondCapacity_hitIconsSurviveRecycling() {
+        var cache = new OffHeapIconCache(4L * SLAB, SLAB);
+        cache.put("Hermione", 1L, icon("Hermione", 1L), 0);
+
+        for (int i = 0; i < 5_000; i++) {
+            var sink = new AsciiByteSink();
+            assertThat(cache.get("Hermione", 1L, sink)).as("after %d puts", i).isTrue();
+            assertThat(sink.toByteArray()).isEqualTo(icon("Hermione", 1L));
+            cache.put("Harry " + i, 1L, icon("Harry " + i, 1L), 0);
+        }
+
+        assertThat(cache.stats().getEvictionCount()).isPositive();
+    }
+
+    @Test
+    void test_get_concurrentWithEvictions_neverReturnsAnotherIcon() throws Exception {
+        var cache = new OffHeapIconCache(2L * SLAB, SLAB);
+        var done = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<CompletableFuture<Void>> readers = new ArrayList<>();
+            for (int r = 0; r < 3; r++) {
+                readers.add(CompletableFuture.runAsync(
+                        () -> {
+                            var sink = new AsciiByteSink();
+                            for (int i = 0; !done.get(); i = (i + 1) % 500) {
+                                sink.reset();
+                                if (cache.get("Harry " + i, 1L, sink)) {
+                                    assertThat(sink.toByteArray()).isEqualTo(icon("Harry " + i, 1L));
+                                }
+                            }
+                        },
+                        executor));
+            }
+            for (int round = 0; round < 20; round++) {
+                for (int i = 0; i < 500; i++) {
+                    cache.put("Harry " + i, 1L, icon("Harry " + i, 1L), 0);
+                }
+            }
+            done.set(true);
+
+            for (CompletableFuture<Void> reader : readers) {
+                reader.get(10, TimeUnit.SECONDS);
+            }
+            assertThat(cache.stats().getEvictionCount()).isPositive();
+        } finally {
+            done.set(true);
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void test_invalidate_dropsOnlyMatchingFingerprints() {
+        var cache = new OffHeapIconCache(2L * SLAB, SLAB);
+        for (int i = 0; i < 100; i++) {
+            cache.put("Harry " + i, i % 2, icon("Harry " + i, i % 2), 0);
+        }
+
+        cache.invalidate(fingerprint -> fingerprint == 0);
+
+        assertThat(cache.stats().getSize()).isEqualTo(50);
+        for (int i = 0; i < 100; i++) {
+            assertThat(cache.get("Harry " + i, i % 2, new AsciiByteSink())).isEqualTo(i % 2 == 1);
+        }
+    }
+
+    @Test
+    void test_invalidateAll_dropsEverythingAndKeepsWorking() {
+        var cache = new OffHeapIconCache(2L * SLAB, SLAB);
+        cache.put("Harry", 1L, icon("Harry", 1L), 0);
+
+        cache.invalidateAll();
+
+        assertThat(cache.get("Harry", 1L, new AsciiByteSink())).isFalse();
+        assertThat(cache.stats().getSize()).isZero();
+        assertThat(cache.stats().getWeight()).isZero();
+        cache.put("Harry", 1L, icon("Harry", 1L), 0);
+        assertThat(cache.get("Harry", 1L, new AsciiByteSink())).isTrue();
+    }
+
+    @Test
+    void test_newOffHeapIconCache_invalidArguments_throw() {
+        assertThat(catchThrowable(() -> new OffHeapIconCache(4L * SLAB, SLAB - 1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("slabSize");
+        assertThat(catchThrowable(() -> new OffHeapIconCache(SLAB, SLAB)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("maximumBytes");
+    }
+
+    @Test
+    void test_capacity_slabsAndIndex() {
+        var cache = new OffHeapIconCache(4L * SLAB, SLAB);
+
+        assertThat(cache.capacity()).isGreaterThan(4L * SLAB).isLessThan(5L * SLAB);
+    }
+
+    private static byte[] icon(String text, long fingerprint) {
+        return ("<svg>" + text + "@" + fingerprint + "</svg>".repeat(40)).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,128 @@
+package io.github.mikeychowy.jazzicon;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PersistentJazzIconTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void test_generateIcon_afterRestart_servesStoredIcon() throws IOException {
+        Path path = directory.resolve("icons.store");
+        JazzIcon generator = new JazzIcon();
+        String expected = generator.generateIcon("Harry Potter");
+        try (MappedIconStore store = MappedIconStore.open(path)) {
+            PersistentJazzIcon icons = new PersistentJazzIcon(generator, store);
+
+            assertThat(icons.generateIcon("Harry Potter")).isEqualTo(expected);
+            assertThat(icons.generateIcon(" Harry Potter  ")).isEqualTo(expected);
+            assertThat(store.size()).isEqualTo(1);
+        }
+
+        try (MappedIconStore store = MappedIconStore.open(path)) {
+            assertThat(store.size()).isEqualTo(1);
+            PersistentJazzIcon icons = new PersistentJazzIcon(new JazzIcon(), store);
+
+            assertThat(icons.generateIcon("Harry Potter")).isEqualTo(expected);
+            assertThat(store.size()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void test_generateIcon_generatorConfigChanged_storesNewIcon() throws IOException {
+        try (MappedIconStore store = MappedIconStore.open(directory.resolve("icons.store"))) {
+            JazzIcon generator = new JazzIcon();
+            PersistentJazzIcon icons = new PersistentJazzIcon(generator, store);
+            String before = icons.generateIcon("Ronald Weasley");
+
+            generator.setWobble(10);
+            String after = icons.generateIcon("Ronald Weasley");
+
+            assertThat(after).isNotEqualTo(before).isEqualTo(generator.generateIcon("Ronald Weasley"));
+            assertThat(store.size()).isEqualTo(2);
+
+            icons.compactToCurrentConfiguration();
+
+            assertThat(store.size()).isEqualTo(1);
+            assertThat(icons.generateIcon("Ronald Weasley")).isEqualTo(after);
+        }
+    }
+
+    @Test
+    void test_generateIcon_shortText_isNotStored() throws IOException {
+        try (MappedIconStore store = MappedIconStore.open(directory.resolve("icons.store"))) {
+            PersistentJazzIcon icons = new PersistentJazzIcon(new JazzIcon(), store);
+
+            assertThat(icons.generateIcon("ab")).isNotBlank();
+            assertThat(store.size()).isZero();
+        }
+    }
+
+    @Test
+    void test_outputs_storedIcon_allWriteSameBytes() throws IOException {
+        try (MappedIconStore store = MappedIconStore.open(directory.resolve("icons.store"))) {
+            PersistentJazzIcon icons = new PersistentJazzIcon(new JazzIcon(), store);
+            byte[] expected = icons.generateIconBytes("Luna Lovegood");
+
+            StringWriter writer = new StringWriter();
+            icons.generateIconToWriter("Luna Lovegood", writer);
+            ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            icons.generateIconToStream("Luna Lovegood", stream);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(expected.length);
+            int put = icons.generateIconTo("Luna Lovegood", buffer);
+            Path file = directory.resolve("luna.svg");
+            long written;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                written = icons.generateIconTo("Luna Lovegood", channel);
+            }
+
+            assertThat(writer.toString().getBytes(StandardCharsets.UTF_8)).isEqualTo(expected);
+            assertThat(stream.toByteArray()).isEqualTo(expected);
+            assertThat(put).isEqualTo(expected.length);
+            byte[] fromBuffer = new byte[expected.length];
+            buffer.flip().get(fromBuffer);
+            assertThat(fromBuffer).isEqualTo(expected);
+            assertThat(written).isEqualTo(expected.length);
+            assertThat(Files.readAllBytes(file)).isEqualTo(expected);
+            assertThat(store.size()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void test_generateIcon_closedStore_throwsGenerationException() throws IOException {
+        MappedIconStore store = MappedIconStore.open(directory.resolve("icons.store"));
+        PersistentJazzIcon icons = new PersistentJazzIcon(new JazzIcon(), store);
+        store.close();
+
+        Throwable throwable = catchThrowable(() -> icons.generateIcon("Harry Potter"));
+
+        assertThat(throwable)
+                .isInstanceOf(JazzIconGenerationException.class)
+                .hasMessage("icon store is closed")
+                .hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void test_constructor_nullArguments_throws() throws IOException {
+        try (MappedIconStore store = MappedIconStore.open(directory.resolve("icons.store"))) {
+            Throwable noGenerator = catchThrowable(() -> new PersistentJazzIcon(null, store));
+            Throwable noStore = catchThrowable(() -> new PersistentJazzIcon(new JazzIcon(), null));
+
+            assertThat(noGenerator).isInstanceOf(IllegalArgumentException.class).hasMessage("generator must not be null");
+            assertThat(noStore).isInstanceOf(IllegalArgumentException.class).hasMessage("store must not be null");
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package io.github.mikeychowy.jazzicon;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class RemoteTierTest {
+    private static final long TIMEOUT = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long LONG_INTERVAL = TimeUnit.HOURS.toNanos(1);
+
+    @Test
+    void test_get_storedAndAbsentKeys_hitAndMiss() {
+        var remote = new InMemoryRemoteIconCache();
+        remote.putAll(Map.of("jazzicon:1", bytes("Harry")));
+        var tier = new RemoteTier(remote, TIMEOUT, 10, LONG_INTERVAL, Runnable::run);
+
+        assertThat(tier.get("jazzicon:1")).isEqualTo(bytes("Harry"));
+        assertThat(tier.get("jazzicon:2")).isNull();
+        RemoteCacheStats stats = tier.stats();
+        assertThat(stats.getHitCount()).isEqualTo(1);
+        assertThat(stats.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    void test_get_slowRemote_givesUpAfterTimeout() {
+        RemoteIconCache never = new RemoteIconCache() {
+            @Override
+            public CompletionStage<byte[]> get(String key) {
+                return new CompletableFuture<>();
+            }
+
+            @Override
+            public CompletionStage<Void> putAll(Map<String, byte[]> icons) {
+                return new CompletableFuture<>();
+            }
+        };
+        var tier = new RemoteTier(never, TIMEOUT, 10, LONG_INTERVAL, Runnable::run);
+
+        long start = System.nanoTime();
+        assertThat(tier.get("jazzicon:1")).isNull();
+
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(5));
+        assertThat(tier.stats().getTimeoutCount()).isEqualTo(1);
+    }
+
+    @Test
+    void test_getAndPutAll_failingRemote_countedNotThrown() {
+        RemoteIconCache failing = new RemoteIconCache() {
+            @Override
+            public CompletionStage<byte[]> get(String key) {
+                return CompletableFuture.failedFuture(new IllegalStateException("down"));
+            }
+
+            @Override
+            public CompletionStage<Void> putAll(Map<String, byte[]> icons) {
+                throw new IllegalStateException("down");
+            }
+        };
+        var tier = new RemoteTier(failing, TIMEOUT, 1, LONG_INTERVAL, Runnable::run);
+
+        assertThat(tier.get("jazzicon:1")).isNull();
+        tier.putLater("jazzicon:1", bytes("Harry"));
+
+        assertThat(tier.stats().getFailureCount()).isEqualTo(2);
+        assertThat(tier.stats().getWriteCount()).isZero();
+        assertThat(tier.pendingCount()).isZero();
+    }
+
+    @Test
+    void test_putLater_fullBatch_sentTogether() {
+        var batches = new ArrayList<Map<String, byte[]>>();
+        var tier = new RemoteTier(recording(batches), TIMEOUT, 3, LONG_INTERVAL, Runnable::run);
+
+        tier.putLater("jazzicon:1", bytes("Harry"));
+        tier.putLater("jazzicon:2", bytes("Ron"));
+        assertThat(batches).isEmpty();
+        tier.putLater("jazzicon:3", bytes("Hermione"));
+
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).containsOnlyKeys("jazzicon:1", "jazzicon:2", "jazzicon:3");
+        assertThat(tier.stats().getWriteCount()).isEqualTo(3);
+        assertThat(tier.pendingCount()).isZero();
+    }
+
+    @Test
+    void test_putLater_partialBatch_sentAfterFlushInterval() throws Exception {
+        var remote = new InMemoryRemoteIconCache();
+        var tier = new RemoteTier(remote, TIMEOUT, 100, TimeUnit.MILLISECONDS.toNanos(200), Runnable::run);
+
+        tier.putLater("jazzicon:1", bytes("Harry"));
+        tier.putLater("jazzicon:2", bytes("Ron"));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (remote.size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(remote.size()).isEqualTo(2);
+        assertThat(remote.getBatchCount()).isEqualTo(1);
+    }
+
+    @Test
+    void test_putLater_tooManyPending_dropsTheRest() {
+        var batches = new ArrayList<Map<String, byte[]>>();
+        var tier = new RemoteTier(recording(batches), TIMEOUT, Integer.MAX_VALUE, LONG_INTERVAL, command -> {});
+
+        for (int i = 0; i < RemoteTier.MAXIMUM_PENDING_WRITES + 5; i++) {
+            tier.putLater("jazzicon:" + i, bytes("Harry"));
+        }
+
+        assertThat(tier.pendingCount()).isEqualTo(RemoteTier.MAXIMUM_PENDING_WRITES);
+        assertThat(tier.stats().getDroppedWriteCount()).isEqualTo(5);
+        tier.flush();
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).hasSize(RemoteTier.MAXIMUM_PENDING_WRITES);
+    }
+
+    @Test
+    void test_keyOf_sameForSameConfigAndText() {
+        JazzIconConfig config = new JazzIcon().getConfig();
+
+        String key = RemoteTier.keyOf(config, "Harry Potter");
+
+        assertThat(key).isEqualTo(RemoteTier.keyOf(new JazzIcon().getConfig(), "Harry Potter"));
+        assertThat(key).isEqualTo("jazzicon:" + new JazzIcon().etagFor("Harry Potter").replace("\"", ""));
+        assertThat(key).hasSize(41);
+    }
+
+    @Test
+    void test_newRemoteTier_invalidArguments_throw() {
+        var remote = new InMemoryRemoteIconCache();
+
+        assertThat(catchThrowable(() -> new RemoteTier(null, TIMEOUT, 1, 1, Runnable::run)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("remoteCache");
+        assertThat(catchThrowable(() -> new RemoteTier(remote, 0, 1, 1, Runnable::run)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("remoteTimeout");
+        assertThat(catchThrowable(() -> new RemoteTier(remote, TIMEOUT, 0, 1, Runnable::run)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("remoteBatchSize");
+        assertThat(catchThrowable(() -> new RemoteTier(remote, TIMEOUT, 1, 0, Runnable::run)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("remoteFlushInterval");
+        assertThat(catchThrowable(() -> new RemoteTier(remote, TIMEOUT, 1, 1, null)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("remoteExecutor");
+    }
+
+    private static RemoteIconCache recording(List<Map<String, byte[]>> batches) {
+        return new RemoteIconCache() {
+            @Override
+            public CompletionStage<byte[]> get(String key) {
+                return CompletableFuture.completedFuture(null);
+            }
+
+            @Override
+            public CompletionStage<Void> putAll(Map<String, byte[]> icons) {
+                batches.add(icons);
+                return CompletableFuture.completedFuture(null);
+            }
+        };
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
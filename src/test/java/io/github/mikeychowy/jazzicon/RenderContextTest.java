@@ -0,0 +1,141 @@
+package io.github.mikeychowy.jazzicon;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import org.hipparchus.random.RandomGenerator;
+import org.hipparchus.random.Well512a;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+class RenderContextTest {
+
+    @Test
+    void test_acquire_afterRelease_sameContextWithEmptySink() {
+        var context = RenderContext.acquire();
+        context.getSink().append("<svg>");
+        RenderContext.release(context);
+
+        var again = RenderContext.acquire();
+        try {
+            assertThat(again).isSameAs(context);
+            assertThat(again.getSink().size()).isZero();
+        } finally {
+            RenderContext.release(again);
+        }
+    }
+
+    @Test
+    void test_acquire_nested_freshContext() {
+        var outer = RenderContext.acquire();
+        try {
+            var inner = RenderContext.acquire();
+            assertThat(inner).isNotSameAs(outer);
+            RenderContext.release(inner);
+        } finally {
+            RenderContext.release(outer);
+        }
+    }
+
+    @Test
+    void test_release_hugeSink_dropped() {
+        var context = RenderContext.acquire();
+        context.getSink().append("x".repeat(RenderContext.MAXIMUM_RETAINED_CAPACITY + 1));
+        RenderContext.release(context);
+
+        var again = RenderContext.acquire();
+        try {
+            assertThat(again).isNotSameAs(context);
+        } finally {
+            RenderContext.release(again);
+        }
+    }
+
+    @Test
+    void test_randomGenerator_sameFactory_reusedUntilFactoryChanges() {
+        var context = new RenderContext();
+        Supplier<RandomGenerator> factory = Well512a::new;
+        Supplier<RandomGenerator> other = SplitMix64Random::new;
+        var first = context.randomGenerator(factory);
+
+        assertThat(context.randomGenerator(factory)).isSameAs(first);
+        assertThat(context.randomGenerator(other)).isInstanceOf(SplitMix64Random.class);
+        assertThat(context.randomGenerator(factory)).isNotSameAs(first).isInstanceOf(Well512a.class);
+    }
+
+    @Test
+    void test_picked_growsOnlyWhenTooShort() {
+        var context = new RenderContext();
+        int[] picked = context.picked(3);
+
+        assertThat(context.picked(5)).isSameAs(picked);
+        assertThat(context.picked(11)).hasSizeGreaterThanOrEqualTo(11).isNotSameAs(picked);
+    }
+
+    @Test
+    void test_generateIcon_manyThreads_sameIconsAsSingleThread() throws Exception {
+        var jazzIcon = new JazzIcon();
+        String expected = jazzIcon.generateIcon("Harry Potter");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            var futures = new CompletableFuture<?>[64];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = CompletableFuture.runAsync(
+                        () -> {
+                            for (int round = 0; round < 50; round++) {
+                                assertThat(jazzIcon.generateIcon("Harry Potter")).isEqualTo(expected);
+                            }
+                        },
+                        executor);
+            }
+            CompletableFuture.allOf(futures).get();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void test_generateIcon_steadyState_allocatesLittleMoreThanTheResult() {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+        // the debug logging of the tests would dwarf the render itself
+        var logger = (Logger) LoggerFactory.getLogger("io.github.mikeychowy.jazzicon");
+        Level level = logger.getLevel();
+        logger.setLevel(Level.INFO);
+        try {
+            var jazzIcon = new JazzIcon();
+            String[] texts = new String[1_000];
+            for (int i = 0; i < texts.length; i++) {
+                texts[i] = "user" + i + "@example.com";
+            }
+            for (int round = 0; round < 20; round++) {
+                for (String text : texts) {
+                    jazzIcon.generateIcon(text);
+                }
+            }
+
+            @SuppressWarnings("deprecation")
+            long threadId = Thread.currentThread().getId();
+            long resultBytes = 0;
+            long before = threads.getThreadAllocatedBytes(threadId);
+            for (String text : texts) {
+                // a Latin-1 String, its array and header
+                resultBytes += jazzIcon.generateIcon(text).length() + 40;
+            }
+            long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+            assertThat(allocated / texts.length)
+                    .as("bytes allocated per icon")
+                    .isLessThanOrEqualTo(resultBytes / texts.length + 256);
+        } finally {
+            logger.setLevel(level);
+        }
+    }
+}
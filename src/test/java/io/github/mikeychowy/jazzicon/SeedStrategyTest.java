@@ -0,0 +1,89 @@
+package io.github.mikeychowy.jazzicon;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class SeedStrategyTest {
+
+    /** the parsing of the previous versions, the reference the legacy strategy must match */
+    private static long parsedSeed(String safeText) {
+        try {
+            return Long.parseUnsignedLong(safeText.substring(2, Math.min(10, safeText.length())), 16);
+        } catch (NumberFormatException e) {
+            return safeText.hashCode();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(
+            strings = {
+                "0x4e1a9cb7f2d3",
+                "0xABCDEF0123456789",
+                "0xabc",
+                "0x+1234abcd",
+                "0x+",
+                "0x-1234",
+                "0x12 34",
+                "0xＡＢＣ１",
+                "0x١٢٣",
+                "Harry Potter",
+                "harry.potter@example.com",
+                "3f2504e0-4f89-11d3-9a0c-0305e82c3301",
+                "ab",
+                "abcd",
+                "Zq8xHa7kP2mWHal"
+            })
+    void test_legacy_matchesParseUnsignedLongWithHashCodeFallback(String text) {
+        assertThat(SeedStrategy.legacy().seedOf(text)).isEqualTo(parsedSeed(text));
+        assertThat(SeedStrategy.legacy().seedOf(new StringBuilder(text))).isEqualTo(parsedSeed(text));
+    }
+
+    @Test
+    void test_hash64_sameCharactersAnySequence_sameSeed() {
+        String text = "harry.potter@example.com";
+
+        long seed = SeedStrategy.hash64().seedOf(text);
+
+        assertThat(SeedStrategy.hash64().seedOf(new StringBuilder(text))).isEqualTo(seed);
+        assertThat(SeedStrategy.hash64().seedOf(text)).isEqualTo(seed);
+        assertThat(seed).isNotEqualTo(SeedStrategy.hash64().seedOf("harry.potter@example.co"));
+    }
+
+    @Test
+    void test_hash64_similarTexts_noCollisionsAndWholeRange() {
+        Set<Long> seeds = new HashSet<>();
+        boolean highBitsUsed = false;
+        for (int i = 0; i < 100_000; i++) {
+            long seed = SeedStrategy.hash64().seedOf("user" + i + "@example.com");
+            seeds.add(seed);
+            highBitsUsed |= (seed >>> 32) != 0 && (seed >>> 32) != 0xFFFFFFFFL;
+        }
+
+        assertThat(seeds).hasSize(100_000);
+        assertThat(highBitsUsed).isTrue();
+    }
+
+    @Test
+    void test_hash64_hugeText_onlyHeadTailAndLengthHashed() {
+        StringBuilder huge = new StringBuilder("head");
+        huge.append("x".repeat(1_000_000));
+        huge.append("tail");
+        long seed = SeedStrategy.hash64().seedOf(huge);
+
+        StringBuilder middleChanged = new StringBuilder(huge);
+        middleChanged.setCharAt(500_000, 'y');
+        StringBuilder tailChanged = new StringBuilder(huge);
+        tailChanged.setCharAt(tailChanged.length() - 1, 'L');
+        StringBuilder longer = new StringBuilder(huge).insert(500_000, 'x');
+
+        assertThat(SeedStrategy.hash64().seedOf(middleChanged)).isEqualTo(seed);
+        assertThat(List.of(SeedStrategy.hash64().seedOf(tailChanged), SeedStrategy.hash64().seedOf(longer)))
+                .doesNotContain(seed);
+    }
+}
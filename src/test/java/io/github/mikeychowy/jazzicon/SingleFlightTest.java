@@ -0,0 +1,140 @@
+package io.github.mikeychowy.jazzicon;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+    @Test
+    void test_load_concurrentSameKey_loadedOnceAndShared() throws Exception {
+        var flight = new SingleFlight<String, Object>(TimeUnit.SECONDS.toNanos(10));
+        var loads = new AtomicInteger();
+        var loading = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CompletableFuture<Object> leader = CompletableFuture.supplyAsync(
+                    () -> flight.load("Harry", () -> {
+                        loads.incrementAndGet();
+                        loading.countDown();
+                        await(release);
+                        return new Object();
+                    }),
+                    executor);
+            assertThat(loading.await(10, TimeUnit.SECONDS)).isTrue();
+            List<CompletableFuture<Object>> waiters = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                waiters.add(CompletableFuture.supplyAsync(
+                        () -> flight.load("Harry", () -> {
+                            loads.incrementAndGet();
+                            return new Object();
+                        }),
+                        executor));
+            }
+            // a waiter can't be told apart from one that hasn't arrived yet, give them time to queue up
+            Thread.sleep(100);
+            release.countDown();
+
+            Object value = leader.get(10, TimeUnit.SECONDS);
+            for (CompletableFuture<Object> waiter : waiters) {
+                assertThat(waiter.get(10, TimeUnit.SECONDS)).isSameAs(value);
+            }
+            assertThat(loads).hasValue(1);
+            assertThat(flight.inFlightCount()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void test_load_failedLoad_waitersFailAndNextCallerLoadsAgain() throws Exception {
+        var flight = new SingleFlight<String, String>(TimeUnit.SECONDS.toNanos(10));
+        var loading = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CompletableFuture<String> leader = CompletableFuture.supplyAsync(
+                    () -> flight.load("Harry", () -> {
+                        loading.countDown();
+                        await(release);
+                        throw new IllegalStateException("boom");
+                    }),
+                    executor);
+            assertThat(loading.await(10, TimeUnit.SECONDS)).isTrue();
+            CompletableFuture<String> waiter =
+                    CompletableFuture.supplyAsync(() -> flight.load("Harry", () -> "not loaded"), executor);
+            Thread.sleep(100);
+            release.countDown();
+
+            assertThat(catchThrowable(() -> leader.get(10, TimeUnit.SECONDS)))
+                    .hasCauseInstanceOf(IllegalStateException.class);
+            Throwable waited = catchThrowable(() -> waiter.get(10, TimeUnit.SECONDS));
+            if (waited == null) {
+                // arrived after the failure, loaded on its own
+                assertThat(waiter.get()).isEqualTo("not loaded");
+            } else {
+                assertThat(waited.getCause())
+                        .isInstanceOf(JazzIconGenerationException.class)
+                        .hasRootCauseInstanceOf(IllegalStateException.class);
+            }
+            assertThat(flight.load("Harry", () -> "loaded again")).isEqualTo("loaded again");
+            assertThat(flight.inFlightCount()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void test_load_slowLoad_waiterTimesOut() throws Exception {
+        var flight = new SingleFlight<String, String>(TimeUnit.MILLISECONDS.toNanos(50));
+        var loading = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture<String> leader = CompletableFuture.supplyAsync(
+                    () -> flight.load("Harry", () -> {
+                        loading.countDown();
+                        await(release);
+                        return "slow";
+                    }),
+                    executor);
+            assertThat(loading.await(10, TimeUnit.SECONDS)).isTrue();
+
+            var ex = catchThrowable(() -> flight.load("Harry", () -> "not loaded"));
+
+            assertThat(ex).isInstanceOf(JazzIconGenerationException.class).hasMessageContaining("timed out");
+            assertThat(flight.load("Hermione", () -> "another key")).isEqualTo("another key");
+            release.countDown();
+            assertThat(leader.get(10, TimeUnit.SECONDS)).isEqualTo("slow");
+            assertThat(flight.inFlightCount()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void test_newSingleFlight_nonPositiveTimeout_throws() {
+        var ex = catchThrowable(() -> new SingleFlight<String, String>(0));
+
+        assertThat(ex).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("must be > 0");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
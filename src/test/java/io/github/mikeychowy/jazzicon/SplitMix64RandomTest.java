@@ -0,0 +1,84 @@
+package io.github.mikeychowy.jazzicon;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import org.junit.jupiter.api.Test;
+
+class SplitMix64RandomTest {
+
+    @Test
+    void test_nextLong_seed1234567_matchesSplitMix64ReferenceOutputs() {
+        var random = new SplitMix64Random(1234567);
+
+        assertThat(random.nextLong()).isEqualTo(Long.parseUnsignedLong("6457827717110365317"));
+        assertThat(random.nextLong()).isEqualTo(Long.parseUnsignedLong("3203168211198807973"));
+        assertThat(random.nextLong()).isEqualTo(Long.parseUnsignedLong("9817491932198370423"));
+        assertThat(random.nextLong()).isEqualTo(Long.parseUnsignedLong("4593380528125082431"));
+        assertThat(random.nextLong()).isEqualTo(Long.parseUnsignedLong("16408922859458223821"));
+    }
+
+    @Test
+    void test_longAt_pureFunctionOfSeedAndIndex() {
+        var random = new SplitMix64Random(42);
+        long tenth = random.longAt(10);
+
+        random.nextDouble();
+        random.nextInt(7);
+        assertThat(random.longAt(10)).isEqualTo(tenth);
+        assertThat(random.getCounter()).isEqualTo(2);
+
+        random.jumpTo(10);
+        assertThat(random.nextLong()).isEqualTo(tenth);
+
+        random.setSeed(42);
+        assertThat(random.getCounter()).isZero();
+        assertThat(random.longAt(10)).isEqualTo(tenth);
+    }
+
+    @Test
+    void test_nextInt_bound_alwaysOneDrawWithinBound() {
+        var random = new SplitMix64Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(random.nextInt(101)).isBetween(0, 100);
+            assertThat(random.nextLong(3)).isBetween(0L, 2L);
+            assertThat(random.nextDouble()).isGreaterThanOrEqualTo(0).isLessThan(1);
+            assertThat(random.nextFloat()).isGreaterThanOrEqualTo(0).isLessThan(1);
+        }
+        random.setSeed(7);
+        random.nextInt(101);
+        assertThat(random.getCounter()).isEqualTo(1);
+    }
+
+    @Test
+    void test_invalidArguments_throw() {
+        var random = new SplitMix64Random();
+
+        assertThat(catchThrowable(() -> random.nextInt(0)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("must be > 0");
+        assertThat(catchThrowable(() -> random.nextLong(-1))).isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> random.jumpTo(-1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("must be >= 0");
+        assertThat(catchThrowable(() -> random.nextBytes(new byte[4], 2, 4)))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void test_nextBytes_andIntArraySeed_deterministic() {
+        var first = new SplitMix64Random();
+        var second = new SplitMix64Random();
+        first.setSeed(new int[] {1, 2, 3});
+        second.setSeed(new int[] {1, 2, 3});
+        byte[] firstBytes = new byte[13];
+        byte[] secondBytes = new byte[13];
+
+        first.nextBytes(firstBytes);
+        second.nextBytes(secondBytes);
+
+        assertThat(firstBytes).isEqualTo(secondBytes);
+        assertThat(first.getCounter()).isEqualTo(2);
+        assertThat(Double.isFinite(first.nextGaussian())).isTrue();
+    }
+}